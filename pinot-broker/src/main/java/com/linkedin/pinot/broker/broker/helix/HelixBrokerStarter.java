@@ -119,7 +119,9 @@ public class HelixBrokerStarter {
     _propertyStore = _spectatorHelixManager.getHelixPropertyStore();
     _helixExternalViewBasedRouting = new HelixExternalViewBasedRouting(_propertyStore, _spectatorHelixManager,
         pinotHelixProperties.subset(ROUTING_TABLE_PARAMS_SUBSET_KEY));
-    _tableQueryQuotaManager = new TableQueryQuotaManager(_spectatorHelixManager);
+    _tableQueryQuotaManager = new TableQueryQuotaManager(_spectatorHelixManager,
+        _pinotHelixProperties.getDouble(CommonConstants.Broker.CONFIG_OF_BROKER_QUERY_QUOTA_MAX_BURST_SECONDS,
+            CommonConstants.Broker.DEFAULT_BROKER_QUERY_QUOTA_MAX_BURST_SECONDS));
     _brokerServerBuilder = startBroker(_pinotHelixProperties);
     _metricsRegistry = _brokerServerBuilder.getMetricsRegistry();
     ClusterChangeMediator clusterChangeMediator =
@@ -142,7 +144,10 @@ public class HelixBrokerStarter {
             (_helixExternalViewBasedRouting,
                     _pinotHelixProperties.getLong(
                             CommonConstants.Broker.CONFIG_OF_BROKER_REFRESH_TIMEBOUNDARY_INFO_SLEEP_INTERVAL,
-                            CommonConstants.Broker.DEFAULT_BROKER_REFRESH_TIMEBOUNDARY_INFO_SLEEP_INTERVAL_MS));
+                            CommonConstants.Broker.DEFAULT_BROKER_REFRESH_TIMEBOUNDARY_INFO_SLEEP_INTERVAL_MS),
+                    _pinotHelixProperties.getLong(
+                            CommonConstants.Broker.CONFIG_OF_BROKER_RESULT_CACHE_SEGMENT_REFRESH_PENDING_MS,
+                            CommonConstants.Broker.DEFAULT_BROKER_RESULT_CACHE_SEGMENT_REFRESH_PENDING_MS));
     _helixManager.getMessagingService().registerMessageHandlerFactory(
             Message.MessageType.USER_DEFINE_MSG.toString(), _tbiMessageHandler);
 
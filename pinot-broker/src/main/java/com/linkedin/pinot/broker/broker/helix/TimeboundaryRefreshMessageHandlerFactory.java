@@ -16,6 +16,7 @@
 package com.linkedin.pinot.broker.broker.helix;
 
 import com.linkedin.pinot.broker.routing.HelixExternalViewBasedRouting;
+import com.linkedin.pinot.common.messages.SegmentRefreshMessage;
 import com.linkedin.pinot.common.messages.TimeboundaryRefreshMessage;
 import com.sun.org.apache.xpath.internal.operations.Bool;
 import org.apache.helix.NotificationContext;
@@ -33,9 +34,13 @@ import java.util.concurrent.ConcurrentHashMap;
 // first put into a request map first. The map dedups requests by their tables thus multiple requests for the same
 // table only needs to be executed once. A background thread periodically checks the map and performs refreshing for
 // all the tables in the map.
+// Also handle the SegmentRefresh message, which is sent to the brokers when a segment of an OFFLINE table is refreshed.
+// It is handled right away because it is cheap, and the result cache should stop caching the table results as soon as
+// possible.
 public class TimeboundaryRefreshMessageHandlerFactory implements MessageHandlerFactory {
     private static final Logger LOGGER = LoggerFactory.getLogger(TimeboundaryRefreshMessageHandlerFactory.class);
     private final HelixExternalViewBasedRouting _helixExternalViewBasedRouting;
+    private final long _segmentRefreshPendingTimeMs;
     // A map to store the unique requests (i.e., the table names) to refresh the TimeBoundaryInfo of a pinot table.
     // Ideally a Hashset will suffice but Java util currently does not have Hashset.
     private static ConcurrentHashMap<String, Boolean> _tablesToRefreshmap = new ConcurrentHashMap<>();
@@ -45,10 +50,12 @@ public class TimeboundaryRefreshMessageHandlerFactory implements MessageHandlerF
      *
      * @param helixExternalViewBasedRouting The underlying Routing object to execute TimeboundaryInfo refreshing.
      * @param sleepTimeInMilliseconds The sleep time for the background thread to execute TimeboundaryInfo refreshing.
+     * @param segmentRefreshPendingTimeMs The time for the servers to load the refreshed segments of a table.
      */
     public TimeboundaryRefreshMessageHandlerFactory(HelixExternalViewBasedRouting helixExternalViewBasedRouting,
-                                                    long sleepTimeInMilliseconds) {
+                                                    long sleepTimeInMilliseconds, long segmentRefreshPendingTimeMs) {
         _helixExternalViewBasedRouting = helixExternalViewBasedRouting;
+        _segmentRefreshPendingTimeMs = segmentRefreshPendingTimeMs;
         // Start a background thread to execute the TimeboundaryInfo update requests.
         Thread tbiUpdateThread = new Thread(new TimeboundaryRefreshMessageExecutor(sleepTimeInMilliseconds));
         tbiUpdateThread.start();
@@ -62,6 +69,9 @@ public class TimeboundaryRefreshMessageHandlerFactory implements MessageHandlerF
             case TimeboundaryRefreshMessage.REFRESH_TIME_BOUNDARY_MSG_SUB_TYPE:
                 LOGGER.info("time refresh msg received {} for table {}", message.getPartitionName());
                 return new TimeboundaryRefreshMessageHandler(new TimeboundaryRefreshMessage(message), context);
+            case SegmentRefreshMessage.REFRESH_SEGMENT_MSG_SUB_TYPE:
+                LOGGER.info("Segment refresh msg received for table {}", message.getPartitionName());
+                return new SegmentRefreshMessageHandler(new SegmentRefreshMessage(message), context);
             default:
                 throw new UnsupportedOperationException("Unsupported user defined message sub type: " + msgSubType);
         }
@@ -108,6 +118,30 @@ public class TimeboundaryRefreshMessageHandlerFactory implements MessageHandlerF
             _logger.error("onError: {}, {}", errorType, errorCode, e);
         }
     }
+
+    private class SegmentRefreshMessageHandler extends MessageHandler {
+        private final String _tableNameWithType;
+
+        public SegmentRefreshMessageHandler(SegmentRefreshMessage message, NotificationContext context) {
+            super(message, context);
+            // The partition name field stores the table name.
+            _tableNameWithType = message.getPartitionName();
+        }
+
+        @Override
+        public HelixTaskResult handleMessage() {
+            HelixTaskResult result = new HelixTaskResult();
+            _helixExternalViewBasedRouting.markSegmentRefreshPending(_tableNameWithType, _segmentRefreshPendingTimeMs);
+            result.setSuccess(true);
+            return result;
+        }
+
+        @Override
+        public void onError(Exception e, ErrorCode errorCode, ErrorType errorType) {
+            LOGGER.error("onError: {}, {} for table {}", errorType, errorCode, _tableNameWithType, e);
+        }
+    }
+
     private class TimeboundaryRefreshMessageExecutor implements Runnable {
         private long _sleepTimeInMilliseconds;
         private final Logger _logger = LoggerFactory.getLogger(TimeboundaryRefreshMessageExecutor.class);;
@@ -15,25 +15,28 @@
  */
 package com.linkedin.pinot.broker.queryquota;
 
-import com.google.common.util.concurrent.RateLimiter;
 import javax.annotation.Nonnull;
 
 
 public class QueryQuotaConfig {
 
-  private RateLimiter _rateLimiter;
-  private HitCounter _hitCounter;
+  private SlidingWindowRateLimiter _rateLimiter;
+  private double _maxBurstSeconds;
 
-  public QueryQuotaConfig(@Nonnull RateLimiter rateLimiter, @Nonnull HitCounter hitCounter) {
+  public QueryQuotaConfig(@Nonnull SlidingWindowRateLimiter rateLimiter, double maxBurstSeconds) {
     _rateLimiter = rateLimiter;
-    _hitCounter = hitCounter;
+    _maxBurstSeconds = maxBurstSeconds;
   }
 
-  public RateLimiter getRateLimiter() {
+  public SlidingWindowRateLimiter getRateLimiter() {
     return _rateLimiter;
   }
 
-  public HitCounter getHitCounter() {
-    return _hitCounter;
+  /**
+   * Returns the max burst in seconds of the per-broker rate, i.e. up to <code>rate * maxBurstSeconds</code> queries can
+   * be served at once after an idle period.
+   */
+  public double getMaxBurstSeconds() {
+    return _maxBurstSeconds;
   }
 }
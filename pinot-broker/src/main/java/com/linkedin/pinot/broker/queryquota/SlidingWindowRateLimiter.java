@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.queryquota;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>SlidingWindowRateLimiter</code> class is a lock-free rate limiter based on a sliding window.
+ * <p>The number of queries in the sliding window is estimated from the counts of the current and the previous fixed
+ * windows, where the count of the previous window is weighted by its overlap with the sliding window. Counts are kept
+ * in striped counters ({@link LongAdder}), so that concurrent queries do not contend on the same memory location, and
+ * the window rolls over with a single compare-and-set.
+ * <p>The window length is the max burst: up to <code>rate * maxBurstSeconds</code> queries can be acquired at once
+ * after an idle period, while the average rate stays bounded by the rate.
+ * <p>The limit is approximate: concurrent callers can exceed it by at most the number of callers, and the hits racing
+ * with the window rollover might not be counted.
+ */
+@ThreadSafe
+public class SlidingWindowRateLimiter {
+  private final long _windowMs;
+  private final AtomicReference<Window> _currentWindow;
+  private volatile double _rate;
+  private volatile double _maxQueriesPerWindow;
+
+  public SlidingWindowRateLimiter(double rate, double maxBurstSeconds) {
+    Preconditions.checkArgument(rate > 0, "Rate must be positive");
+    Preconditions.checkArgument(maxBurstSeconds > 0, "Max burst seconds must be positive");
+    _windowMs = Math.max((long) (maxBurstSeconds * 1000), 1L);
+    _currentWindow = new AtomicReference<>(new Window(System.currentTimeMillis() / _windowMs, 0L, 0L));
+    setRate(rate);
+  }
+
+  public double getRate() {
+    return _rate;
+  }
+
+  public void setRate(double rate) {
+    Preconditions.checkArgument(rate > 0, "Rate must be positive");
+    _rate = rate;
+    _maxQueriesPerWindow = rate * _windowMs / 1000;
+  }
+
+  /**
+   * Records a hit and acquires a permit if the rate limit is not exceeded.
+   *
+   * @return Whether the permit is acquired
+   */
+  public boolean tryAcquire() {
+    return tryAcquire(System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  boolean tryAcquire(long timestamp) {
+    Window window = getWindow(timestamp);
+    window._numHits.increment();
+    double previousWindowWeight = getPreviousWindowWeight(window, timestamp);
+    if (window._previousNumAcquired * previousWindowWeight + window._numAcquired.sum() >= _maxQueriesPerWindow) {
+      return false;
+    }
+    window._numAcquired.increment();
+    return true;
+  }
+
+  /**
+   * Returns the estimated number of hits (acquired or not) per second in the sliding window.
+   */
+  public double getHitRate() {
+    return getHitRate(System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  double getHitRate(long timestamp) {
+    Window window = getWindow(timestamp);
+    double numHits = window._previousNumHits * getPreviousWindowWeight(window, timestamp) + window._numHits.sum();
+    return numHits * 1000 / _windowMs;
+  }
+
+  private Window getWindow(long timestamp) {
+    long index = timestamp / _windowMs;
+    while (true) {
+      Window window = _currentWindow.get();
+      // NOTE: timestamps from concurrent callers might be slightly out of order, count them in the current window
+      if (window._index >= index) {
+        return window;
+      }
+      Window newWindow;
+      if (window._index == index - 1) {
+        newWindow = new Window(index, window._numHits.sum(), window._numAcquired.sum());
+      } else {
+        newWindow = new Window(index, 0L, 0L);
+      }
+      if (_currentWindow.compareAndSet(window, newWindow)) {
+        return newWindow;
+      }
+    }
+  }
+
+  private double getPreviousWindowWeight(Window window, long timestamp) {
+    long elapsedMs = timestamp - window._index * _windowMs;
+    return Math.max(1.0 - (double) elapsedMs / _windowMs, 0.0);
+  }
+
+  private static class Window {
+    final long _index;
+    final long _previousNumHits;
+    final long _previousNumAcquired;
+    final LongAdder _numHits = new LongAdder();
+    final LongAdder _numAcquired = new LongAdder();
+
+    Window(long index, long previousNumHits, long previousNumAcquired) {
+      _index = index;
+      _previousNumHits = previousNumHits;
+      _previousNumAcquired = previousNumAcquired;
+    }
+  }
+}
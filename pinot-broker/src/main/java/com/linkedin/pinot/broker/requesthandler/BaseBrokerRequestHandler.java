@@ -21,6 +21,7 @@ import com.linkedin.pinot.broker.broker.AccessControlFactory;
 import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.broker.routing.RoutingTable;
 import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
+import com.linkedin.pinot.broker.routing.ServerLatencyTracker;
 import com.linkedin.pinot.broker.routing.TimeBoundaryService;
 import com.linkedin.pinot.common.config.TableNameBuilder;
 import com.linkedin.pinot.common.exception.QueryException;
@@ -39,6 +40,7 @@ import com.linkedin.pinot.pql.parsers.Pql2Compiler;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -69,12 +71,16 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
 
   protected final AtomicLong _requestIdGenerator = new AtomicLong();
   protected final BrokerRequestOptimizer _brokerRequestOptimizer = new BrokerRequestOptimizer();
-  protected final BrokerReduceService _brokerReduceService = new BrokerReduceService();
+  protected final BrokerReduceService _brokerReduceService;
+  protected final ServerLatencyTracker _serverLatencyTracker = new ServerLatencyTracker();
 
   protected final String _brokerId;
   protected final long _brokerTimeoutMs;
   protected final int _queryResponseLimit;
   protected final int _queryLogLength;
+  protected final int _dataTableVersion;
+  protected final BrokerResultCache _resultCache;
+  protected final CompiledQueryCache _compiledQueryCache;
 
   public BaseBrokerRequestHandler(Configuration config, RoutingTable routingTable,
       TimeBoundaryService timeBoundaryService, AccessControlFactory accessControlFactory,
@@ -90,9 +96,37 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     _brokerTimeoutMs = config.getLong(CONFIG_OF_BROKER_TIMEOUT_MS, DEFAULT_BROKER_TIMEOUT_MS);
     _queryResponseLimit = config.getInt(CONFIG_OF_BROKER_QUERY_RESPONSE_LIMIT, DEFAULT_BROKER_QUERY_RESPONSE_LIMIT);
     _queryLogLength = config.getInt(CONFIG_OF_BROKER_QUERY_LOG_LENGTH, DEFAULT_BROKER_QUERY_LOG_LENGTH);
+    _dataTableVersion = config.getInt(CONFIG_OF_BROKER_DATA_TABLE_VERSION, DEFAULT_BROKER_DATA_TABLE_VERSION);
+    int numReduceThreads = config.getInt(CONFIG_OF_BROKER_REDUCE_NUM_THREADS, DEFAULT_BROKER_REDUCE_NUM_THREADS);
+    _brokerReduceService = new BrokerReduceService(numReduceThreads);
 
-    LOGGER.info("Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}", _brokerId,
-        _brokerTimeoutMs, _queryResponseLimit, _queryLogLength);
+    LOGGER.info(
+        "Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}, data table version: {}, "
+            + "reduce threads: {}", _brokerId, _brokerTimeoutMs, _queryResponseLimit, _queryLogLength,
+        _dataTableVersion, numReduceThreads);
+
+    long resultCacheSizeInBytes =
+        config.getLong(CONFIG_OF_BROKER_RESULT_CACHE_SIZE_BYTES, DEFAULT_BROKER_RESULT_CACHE_SIZE_BYTES);
+    if (resultCacheSizeInBytes > 0) {
+      long resultCacheTtlMs = config.getLong(CONFIG_OF_BROKER_RESULT_CACHE_TTL_MS, DEFAULT_BROKER_RESULT_CACHE_TTL_MS);
+      long resultCacheRealtimeTtlMs =
+          config.getLong(CONFIG_OF_BROKER_RESULT_CACHE_REALTIME_TTL_MS, DEFAULT_BROKER_RESULT_CACHE_REALTIME_TTL_MS);
+      _resultCache =
+          new BrokerResultCache(resultCacheSizeInBytes, resultCacheTtlMs, resultCacheRealtimeTtlMs, brokerMetrics);
+      LOGGER.info("Result cache enabled with size: {} bytes, TTL: {}ms, REALTIME TTL: {}ms", resultCacheSizeInBytes,
+          resultCacheTtlMs, resultCacheRealtimeTtlMs);
+    } else {
+      _resultCache = null;
+    }
+
+    long compiledQueryCacheSize =
+        config.getLong(CONFIG_OF_BROKER_QUERY_COMPILATION_CACHE_SIZE, DEFAULT_BROKER_QUERY_COMPILATION_CACHE_SIZE);
+    if (compiledQueryCacheSize > 0) {
+      _compiledQueryCache = new CompiledQueryCache(REQUEST_COMPILER, compiledQueryCacheSize, brokerMetrics);
+      LOGGER.info("Compiled query cache enabled with size: {}", compiledQueryCacheSize);
+    } else {
+      _compiledQueryCache = null;
+    }
   }
 
   private String getDefaultBrokerId() {
@@ -115,7 +149,12 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     long compilationStartTimeNs = System.nanoTime();
     BrokerRequest brokerRequest;
     try {
-      brokerRequest = REQUEST_COMPILER.compileToBrokerRequest(query);
+      // NOTE: the compiled query cache returns a copy of the cached broker request, which can be modified
+      if (_compiledQueryCache != null) {
+        brokerRequest = _compiledQueryCache.compile(query);
+      } else {
+        brokerRequest = REQUEST_COMPILER.compileToBrokerRequest(query);
+      }
     } catch (Exception e) {
       LOGGER.info("Caught exception while compiling request {}: {}, {}", requestId, query, e.getMessage());
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.REQUEST_COMPILATION_EXCEPTIONS, 1);
@@ -202,6 +241,12 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       LOGGER.debug("Debug options are set to: {} for request {}: {}", debugOptions, requestId, query);
       brokerRequest.setDebugOptions(debugOptions);
     }
+    // Advertise the highest data table version this broker can read, servers respond with the highest version that
+    // both sides support
+    Map<String, String> queryOptions = brokerRequest.getQueryOptions();
+    if (queryOptions == null || !queryOptions.containsKey(QueryOptionKey.DATA_TABLE_VERSION)) {
+      brokerRequest.putToQueryOptions(QueryOptionKey.DATA_TABLE_VERSION, Integer.toString(_dataTableVersion));
+    }
 
     // Optimize the query
     // TODO: get time column name from schema or table config so that we can apply it for REALTIME only case
@@ -223,12 +268,33 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       realtimeBrokerRequest = _brokerRequestOptimizer.optimize(brokerRequest, timeColumn);
     }
 
+    // Look up the result cache
+    // NOTE: the key is computed before routing because the routing might modify the broker requests
+    BrokerResultCache.Key resultCacheKey = null;
+    if (useResultCache(brokerRequest) && (offlineTableName == null || !_routingTable.isSegmentRefreshPending(
+        offlineTableName))) {
+      resultCacheKey = new BrokerResultCache.Key(offlineBrokerRequest,
+          offlineTableName != null ? _routingTable.getRoutingTableVersion(offlineTableName) : -1L,
+          realtimeBrokerRequest,
+          realtimeTableName != null ? _routingTable.getRoutingTableVersion(realtimeTableName) : -1L);
+      BrokerResponse cachedBrokerResponse = _resultCache.get(rawTableName, resultCacheKey);
+      if (cachedBrokerResponse != null) {
+        long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compilationStartTimeNs);
+        cachedBrokerResponse.setTimeUsedMs(totalTimeMs);
+        LOGGER.info("RequestId:{}, table:{}, timeMs:{}, served from result cache, query:{}", requestId,
+            brokerRequest.getQuerySource().getTableName(), totalTimeMs,
+            StringUtils.substring(query, 0, _queryLogLength));
+        return cachedBrokerResponse;
+      }
+    }
+
     // Calculate routing table for the query
     long routingStartTimeNs = System.nanoTime();
     Map<String, List<String>> offlineRoutingTable = null;
     Map<String, List<String>> realtimeRoutingTable = null;
     if (offlineBrokerRequest != null) {
-      offlineRoutingTable = _routingTable.getRoutingTable(new RoutingTableLookupRequest(offlineBrokerRequest));
+      offlineRoutingTable =
+          _routingTable.getRoutingTable(new RoutingTableLookupRequest(offlineBrokerRequest, _serverLatencyTracker));
       if (offlineRoutingTable.isEmpty()) {
         LOGGER.debug("No OFFLINE server found for request {}: {}", requestId, query);
         offlineBrokerRequest = null;
@@ -236,7 +302,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       }
     }
     if (realtimeBrokerRequest != null) {
-      realtimeRoutingTable = _routingTable.getRoutingTable(new RoutingTableLookupRequest(realtimeBrokerRequest));
+      realtimeRoutingTable =
+          _routingTable.getRoutingTable(new RoutingTableLookupRequest(realtimeBrokerRequest, _serverLatencyTracker));
       if (realtimeRoutingTable.isEmpty()) {
         LOGGER.debug("No REALTIME server found for request {}: {}", requestId, query);
         realtimeBrokerRequest = null;
@@ -254,9 +321,17 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     // Execute the query
     long remainingTimeMs = _brokerTimeoutMs - TimeUnit.NANOSECONDS.toMillis(routingEndTimeNs - compilationStartTimeNs);
     ServerStats serverStats = new ServerStats();
-    BrokerResponse brokerResponse =
-        processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
-            realtimeRoutingTable, remainingTimeMs, serverStats);
+    markRequestsSent(offlineRoutingTable);
+    markRequestsSent(realtimeRoutingTable);
+    BrokerResponse brokerResponse;
+    try {
+      brokerResponse =
+          processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable,
+              realtimeBrokerRequest, realtimeRoutingTable, remainingTimeMs, serverStats);
+    } finally {
+      markResponsesReceived(offlineRoutingTable, true, serverStats, remainingTimeMs);
+      markResponsesReceived(realtimeRoutingTable, false, serverStats, remainingTimeMs);
+    }
     long executionEndTimeNs = System.nanoTime();
     _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_EXECUTION,
         executionEndTimeNs - routingEndTimeNs);
@@ -270,6 +345,10 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(executionEndTimeNs - compilationStartTimeNs);
     brokerResponse.setTimeUsedMs(totalTimeMs);
 
+    if (resultCacheKey != null) {
+      _resultCache.put(resultCacheKey, brokerResponse);
+    }
+
     LOGGER.debug("Broker Response: {}", brokerResponse);
 
     // Table name might have been changed (with suffix _OFFLINE/_REALTIME appended)
@@ -285,6 +364,18 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     return brokerResponse;
   }
 
+  /**
+   * Returns whether the result cache should be used for the broker request. Traced requests and requests with query
+   * option 'skipResultCache' set to true always bypass the result cache.
+   */
+  private boolean useResultCache(BrokerRequest brokerRequest) {
+    if (_resultCache == null || brokerRequest.isEnableTrace()) {
+      return false;
+    }
+    Map<String, String> queryOptions = brokerRequest.getQueryOptions();
+    return queryOptions == null || !Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_RESULT_CACHE));
+  }
+
   /**
    * Broker side validation on the broker request.
    * <p>Throw RuntimeException if query does not pass validation.
@@ -404,11 +495,35 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<String, List<String>> realtimeRoutingTable,
       long timeoutMs, ServerStats serverStats) throws Exception;
 
+  private void markRequestsSent(@Nullable Map<String, List<String>> routingTable) {
+    if (routingTable != null) {
+      for (String server : routingTable.keySet()) {
+        _serverLatencyTracker.markRequestSent(server);
+      }
+    }
+  }
+
+  /**
+   * Feeds the server latencies into the server latency tracker, where the servers without latency recorded (not
+   * responded or failed) are treated as timed out.
+   */
+  private void markResponsesReceived(@Nullable Map<String, List<String>> routingTable, boolean isOfflineTable,
+      ServerStats serverStats, long timeoutMs) {
+    if (routingTable != null) {
+      for (String server : routingTable.keySet()) {
+        Long latencyMs = serverStats.getServerLatencyMs(server, isOfflineTable);
+        _serverLatencyTracker.markResponseReceived(server, latencyMs != null ? latencyMs : timeoutMs);
+      }
+    }
+  }
+
   /**
    * Helper class to pass the per server statistics.
    */
   protected static class ServerStats {
     private String _serverStats;
+    private final Map<String, Long> _offlineServerLatencyMsMap = new HashMap<>();
+    private final Map<String, Long> _realtimeServerLatencyMsMap = new HashMap<>();
 
     public void setServerStats(String serverStats) {
       _serverStats = serverStats;
@@ -417,5 +532,21 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     public String getServerStats() {
       return _serverStats;
     }
+
+    /**
+     * Sets the latency of a successful response from the given server (instance name in the routing table).
+     */
+    public void setServerLatencyMs(String server, boolean isOfflineTable, long latencyMs) {
+      if (isOfflineTable) {
+        _offlineServerLatencyMsMap.put(server, latencyMs);
+      } else {
+        _realtimeServerLatencyMsMap.put(server, latencyMs);
+      }
+    }
+
+    @Nullable
+    public Long getServerLatencyMs(String server, boolean isOfflineTable) {
+      return isOfflineTable ? _offlineServerLatencyMsMap.get(server) : _realtimeServerLatencyMsMap.get(server);
+    }
   }
 }
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.linkedin.pinot.common.metrics.BrokerGauge;
+import com.linkedin.pinot.common.metrics.BrokerMeter;
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.BrokerResponse;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>BrokerResultCache</code> class is a size-bounded cache for the broker responses, keyed by the optimized
+ * broker requests sent to the OFFLINE and REALTIME tables and the versions of their routing tables.
+ * <p>Routing table changes (external view changes, time boundary updates) and segment refreshes bump the routing table
+ * version, so that the cached results computed on the previous routing tables or segments are never hit again and get
+ * evicted as the least recently used entries. While a segment refresh is pending, the query results of the table are
+ * not cached because the servers might still serve the old segment. Cached results also expire after a TTL, which is
+ * shorter for queries hitting REALTIME tables.
+ * <p>Responses are cached in the serialized JSON format so that the cached results cannot be modified by the callers.
+ */
+@ThreadSafe
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  // Rough estimation of the overhead of each entry besides the serialized response (Java string uses 2 bytes per char)
+  private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+  private final BrokerMetrics _brokerMetrics;
+  private final long _ttlMs;
+  private final long _realtimeTtlMs;
+  private final AtomicLong _sizeInBytes = new AtomicLong();
+  private final Cache<Key, Entry> _cache;
+
+  public BrokerResultCache(long maxSizeInBytes, long ttlMs, long realtimeTtlMs, BrokerMetrics brokerMetrics) {
+    _brokerMetrics = brokerMetrics;
+    _ttlMs = ttlMs;
+    _realtimeTtlMs = realtimeTtlMs;
+    _cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeInBytes)
+        .<Key, Entry>weigher((key, entry) -> entry._sizeInBytes)
+        .removalListener(notification -> {
+          long sizeInBytes = _sizeInBytes.addAndGet(-notification.getValue()._sizeInBytes);
+          _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.RESULT_CACHE_SIZE_BYTES, sizeInBytes);
+          if (notification.getCause() == RemovalCause.SIZE) {
+            _brokerMetrics.addMeteredGlobalValue(BrokerMeter.RESULT_CACHE_EVICTIONS, 1L);
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Returns the cached broker response for the key, or <code>null</code> if there is no valid cached response.
+   */
+  @Nullable
+  public BrokerResponse get(String rawTableName, Key key) {
+    Entry entry = _cache.getIfPresent(key);
+    if (entry != null) {
+      if (System.currentTimeMillis() < entry._expirationTimeMs) {
+        try {
+          BrokerResponse brokerResponse = BrokerResponseNative.fromJsonString(entry._response);
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1L);
+          return brokerResponse;
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while de-serializing cached response for table: {}", rawTableName, e);
+        }
+      }
+      _cache.invalidate(key);
+    }
+    _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1L);
+    return null;
+  }
+
+  /**
+   * Caches the broker response for the key if the response is complete (all servers responded without exception).
+   */
+  public void put(Key key, BrokerResponse brokerResponse) {
+    if (brokerResponse.getExceptionsSize() > 0
+        || brokerResponse.getNumServersResponded() != brokerResponse.getNumServersQueried()) {
+      return;
+    }
+    String response;
+    try {
+      response = brokerResponse.toJsonString();
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while serializing response for caching", e);
+      return;
+    }
+    long ttlMs = key._realtimeBrokerRequest != null ? _realtimeTtlMs : _ttlMs;
+    Entry entry = new Entry(response, System.currentTimeMillis() + ttlMs);
+    long sizeInBytes = _sizeInBytes.addAndGet(entry._sizeInBytes);
+    _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.RESULT_CACHE_SIZE_BYTES, sizeInBytes);
+    _cache.put(key, entry);
+  }
+
+  /**
+   * The cache key. The broker requests are copied because they might be modified when the query is processed.
+   */
+  public static class Key {
+    private final BrokerRequest _offlineBrokerRequest;
+    private final long _offlineRoutingTableVersion;
+    private final BrokerRequest _realtimeBrokerRequest;
+    private final long _realtimeRoutingTableVersion;
+    private final int _hashCode;
+
+    public Key(@Nullable BrokerRequest offlineBrokerRequest, long offlineRoutingTableVersion,
+        @Nullable BrokerRequest realtimeBrokerRequest, long realtimeRoutingTableVersion) {
+      _offlineBrokerRequest = offlineBrokerRequest != null ? new BrokerRequest(offlineBrokerRequest) : null;
+      _offlineRoutingTableVersion = offlineRoutingTableVersion;
+      _realtimeBrokerRequest = realtimeBrokerRequest != null ? new BrokerRequest(realtimeBrokerRequest) : null;
+      _realtimeRoutingTableVersion = realtimeRoutingTableVersion;
+      _hashCode = Objects.hash(_offlineBrokerRequest, _offlineRoutingTableVersion, _realtimeBrokerRequest,
+          _realtimeRoutingTableVersion);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _hashCode == that._hashCode && _offlineRoutingTableVersion == that._offlineRoutingTableVersion
+          && _realtimeRoutingTableVersion == that._realtimeRoutingTableVersion && Objects.equals(
+          _offlineBrokerRequest, that._offlineBrokerRequest) && Objects.equals(_realtimeBrokerRequest,
+          that._realtimeBrokerRequest);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+
+  private static class Entry {
+    final String _response;
+    final long _expirationTimeMs;
+    final int _sizeInBytes;
+
+    Entry(String response, long expirationTimeMs) {
+      _response = response;
+      _expirationTimeMs = expirationTimeMs;
+      _sizeInBytes = 2 * response.length() + ENTRY_OVERHEAD_BYTES;
+    }
+  }
+}
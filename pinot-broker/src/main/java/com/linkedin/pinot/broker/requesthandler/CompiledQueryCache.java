@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.linkedin.pinot.common.metrics.BrokerMeter;
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.metrics.BrokerTimer;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>CompiledQueryCache</code> class is a size-bounded LRU cache for the compiled broker requests, keyed by the
+ * query string.
+ * <p>The broker request is modified when the query is processed (table name, query options, time boundary filter,
+ * optimization), so the cached broker requests are never returned to the callers. Each call returns a deep copy of the
+ * cached broker request instead, which is much cheaper than parsing the query again.
+ * <p>Queries that fail to compile are not cached.
+ */
+@ThreadSafe
+public class CompiledQueryCache {
+  private final Pql2Compiler _compiler;
+  private final BrokerMetrics _brokerMetrics;
+  private final Cache<String, BrokerRequest> _cache;
+
+  public CompiledQueryCache(Pql2Compiler compiler, long maxNumEntries, BrokerMetrics brokerMetrics) {
+    _compiler = compiler;
+    _brokerMetrics = brokerMetrics;
+    _cache = CacheBuilder.newBuilder().maximumSize(maxNumEntries).build();
+  }
+
+  /**
+   * Returns a copy of the compiled broker request for the query, which can be modified by the caller.
+   */
+  public BrokerRequest compile(String query) {
+    BrokerRequest cachedBrokerRequest = _cache.getIfPresent(query);
+    if (cachedBrokerRequest != null) {
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.QUERY_COMPILATION_CACHE_HITS, 1L);
+      return new BrokerRequest(cachedBrokerRequest);
+    }
+    _brokerMetrics.addMeteredGlobalValue(BrokerMeter.QUERY_COMPILATION_CACHE_MISSES, 1L);
+
+    // NOTE: concurrent misses on the same query might compile it more than once, which is fine because the results are
+    // identical
+    long startTimeNs = System.nanoTime();
+    BrokerRequest brokerRequest = _compiler.compileToBrokerRequest(query);
+    _brokerMetrics.addTimedValue(BrokerTimer.QUERY_PARSING_TIME, System.nanoTime() - startTimeNs,
+        TimeUnit.NANOSECONDS);
+    _cache.put(query, new BrokerRequest(brokerRequest));
+    return brokerRequest;
+  }
+}
@@ -32,6 +32,7 @@ import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
 import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.serde.SerDe;
@@ -42,6 +43,7 @@ import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
 import com.linkedin.pinot.transport.netty.PooledNettyClientResourceManager;
 import com.linkedin.pinot.transport.pool.KeyedPool;
 import com.linkedin.pinot.transport.pool.KeyedPoolImpl;
+import com.linkedin.pinot.transport.scattergather.HedgePolicy;
 import com.linkedin.pinot.transport.scattergather.ScatterGather;
 import com.linkedin.pinot.transport.scattergather.ScatterGatherImpl;
 import com.linkedin.pinot.transport.scattergather.ScatterGatherRequest;
@@ -51,11 +53,14 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -110,7 +115,13 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
         metricsRegistry);
     resourceManager.setPool(_connPool);
 
-    _scatterGather = new ScatterGatherImpl(_connPool, _requestSenderPool);
+    if (transportClientConf.getHedging().isEnabled()) {
+      LOGGER.info("Hedged requests enabled with config: {}", transportClientConf.getHedging());
+      _scatterGather = new ScatterGatherImpl(_connPool, _requestSenderPool,
+          new HedgePolicy(transportClientConf.getHedging()), _poolTimeoutExecutor);
+    } else {
+      _scatterGather = new ScatterGatherImpl(_connPool, _requestSenderPool);
+    }
   }
 
   @Override
@@ -125,6 +136,7 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
     _requestSenderPool.shutdown();
     _poolTimeoutExecutor.shutdown();
     _eventLoopGroup.shutdownGracefully();
+    _brokerReduceService.shutDown();
   }
 
   @Override
@@ -135,6 +147,10 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
     ScatterGatherStats scatterGatherStats = new ScatterGatherStats();
     PhaseTimes phaseTimes = new PhaseTimes();
 
+    // Pooled connections expect a single response per request, do not let the servers chunk the response
+    removeResponseChunkSize(offlineBrokerRequest);
+    removeResponseChunkSize(realtimeBrokerRequest);
+
     // Step 1: scatter request to the servers
     String offlineTableName = null;
     String realtimeTableName = null;
@@ -166,12 +182,15 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
       offlineServerResponseMap =
           gatherServerResponses(offlineCompositeFuture, scatterGatherStats, true, offlineTableName,
               processingExceptions);
+      setServerLatencies(offlineRoutingTable, offlineServerResponseMap, offlineCompositeFuture, true, serverStats);
     }
     if (realtimeCompositeFuture != null) {
       numServersQueried += realtimeCompositeFuture.getNumFutures();
       realtimeServerResponseMap =
           gatherServerResponses(realtimeCompositeFuture, scatterGatherStats, false, realtimeTableName,
               processingExceptions);
+      setServerLatencies(realtimeRoutingTable, realtimeServerResponseMap, realtimeCompositeFuture, false,
+          serverStats);
     }
     if ((offlineServerResponseMap == null) && (realtimeServerResponseMap == null)) {
       // No response gathered
@@ -226,6 +245,12 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
     return brokerResponse;
   }
 
+  private static void removeResponseChunkSize(@Nullable BrokerRequest brokerRequest) {
+    if (brokerRequest != null && brokerRequest.getQueryOptions() != null) {
+      brokerRequest.getQueryOptions().remove(QueryOptionKey.RESPONSE_CHUNK_SIZE);
+    }
+  }
+
   /**
    * Scatter broker request to the servers.
    *
@@ -236,7 +261,7 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
       ScatterGatherStats scatterGatherStats, PhaseTimes phaseTimes) throws InterruptedException {
     long scatterStartTimeNs = System.nanoTime();
     ScatterGatherRequest scatterRequest =
-        new ScatterGatherRequestImpl(brokerRequest, routingTable, requestId, timeoutMs, _brokerId);
+        new ScatterGatherRequestImpl(brokerRequest, routingTable, requestId, timeoutMs, _brokerId, _routingTable);
     CompositeFuture<byte[]> compositeFuture =
         _scatterGather.scatterGather(scatterRequest, scatterGatherStats, isOfflineTable, _brokerMetrics);
     phaseTimes.addToScatterTime(System.nanoTime() - scatterStartTimeNs);
@@ -277,6 +302,25 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
     }
   }
 
+  /**
+   * Sets the latencies of the servers with non-empty responses into the server stats for adaptive replica selection.
+   */
+  private static void setServerLatencies(Map<String, List<String>> routingTable,
+      @Nullable Map<ServerInstance, byte[]> serverResponseMap, CompositeFuture<byte[]> compositeFuture,
+      boolean isOfflineTable, ServerStats serverStats) {
+    if (serverResponseMap == null) {
+      return;
+    }
+    Map<ServerInstance, Long> responseTimes = compositeFuture.getResponseTimes();
+    for (String server : routingTable.keySet()) {
+      ServerInstance serverInstance = ServerInstance.forInstanceName(server);
+      Long responseTimeMs = responseTimes.get(serverInstance);
+      if (responseTimeMs != null && serverResponseMap.containsKey(serverInstance)) {
+        serverStats.setServerLatencyMs(server, isOfflineTable, responseTimeMs);
+      }
+    }
+  }
+
   /**
    * De-serialize the server responses, put the de-serialized data table into the data table map passed in, append
    * processing exceptions to the processing exception list passed in, and return the total response size from pinot
@@ -352,14 +396,16 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
     private final long _requestId;
     private final long _requestTimeoutMs;
     private final String _brokerId;
+    private final RoutingTable _routing;
 
     public ScatterGatherRequestImpl(BrokerRequest request, Map<String, List<String>> routingTable, long requestId,
-        long requestTimeoutMs, String brokerId) {
+        long requestTimeoutMs, String brokerId, RoutingTable routing) {
       _brokerRequest = request;
       _routingTable = routingTable;
       _requestId = requestId;
       _requestTimeoutMs = requestTimeoutMs;
       _brokerId = brokerId;
+      _routing = routing;
     }
 
     @Override
@@ -393,5 +439,27 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
     public BrokerRequest getBrokerRequest() {
       return _brokerRequest;
     }
+
+    @Override
+    public List<String> getHedgeServers(String server, List<String> segments) {
+      String tableName = _brokerRequest.getQuerySource().getTableName();
+      Set<String> hedgeServers = null;
+      for (String segment : segments) {
+        List<String> servers = _routing.getServersForSegment(tableName, segment);
+        if (servers == null) {
+          return Collections.emptyList();
+        }
+        if (hedgeServers == null) {
+          hedgeServers = new HashSet<>(servers);
+          hedgeServers.remove(server);
+        } else {
+          hedgeServers.retainAll(servers);
+        }
+        if (hedgeServers.isEmpty()) {
+          return Collections.emptyList();
+        }
+      }
+      return hedgeServers != null ? new ArrayList<>(hedgeServers) : Collections.emptyList();
+    }
   }
 }
@@ -27,8 +27,12 @@ import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.BrokerResponse;
 import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import com.linkedin.pinot.common.utils.CommonConstants.Helix.TableType;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.operator.StreamingSelectionOnlyCombineOperator;
+import com.linkedin.pinot.core.query.reduce.GroupByDataTableMerger;
+import com.linkedin.pinot.core.query.reduce.SelectionDataTableCollector;
 import com.linkedin.pinot.core.transport.AsyncQueryResponse;
 import com.linkedin.pinot.core.transport.QueryRouter;
 import com.linkedin.pinot.core.transport.Server;
@@ -39,21 +43,33 @@ import java.util.Map;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.linkedin.pinot.common.utils.CommonConstants.Broker.*;
 
 
 /**
- * The <code>SingleConnectionBrokerRequestHandler</code> class is a thread-safe broker request handler using a single
- * connection per server to route the queries.
+ * The <code>SingleConnectionBrokerRequestHandler</code> class is a thread-safe broker request handler using a small
+ * fixed number of multiplexed connections (a single one by default) per server to route the queries.
  */
 @ThreadSafe
 public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SingleConnectionBrokerRequestHandler.class);
+
   private final QueryRouter _queryRouter;
+  private final int _responseChunkSize;
 
   public SingleConnectionBrokerRequestHandler(Configuration config, RoutingTable routingTable,
       TimeBoundaryService timeBoundaryService, AccessControlFactory accessControlFactory,
       TableQueryQuotaManager tableQueryQuotaManager, BrokerMetrics brokerMetrics) {
     super(config, routingTable, timeBoundaryService, accessControlFactory, tableQueryQuotaManager, brokerMetrics);
-    _queryRouter = new QueryRouter(_brokerId, brokerMetrics);
+    int numChannelsPerServer =
+        config.getInt(CONFIG_OF_BROKER_NUM_CHANNELS_PER_SERVER, DEFAULT_BROKER_NUM_CHANNELS_PER_SERVER);
+    _queryRouter = new QueryRouter(_brokerId, brokerMetrics, numChannelsPerServer);
+    LOGGER.info("Number of channels per server: {}", numChannelsPerServer);
+    _responseChunkSize = config.getInt(CONFIG_OF_BROKER_RESPONSE_CHUNK_SIZE, DEFAULT_BROKER_RESPONSE_CHUNK_SIZE);
+    LOGGER.info("Response chunk size: {}", _responseChunkSize);
   }
 
   @Override
@@ -63,6 +79,7 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
   @Override
   public synchronized void shutDown() {
     _queryRouter.shutDown();
+    _brokerReduceService.shutDown();
   }
 
   @Override
@@ -74,13 +91,31 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
 
     String rawTableName = TableNameBuilder.extractRawTableName(originalBrokerRequest.getQuerySource().getTableName());
     long scatterGatherStartTimeNs = System.nanoTime();
+    // Merge the group-by data tables on the reduce threads as soon as they are received
+    GroupByDataTableMerger groupByDataTableMerger =
+        _brokerReduceService.getGroupByDataTableMerger(originalBrokerRequest);
+    // Let the servers stream selection only results as response chunks, which are collected as soon as they are
+    // received
+    SelectionDataTableCollector selectionDataTableCollector = null;
+    int responseChunkSize = getResponseChunkSize(originalBrokerRequest);
+    if (responseChunkSize > 0) {
+      selectionDataTableCollector = _brokerReduceService.getSelectionDataTableCollector(originalBrokerRequest);
+    }
+    if (selectionDataTableCollector == null) {
+      responseChunkSize = 0;
+    }
+    setResponseChunkSize(offlineBrokerRequest, responseChunkSize);
+    setResponseChunkSize(realtimeBrokerRequest, responseChunkSize);
     AsyncQueryResponse asyncQueryResponse =
         _queryRouter.submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable,
-            realtimeBrokerRequest, realtimeRoutingTable, timeoutMs);
+            realtimeBrokerRequest, realtimeRoutingTable, timeoutMs,
+            groupByDataTableMerger != null ? groupByDataTableMerger : selectionDataTableCollector);
     Map<Server, ServerResponse> response = asyncQueryResponse.getResponse();
     _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER,
         System.nanoTime() - scatterGatherStartTimeNs);
     serverStats.setServerStats(asyncQueryResponse.getStats());
+    setServerLatencies(offlineRoutingTable, TableType.OFFLINE, response, serverStats);
+    setServerLatencies(realtimeRoutingTable, TableType.REALTIME, response, serverStats);
 
     // TODO: do not convert Server to ServerInstance
     int numServersQueried = response.size();
@@ -103,7 +138,8 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
 
     long reduceStartTimeNs = System.nanoTime();
     BrokerResponseNative brokerResponse =
-        _brokerReduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, _brokerMetrics);
+        _brokerReduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, groupByDataTableMerger,
+            selectionDataTableCollector, _brokerMetrics);
     _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REDUCE, System.nanoTime() - reduceStartTimeNs);
 
     brokerResponse.setNumServersQueried(numServersQueried);
@@ -119,4 +155,50 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
 
     return brokerResponse;
   }
+
+  /**
+   * Returns the max number of rows per response chunk from the query options, or from the broker config if not set in
+   * the query options.
+   */
+  private int getResponseChunkSize(BrokerRequest brokerRequest) {
+    Map<String, String> queryOptions = brokerRequest.getQueryOptions();
+    if (queryOptions != null && queryOptions.containsKey(QueryOptionKey.RESPONSE_CHUNK_SIZE)) {
+      return StreamingSelectionOnlyCombineOperator.getResponseChunkSize(brokerRequest);
+    }
+    return _responseChunkSize;
+  }
+
+  /**
+   * Sets the response chunk size into the broker request sent to the servers, or removes it if the response should not
+   * be chunked.
+   */
+  private static void setResponseChunkSize(@Nullable BrokerRequest brokerRequest, int responseChunkSize) {
+    if (brokerRequest == null) {
+      return;
+    }
+    if (responseChunkSize > 0) {
+      brokerRequest.putToQueryOptions(QueryOptionKey.RESPONSE_CHUNK_SIZE, Integer.toString(responseChunkSize));
+    } else if (brokerRequest.getQueryOptions() != null) {
+      brokerRequest.getQueryOptions().remove(QueryOptionKey.RESPONSE_CHUNK_SIZE);
+    }
+  }
+
+  /**
+   * Sets the latencies of the servers responded into the server stats for adaptive replica selection.
+   */
+  private static void setServerLatencies(@Nullable Map<String, List<String>> routingTable, TableType tableType,
+      Map<Server, ServerResponse> response, ServerStats serverStats) {
+    if (routingTable == null) {
+      return;
+    }
+    boolean isOfflineTable = tableType == TableType.OFFLINE;
+    for (String instanceName : routingTable.keySet()) {
+      ServerResponse serverResponse = response.get(new Server(instanceName, tableType));
+      if (serverResponse != null && serverResponse.getDataTable() != null) {
+        serverStats.setServerLatencyMs(instanceName, isOfflineTable,
+            serverResponse.getSubmitDelayMs() + serverResponse.getResponseDelayMs());
+      }
+    }
+  }
+
 }
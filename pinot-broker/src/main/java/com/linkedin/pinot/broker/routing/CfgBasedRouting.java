@@ -53,6 +53,22 @@ public class CfgBasedRouting implements RoutingTable {
     return _cfg.getPerTableRoutingCfg().containsKey(tableName);
   }
 
+  @Override
+  public long getRoutingTableVersion(String tableName) {
+    // Routing tables never change once configured
+    return routingTableExists(tableName) ? 0L : -1L;
+  }
+
+  @Override
+  public boolean isSegmentRefreshPending(String tableName) {
+    return false;
+  }
+
+  @Override
+  public List<String> getServersForSegment(String tableName, String segmentName) {
+    return null;
+  }
+
   @Override
   public String dumpSnapshot(String tableName) throws Exception {
     return null;
@@ -35,6 +35,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.AccessOption;
 import org.apache.helix.HelixDataAccessor;
@@ -67,6 +68,10 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
   private final Map<String, Map<String, InstanceConfig>> _lastKnownInstanceConfigsForTable = new ConcurrentHashMap<>();
   private final Map<String, InstanceConfig> _lastKnownInstanceConfigs = new ConcurrentHashMap<>();
   private final Map<String, Set<String>> _tablesForInstance = new ConcurrentHashMap<>();
+  private final Map<String, Long> _routingTableVersionMap = new ConcurrentHashMap<>();
+  private final AtomicLong _routingTableVersionGenerator = new AtomicLong();
+  // Time until which each OFFLINE table has segments being refreshed, which does not change the external view
+  private final Map<String, Long> _segmentRefreshPendingUntilMsMap = new ConcurrentHashMap<>();
 
   private final HelixExternalViewBasedTimeBoundaryService _timeBoundaryService;
   private final HelixManager _helixManager;
@@ -97,11 +102,26 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     return routingTableBuilder.getRoutingTable(request);
   }
 
+  @Override
+  public List<String> getServersForSegment(String tableName, String segmentName) {
+    RoutingTableBuilder routingTableBuilder = _routingTableBuilderMap.get(tableName);
+    return routingTableBuilder != null ? routingTableBuilder.getServersForSegment(segmentName) : null;
+  }
+
   @Override
   public boolean routingTableExists(String tableName) {
     return _routingTableBuilderMap.containsKey(tableName);
   }
 
+  @Override
+  public long getRoutingTableVersion(String tableName) {
+    return _routingTableVersionMap.getOrDefault(tableName, -1L);
+  }
+
+  private void updateRoutingTableVersion(String tableName) {
+    _routingTableVersionMap.put(tableName, _routingTableVersionGenerator.incrementAndGet());
+  }
+
   public void setBrokerMetrics(BrokerMetrics brokerMetrics) {
     _brokerMetrics = brokerMetrics;
   }
@@ -315,6 +335,7 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
       LOGGER.error("Failed to update the TimeBoundaryService for {}", tableNameWithType, e);
     }
 
+    updateRoutingTableVersion(tableNameWithType);
     long updateTime = System.currentTimeMillis() - startTimeMillis;
 
     if (_brokerMetrics != null) {
@@ -328,10 +349,40 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     updateTimeBoundary(tableName,fetchExternalView(tableName));
   }
 
+  /**
+   * Marks the segments of the given table as being refreshed for the given time, and updates the routing table
+   * version so that the results computed before the refresh are never hit again.
+   * <p>Segment refreshes do not change the external view, and the servers load the new segments asynchronously, so
+   * there is no signal of when the refresh completes. Results computed while the refresh is pending might come from
+   * the old segments, so they should not be cached (see {@link #isSegmentRefreshPending(String)}).
+   *
+   * @param tableName Table name
+   * @param pendingTimeMs Time in milliseconds for the servers to load the refreshed segments
+   */
+  public void markSegmentRefreshPending(String tableName, long pendingTimeMs) {
+    LOGGER.info("Segment refresh pending for table: {} for {} ms", tableName, pendingTimeMs);
+    _segmentRefreshPendingUntilMsMap.merge(tableName, System.currentTimeMillis() + pendingTimeMs, Math::max);
+    updateRoutingTableVersion(tableName);
+  }
+
+  @Override
+  public boolean isSegmentRefreshPending(String tableName) {
+    Long pendingUntilMs = _segmentRefreshPendingUntilMsMap.get(tableName);
+    if (pendingUntilMs == null) {
+      return false;
+    }
+    if (System.currentTimeMillis() < pendingUntilMs) {
+      return true;
+    }
+    _segmentRefreshPendingUntilMsMap.remove(tableName, pendingUntilMs);
+    return false;
+  }
+
   protected void updateTimeBoundary(String tableName, ExternalView externalView) {
     LOGGER.info("Trying to compute time boundary service for table {}", tableName);
     long timeBoundaryUpdateStart = System.currentTimeMillis();
     _timeBoundaryService.updateTimeBoundaryService(externalView);
+    updateRoutingTableVersion(tableName);
     long timeBoundaryUpdateEnd = System.currentTimeMillis();
     LOGGER.info("Computed the time boundary for table {} in {} ms", tableName,
         (timeBoundaryUpdateEnd - timeBoundaryUpdateStart));
@@ -365,6 +416,8 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     _lastKnownExternalViewVersionMap.remove(tableName);
     _lastKnownInstanceConfigsForTable.remove(tableName);
     _timeBoundaryService.remove(tableName);
+    _routingTableVersionMap.remove(tableName);
+    _segmentRefreshPendingUntilMsMap.remove(tableName);
 
     // Remove table from all instances
     synchronized (_tablesForInstance) {
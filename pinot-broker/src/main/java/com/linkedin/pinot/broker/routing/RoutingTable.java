@@ -17,6 +17,7 @@ package com.linkedin.pinot.broker.routing;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 
 /**
@@ -40,6 +41,35 @@ public interface RoutingTable {
    */
   boolean routingTableExists(String tableName);
 
+  /**
+   * Return the version of the routing table for the given table, which changes every time the routing table or the
+   * time boundary of the table gets updated, or a segment of the table gets refreshed.
+   * <p>Versions are never reused, even if the table is removed and added back.
+   *
+   * @param tableName Table name
+   * @return Version of the routing table, or -1 if the routing table does not exist
+   */
+  long getRoutingTableVersion(String tableName);
+
+  /**
+   * Return whether segments of the given table are being refreshed. While a refresh is pending, the servers might
+   * still serve the old segments, so the query results should not be cached.
+   *
+   * @param tableName Table name
+   * @return Whether segments of the table are being refreshed
+   */
+  boolean isSegmentRefreshPending(String tableName);
+
+  /**
+   * Get the servers hosting the given segment of the given table, which can be used to re-route the segment.
+   *
+   * @param tableName Table name
+   * @param segmentName Segment name
+   * @return List of servers hosting the segment, or null if not available
+   */
+  @Nullable
+  List<String> getServersForSegment(String tableName, String segmentName);
+
   /**
    * Dump a snapshot of all the routing tables for the given table.
    *
@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 
 /**
@@ -34,6 +35,7 @@ public class RoutingTableLookupRequest {
   private final BrokerRequest _brokerRequest;
   private final String _tableName;
   private final List<String> _routingOptions;
+  private final ServerLatencyTracker _serverLatencyTracker;
 
   @Nonnull
   public BrokerRequest getBrokerRequest() {
@@ -50,8 +52,22 @@ public class RoutingTableLookupRequest {
     return _routingOptions;
   }
 
+  /**
+   * Returns the server latency tracker used for adaptive replica selection, or <code>null</code> if not available.
+   */
+  @Nullable
+  public ServerLatencyTracker getServerLatencyTracker() {
+    return _serverLatencyTracker;
+  }
+
   public RoutingTableLookupRequest(@Nonnull BrokerRequest brokerRequest) {
+    this(brokerRequest, null);
+  }
+
+  public RoutingTableLookupRequest(@Nonnull BrokerRequest brokerRequest,
+      @Nullable ServerLatencyTracker serverLatencyTracker) {
     _brokerRequest = brokerRequest;
+    _serverLatencyTracker = serverLatencyTracker;
     _tableName = brokerRequest.getQuerySource().getTableName();
 
     Map<String, String> debugOptions = brokerRequest.getDebugOptions();
@@ -65,6 +81,12 @@ public class RoutingTableLookupRequest {
 
   @VisibleForTesting
   public RoutingTableLookupRequest(@Nonnull String tableName) {
+    this(tableName, null);
+  }
+
+  @VisibleForTesting
+  public RoutingTableLookupRequest(@Nonnull String tableName, @Nullable ServerLatencyTracker serverLatencyTracker) {
+    _serverLatencyTracker = serverLatencyTracker;
     _brokerRequest = new BrokerRequest();
     QuerySource querySource = new QuerySource();
     querySource.setTableName(tableName);
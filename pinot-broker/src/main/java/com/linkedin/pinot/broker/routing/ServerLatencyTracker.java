@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.routing;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>ServerLatencyTracker</code> class tracks the exponentially weighted moving average (EWMA) of the response
+ * latency and the number of in-flight requests for each server (instance name), which is used to rank the servers for
+ * adaptive replica selection.
+ * <p>The score of a server follows the C3 approach: the EWMA latency multiplied by a cubic penalty on the number of
+ * in-flight requests, so that a server with a growing queue is avoided before its latency goes up. Servers without
+ * recent statistics get the default latency so that they can be explored again.
+ */
+@ThreadSafe
+public class ServerLatencyTracker {
+  // Weight of the latest latency in the EWMA
+  private static final double EWMA_ALPHA = 0.3;
+  // Latency used for the servers without recent statistics
+  private static final double DEFAULT_LATENCY_MS = 1.0;
+  // Statistics not updated within this time are considered outdated
+  private static final long STATS_EXPIRATION_MS = 60_000L;
+
+  private final ConcurrentHashMap<String, ServerLatencyStats> _serverStatsMap = new ConcurrentHashMap<>();
+
+  /**
+   * Marks a request sent to the given server.
+   */
+  public void markRequestSent(String server) {
+    _serverStatsMap.computeIfAbsent(server, k -> new ServerLatencyStats())._numInFlightRequests.incrementAndGet();
+  }
+
+  /**
+   * Marks a request to the given server finished with the given latency, which should be the timeout if the server did
+   * not respond.
+   */
+  public void markResponseReceived(String server, long latencyMs) {
+    ServerLatencyStats serverStats = _serverStatsMap.computeIfAbsent(server, k -> new ServerLatencyStats());
+    serverStats._numInFlightRequests.decrementAndGet();
+    serverStats.updateLatency(latencyMs, System.currentTimeMillis());
+  }
+
+  /**
+   * Returns the score of the given server, where the server with lower score is preferred.
+   */
+  public double getScore(String server) {
+    ServerLatencyStats serverStats = _serverStatsMap.get(server);
+    if (serverStats == null) {
+      return DEFAULT_LATENCY_MS;
+    }
+    double latencyMs = serverStats.getLatencyMs(System.currentTimeMillis());
+    double queueSize = 1 + Math.max(serverStats._numInFlightRequests.get(), 0);
+    return latencyMs * queueSize * queueSize * queueSize;
+  }
+
+  /**
+   * Returns the max score among the given servers, or {@link Double#MAX_VALUE} if the servers are not available. The
+   * latency of a query is bounded by the slowest server it is routed to.
+   */
+  public double getMaxScore(@Nullable Collection<String> servers) {
+    if (servers == null) {
+      return Double.MAX_VALUE;
+    }
+    double maxScore = 0;
+    for (String server : servers) {
+      maxScore = Math.max(maxScore, getScore(server));
+    }
+    return maxScore;
+  }
+
+  /**
+   * Selects a server for a segment among the given servers with the power of two choices: randomly picks two servers
+   * and returns the one with the lower score.
+   * <p>The score is multiplied by one plus the number of segments already assigned to the server in the routing table
+   * being computed for the same query, so that the segments of a query are spread across the servers in proportion to
+   * their speed instead of all going to the one with the lowest score.
+   *
+   * @param servers Servers serving the segment
+   * @param random Random to pick the servers
+   * @param routingTable Routing table (map from server to segments) being computed for the query
+   * @return Selected server
+   */
+  public String selectServer(List<String> servers, Random random, Map<String, List<String>> routingTable) {
+    int numServers = servers.size();
+    if (numServers == 1) {
+      return servers.get(0);
+    }
+    int index1 = random.nextInt(numServers);
+    int index2 = random.nextInt(numServers - 1);
+    if (index2 >= index1) {
+      index2++;
+    }
+    String server1 = servers.get(index1);
+    String server2 = servers.get(index2);
+    return getScore(server1, routingTable) <= getScore(server2, routingTable) ? server1 : server2;
+  }
+
+  private double getScore(String server, Map<String, List<String>> routingTable) {
+    List<String> segments = routingTable.get(server);
+    int numSegmentsAssigned = segments != null ? segments.size() : 0;
+    return getScore(server) * (1 + numSegmentsAssigned);
+  }
+
+  @VisibleForTesting
+  int getNumInFlightRequests(String server) {
+    ServerLatencyStats serverStats = _serverStatsMap.get(server);
+    return serverStats != null ? serverStats._numInFlightRequests.get() : 0;
+  }
+
+  private static class ServerLatencyStats {
+    final AtomicInteger _numInFlightRequests = new AtomicInteger();
+    double _ewmaLatencyMs = DEFAULT_LATENCY_MS;
+    long _lastUpdateTimeMs;
+
+    synchronized void updateLatency(long latencyMs, long currentTimeMs) {
+      if (currentTimeMs - _lastUpdateTimeMs > STATS_EXPIRATION_MS) {
+        _ewmaLatencyMs = Math.max(latencyMs, DEFAULT_LATENCY_MS);
+      } else {
+        _ewmaLatencyMs = EWMA_ALPHA * Math.max(latencyMs, DEFAULT_LATENCY_MS) + (1 - EWMA_ALPHA) * _ewmaLatencyMs;
+      }
+      _lastUpdateTimeMs = currentTimeMs;
+    }
+
+    synchronized double getLatencyMs(long currentTimeMs) {
+      if (currentTimeMs - _lastUpdateTimeMs > STATS_EXPIRATION_MS) {
+        return DEFAULT_LATENCY_MS;
+      }
+      return _ewmaLatencyMs;
+    }
+  }
+}
@@ -18,6 +18,8 @@ package com.linkedin.pinot.broker.routing.builder;
 import com.linkedin.pinot.broker.pruner.SegmentPrunerContext;
 import com.linkedin.pinot.broker.pruner.SegmentZKMetadataPrunerService;
 import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
+import com.linkedin.pinot.broker.routing.ServerLatencyTracker;
+import com.linkedin.pinot.common.config.RoutingConfig;
 import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.metadata.segment.SegmentZKMetadata;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
@@ -44,7 +46,8 @@ import org.slf4j.LoggerFactory;
  * for routing. The look up table is in the format of < segment_name -> (replica_id -> server_instance) >.
  *
  * When the query comes in, the routing algorithm is as follows:
- *   1. Randomly pick a replica id (or replica group id)
+ *   1. Randomly pick a replica id (or replica group id). When adaptive replica selection is enabled, randomly pick two
+ *      replica ids and keep the one whose slowest server has the lower latency score.
  *   2. For each segment of the given table,
  *      a. Check if the segment can be pruned. If pruned, go to the next segment.
  *      b. If not pruned, assign the segment to a server with the replica id that is picked above.
@@ -70,6 +73,10 @@ public abstract class BasePartitionAwareRoutingTableBuilder implements RoutingTa
 
   private BrokerMetrics _brokerMetrics;
   private String _tableName;
+  private boolean _enableAdaptiveReplicaSelection;
+
+  // Servers for each replica id, computed lazily from the current segment to replica to server mapping
+  private volatile ReplicaToServers _replicaToServers;
 
   @Override
   public void init(Configuration configuration, TableConfig tableConfig, ZkHelixPropertyStore<ZNRecord> propertyStore, BrokerMetrics brokerMetrics) {
@@ -79,6 +86,15 @@ public abstract class BasePartitionAwareRoutingTableBuilder implements RoutingTa
     _brokerMetrics = brokerMetrics;
     // TODO: We need to specify the type of pruners via config instead of hardcoding.
     _pruner = new SegmentZKMetadataPrunerService(new String[]{PARTITION_METADATA_PRUNER});
+
+    RoutingConfig routingConfig = tableConfig.getRoutingConfig();
+    if (routingConfig != null) {
+      _enableAdaptiveReplicaSelection = Boolean.valueOf(
+          routingConfig.getRoutingTableBuilderOptions().get(RoutingConfig.ENABLE_ADAPTIVE_REPLICA_SELECTION_KEY));
+      if (_enableAdaptiveReplicaSelection) {
+        LOGGER.info("Adaptive replica selection is enabled for table {}", _tableName);
+      }
+    }
   }
 
   @Override
@@ -95,7 +111,7 @@ public abstract class BasePartitionAwareRoutingTableBuilder implements RoutingTa
     SegmentPrunerContext prunerContext = new SegmentPrunerContext(request.getBrokerRequest());
 
     // 1. Randomly pick a replica id
-    int replicaId = _random.nextInt(_numReplicas);
+    int replicaId = pickReplicaId(segmentToReplicaToServerMap, request.getServerLatencyTracker());
     for (String segmentName : segmentsToQuery) {
       SegmentZKMetadata segmentZKMetadata = _segmentToZkMetadataMapping.get(segmentName);
 
@@ -128,11 +144,66 @@ public abstract class BasePartitionAwareRoutingTableBuilder implements RoutingTa
     return routingTable;
   }
 
+  private int pickReplicaId(Map<String, Map<Integer, String>> segmentToReplicaToServerMap,
+      ServerLatencyTracker serverLatencyTracker) {
+    int numReplicas = _numReplicas;
+    if (!_enableAdaptiveReplicaSelection || serverLatencyTracker == null || numReplicas <= 1) {
+      return _random.nextInt(numReplicas);
+    }
+
+    int replicaId1 = _random.nextInt(numReplicas);
+    int replicaId2 = _random.nextInt(numReplicas - 1);
+    if (replicaId2 >= replicaId1) {
+      replicaId2++;
+    }
+    Map<Integer, Set<String>> replicaToServersMap = getReplicaToServersMap(segmentToReplicaToServerMap);
+    double score1 = serverLatencyTracker.getMaxScore(replicaToServersMap.get(replicaId1));
+    double score2 = serverLatencyTracker.getMaxScore(replicaToServersMap.get(replicaId2));
+    return score1 <= score2 ? replicaId1 : replicaId2;
+  }
+
+  private Map<Integer, Set<String>> getReplicaToServersMap(
+      Map<String, Map<Integer, String>> segmentToReplicaToServerMap) {
+    ReplicaToServers replicaToServers = _replicaToServers;
+    if (replicaToServers == null || replicaToServers._segmentToReplicaToServerMap != segmentToReplicaToServerMap) {
+      Map<Integer, Set<String>> replicaToServersMap = new HashMap<>();
+      for (Map<Integer, String> replicaToServerMap : segmentToReplicaToServerMap.values()) {
+        for (Map.Entry<Integer, String> entry : replicaToServerMap.entrySet()) {
+          replicaToServersMap.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).add(entry.getValue());
+        }
+      }
+      replicaToServers = new ReplicaToServers(segmentToReplicaToServerMap, replicaToServersMap);
+      _replicaToServers = replicaToServers;
+    }
+    return replicaToServers._replicaToServersMap;
+  }
+
+  private static class ReplicaToServers {
+    final Map<String, Map<Integer, String>> _segmentToReplicaToServerMap;
+    final Map<Integer, Set<String>> _replicaToServersMap;
+
+    ReplicaToServers(Map<String, Map<Integer, String>> segmentToReplicaToServerMap,
+        Map<Integer, Set<String>> replicaToServersMap) {
+      _segmentToReplicaToServerMap = segmentToReplicaToServerMap;
+      _replicaToServersMap = replicaToServersMap;
+    }
+  }
+
   @Override
   public List<Map<String, List<String>>> getRoutingTables() {
     throw new UnsupportedOperationException("Partition aware routing table cannot be pre-computed");
   }
 
+  @Override
+  public List<String> getServersForSegment(String segmentName) {
+    Map<String, Map<Integer, String>> segmentToReplicaToServerMap = _segmentToReplicaToServerMap;
+    if (segmentToReplicaToServerMap == null) {
+      return null;
+    }
+    Map<Integer, String> replicaToServerMap = segmentToReplicaToServerMap.get(segmentName);
+    return replicaToServerMap != null ? new ArrayList<>(replicaToServerMap.values()) : null;
+  }
+
   protected void handleNoServingHost(String segmentName) {
     LOGGER.error("Found no server hosting segment {} for table {}", segmentName, _tableName);
     if (_brokerMetrics != null) {
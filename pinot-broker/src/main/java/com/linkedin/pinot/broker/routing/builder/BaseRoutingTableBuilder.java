@@ -16,6 +16,7 @@
 package com.linkedin.pinot.broker.routing.builder;
 
 import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
+import com.linkedin.pinot.broker.routing.ServerLatencyTracker;
 import com.linkedin.pinot.common.config.RoutingConfig;
 import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
@@ -44,10 +45,26 @@ import org.slf4j.LoggerFactory;
 public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
   private static final Logger LOGGER = LoggerFactory.getLogger(BaseRoutingTableBuilder.class);
 
+  // Interval to fully rebuild the pre-computed routing tables as a consistency check, between which the routing tables
+  // are updated incrementally based on the external view changes. A value of <= 0 disables the incremental update.
+  private static final String FULL_REBUILD_INTERVAL_MS_KEY = "fullRoutingTableRebuildIntervalMs";
+  private static final long DEFAULT_FULL_REBUILD_INTERVAL_MS = 10 * 60 * 1000L; // 10 minutes
+
+  // Max fraction of the segments that can be added, removed or moved to update the routing tables incrementally,
+  // beyond which the routing tables are rebuilt to keep them balanced
+  private static final double MAX_CHANGED_SEGMENTS_FRACTION_FOR_INCREMENTAL_UPDATE = 0.1;
+
   protected final Random _random = new Random();
   private BrokerMetrics _brokerMetrics;
   private String _tableName;
   private boolean _enableDyanmicComputing;
+  private boolean _enableAdaptiveReplicaSelection;
+  private long _fullRebuildIntervalMs = DEFAULT_FULL_REBUILD_INTERVAL_MS;
+
+  // Segment to servers mapping used to compute the current pre-computed routing tables, which is used to compute the
+  // delta for the next external view change
+  private volatile Map<String, List<String>> _lastSegmentToServersMap;
+  private long _lastFullRebuildTimeMs;
 
   // Set variable as volatile so all threads can get the up-to-date routing tables
   // Routing tables are used for storing pre-computed routing table
@@ -61,6 +78,7 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
       BrokerMetrics brokerMetrics) {
     _tableName = tableConfig.getTableName();
     _brokerMetrics = brokerMetrics;
+    _fullRebuildIntervalMs = configuration.getLong(FULL_REBUILD_INTERVAL_MS_KEY, DEFAULT_FULL_REBUILD_INTERVAL_MS);
 
     // Enable dynamic routing when the config is explicitly set
     RoutingConfig routingConfig = tableConfig.getRoutingConfig();
@@ -70,6 +88,11 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
       if (_enableDyanmicComputing) {
         LOGGER.info("Dynamic routing table computation is enabled for table {}", _tableName);
       }
+      _enableAdaptiveReplicaSelection =
+          Boolean.valueOf(routingOption.get(RoutingConfig.ENABLE_ADAPTIVE_REPLICA_SELECTION_KEY));
+      if (_enableAdaptiveReplicaSelection) {
+        LOGGER.info("Adaptive replica selection is enabled for table {}", _tableName);
+      }
     }
   }
 
@@ -109,7 +132,7 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
   }
 
   @Override
-  public void computeOnExternalViewChange(String tableName, ExternalView externalView,
+  public synchronized void computeOnExternalViewChange(String tableName, ExternalView externalView,
       List<InstanceConfig> instanceConfigs) {
     Map<String, List<String>> segmentToServersMap =
         computeSegmentToServersMapFromExternalView(externalView, instanceConfigs);
@@ -119,13 +142,160 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
       _segmentToServersMap = segmentToServersMap;
     } else {
       // Otherwise, we cache the pre-computed routing tables
-      List<Map<String, List<String>>> routingTables = computeRoutingTablesFromSegmentToServersMap(segmentToServersMap);
+      List<Map<String, List<String>>> routingTables = null;
+      long currentTimeMs = System.currentTimeMillis();
+      if (isIncrementalUpdateSupported() && _fullRebuildIntervalMs > 0
+          && currentTimeMs - _lastFullRebuildTimeMs < _fullRebuildIntervalMs) {
+        routingTables = updateRoutingTablesIncrementally(segmentToServersMap);
+      }
+      if (routingTables == null) {
+        routingTables = computeRoutingTablesFromSegmentToServersMap(segmentToServersMap);
+        _lastFullRebuildTimeMs = currentTimeMs;
+      }
       _routingTables = routingTables;
+      _lastSegmentToServersMap = segmentToServersMap;
+    }
+  }
+
+  /**
+   * Returns whether the pre-computed routing tables can be updated incrementally, where each changed segment is
+   * assigned to one of its servers in each routing table.
+   */
+  protected boolean isIncrementalUpdateSupported() {
+    return true;
+  }
+
+  /**
+   * Updates the current pre-computed routing tables based on the delta between the last and the new segment to servers
+   * mapping, or returns <code>null</code> if the routing tables need to be rebuilt.
+   * <p>The removed segments and the segments whose servers changed are removed from all the routing tables, then the
+   * added and changed segments are assigned to the server with the least segments assigned among the servers already
+   * in each routing table (or any of their servers if none is in the routing table). The routing tables are updated in
+   * a copy-on-write fashion so that the queries can keep using the current routing tables.
+   */
+  private List<Map<String, List<String>>> updateRoutingTablesIncrementally(
+      Map<String, List<String>> segmentToServersMap) {
+    Map<String, List<String>> lastSegmentToServersMap = _lastSegmentToServersMap;
+    List<Map<String, List<String>>> lastRoutingTables = _routingTables;
+    if (lastSegmentToServersMap == null || lastRoutingTables == null || lastRoutingTables.isEmpty()) {
+      return null;
+    }
+
+    // Rebuild the routing tables if any server is added or removed so that the load is re-balanced
+    if (!getServers(segmentToServersMap).equals(getServers(lastSegmentToServersMap))) {
+      return null;
+    }
+
+    // Compute the segments to remove from and the segments to assign to the routing tables
+    Set<String> segmentsToRemove = new HashSet<>();
+    Set<String> segmentsToAssign = new HashSet<>();
+    Set<String> serversToUpdate = new HashSet<>();
+    for (Map.Entry<String, List<String>> entry : lastSegmentToServersMap.entrySet()) {
+      String segmentName = entry.getKey();
+      List<String> lastServers = entry.getValue();
+      List<String> servers = segmentToServersMap.get(segmentName);
+      if (servers == null || !new HashSet<>(servers).equals(new HashSet<>(lastServers))) {
+        segmentsToRemove.add(segmentName);
+        serversToUpdate.addAll(lastServers);
+      }
+    }
+    for (String segmentName : segmentToServersMap.keySet()) {
+      if (segmentsToRemove.contains(segmentName) || !lastSegmentToServersMap.containsKey(segmentName)) {
+        segmentsToAssign.add(segmentName);
+      }
+    }
+    int numChangedSegments = Math.max(segmentsToRemove.size(), segmentsToAssign.size());
+    if (numChangedSegments > segmentToServersMap.size() * MAX_CHANGED_SEGMENTS_FRACTION_FOR_INCREMENTAL_UPDATE) {
+      return null;
+    }
+    if (numChangedSegments == 0) {
+      return lastRoutingTables;
+    }
+
+    List<Map<String, List<String>>> routingTables = new ArrayList<>(lastRoutingTables.size());
+    for (Map<String, List<String>> lastRoutingTable : lastRoutingTables) {
+      // Only copy the segment lists for the servers that are modified
+      Map<String, List<String>> routingTable = new HashMap<>(lastRoutingTable);
+      Set<String> copiedServers = new HashSet<>();
+      for (String server : serversToUpdate) {
+        List<String> lastSegments = lastRoutingTable.get(server);
+        if (lastSegments != null) {
+          List<String> segments = new ArrayList<>(lastSegments);
+          segments.removeAll(segmentsToRemove);
+          routingTable.put(server, segments);
+          copiedServers.add(server);
+        }
+      }
+      for (String segmentName : segmentsToAssign) {
+        List<String> servers = segmentToServersMap.get(segmentName);
+        String server = getServerWithLeastSegmentsAssigned(servers, routingTable, true);
+        if (server == null) {
+          server = getServerWithLeastSegmentsAssigned(servers, routingTable, false);
+        }
+        List<String> segments = routingTable.get(server);
+        if (segments == null) {
+          segments = new ArrayList<>();
+          routingTable.put(server, segments);
+          copiedServers.add(server);
+        } else if (copiedServers.add(server)) {
+          segments = new ArrayList<>(segments);
+          routingTable.put(server, segments);
+        }
+        segments.add(segmentName);
+      }
+      // Do not route queries to the servers without any segment assigned
+      routingTable.values().removeIf(List::isEmpty);
+      routingTables.add(routingTable);
+    }
+
+    LOGGER.info("Incrementally updated routing tables for table {}: removed {} segments, assigned {} segments",
+        _tableName, segmentsToRemove.size(), segmentsToAssign.size());
+    return routingTables;
+  }
+
+  /**
+   * Helper method to pick the server with the least segments assigned in the routing table among the given servers, or
+   * <code>null</code> if no server qualifies. Ties are broken randomly.
+   *
+   * @param servers candidate servers
+   * @param routingTable routing table
+   * @param inRoutingTableOnly whether to only pick among the servers already in the routing table
+   * @return the selected server
+   */
+  private String getServerWithLeastSegmentsAssigned(List<String> servers, Map<String, List<String>> routingTable,
+      boolean inRoutingTableOnly) {
+    String selectedServer = null;
+    int minNumSegmentsAssigned = Integer.MAX_VALUE;
+    int numServers = servers.size();
+    int startIndex = _random.nextInt(numServers);
+    for (int i = 0; i < numServers; i++) {
+      String server = servers.get((startIndex + i) % numServers);
+      List<String> segments = routingTable.get(server);
+      if (segments == null && inRoutingTableOnly) {
+        continue;
+      }
+      int numSegmentsAssigned = segments != null ? segments.size() : 0;
+      if (numSegmentsAssigned < minNumSegmentsAssigned) {
+        minNumSegmentsAssigned = numSegmentsAssigned;
+        selectedServer = server;
+      }
     }
+    return selectedServer;
+  }
+
+  private static Set<String> getServers(Map<String, List<String>> segmentToServersMap) {
+    Set<String> servers = new HashSet<>();
+    for (List<String> serversForSegment : segmentToServersMap.values()) {
+      servers.addAll(serversForSegment);
+    }
+    return servers;
   }
 
   @Override
   public Map<String, List<String>> getRoutingTable(RoutingTableLookupRequest request) {
+    ServerLatencyTracker serverLatencyTracker =
+        _enableAdaptiveReplicaSelection ? request.getServerLatencyTracker() : null;
+
     if (_enableDyanmicComputing) {
       // Copy the pointer for snapshot since the pointer for segment to servers map can change at anytime
       Map<String, List<String>> segmentToServersMap = _segmentToServersMap;
@@ -136,11 +306,29 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
       // TODO: add the selection logic here
 
       // Compute the final routing table
+      if (serverLatencyTracker != null) {
+        return computeAdaptiveRoutingTable(segmentToServersMap, segmentsToQuery, serverLatencyTracker);
+      }
       return computeDynamicRoutingTable(segmentToServersMap, segmentsToQuery);
     }
 
     // Return a pre-computed routing table if we don't use dynamic computing
-    return _routingTables.get(_random.nextInt(_routingTables.size()));
+    List<Map<String, List<String>>> routingTables = _routingTables;
+    int numRoutingTables = routingTables.size();
+    if (serverLatencyTracker != null && numRoutingTables > 1) {
+      // Power of two choices among the pre-computed routing tables, where the query latency is bounded by the slowest
+      // server in the routing table
+      int index1 = _random.nextInt(numRoutingTables);
+      int index2 = _random.nextInt(numRoutingTables - 1);
+      if (index2 >= index1) {
+        index2++;
+      }
+      Map<String, List<String>> routingTable1 = routingTables.get(index1);
+      Map<String, List<String>> routingTable2 = routingTables.get(index2);
+      return serverLatencyTracker.getMaxScore(routingTable1.keySet()) <= serverLatencyTracker.getMaxScore(
+          routingTable2.keySet()) ? routingTable1 : routingTable2;
+    }
+    return routingTables.get(_random.nextInt(numRoutingTables));
   }
 
   @Override
@@ -148,6 +336,13 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
     return _routingTables;
   }
 
+  @Override
+  public List<String> getServersForSegment(String segmentName) {
+    Map<String, List<String>> segmentToServersMap =
+        _enableDyanmicComputing ? _segmentToServersMap : _lastSegmentToServersMap;
+    return segmentToServersMap != null ? segmentToServersMap.get(segmentName) : null;
+  }
+
   /**
    * Computes a routing table on-the-fly using a mapping of segment to servers. Because of the performance concern,
    * the default behavior is to randomly pick a server among available servers for each segment.
@@ -167,6 +362,27 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
     return routingTable;
   }
 
+  /**
+   * Computes a routing table on-the-fly using a mapping of segment to servers, where the server for each segment is
+   * picked among two random servers based on the latency and load tracked by the given server latency tracker, and the
+   * number of segments already assigned to them for this query.
+   *
+   * @param segmentsToQuery a list of segments that need to be processed for a particular query
+   * @param serverLatencyTracker server latency tracker
+   * @return a routing table
+   */
+  public Map<String, List<String>> computeAdaptiveRoutingTable(Map<String, List<String>> segmentToServersMap,
+      Set<String> segmentsToQuery, ServerLatencyTracker serverLatencyTracker) {
+    Map<String, List<String>> routingTable = new HashMap<>();
+    for (String segmentName : segmentsToQuery) {
+      List<String> servers = segmentToServersMap.get(segmentName);
+      String selectedServer = serverLatencyTracker.selectServer(servers, _random, routingTable);
+      List<String> segments = routingTable.computeIfAbsent(selectedServer, k -> new ArrayList<>());
+      segments.add(segmentName);
+    }
+    return routingTable;
+  }
+
   /**
    * Given an external view and a list of instance configs, computes the mapping of segment to servers. The mapping
    * will be cached if we use dynamic routing. By default, this will check ONLINE segments and active servers.
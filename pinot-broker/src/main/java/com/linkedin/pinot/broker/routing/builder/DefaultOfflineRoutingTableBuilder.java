@@ -125,6 +125,11 @@ public class DefaultOfflineRoutingTableBuilder implements RoutingTableBuilder {
     return _routingTableBuilder.getRoutingTable(request);
   }
 
+  @Override
+  public List<String> getServersForSegment(String segmentName) {
+    return _routingTableBuilder.getServersForSegment(segmentName);
+  }
+
   @Override
   public List<Map<String, List<String>>> getRoutingTables() {
     return _routingTableBuilder.getRoutingTables();
@@ -99,6 +99,15 @@ public class DefaultRealtimeRoutingTableBuilder implements RoutingTableBuilder {
     }
   }
 
+  @Override
+  public List<String> getServersForSegment(String segmentName) {
+    if (SegmentName.isLowLevelConsumerSegmentName(segmentName)) {
+      return _realtimeLLCRoutingTableBuilder.getServersForSegment(segmentName);
+    } else {
+      return _realtimeHLCRoutingTableBuilder.getServersForSegment(segmentName);
+    }
+  }
+
   @Override
   public List<Map<String, List<String>>> getRoutingTables() {
     if (_hasLLC) {
@@ -74,6 +74,15 @@ public class HighLevelConsumerBasedRoutingTableBuilder extends BaseRoutingTableB
     return routingTables;
   }
 
+  /**
+   * Each routing table contains all the replicas of the segments for one consumer group, so it cannot be updated by
+   * assigning each segment to one server.
+   */
+  @Override
+  protected boolean isIncrementalUpdateSupported() {
+    return false;
+  }
+
   @Override
   public Map<String, List<String>> computeDynamicRoutingTable(Map<String, List<String>> segmentToServersMap,
       Set<String> segmentsToQuery) {
@@ -20,6 +20,7 @@ import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.model.ExternalView;
@@ -53,4 +54,10 @@ public interface RoutingTableBuilder {
    * Get all pre-computed routing tables.
    */
   List<Map<String, List<String>>> getRoutingTables();
+
+  /**
+   * Get the servers hosting the given segment, or null if not available.
+   */
+  @Nullable
+  List<String> getServersForSegment(String segmentName);
 }
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.queryquota;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class SlidingWindowRateLimiterTest {
+
+  @Test
+  public void testTryAcquire() {
+    SlidingWindowRateLimiter rateLimiter = new SlidingWindowRateLimiter(10, 1);
+    // Align the timestamp to the start of a window
+    long timestamp = (System.currentTimeMillis() / 1000 + 1) * 1000;
+
+    // 10 queries can be acquired at once
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(rateLimiter.tryAcquire(timestamp));
+    }
+    Assert.assertFalse(rateLimiter.tryAcquire(timestamp + 999));
+    Assert.assertEquals(rateLimiter.getHitRate(timestamp + 999), 11.0);
+
+    // Half of the previous window overlaps with the sliding window, 5 more queries can be acquired
+    timestamp += 1500;
+    for (int i = 0; i < 5; i++) {
+      Assert.assertTrue(rateLimiter.tryAcquire(timestamp));
+    }
+    Assert.assertFalse(rateLimiter.tryAcquire(timestamp));
+
+    // Previous windows no longer overlap with the sliding window
+    timestamp += 2000;
+    Assert.assertEquals(rateLimiter.getHitRate(timestamp), 0.0);
+    Assert.assertTrue(rateLimiter.tryAcquire(timestamp));
+  }
+
+  @Test
+  public void testMaxBurstSeconds() {
+    SlidingWindowRateLimiter rateLimiter = new SlidingWindowRateLimiter(10, 5);
+    long timestamp = (System.currentTimeMillis() / 5000 + 1) * 5000;
+
+    // 50 queries can be acquired at once, which is 10 queries per second in the window
+    for (int i = 0; i < 50; i++) {
+      Assert.assertTrue(rateLimiter.tryAcquire(timestamp));
+    }
+    Assert.assertFalse(rateLimiter.tryAcquire(timestamp));
+    Assert.assertEquals(rateLimiter.getHitRate(timestamp), 10.2);
+  }
+
+  @Test
+  public void testSetRate() {
+    SlidingWindowRateLimiter rateLimiter = new SlidingWindowRateLimiter(10, 1);
+    long timestamp = (System.currentTimeMillis() / 1000 + 1) * 1000;
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(rateLimiter.tryAcquire(timestamp));
+    }
+    Assert.assertFalse(rateLimiter.tryAcquire(timestamp));
+
+    rateLimiter.setRate(20);
+    Assert.assertEquals(rateLimiter.getRate(), 20.0);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(rateLimiter.tryAcquire(timestamp));
+    }
+    Assert.assertFalse(rateLimiter.tryAcquire(timestamp));
+  }
+
+  @Test
+  public void testConcurrency() {
+    int numThreads = 30;
+    int numHitsPerThread = 10000;
+    SlidingWindowRateLimiter rateLimiter = new SlidingWindowRateLimiter(1000, 100);
+    // Fixed timestamp so that all the hits fall into the same window
+    long timestamp = System.currentTimeMillis() / 100_000 * 100_000;
+    AtomicInteger numAcquired = new AtomicInteger();
+    List<Thread> threadList = new ArrayList<>();
+    for (int i = 0; i < numThreads; i++) {
+      Thread thread = new Thread(() -> {
+        for (int j = 0; j < numHitsPerThread; j++) {
+          if (rateLimiter.tryAcquire(timestamp)) {
+            numAcquired.incrementAndGet();
+          }
+        }
+      });
+      thread.start();
+      threadList.add(thread);
+    }
+    for (Thread thread : threadList) {
+      Uninterruptibles.joinUninterruptibly(thread);
+    }
+
+    // All the hits are counted, and the limit can only be exceeded by the number of concurrent callers
+    Assert.assertEquals(rateLimiter.getHitRate(timestamp), numThreads * numHitsPerThread / 100.0);
+    Assert.assertTrue(numAcquired.get() >= 100_000 && numAcquired.get() <= 100_000 + numThreads);
+  }
+}
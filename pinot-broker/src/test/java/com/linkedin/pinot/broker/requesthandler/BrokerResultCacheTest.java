@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.BrokerResponse;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class BrokerResultCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String TABLE_NAME = "testTable";
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable_OFFLINE WHERE column = 1";
+
+  @Test
+  public void testGetAndPut() throws Exception {
+    BrokerResultCache resultCache = new BrokerResultCache(1_000_000L, 60_000L, 60_000L, getBrokerMetrics());
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+    BrokerResultCache.Key key = new BrokerResultCache.Key(brokerRequest, 1L, null, -1L);
+    Assert.assertNull(resultCache.get(TABLE_NAME, key));
+
+    resultCache.put(key, getBrokerResponse(1L));
+    // Same query compiled again
+    BrokerResponse cachedBrokerResponse =
+        resultCache.get(TABLE_NAME, new BrokerResultCache.Key(COMPILER.compileToBrokerRequest(QUERY), 1L, null, -1L));
+    Assert.assertNotNull(cachedBrokerResponse);
+    Assert.assertEquals(cachedBrokerResponse.getNumDocsScanned(), 1L);
+
+    // Modifying the broker request after creating the key should not affect the key
+    brokerRequest.getQuerySource().setTableName("otherTable_OFFLINE");
+    Assert.assertNotNull(resultCache.get(TABLE_NAME, key));
+
+    // Different routing table version
+    Assert.assertNull(
+        resultCache.get(TABLE_NAME, new BrokerResultCache.Key(COMPILER.compileToBrokerRequest(QUERY), 2L, null, -1L)));
+
+    // Different query
+    Assert.assertNull(resultCache.get(TABLE_NAME,
+        new BrokerResultCache.Key(COMPILER.compileToBrokerRequest(QUERY.replace('1', '2')), 1L, null, -1L)));
+  }
+
+  @Test
+  public void testIncompleteResponsesNotCached() throws Exception {
+    BrokerResultCache resultCache = new BrokerResultCache(1_000_000L, 60_000L, 60_000L, getBrokerMetrics());
+    BrokerResultCache.Key key = new BrokerResultCache.Key(COMPILER.compileToBrokerRequest(QUERY), 1L, null, -1L);
+
+    BrokerResponseNative brokerResponse = getBrokerResponse(1L);
+    brokerResponse.setNumServersResponded(1);
+    resultCache.put(key, brokerResponse);
+    Assert.assertNull(resultCache.get(TABLE_NAME, key));
+
+    resultCache.put(key, new BrokerResponseNative(QueryException.BROKER_TIMEOUT_ERROR));
+    Assert.assertNull(resultCache.get(TABLE_NAME, key));
+  }
+
+  @Test
+  public void testExpiration() throws Exception {
+    BrokerResultCache resultCache = new BrokerResultCache(1_000_000L, 60_000L, 0L, getBrokerMetrics());
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+
+    BrokerResultCache.Key offlineKey = new BrokerResultCache.Key(brokerRequest, 1L, null, -1L);
+    resultCache.put(offlineKey, getBrokerResponse(1L));
+    Assert.assertNotNull(resultCache.get(TABLE_NAME, offlineKey));
+
+    // Expires immediately with REALTIME TTL of 0
+    BrokerResultCache.Key realtimeKey = new BrokerResultCache.Key(null, -1L, brokerRequest, 1L);
+    resultCache.put(realtimeKey, getBrokerResponse(1L));
+    Assert.assertNull(resultCache.get(TABLE_NAME, realtimeKey));
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    // Only fits a few responses
+    BrokerResultCache resultCache = new BrokerResultCache(40_000L, 60_000L, 60_000L, getBrokerMetrics());
+    int numQueries = 100;
+    for (int i = 0; i < numQueries; i++) {
+      BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY.replace("1", Integer.toString(i)));
+      resultCache.put(new BrokerResultCache.Key(brokerRequest, 1L, null, -1L), getBrokerResponse(i));
+    }
+    int numCachedResponses = 0;
+    for (int i = 0; i < numQueries; i++) {
+      BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY.replace("1", Integer.toString(i)));
+      if (resultCache.get(TABLE_NAME, new BrokerResultCache.Key(brokerRequest, 1L, null, -1L)) != null) {
+        numCachedResponses++;
+      }
+    }
+    Assert.assertTrue(numCachedResponses > 0 && numCachedResponses < numQueries);
+  }
+
+  private static BrokerResponseNative getBrokerResponse(long numDocsScanned) {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setNumServersQueried(2);
+    brokerResponse.setNumServersResponded(2);
+    brokerResponse.setNumDocsScanned(numDocsScanned);
+    return brokerResponse;
+  }
+
+  private static BrokerMetrics getBrokerMetrics() {
+    return new BrokerMetrics(new MetricsRegistry());
+  }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.pql.parsers.Pql2CompilationException;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class CompiledQueryCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable WHERE column = 1";
+
+  @Test
+  public void testCompile() {
+    CompiledQueryCache compiledQueryCache =
+        new CompiledQueryCache(COMPILER, 10L, new BrokerMetrics(new MetricsRegistry()));
+    BrokerRequest expectedBrokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+
+    BrokerRequest brokerRequest = compiledQueryCache.compile(QUERY);
+    Assert.assertEquals(brokerRequest, expectedBrokerRequest);
+
+    // Modifying the returned broker request should not affect the cached one
+    brokerRequest.getQuerySource().setTableName("testTable_OFFLINE");
+    brokerRequest.getFilterQuery().setColumn("otherColumn");
+    BrokerRequest cachedBrokerRequest = compiledQueryCache.compile(QUERY);
+    Assert.assertEquals(cachedBrokerRequest, expectedBrokerRequest);
+    Assert.assertNotSame(cachedBrokerRequest, compiledQueryCache.compile(QUERY));
+  }
+
+  @Test(expectedExceptions = Pql2CompilationException.class)
+  public void testCompilationError() {
+    new CompiledQueryCache(COMPILER, 10L, new BrokerMetrics(new MetricsRegistry())).compile("SELECT FROM");
+  }
+}
@@ -94,6 +94,37 @@ public class RoutingTableTest {
   }
 
 
+  @Test
+  public void testRoutingTableVersionOnSegmentRefresh() throws Exception {
+    FakePropertyStore propertyStore = new FakePropertyStore();
+    HelixExternalViewBasedRouting routingTable =
+        new HelixExternalViewBasedRouting(propertyStore, null, new BaseConfiguration());
+    routingTable.setBrokerMetrics(new BrokerMetrics(new MetricsRegistry()));
+
+    ExternalView externalView = new ExternalView("myTable_OFFLINE");
+    externalView.setState("someSegment_0", "Server_1.2.3.4_1234", "ONLINE");
+    List<InstanceConfig> instanceConfigs = new ArrayList<>();
+    instanceConfigs.add(new InstanceConfig("Server_1.2.3.4_1234"));
+    routingTable.markDataResourceOnline(generateTableConfig("myTable_OFFLINE"), externalView, instanceConfigs);
+    long version = routingTable.getRoutingTableVersion("myTable_OFFLINE");
+    Assert.assertTrue(version > 0);
+
+    Assert.assertFalse(routingTable.isSegmentRefreshPending("myTable_OFFLINE"));
+
+    // Refreshing the segment does not change the external view, the refresh is no longer pending after the pending time
+    routingTable.markSegmentRefreshPending("myTable_OFFLINE", 0L);
+    long refreshedVersion = routingTable.getRoutingTableVersion("myTable_OFFLINE");
+    Assert.assertTrue(refreshedVersion > version);
+    Assert.assertFalse(routingTable.isSegmentRefreshPending("myTable_OFFLINE"));
+
+    routingTable.markSegmentRefreshPending("myTable_OFFLINE", 60_000L);
+    Assert.assertTrue(routingTable.getRoutingTableVersion("myTable_OFFLINE") > refreshedVersion);
+    Assert.assertTrue(routingTable.isSegmentRefreshPending("myTable_OFFLINE"));
+
+    routingTable.markDataResourceOffline("myTable_OFFLINE");
+    Assert.assertEquals(routingTable.getRoutingTableVersion("myTable_OFFLINE"), -1L);
+  }
+
   @Test
   public void testTimeBoundaryRegression() throws Exception {
     final FakePropertyStore propertyStore = new FakePropertyStore();
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class ServerLatencyTrackerTest {
+  private static final String FAST_SERVER = "Server_fast_8000";
+  private static final String SLOW_SERVER = "Server_slow_8000";
+
+  @Test
+  public void testScore() {
+    ServerLatencyTracker serverLatencyTracker = new ServerLatencyTracker();
+
+    // Unknown servers get the default score
+    Assert.assertEquals(serverLatencyTracker.getScore(FAST_SERVER), serverLatencyTracker.getScore(SLOW_SERVER));
+
+    for (int i = 0; i < 10; i++) {
+      serverLatencyTracker.markRequestSent(FAST_SERVER);
+      serverLatencyTracker.markRequestSent(SLOW_SERVER);
+      serverLatencyTracker.markResponseReceived(FAST_SERVER, 10);
+      serverLatencyTracker.markResponseReceived(SLOW_SERVER, 100);
+    }
+    Assert.assertEquals(serverLatencyTracker.getNumInFlightRequests(FAST_SERVER), 0);
+    Assert.assertEquals(serverLatencyTracker.getNumInFlightRequests(SLOW_SERVER), 0);
+    Assert.assertTrue(serverLatencyTracker.getScore(FAST_SERVER) < serverLatencyTracker.getScore(SLOW_SERVER));
+
+    // In-flight requests penalize the server
+    for (int i = 0; i < 5; i++) {
+      serverLatencyTracker.markRequestSent(FAST_SERVER);
+    }
+    Assert.assertEquals(serverLatencyTracker.getNumInFlightRequests(FAST_SERVER), 5);
+    Assert.assertTrue(serverLatencyTracker.getScore(FAST_SERVER) > serverLatencyTracker.getScore(SLOW_SERVER));
+  }
+
+  @Test
+  public void testSelectServer() {
+    ServerLatencyTracker serverLatencyTracker = new ServerLatencyTracker();
+    serverLatencyTracker.markRequestSent(FAST_SERVER);
+    serverLatencyTracker.markRequestSent(SLOW_SERVER);
+    serverLatencyTracker.markResponseReceived(FAST_SERVER, 10);
+    serverLatencyTracker.markResponseReceived(SLOW_SERVER, 100);
+
+    List<String> servers = Arrays.asList(SLOW_SERVER, FAST_SERVER);
+    Random random = new Random();
+    Map<String, List<String>> routingTable = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(serverLatencyTracker.selectServer(servers, random, routingTable), FAST_SERVER);
+    }
+    Assert.assertEquals(serverLatencyTracker.selectServer(Arrays.asList(SLOW_SERVER), random, routingTable),
+        SLOW_SERVER);
+
+    // Segments assigned to the fast server for the same query penalize it, 10ms * (1 + 10) > 100ms
+    List<String> segments = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      segments.add("segment_" + i);
+    }
+    routingTable.put(FAST_SERVER, segments);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(serverLatencyTracker.selectServer(servers, random, routingTable), SLOW_SERVER);
+    }
+  }
+
+  @Test
+  public void testSegmentsSpreadInProportionToSpeed() {
+    ServerLatencyTracker serverLatencyTracker = new ServerLatencyTracker();
+    serverLatencyTracker.markRequestSent(FAST_SERVER);
+    serverLatencyTracker.markRequestSent(SLOW_SERVER);
+    serverLatencyTracker.markResponseReceived(FAST_SERVER, 10);
+    serverLatencyTracker.markResponseReceived(SLOW_SERVER, 40);
+
+    List<String> servers = Arrays.asList(SLOW_SERVER, FAST_SERVER);
+    Random random = new Random();
+    Map<String, List<String>> routingTable = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      String server = serverLatencyTracker.selectServer(servers, random, routingTable);
+      routingTable.computeIfAbsent(server, k -> new ArrayList<>()).add("segment_" + i);
+    }
+    // The fast server gets about 4 times the segments of the slow server
+    int numFastServerSegments = routingTable.get(FAST_SERVER).size();
+    Assert.assertTrue(numFastServerSegments >= 75 && numFastServerSegments <= 85);
+  }
+
+  @Test
+  public void testGetMaxScore() {
+    ServerLatencyTracker serverLatencyTracker = new ServerLatencyTracker();
+    serverLatencyTracker.markRequestSent(FAST_SERVER);
+    serverLatencyTracker.markRequestSent(SLOW_SERVER);
+    serverLatencyTracker.markResponseReceived(FAST_SERVER, 10);
+    serverLatencyTracker.markResponseReceived(SLOW_SERVER, 100);
+
+    Assert.assertEquals(serverLatencyTracker.getMaxScore(Arrays.asList(FAST_SERVER, SLOW_SERVER)),
+        serverLatencyTracker.getScore(SLOW_SERVER));
+    Assert.assertEquals(serverLatencyTracker.getMaxScore(null), Double.MAX_VALUE);
+  }
+}
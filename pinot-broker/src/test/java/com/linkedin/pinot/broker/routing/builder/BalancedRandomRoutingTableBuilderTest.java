@@ -18,6 +18,7 @@ package com.linkedin.pinot.broker.routing.builder;
 import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
 import com.linkedin.pinot.common.config.TableConfig;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -91,6 +92,63 @@ public class BalancedRandomRoutingTableBuilderTest {
     Assert.assertEquals(segmentsInRoutingTable, expectedSegments);
   }
 
+  @Test
+  public void testIncrementalUpdate() {
+    BalancedRandomRoutingTableBuilder routingTableBuilder = new BalancedRandomRoutingTableBuilder();
+    String[] servers = new String[]{"Server_1.2.3.4_1234", "Server_1.2.3.5_2345", "Server_1.2.3.6_3456"};
+    List<InstanceConfig> instanceConfigList = getDummyInstanceConfigs();
+
+    // Build routing tables
+    int numSegments = 50;
+    ExternalView externalView = new ExternalView("dummy");
+    for (int i = 0; i < numSegments; i++) {
+      for (String server : servers) {
+        externalView.setState("segment_" + i, server, "ONLINE");
+      }
+    }
+    routingTableBuilder.computeOnExternalViewChange("dummy", externalView, instanceConfigList);
+    List<Map<String, List<String>>> lastRoutingTables = routingTableBuilder.getRoutingTables();
+
+    // Remove segment_0, move segment_1 off the last server and add segment_50
+    ExternalView newExternalView = new ExternalView("dummy");
+    for (int i = 1; i <= numSegments; i++) {
+      int numServers = (i == 1) ? servers.length - 1 : servers.length;
+      for (int j = 0; j < numServers; j++) {
+        newExternalView.setState("segment_" + i, servers[j], "ONLINE");
+      }
+    }
+    routingTableBuilder.computeOnExternalViewChange("dummy", newExternalView, instanceConfigList);
+    List<Map<String, List<String>>> routingTables = routingTableBuilder.getRoutingTables();
+
+    Assert.assertEquals(routingTables.size(), lastRoutingTables.size());
+    for (int i = 0; i < routingTables.size(); i++) {
+      Map<String, String> lastSegmentToServerMap = getSegmentToServerMap(lastRoutingTables.get(i));
+      Map<String, String> segmentToServerMap = getSegmentToServerMap(routingTables.get(i));
+
+      // Each segment should be assigned to one of its servers
+      Assert.assertEquals(segmentToServerMap.keySet(), newExternalView.getPartitionSet());
+      for (Map.Entry<String, String> entry : segmentToServerMap.entrySet()) {
+        Assert.assertTrue(newExternalView.getStateMap(entry.getKey()).containsKey(entry.getValue()));
+      }
+
+      // Unchanged segments should stay on the same server
+      for (int j = 2; j < numSegments; j++) {
+        String segmentName = "segment_" + j;
+        Assert.assertEquals(segmentToServerMap.get(segmentName), lastSegmentToServerMap.get(segmentName));
+      }
+    }
+  }
+
+  private Map<String, String> getSegmentToServerMap(Map<String, List<String>> routingTable) {
+    Map<String, String> segmentToServerMap = new HashMap<>();
+    for (Map.Entry<String, List<String>> entry : routingTable.entrySet()) {
+      for (String segmentName : entry.getValue()) {
+        Assert.assertNull(segmentToServerMap.put(segmentName, entry.getKey()));
+      }
+    }
+    return segmentToServerMap;
+  }
+
   private ExternalView getDummyExternalView() {
     ExternalView externalView = new ExternalView("dummy");
     externalView.setState("segment_1", "Server_1.2.3.4_1234", "ONLINE");
@@ -69,6 +69,9 @@ public class IndexingConfig {
   @ConfigKey("onHeapDictionaryColumns")
   private List<String> _onHeapDictionaryColumns;
 
+  @ConfigKey("bloomFilterColumns")
+  private List<String> _bloomFilterColumns;
+
   @ConfigKey("starTreeIndexSpec")
   private StarTreeIndexSpec _starTreeIndexSpec;
 
@@ -177,6 +180,14 @@ public class IndexingConfig {
     _onHeapDictionaryColumns = onHeapDictionaryColumns;
   }
 
+  public List<String> getBloomFilterColumns() {
+    return _bloomFilterColumns;
+  }
+
+  public void setBloomFilterColumns(List<String> bloomFilterColumns) {
+    _bloomFilterColumns = bloomFilterColumns;
+  }
+
   public void setStarTreeIndexSpec(StarTreeIndexSpec starTreeIndexSpec) {
     _starTreeIndexSpec = starTreeIndexSpec;
   }
@@ -262,6 +273,7 @@ public class IndexingConfig {
         && EqualityUtils.isEqual(_columnMinMaxValueGeneratorMode, that._columnMinMaxValueGeneratorMode) && EqualityUtils
         .isEqual(_noDictionaryColumns, that._noDictionaryColumns) && EqualityUtils.isEqual(_noDictionaryConfig,
         that._noDictionaryConfig) && EqualityUtils.isEqual(_onHeapDictionaryColumns, that._onHeapDictionaryColumns)
+        && EqualityUtils.isEqual(_bloomFilterColumns, that._bloomFilterColumns)
         && EqualityUtils.isEqual(_starTreeIndexSpec, that._starTreeIndexSpec) && EqualityUtils.isEqual(
         _segmentPartitionConfig, that._segmentPartitionConfig);
   }
@@ -279,6 +291,7 @@ public class IndexingConfig {
     result = EqualityUtils.hashCodeOf(result, _noDictionaryColumns);
     result = EqualityUtils.hashCodeOf(result, _noDictionaryConfig);
     result = EqualityUtils.hashCodeOf(result, _onHeapDictionaryColumns);
+    result = EqualityUtils.hashCodeOf(result, _bloomFilterColumns);
     result = EqualityUtils.hashCodeOf(result, _starTreeIndexSpec);
     result = EqualityUtils.hashCodeOf(result, _segmentPartitionConfig);
     return result;
@@ -24,7 +24,8 @@ import com.linkedin.pinot.common.Utils;
 */
 public enum BrokerGauge implements AbstractMetrics.Gauge {
   QUERY_QUOTA_CAPACITY_UTILIZATION_RATE("tables", false),
-  NETTY_CONNECTION_CONNECT_TIME_MS("nettyConnection", true);
+  NETTY_CONNECTION_CONNECT_TIME_MS("nettyConnection", true),
+  RESULT_CACHE_SIZE_BYTES("resultCache", true);
 
   private final String brokerGaugeName;
   private final String unit;
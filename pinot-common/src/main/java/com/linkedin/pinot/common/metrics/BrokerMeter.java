@@ -76,6 +76,12 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
 
   REQUEST_DROPPED_DUE_TO_ACCESS_ERROR("requestsDropped", false),
 
+  // Hedged requests sent to another server when the original server is slow to respond, the hedged requests that
+  // responded before the original requests, and the hedged requests not sent because the hedge budget is exhausted
+  HEDGED_REQUESTS("requests", false),
+  HEDGED_REQUEST_WINS("requests", false),
+  HEDGED_REQUESTS_OVER_BUDGET("requests", false),
+
   // Number of queries served by LLC and HLC routing tables
   LLC_QUERY_COUNT("queries", false),
   HLC_QUERY_COUNT("queries", false),
@@ -94,7 +100,16 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   // Netty connection metrics
   NETTY_CONNECTION_REQUESTS_SENT("nettyConnection", true),
   NETTY_CONNECTION_BYTES_SENT("nettyConnection", true),
-  NETTY_CONNECTION_BYTES_RECEIVED("nettyConnection", true);
+  NETTY_CONNECTION_BYTES_RECEIVED("nettyConnection", true),
+
+  // Result cache metrics
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+  RESULT_CACHE_EVICTIONS("resultCache", true),
+
+  // Compiled query cache metrics
+  QUERY_COMPILATION_CACHE_HITS("queries", true),
+  QUERY_COMPILATION_CACHE_MISSES("queries", true);
 
   private final String brokerMeterName;
   private final String unit;
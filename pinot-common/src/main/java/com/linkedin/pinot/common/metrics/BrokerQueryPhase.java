@@ -29,6 +29,9 @@ public enum BrokerQueryPhase implements AbstractMetrics.QueryPhase {
   SCATTER_GATHER,
   DESERIALIZATION,
   REDUCE,
+  // Sub-phases of REDUCE: merging the server responses, and trimming the merged results into the broker response
+  REDUCE_MERGE,
+  REDUCE_TRIM,
   REQUEST_CONNECTION_WAIT,
   AUTHORIZATION;
 
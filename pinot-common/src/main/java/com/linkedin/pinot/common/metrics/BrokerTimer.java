@@ -24,7 +24,9 @@ import com.linkedin.pinot.common.Utils;
 */
 public enum BrokerTimer implements AbstractMetrics.Timer {
   ROUTING_TABLE_UPDATE_TIME(true),
-  ROUTING_TABLE_UPDATE_QUEUE_TIME(true);
+  ROUTING_TABLE_UPDATE_QUEUE_TIME(true),
+  // Time to parse the queries missing the compiled query cache
+  QUERY_PARSING_TIME(true);
   private final String timerName;
   private final boolean global;
 
@@ -52,7 +52,9 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   NUM_ENTRIES_SCANNED_IN_FILTER("entries", false),
   NUM_ENTRIES_SCANNED_POST_FILTER("entries", false),
   NUM_SEGMENTS_SEARCHED("numSegmentsSearched", false),
-  NUM_MISSING_SEGMENTS("segments", false);
+  NUM_MISSING_SEGMENTS("segments", false),
+  SEGMENT_DOWNLOADED_BYTES("bytes", false),
+  SEGMENT_DOWNLOAD_FAILURES("segments", false);
 
   private final String meterName;
   private final String unit;
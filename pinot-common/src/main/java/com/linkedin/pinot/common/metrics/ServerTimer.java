@@ -23,7 +23,9 @@ import com.linkedin.pinot.common.Utils;
 *
 */
 public enum ServerTimer implements AbstractMetrics.Timer {
-  CURRENT_MSG_EVENT_TIMESTAMP_LAG("currentMsgEventTimestampLag", false);
+  CURRENT_MSG_EVENT_TIMESTAMP_LAG("currentMsgEventTimestampLag", false),
+  SEGMENT_DOWNLOAD_TIME_MS("milliseconds", false),
+  SEGMENT_LOAD_TIME_MS("milliseconds", false);
 
   private final String timerName;
   private final boolean global;
@@ -40,8 +40,8 @@ import org.json.JSONObject;
  * Supports serialization via JSON.
  */
 @JsonPropertyOrder({"selectionResults", "aggregationResults", "exceptions", "numServersQueried", "numServersResponded",
-    "numDocsScanned", "numEntriesScannedInFilter", "numEntriesScannedPostFilter", "totalDocs", "numGroupsLimitReached",
-    "timeUsedMs", "segmentStatistics", "traceInfo"})
+    "numDocsScanned", "numEntriesScannedInFilter", "numEntriesScannedPostFilter", "filterStatistics", "totalDocs",
+    "numGroupsLimitReached", "timeUsedMs", "segmentStatistics", "traceInfo"})
 public class BrokerResponseNative implements BrokerResponse {
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
@@ -55,6 +55,7 @@ public class BrokerResponseNative implements BrokerResponse {
   private long _numEntriesScannedInFilter = 0L;
   private long _numEntriesScannedPostFilter = 0L;
   private long _totalDocs = 0L;
+  private Map<String, Long> _filterStatistics;
   private boolean _numGroupsLimitReached = false;
   private long _timeUsedMs = 0L;
 
@@ -173,6 +174,21 @@ public class BrokerResponseNative implements BrokerResponse {
     _numEntriesScannedPostFilter = numEntriesScannedPostFilter;
   }
 
+  /**
+   * Returns the number of entries scanned by each leaf filter, keyed by the filter description, or {@code null} if no
+   * filter was applied.
+   */
+  @JsonProperty("filterStatistics")
+  @JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+  public Map<String, Long> getFilterStatistics() {
+    return _filterStatistics;
+  }
+
+  @JsonProperty("filterStatistics")
+  public void setFilterStatistics(Map<String, Long> filterStatistics) {
+    _filterStatistics = filterStatistics;
+  }
+
   @JsonProperty("totalDocs")
   @Override
   public long getTotalDocs() {
@@ -22,7 +22,10 @@ import java.io.File;
 import java.net.URI;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,6 +76,45 @@ public class HttpSegmentFetcher implements SegmentFetcher {
     });
   }
 
+  /**
+   * Untars the segment while downloading it, so that the tarred segment is never written to disk.
+   */
+  @Override
+  public long fetchAndUntarSegmentToLocal(final String uri, final File outputDir) throws Exception {
+    // Only the bytes of the successful attempt are counted
+    AtomicLong numBytesFetched = new AtomicLong();
+    RetryPolicies.exponentialBackoffRetryPolicy(_retryCount, _retryWaitMs, 5).attempt(() -> {
+      // Clean up the partially untarred files from the previous attempt
+      FileUtils.deleteQuietly(outputDir);
+      try {
+        long numBytesDownloaded = _httpClient.downloadAndUntarFile(new URI(uri), outputDir);
+        _logger.info("Downloaded and untarred file from: {} to: {}; Length of downloaded file: {}", uri, outputDir,
+            numBytesDownloaded);
+        numBytesFetched.set(numBytesDownloaded);
+        return true;
+      } catch (ArchiveException e) {
+        // Permanent exception, the whole file is downloaded but cannot be untarred
+        _logger.error("Caught corrupt tarred file while downloading file from: {}, won't retry", uri, e);
+        throw e;
+      } catch (HttpErrorStatusException e) {
+        int statusCode = e.getStatusCode();
+        if (statusCode >= 500) {
+          // Temporary exception
+          _logger.warn("Caught temporary exception while downloading file from: {}, will retry", uri, e);
+          return false;
+        } else {
+          // Permanent exception
+          _logger.error("Caught permanent exception while downloading file from: {}, won't retry", uri, e);
+          throw e;
+        }
+      } catch (Exception e) {
+        _logger.warn("Caught temporary exception while downloading file from: {}, will retry", uri, e);
+        return false;
+      }
+    });
+    return numBytesFetched.get();
+  }
+
   @Override
   public Set<String> getProtectedConfigKeys() {
     return Collections.emptySet();
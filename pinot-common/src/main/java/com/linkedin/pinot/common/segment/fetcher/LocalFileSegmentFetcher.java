@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.common.segment.fetcher;
 
+import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import java.io.File;
 import java.util.Collections;
 import java.util.Set;
@@ -38,6 +39,17 @@ public class LocalFileSegmentFetcher implements SegmentFetcher {
     LOGGER.info("Copy file from {} to {}; Length of file: {}", uri, tempFile, tempFile.length());
   }
 
+  /**
+   * Untars the segment directly from its location without copying it first.
+   */
+  @Override
+  public long fetchAndUntarSegmentToLocal(String uri, File outputDir) throws Exception {
+    File tarFile = new File(uri);
+    TarGzCompressionUtils.unTar(tarFile, outputDir);
+    LOGGER.info("Untar file from {} to {}; Length of file: {}", uri, outputDir, tarFile.length());
+    return tarFile.length();
+  }
+
   @Override
   public Set<String> getProtectedConfigKeys() {
     return Collections.emptySet();
@@ -15,9 +15,11 @@
  */
 package com.linkedin.pinot.common.segment.fetcher;
 
+import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import java.io.File;
 import java.util.Set;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
 
 
 public interface SegmentFetcher {
@@ -36,6 +38,26 @@ public interface SegmentFetcher {
    */
   void fetchSegmentToLocal(String uri, File tempFile) throws Exception;
 
+  /**
+   * Fetches a tarred (tar or tar.gz) segment from a uri location and untars it into the given directory.
+   * <p>The default implementation fetches the tarred segment into a temporary file before untarring it. Fetchers that
+   * can stream the segment should override this method to untar it while fetching.
+   * @param uri current segment location
+   * @param outputDir directory the segment will be untarred into
+   * @return number of bytes of the fetched tarred segment
+   * @throws Exception
+   */
+  default long fetchAndUntarSegmentToLocal(String uri, File outputDir) throws Exception {
+    File tempTarFile = new File(outputDir.getPath() + TarGzCompressionUtils.TAR_GZ_FILE_EXTENSION);
+    try {
+      fetchSegmentToLocal(uri, tempTarFile);
+      TarGzCompressionUtils.unTar(tempTarFile, outputDir);
+      return tempTarFile.length();
+    } finally {
+      FileUtils.deleteQuietly(tempTarFile);
+    }
+  }
+
   /**
    * Returns a list of config keys whose value should not be logged.
    *
@@ -111,6 +111,44 @@ public class CommonConstants {
     public static final String CONFIG_OF_BROKER_TIMEOUT_MS = "pinot.broker.timeoutMs";
     public static final long DEFAULT_BROKER_TIMEOUT_MS = 10_000L;
     public static final String CONFIG_OF_BROKER_ID = "pinot.broker.id";
+    // Highest data table version the broker advertises to servers, lower it to roll back to an older version
+    public static final String CONFIG_OF_BROKER_DATA_TABLE_VERSION = "pinot.broker.data.table.version";
+    public static final int DEFAULT_BROKER_DATA_TABLE_VERSION = 3;
+    // Number of multiplexed channels per server for the single connection request handler
+    public static final String CONFIG_OF_BROKER_NUM_CHANNELS_PER_SERVER = "pinot.broker.num.channels.per.server";
+    public static final int DEFAULT_BROKER_NUM_CHANNELS_PER_SERVER = 1;
+    // Maximum number of selection rows per server response chunk, 0 to disable chunked responses
+    public static final String CONFIG_OF_BROKER_RESPONSE_CHUNK_SIZE = "pinot.broker.response.chunk.size";
+    public static final int DEFAULT_BROKER_RESPONSE_CHUNK_SIZE = 0;
+    // Maximum size of the cached query results in bytes, 0 to disable the result cache
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_SIZE_BYTES = "pinot.broker.result.cache.size.bytes";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_SIZE_BYTES = 0L;
+    // Time to live of the cached results for queries only hitting OFFLINE tables, which are invalidated on routing
+    // changes and segment refreshes
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_TTL_MS = "pinot.broker.result.cache.ttl.ms";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_TTL_MS = 3_600_000L;
+    // Time to live of the cached results for queries hitting REALTIME tables, which keep changing while consuming
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_REALTIME_TTL_MS =
+        "pinot.broker.result.cache.realtime.ttl.ms";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_REALTIME_TTL_MS = 10_000L;
+    // Time for the servers to load the refreshed segments of an OFFLINE table, during which the query results of the
+    // table are not cached
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_SEGMENT_REFRESH_PENDING_MS =
+        "pinot.broker.result.cache.segment.refresh.pending.ms";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_SEGMENT_REFRESH_PENDING_MS = 60_000L;
+    // Number of threads (including the request thread) to reduce the server responses of a query, 1 to reduce them on
+    // the request thread only
+    public static final String CONFIG_OF_BROKER_REDUCE_NUM_THREADS = "pinot.broker.reduce.num.threads";
+    public static final int DEFAULT_BROKER_REDUCE_NUM_THREADS = 1;
+    // Maximum number of compiled queries cached by query string, 0 to disable the compiled query cache
+    public static final String CONFIG_OF_BROKER_QUERY_COMPILATION_CACHE_SIZE =
+        "pinot.broker.query.compilation.cache.size";
+    public static final long DEFAULT_BROKER_QUERY_COMPILATION_CACHE_SIZE = 0L;
+    // Max burst in seconds of the per-broker query quota: up to (per-broker rate * max burst seconds) queries can be
+    // served at once after an idle period
+    public static final String CONFIG_OF_BROKER_QUERY_QUOTA_MAX_BURST_SECONDS =
+        "pinot.broker.query.quota.max.burst.seconds";
+    public static final double DEFAULT_BROKER_QUERY_QUOTA_MAX_BURST_SECONDS = 1.0;
     public static final BrokerResponseFactory.ResponseType DEFAULT_BROKER_RESPONSE_TYPE =
         BrokerResponseFactory.ResponseType.BROKER_RESPONSE_TYPE_NATIVE;
     // The sleep interval time of the thread used by the Brokers to refresh TimeboundaryInfo upon segment refreshing
@@ -125,6 +163,13 @@ public class CommonConstants {
 
       public static class QueryOptionKey {
         public static final String PRESERVE_TYPE = "preserveType";
+        public static final String MAX_THREADS_PER_QUERY = "maxThreadsPerQuery";
+        // Set by the broker to negotiate the data table version of the server responses
+        public static final String DATA_TABLE_VERSION = "dataTableVersion";
+        // Maximum number of selection rows per server response chunk, servers send a single response if not set
+        public static final String RESPONSE_CHUNK_SIZE = "responseChunkSize";
+        // Set to true to bypass the broker result cache
+        public static final String SKIP_RESULT_CACHE = "skipResultCache";
       }
     }
   }
@@ -30,10 +30,14 @@ public interface DataTable {
   String NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY = "numEntriesScannedInFilter";
   String NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY = "numEntriesScannedPostFilter";
   String TOTAL_DOCS_METADATA_KEY = "totalDocs";
+  // Followed by the leaf filter description, the value is the number of entries scanned by the leaf filter
+  String FILTER_STATISTICS_METADATA_KEY_PREFIX = "filterStatistics:";
   String NUM_GROUPS_LIMIT_REACHED_KEY = "numGroupsLimitReached";
   String TIME_USED_MS_METADATA_KEY = "timeUsedMs";
   String TRACE_INFO_METADATA_KEY = "traceInfo";
   String REQUEST_ID_METADATA_KEY = "requestId";
+  // Only set on the intermediate chunks of a chunked response, the last response carries the execution statistics
+  String RESPONSE_CHUNK_METADATA_KEY = "responseChunk";
 
   void addException(@Nonnull ProcessingException processingException);
 
@@ -29,7 +29,9 @@ import java.net.URISyntaxException;
 import java.util.List;
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLContext;
+import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
@@ -566,7 +568,6 @@ public class FileUploadDownloadClient implements Closeable {
       }
 
       // Verify content length if known
-      long contentLength = entity.getContentLength();
       if (contentLength >= 0L) {
         long fileLength = dest.length();
         Preconditions.checkState(fileLength == contentLength,
@@ -591,6 +592,83 @@ public class FileUploadDownloadClient implements Closeable {
     return downloadFile(uri, DEFAULT_SOCKET_TIMEOUT_MS, dest);
   }
 
+  /**
+   * Download a tarred (tar or tar.gz) file and untar it into the given directory while downloading, without writing the
+   * tarred file to disk.
+   * <p>If the untar fails but the whole file can still be downloaded, the tarred file is corrupt and an
+   * {@link ArchiveException} is thrown, so that the caller does not need to download it again. Otherwise (e.g. the
+   * connection is broken), the {@link IOException} is thrown.
+   *
+   * @param uri URI
+   * @param socketTimeoutMs Socket timeout in milliseconds
+   * @param outputDir Directory to untar the file into
+   * @return Number of bytes downloaded
+   * @throws IOException
+   * @throws ArchiveException If the tarred file is corrupt
+   * @throws HttpErrorStatusException
+   */
+  public long downloadAndUntarFile(URI uri, int socketTimeoutMs, File outputDir)
+      throws IOException, ArchiveException, HttpErrorStatusException {
+    HttpUriRequest request = getDownloadFileRequest(uri, socketTimeoutMs);
+    try (CloseableHttpResponse response = _httpClient.execute(request)) {
+      StatusLine statusLine = response.getStatusLine();
+      int statusCode = statusLine.getStatusCode();
+      if (statusCode >= 300) {
+        throw new HttpErrorStatusException(getErrorMessage(request, response), statusCode);
+      }
+
+      HttpEntity entity = response.getEntity();
+      long contentLength = entity.getContentLength();
+      long numBytesDownloaded;
+      try (CountingInputStream inputStream = new CountingInputStream(entity.getContent())) {
+        try {
+          TarGzCompressionUtils.unTar(inputStream, outputDir);
+        } catch (IOException e) {
+          // The untar fails on either a broken connection or a corrupt tarred file, read the rest of the file to tell
+          // them apart
+          try {
+            IOUtils.skip(inputStream, Long.MAX_VALUE);
+          } catch (IOException readException) {
+            e.addSuppressed(readException);
+            throw e;
+          }
+          if (contentLength < 0L || inputStream.getByteCount() == contentLength) {
+            throw new ArchiveException("Caught corrupt tarred file while downloading file with uri: " + uri, e);
+          }
+          throw e;
+        }
+        // Drain the trailing padding of the tar file so that the content length can be verified
+        IOUtils.skip(inputStream, Long.MAX_VALUE);
+        numBytesDownloaded = inputStream.getByteCount();
+      }
+
+      // Verify content length if known
+      long contentLength = entity.getContentLength();
+      if (contentLength >= 0L) {
+        Preconditions.checkState(numBytesDownloaded == contentLength,
+            String.format("While downloading file with uri: %s, downloaded length: %d does not match content length: %d",
+                uri, numBytesDownloaded, contentLength));
+      }
+
+      return numBytesDownloaded;
+    }
+  }
+
+  /**
+   * Download a tarred file and untar it into the given directory using default settings.
+   *
+   * @param uri URI
+   * @param outputDir Directory to untar the file into
+   * @return Number of bytes downloaded
+   * @throws IOException
+   * @throws ArchiveException
+   * @throws HttpErrorStatusException
+   */
+  public long downloadAndUntarFile(URI uri, File outputDir)
+      throws IOException, ArchiveException, HttpErrorStatusException {
+    return downloadAndUntarFile(uri, DEFAULT_SOCKET_TIMEOUT_MS, outputDir);
+  }
+
   @Override
   public void close() throws IOException {
     _httpClient.close();
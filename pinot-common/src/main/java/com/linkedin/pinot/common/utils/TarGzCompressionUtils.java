@@ -152,57 +152,82 @@ public class TarGzCompressionUtils {
    */
   public static List<File> unTar(final File inputFile, final File outputDir)
       throws IOException, ArchiveException {
+    LOGGER.debug("Untaring {} to dir {}.", inputFile.getAbsolutePath(), outputDir.getAbsolutePath());
+    try (InputStream inputStream = new FileInputStream(inputFile)) {
+      return unTar(inputStream, outputDir);
+    }
+  }
 
+  /**
+   * Untar the content of an input stream into the output directory.
+   * <p>Both gzip compressed and uncompressed tar streams are supported, and the stream is untarred while it is being
+   * read, so that a remote tar file can be untarred while downloading without being written to disk first. The input
+   * stream is not closed by this method.
+   *
+   * @param inputStream the input tar or tar.gz stream
+   * @param outputDir the output directory file.
+   * @throws IOException
+   *
+   * @return The {@link List} of {@link File}s with the untared content.
+   * @throws ArchiveException
+   */
+  public static List<File> unTar(final InputStream inputStream, final File outputDir)
+      throws IOException, ArchiveException {
     String outputDirectoryPath = outputDir.getCanonicalPath();
-    LOGGER.debug("Untaring {} to dir {}.", inputFile.getAbsolutePath(), outputDirectoryPath);
-    TarArchiveInputStream debInputStream = null;
-    InputStream is = null;
     final List<File> untaredFiles = new LinkedList<File>();
-    try {
-      is = new GzipCompressorInputStream(new BufferedInputStream(new FileInputStream(inputFile)));
-      debInputStream = (TarArchiveInputStream) new ArchiveStreamFactory().createArchiveInputStream("tar", is);
-      TarArchiveEntry entry = null;
-      while ((entry = (TarArchiveEntry) debInputStream.getNextEntry()) != null) {
-        final File outputFile = new File(outputDir, entry.getName());
-        // Check whether the untarred file will be put outside of the target output directory.
-        if (!outputFile.getCanonicalPath().startsWith(outputDirectoryPath)) {
-          throw new IOException("Tar file must not be untarred outside of the target output directory!");
-        }
-        if (entry.isDirectory()) {
-          LOGGER.debug(String.format("Attempting to write output directory %s.", outputFile.getAbsolutePath()));
-          if (!outputFile.exists()) {
-            LOGGER.debug(String.format("Attempting to create output directory %s.", outputFile.getAbsolutePath()));
-            if (!outputFile.mkdirs()) {
-              throw new IllegalStateException(
-                  String.format("Couldn't create directory %s.", outputFile.getAbsolutePath()));
-            }
-          } else {
-            LOGGER.error("The directory already there. Deleting - " + outputFile.getAbsolutePath());
-            FileUtils.deleteDirectory(outputFile);
+    // NOTE: do not close the archive input stream, which will close the given input stream
+    TarArchiveInputStream debInputStream = (TarArchiveInputStream) new ArchiveStreamFactory().createArchiveInputStream(
+        "tar", getUncompressedInputStream(new BufferedInputStream(inputStream)));
+    TarArchiveEntry entry = null;
+    while ((entry = (TarArchiveEntry) debInputStream.getNextEntry()) != null) {
+      final File outputFile = new File(outputDir, entry.getName());
+      // Check whether the untarred file will be put outside of the target output directory.
+      if (!outputFile.getCanonicalPath().startsWith(outputDirectoryPath)) {
+        throw new IOException("Tar file must not be untarred outside of the target output directory!");
+      }
+      if (entry.isDirectory()) {
+        LOGGER.debug(String.format("Attempting to write output directory %s.", outputFile.getAbsolutePath()));
+        if (!outputFile.exists()) {
+          LOGGER.debug(String.format("Attempting to create output directory %s.", outputFile.getAbsolutePath()));
+          if (!outputFile.mkdirs()) {
+            throw new IllegalStateException(
+                String.format("Couldn't create directory %s.", outputFile.getAbsolutePath()));
           }
         } else {
-          LOGGER.debug(String.format("Creating output file %s.", outputFile.getAbsolutePath()));
-          File directory = outputFile.getParentFile();
-          if (!directory.exists()) {
-            directory.mkdirs();
-          }
-          OutputStream outputFileStream = null;
-          try {
-            outputFileStream = new FileOutputStream(outputFile);
-            IOUtils.copy(debInputStream, outputFileStream);
-          } finally {
-            IOUtils.closeQuietly(outputFileStream);
-          }
+          LOGGER.error("The directory already there. Deleting - " + outputFile.getAbsolutePath());
+          FileUtils.deleteDirectory(outputFile);
+        }
+      } else {
+        LOGGER.debug(String.format("Creating output file %s.", outputFile.getAbsolutePath()));
+        File directory = outputFile.getParentFile();
+        if (!directory.exists()) {
+          directory.mkdirs();
+        }
+        try (OutputStream outputFileStream = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+          IOUtils.copyLarge(debInputStream, outputFileStream);
         }
-        untaredFiles.add(outputFile);
       }
-    } finally {
-      IOUtils.closeQuietly(debInputStream);
-      IOUtils.closeQuietly(is);
+      untaredFiles.add(outputFile);
     }
     return untaredFiles;
   }
 
+  /**
+   * Helper method to wrap the given stream with a gzip decompressor if it is gzip compressed. The given stream must
+   * support mark and reset to peek the gzip signature.
+   */
+  private static InputStream getUncompressedInputStream(BufferedInputStream inputStream) throws IOException {
+    byte[] signature = new byte[2];
+    inputStream.mark(signature.length);
+    int length = IOUtils.read(inputStream, signature);
+    inputStream.reset();
+    if (GzipCompressorInputStream.matches(signature, length)) {
+      return new GzipCompressorInputStream(inputStream);
+    } else {
+      return inputStream;
+    }
+  }
+
   public static InputStream unTarOneFile(InputStream tarGzInputStream, final String filename)
       throws FileNotFoundException, IOException, ArchiveException {
     TarArchiveInputStream debInputStream = null;
@@ -20,10 +20,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -127,6 +129,35 @@ public class TarGzCompressionUtilsTest {
 
   }
 
+  @Test
+  public void testUncompressedTarAndInputStream()
+      throws IOException, ArchiveException {
+    new File(segmentDir, "metadata.properties").createNewFile();
+    File tarGzPath = new File(tarDir, SEGMENT_NAME + ".tar.gz");
+    TarGzCompressionUtils.createTarGzOfDirectory(segmentDir.getPath(), tarGzPath.getPath());
+    // Uncompressed tar file with the same content
+    File tarPath = new File(tarDir, SEGMENT_NAME + ".tar");
+    try (InputStream inputStream = new GzipCompressorInputStream(new FileInputStream(tarGzPath))) {
+      FileUtils.copyInputStreamToFile(inputStream, tarPath);
+    }
+
+    // Both tar and tar.gz files should be untarred from the input stream
+    for (File tarFile : new File[]{tarPath, tarGzPath}) {
+      FileUtils.cleanDirectory(untarDir);
+      try (InputStream inputStream = new FileInputStream(tarFile)) {
+        TarGzCompressionUtils.unTar(inputStream, untarDir);
+      }
+      File[] segments = untarDir.listFiles();
+      Assert.assertNotNull(segments);
+      Assert.assertEquals(segments.length, 1);
+      Assert.assertEquals(segments[0].getName(), SEGMENT_NAME);
+      File[] segmentFiles = segments[0].listFiles();
+      Assert.assertNotNull(segmentFiles);
+      Assert.assertEquals(segmentFiles.length, 1);
+      Assert.assertEquals(segmentFiles[0].getName(), "metadata.properties");
+    }
+  }
+
   @Test
   public void testBadFilePath() throws Exception {
     File metaFile = new File(segmentDir, "metadata.properties");
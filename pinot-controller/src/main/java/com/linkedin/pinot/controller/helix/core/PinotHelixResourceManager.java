@@ -1489,6 +1489,8 @@ public class PinotHelixResourceManager {
       // We return success even if we are not able to send messages (which can happen if no servers are alive).
       // For segment validation errors we would have returned earlier.
       sendSegmentRefreshMessage(offlineSegmentZKMetadata);
+      // Send a message to the brokers to stop caching the table's query results until the servers load the segment.
+      sendSegmentRefreshMessageToBrokers(offlineSegmentZKMetadata);
       // Send a message to the brokers to update the table's time boundary info if the segment push type is APPEND.
       if (shouldSendTimeboundaryRefreshMsg(rawTableName, tableConfig)) {
         sendTimeboundaryRefreshMessageToBrokers(offlineSegmentZKMetadata);
@@ -1510,17 +1512,7 @@ public class PinotHelixResourceManager {
     final int timeoutMs = -1; // Infinite timeout on the recipient.
 
     TimeboundaryRefreshMessage refreshMessage = new TimeboundaryRefreshMessage(offlineTableName, segmentName);
-
-    Criteria recipientCriteria = new Criteria();
-    // Currently Helix does not support send message to a Spectator. So we walk around the problem by sending the
-    // message to participants. Note that brokers are also participants.
-    recipientCriteria.setRecipientInstanceType(InstanceType.PARTICIPANT);
-    recipientCriteria.setInstanceName("%");
-    recipientCriteria.setSessionSpecific(true);
-    recipientCriteria.setResource(CommonConstants.Helix.BROKER_RESOURCE_INSTANCE);
-    recipientCriteria.setDataSource(Criteria.DataSource.EXTERNALVIEW);
-    // The brokerResource field in the EXTERNALVIEW stores the offline table name in the Partition subfield.
-    recipientCriteria.setPartition(offlineTableName);
+    Criteria recipientCriteria = getBrokerRecipientCriteria(offlineTableName);
 
     ClusterMessagingService messagingService = _helixZkManager.getMessagingService();
     LOGGER.info("Sending timeboundary refresh message for segment {} of table {}:{} to recipients {}", segmentName,
@@ -1538,6 +1530,43 @@ public class PinotHelixResourceManager {
     }
   }
 
+  // Send a message to the pinot brokers to notify them that a segment of the table is being refreshed, so that they
+  // stop caching the query results of the table until the servers load the new segment.
+  private void sendSegmentRefreshMessageToBrokers(OfflineSegmentZKMetadata segmentZKMetadata) {
+    final String segmentName = segmentZKMetadata.getSegmentName();
+    final String rawTableName = segmentZKMetadata.getTableName();
+    final String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(rawTableName);
+    final int timeoutMs = -1; // Infinite timeout on the recipient.
+
+    SegmentRefreshMessage refreshMessage =
+        new SegmentRefreshMessage(offlineTableName, segmentName, segmentZKMetadata.getCrc());
+    Criteria recipientCriteria = getBrokerRecipientCriteria(offlineTableName);
+
+    ClusterMessagingService messagingService = _helixZkManager.getMessagingService();
+    int nMsgsSent = messagingService.send(recipientCriteria, refreshMessage, null, timeoutMs);
+    if (nMsgsSent > 0) {
+      LOGGER.info("Sent {} broker msgs to refresh segment {} of table {}", nMsgsSent, segmentName, rawTableName);
+    } else {
+      // May be the case when none of the brokers are up yet. That is OK, because they have no cached results.
+      LOGGER.warn("Unable to send segment refresh message to brokers for {} of table {}, nMsgs={}", segmentName,
+          offlineTableName, nMsgsSent);
+    }
+  }
+
+  private static Criteria getBrokerRecipientCriteria(String offlineTableName) {
+    Criteria recipientCriteria = new Criteria();
+    // Currently Helix does not support send message to a Spectator. So we walk around the problem by sending the
+    // message to participants. Note that brokers are also participants.
+    recipientCriteria.setRecipientInstanceType(InstanceType.PARTICIPANT);
+    recipientCriteria.setInstanceName("%");
+    recipientCriteria.setSessionSpecific(true);
+    recipientCriteria.setResource(CommonConstants.Helix.BROKER_RESOURCE_INSTANCE);
+    recipientCriteria.setDataSource(Criteria.DataSource.EXTERNALVIEW);
+    // The brokerResource field in the EXTERNALVIEW stores the offline table name in the Partition subfield.
+    recipientCriteria.setPartition(offlineTableName);
+    return recipientCriteria;
+  }
+
   public int reloadAllSegments(@Nonnull String tableNameWithType) {
     LOGGER.info("Sending reload message for table: {}", tableNameWithType);
 
@@ -20,7 +20,9 @@ import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.request.Selection;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.common.utils.StringUtil;
 import com.linkedin.pinot.core.common.ObjectSerDeUtils;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
@@ -33,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 
 /**
@@ -81,6 +84,9 @@ import javax.annotation.Nonnull;
 // TODO:   2. Use one dictionary for all columns (save space).
 // TODO:   3. Given a data schema, write all values one by one instead of using rowId and colId to position (save time).
 public class DataTableBuilder {
+  // Initial size of the column-major buffers, which grow as needed
+  private static final int INITIAL_COLUMN_BUFFER_SIZE = 1024;
+
   private final DataSchema _dataSchema;
   private final int[] _columnOffsets;
   private final int _rowSizeInBytes;
@@ -91,21 +97,64 @@ public class DataTableBuilder {
   private final DataOutputStream _variableSizeDataOutputStream =
       new DataOutputStream(_variableSizeDataByteArrayOutputStream);
 
+  // For version 3 data table only (null otherwise): values of each column, and value offsets for object and array
+  // columns
+  private final ByteBuffer[] _columnValues;
+  private final ByteBuffer[] _columnValueOffsets;
+  private final ChunkCompressorFactory.CompressionType _compressionType;
+
   private int _numRows;
   private ByteBuffer _currentRowDataByteBuffer;
 
   public DataTableBuilder(@Nonnull DataSchema dataSchema) {
+    this(dataSchema, DataTableImplV2.VERSION, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  /**
+   * Constructor for the given data table version.
+   * <p>For version 3, values are written into the column blocks as they are set, so each column must be set exactly
+   * once per row. There is no column data type for boolean, byte, char and short values, so they are widened to int
+   * (1 and 0 for boolean) and must be set into INT columns, and their arrays into INT_ARRAY columns.
+   *
+   * @param dataSchema data schema.
+   * @param version data table version to build.
+   * @param compressionType compression type for column blocks of version 3 data table.
+   */
+  public DataTableBuilder(@Nonnull DataSchema dataSchema, int version,
+      @Nonnull ChunkCompressorFactory.CompressionType compressionType) {
     _dataSchema = dataSchema;
     _columnOffsets = new int[dataSchema.size()];
     _rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, _columnOffsets);
+    _compressionType = compressionType;
+    if (version >= DataTableImplV3.VERSION) {
+      int numColumns = dataSchema.size();
+      _columnValues = new ByteBuffer[numColumns];
+      _columnValueOffsets = new ByteBuffer[numColumns];
+      for (int colId = 0; colId < numColumns; colId++) {
+        _columnValues[colId] = ByteBuffer.allocate(INITIAL_COLUMN_BUFFER_SIZE);
+        DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(colId);
+        if (columnDataType == DataSchema.ColumnDataType.OBJECT || columnDataType.isArray()) {
+          _columnValueOffsets[colId] = ByteBuffer.allocate(INITIAL_COLUMN_BUFFER_SIZE);
+        }
+      }
+    } else {
+      _columnValues = null;
+      _columnValueOffsets = null;
+    }
   }
 
   public void startRow() {
     _numRows++;
-    _currentRowDataByteBuffer = ByteBuffer.allocate(_rowSizeInBytes);
+    if (_columnValues == null) {
+      _currentRowDataByteBuffer = ByteBuffer.allocate(_rowSizeInBytes);
+    }
   }
 
   public void setColumn(int colId, boolean value) {
+    if (_columnValues != null) {
+      setColumn(colId, value ? 1 : 0);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     if (value) {
       _currentRowDataByteBuffer.put((byte) 1);
@@ -115,36 +164,64 @@ public class DataTableBuilder {
   }
 
   public void setColumn(int colId, byte value) {
+    if (_columnValues != null) {
+      setColumn(colId, (int) value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.put(value);
   }
 
   public void setColumn(int colId, char value) {
+    if (_columnValues != null) {
+      setColumn(colId, (int) value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putChar(value);
   }
 
   public void setColumn(int colId, short value) {
+    if (_columnValues != null) {
+      setColumn(colId, (int) value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putShort(value);
   }
 
   public void setColumn(int colId, int value) {
+    if (_columnValues != null) {
+      getColumnValues(colId, Integer.BYTES).putInt(value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(value);
   }
 
   public void setColumn(int colId, long value) {
+    if (_columnValues != null) {
+      getColumnValues(colId, Long.BYTES).putLong(value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putLong(value);
   }
 
   public void setColumn(int colId, float value) {
+    if (_columnValues != null) {
+      getColumnValues(colId, Float.BYTES).putFloat(value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putFloat(value);
   }
 
   public void setColumn(int colId, double value) {
+    if (_columnValues != null) {
+      getColumnValues(colId, Double.BYTES).putDouble(value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putDouble(value);
   }
@@ -158,27 +235,44 @@ public class DataTableBuilder {
       _reverseDictionaryMap.put(columnName, new HashMap<>());
     }
 
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     Integer dictId = dictionary.get(value);
     if (dictId == null) {
       dictId = dictionary.size();
       dictionary.put(value, dictId);
       _reverseDictionaryMap.get(columnName).put(dictId, value);
     }
+    if (_columnValues != null) {
+      getColumnValues(colId, Integer.BYTES).putInt(dictId);
+      return;
+    }
+    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(dictId);
   }
 
   public void setColumn(int colId, @Nonnull Object value) throws IOException {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     int objectTypeValue = ObjectSerDeUtils.ObjectType.getObjectType(value).getValue();
     byte[] bytes = ObjectSerDeUtils.serialize(value, objectTypeValue);
+    if (_columnValues != null) {
+      startVariableSizeValue(colId);
+      getColumnValues(colId, Integer.BYTES + bytes.length).putInt(objectTypeValue).put(bytes);
+      return;
+    }
+    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
+    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(bytes.length);
     _variableSizeDataOutputStream.writeInt(objectTypeValue);
     _variableSizeDataByteArrayOutputStream.write(bytes);
   }
 
   public void setColumn(int colId, @Nonnull byte[] values) {
+    if (_columnValues != null) {
+      startVariableSizeValue(colId);
+      ByteBuffer columnValues = getColumnValues(colId, values.length * Integer.BYTES);
+      for (byte value : values) {
+        columnValues.putInt(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -188,6 +282,14 @@ public class DataTableBuilder {
   }
 
   public void setColumn(int colId, @Nonnull char[] values) throws IOException {
+    if (_columnValues != null) {
+      startVariableSizeValue(colId);
+      ByteBuffer columnValues = getColumnValues(colId, values.length * Integer.BYTES);
+      for (char value : values) {
+        columnValues.putInt(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -197,6 +299,14 @@ public class DataTableBuilder {
   }
 
   public void setColumn(int colId, @Nonnull short[] values) throws IOException {
+    if (_columnValues != null) {
+      startVariableSizeValue(colId);
+      ByteBuffer columnValues = getColumnValues(colId, values.length * Integer.BYTES);
+      for (short value : values) {
+        columnValues.putInt(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -206,6 +316,14 @@ public class DataTableBuilder {
   }
 
   public void setColumn(int colId, @Nonnull int[] values) throws IOException {
+    if (_columnValues != null) {
+      startVariableSizeValue(colId);
+      ByteBuffer columnValues = getColumnValues(colId, values.length * Integer.BYTES);
+      for (int value : values) {
+        columnValues.putInt(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -215,6 +333,14 @@ public class DataTableBuilder {
   }
 
   public void setColumn(int colId, @Nonnull long[] values) throws IOException {
+    if (_columnValues != null) {
+      startVariableSizeValue(colId);
+      ByteBuffer columnValues = getColumnValues(colId, values.length * Long.BYTES);
+      for (long value : values) {
+        columnValues.putLong(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -224,6 +350,14 @@ public class DataTableBuilder {
   }
 
   public void setColumn(int colId, @Nonnull float[] values) throws IOException {
+    if (_columnValues != null) {
+      startVariableSizeValue(colId);
+      ByteBuffer columnValues = getColumnValues(colId, values.length * Float.BYTES);
+      for (float value : values) {
+        columnValues.putFloat(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -233,6 +367,14 @@ public class DataTableBuilder {
   }
 
   public void setColumn(int colId, @Nonnull double[] values) throws IOException {
+    if (_columnValues != null) {
+      startVariableSizeValue(colId);
+      ByteBuffer columnValues = getColumnValues(colId, values.length * Double.BYTES);
+      for (double value : values) {
+        columnValues.putDouble(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -242,10 +384,6 @@ public class DataTableBuilder {
   }
 
   public void setColumn(int colId, @Nonnull String[] values) throws IOException {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
-    _currentRowDataByteBuffer.putInt(values.length);
-
     String columnName = _dataSchema.getColumnName(colId);
     Map<String, Integer> dictionary = _dictionaryMap.get(columnName);
     if (dictionary == null) {
@@ -254,6 +392,16 @@ public class DataTableBuilder {
       _reverseDictionaryMap.put(columnName, new HashMap<>());
     }
 
+    ByteBuffer columnValues = null;
+    if (_columnValues != null) {
+      startVariableSizeValue(colId);
+      columnValues = getColumnValues(colId, values.length * Integer.BYTES);
+    } else {
+      _currentRowDataByteBuffer.position(_columnOffsets[colId]);
+      _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
+      _currentRowDataByteBuffer.putInt(values.length);
+    }
+
     for (String value : values) {
       Integer dictId = dictionary.get(value);
       if (dictId == null) {
@@ -261,23 +409,116 @@ public class DataTableBuilder {
         dictionary.put(value, dictId);
         _reverseDictionaryMap.get(columnName).put(dictId, value);
       }
-      _variableSizeDataOutputStream.writeInt(dictId);
+      if (columnValues != null) {
+        columnValues.putInt(dictId);
+      } else {
+        _variableSizeDataOutputStream.writeInt(dictId);
+      }
     }
   }
 
   public void finishRow() throws IOException {
-    _fixedSizeDataByteArrayOutputStream.write(_currentRowDataByteBuffer.array());
+    if (_columnValues == null) {
+      _fixedSizeDataByteArrayOutputStream.write(_currentRowDataByteBuffer.array());
+    }
   }
 
   public DataTable build() {
-    return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
-        _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+    if (_columnValues == null) {
+      return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
+          _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+    }
+
+    int numColumns = _dataSchema.size();
+    ByteBuffer[] columnBlocks = new ByteBuffer[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      columnBlocks[colId] = buildColumnBlock(colId);
+    }
+    return new DataTableImplV3(_numRows, _dataSchema, columnBlocks, _compressionType);
+  }
+
+  /**
+   * Returns the value buffer for the given column with at least the given number of bytes remaining.
+   */
+  private ByteBuffer getColumnValues(int colId, int numBytes) {
+    _columnValues[colId] = ensureCapacity(_columnValues[colId], numBytes);
+    return _columnValues[colId];
+  }
+
+  /**
+   * Records the offset of the value to be set for the current row in an object or array column.
+   */
+  private void startVariableSizeValue(int colId) {
+    _columnValueOffsets[colId] = ensureCapacity(_columnValueOffsets[colId], Integer.BYTES);
+    _columnValueOffsets[colId].putInt(_columnValues[colId].position());
+  }
+
+  private static ByteBuffer ensureCapacity(ByteBuffer buffer, int numBytes) {
+    if (buffer.remaining() >= numBytes) {
+      return buffer;
+    }
+    ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + numBytes));
+    buffer.flip();
+    newBuffer.put(buffer);
+    return newBuffer;
+  }
+
+  /**
+   * Assembles the column block of the given column in the layout of {@link DataTableImplV3}.
+   */
+  private ByteBuffer buildColumnBlock(int colId) {
+    DataSchema.ColumnDataType columnDataType = _dataSchema.getColumnDataType(colId);
+    byte[][] dictionary = null;
+    int blockSize = _columnValues[colId].position();
+    if (columnDataType == DataSchema.ColumnDataType.STRING || columnDataType == DataSchema.ColumnDataType.BYTES
+        || columnDataType == DataSchema.ColumnDataType.STRING_ARRAY) {
+      dictionary = encodeDictionary(_reverseDictionaryMap.get(_dataSchema.getColumnName(colId)));
+      blockSize += DataTableImplV3.getDictionarySizeInBytes(dictionary);
+    }
+    ByteBuffer valueOffsets = _columnValueOffsets[colId];
+    if (valueOffsets != null) {
+      // One more offset for the end of the last value
+      blockSize += valueOffsets.position() + Integer.BYTES;
+    }
+
+    ByteBuffer block = ByteBuffer.allocate(blockSize);
+    if (dictionary != null) {
+      DataTableImplV3.writeDictionary(block, dictionary);
+    }
+    if (valueOffsets != null) {
+      block.put((ByteBuffer) valueOffsets.duplicate().flip());
+      block.putInt(_columnValues[colId].position());
+    }
+    block.put((ByteBuffer) _columnValues[colId].duplicate().flip());
+    return block;
+  }
+
+  private static byte[][] encodeDictionary(@Nullable Map<Integer, String> dictionary) {
+    if (dictionary == null) {
+      return new byte[0][];
+    }
+    // Dictionary ids are assigned sequentially from 0
+    int dictionarySize = dictionary.size();
+    byte[][] encodedDictionary = new byte[dictionarySize][];
+    for (int dictId = 0; dictId < dictionarySize; dictId++) {
+      encodedDictionary[dictId] = StringUtil.encodeUtf8(dictionary.get(dictId));
+    }
+    return encodedDictionary;
   }
 
   /**
    * Build an empty data table based on the broker request.
    */
   public static DataTable buildEmptyDataTable(BrokerRequest brokerRequest) throws IOException {
+    return buildEmptyDataTable(brokerRequest, DataTableImplV2.VERSION,
+        ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  /**
+   * Build an empty data table of the given version based on the broker request.
+   */
+  public static DataTable buildEmptyDataTable(BrokerRequest brokerRequest, int version,
+      ChunkCompressorFactory.CompressionType compressionType) throws IOException {
     // Selection query.
     if (brokerRequest.isSetSelections()) {
       Selection selection = brokerRequest.getSelections();
@@ -288,7 +529,7 @@ public class DataTableBuilder {
       Arrays.fill(columnDataTypes, DataSchema.ColumnDataType.STRING);
       DataSchema dataSchema =
           new DataSchema(selectionColumns.toArray(new String[numSelectionColumns]), columnDataTypes);
-      return new DataTableBuilder(dataSchema).build();
+      return new DataTableBuilder(dataSchema, version, compressionType).build();
     }
 
     // Aggregation query.
@@ -301,19 +542,24 @@ public class DataTableBuilder {
     if (brokerRequest.isSetGroupBy()) {
       // Aggregation group-by query.
 
-      String[] columnNames = new String[]{"functionName", "GroupByResultMap"};
-      DataSchema.ColumnDataType[] columnDataTypes =
-          new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.OBJECT};
-
-      // Build the data table.
-      DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+      List<String> groupByColumns = brokerRequest.getGroupBy().getExpressions();
+      int numGroupByColumns = groupByColumns.size();
+      int numColumns = numGroupByColumns + numAggregations;
+      String[] columnNames = new String[numColumns];
+      DataSchema.ColumnDataType[] columnDataTypes = new DataSchema.ColumnDataType[numColumns];
+      for (int i = 0; i < numGroupByColumns; i++) {
+        columnNames[i] = groupByColumns.get(i);
+        columnDataTypes[i] = DataSchema.ColumnDataType.STRING;
+      }
       for (int i = 0; i < numAggregations; i++) {
-        dataTableBuilder.startRow();
-        dataTableBuilder.setColumn(0, aggregationFunctionContexts[i].getAggregationColumnName());
-        dataTableBuilder.setColumn(1, new HashMap<String, Object>());
-        dataTableBuilder.finishRow();
+        AggregationFunctionContext aggregationFunctionContext = aggregationFunctionContexts[i];
+        columnNames[numGroupByColumns + i] = aggregationFunctionContext.getAggregationColumnName();
+        columnDataTypes[numGroupByColumns + i] =
+            aggregationFunctionContext.getAggregationFunction().getIntermediateResultColumnType();
       }
-      return dataTableBuilder.build();
+
+      // Build the data table without any group.
+      return new DataTableBuilder(new DataSchema(columnNames, columnDataTypes), version, compressionType).build();
     } else {
       // Aggregation only query.
 
@@ -330,7 +576,8 @@ public class DataTableBuilder {
       }
 
       // Build the data table.
-      DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(aggregationColumnNames, columnDataTypes));
+      DataTableBuilder dataTableBuilder =
+          new DataTableBuilder(new DataSchema(aggregationColumnNames, columnDataTypes), version, compressionType);
       dataTableBuilder.startRow();
       for (int i = 0; i < numAggregations; i++) {
         switch (columnDataTypes[i]) {
@@ -15,12 +15,19 @@
  */
 package com.linkedin.pinot.core.common.datatable;
 
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.DataTable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 public class DataTableFactory {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DataTableFactory.class);
+
   private DataTableFactory() {
   }
 
@@ -29,6 +36,8 @@ public class DataTableFactory {
     switch (version) {
       case 2:
         return new DataTableImplV2(byteBuffer);
+      case 3:
+        return new DataTableImplV3(byteBuffer);
       default:
         throw new UnsupportedOperationException("Unsupported data table version: " + version);
     }
@@ -37,4 +46,29 @@ public class DataTableFactory {
   public static DataTable getDataTable(byte[] bytes) throws IOException {
     return getDataTable(ByteBuffer.wrap(bytes));
   }
+
+  /**
+   * Negotiate the data table version for the response of the given broker request. (Server side)
+   * <p>Brokers advertise the highest version they can read through the query options, which is capped by the highest
+   * version enabled on the server. Brokers that do not advertise a version only understand version 2, which is also the
+   * lowest version returned.
+   *
+   * @param brokerRequest broker request.
+   * @param maxVersion highest data table version enabled on the server.
+   * @return data table version to send back to the broker.
+   */
+  public static int getResponseVersion(BrokerRequest brokerRequest, int maxVersion) {
+    Map<String, String> queryOptions = brokerRequest.getQueryOptions();
+    if (queryOptions != null) {
+      String brokerVersion = queryOptions.get(CommonConstants.Broker.Request.QueryOptionKey.DATA_TABLE_VERSION);
+      if (brokerVersion != null) {
+        try {
+          return Math.max(Math.min(Integer.parseInt(brokerVersion), maxVersion), DataTableImplV2.VERSION);
+        } catch (NumberFormatException e) {
+          LOGGER.warn("Invalid data table version: {} in query options, using version 2", brokerVersion);
+        }
+      }
+    }
+    return DataTableImplV2.VERSION;
+  }
 }
@@ -0,0 +1,497 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.common.datatable;
+
+import com.linkedin.pinot.common.response.ProcessingException;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.common.utils.StringUtil;
+import com.linkedin.pinot.core.common.ObjectSerDeUtils;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * Column-major data table.
+ * <p>Each column is stored as a separate block, so that primitive columns are plain typed arrays and each block can be
+ * compressed independently. On the broker side, uncompressed blocks are read directly from the received buffer
+ * without being copied.
+ * <p>Column block layout:
+ * <ul>
+ *   <li>INT/LONG/FLOAT/DOUBLE: one value per row (FLOAT takes 4 bytes)</li>
+ *   <li>STRING/BYTES: DICTIONARY, then one dictionary id per row</li>
+ *   <li>Object and array: (DICTIONARY for STRING_ARRAY), NUM_ROWS + 1 value offsets, then the values (object type
+ *   followed by the serialized object for OBJECT, elements for arrays)</li>
+ * </ul>
+ * DICTIONARY is the number of values followed by each length-prefixed UTF-8 value, in dictionary id order.
+ */
+public class DataTableImplV3 implements DataTable {
+  public static final int VERSION = 3;
+
+  // Column blocks smaller than this are not worth compressing
+  static final int MIN_BLOCK_SIZE_TO_COMPRESS = 8 * 1024;
+
+  // VERSION
+  // NUM_ROWS
+  // NUM_COLUMNS
+  // METADATA (START|SIZE)
+  // DATA_SCHEMA (START|SIZE)
+  private static final int HEADER_SIZE = Integer.BYTES * 7;
+  // For each column: COMPRESSION_TYPE|START|SIZE|UNCOMPRESSED_SIZE
+  private static final int COLUMN_DIRECTORY_ENTRY_SIZE = Integer.BYTES * 4;
+
+  private final int _numRows;
+  private final int _numColumns;
+  private final DataSchema _dataSchema;
+  private final Map<String, String> _metadata;
+  private final ChunkCompressorFactory.CompressionType _compressionType;
+  // Uncompressed column blocks, read with absolute positions only
+  private final ByteBuffer[] _columnBlocks;
+  // Dictionary for STRING, BYTES and STRING_ARRAY columns
+  private final String[][] _dictionaries;
+  // Position of the first value (after the dictionary) in each column block
+  private final int[] _valueStarts;
+
+  /**
+   * Construct data table from the column blocks written by {@link DataTableBuilder}. (Server side)
+   *
+   * @param numRows number of rows.
+   * @param dataSchema data schema.
+   * @param columnBlocks column blocks, each sized to its content.
+   * @param compressionType compression type for column blocks larger than {@link #MIN_BLOCK_SIZE_TO_COMPRESS}.
+   */
+  DataTableImplV3(int numRows, @Nonnull DataSchema dataSchema, @Nonnull ByteBuffer[] columnBlocks,
+      @Nonnull ChunkCompressorFactory.CompressionType compressionType) {
+    _numRows = numRows;
+    _dataSchema = dataSchema;
+    _numColumns = dataSchema.size();
+    _metadata = new HashMap<>();
+    _compressionType = compressionType;
+    _columnBlocks = columnBlocks;
+    _dictionaries = new String[_numColumns][];
+    _valueStarts = new int[_numColumns];
+    for (int colId = 0; colId < _numColumns; colId++) {
+      initColumn(colId);
+    }
+  }
+
+  /**
+   * Construct data table from byte buffer, positioned after the version. (Broker side)
+   * <p>Uncompressed column blocks are slices of the passed in buffer, so its content must not be modified while the
+   * data table is in use.
+   */
+  public DataTableImplV3(@Nonnull ByteBuffer byteBuffer) throws IOException {
+    // Read header.
+    _numRows = byteBuffer.getInt();
+    _numColumns = byteBuffer.getInt();
+    int metadataStart = byteBuffer.getInt();
+    int metadataLength = byteBuffer.getInt();
+    int dataSchemaStart = byteBuffer.getInt();
+    int dataSchemaLength = byteBuffer.getInt();
+    _compressionType = ChunkCompressorFactory.CompressionType.PASS_THROUGH;
+
+    // Read metadata.
+    byte[] metadataBytes = new byte[metadataLength];
+    byteBuffer.position(metadataStart);
+    byteBuffer.get(metadataBytes);
+    _metadata = DataTableUtils.deserializeMetadata(metadataBytes);
+
+    // Read data schema.
+    if (dataSchemaLength != 0) {
+      byte[] schemaBytes = new byte[dataSchemaLength];
+      byteBuffer.position(dataSchemaStart);
+      byteBuffer.get(schemaBytes);
+      _dataSchema = DataSchema.fromBytes(schemaBytes);
+    } else {
+      _dataSchema = null;
+    }
+
+    // Read column blocks.
+    _columnBlocks = new ByteBuffer[_numColumns];
+    _dictionaries = new String[_numColumns][];
+    _valueStarts = new int[_numColumns];
+    for (int colId = 0; colId < _numColumns; colId++) {
+      int directoryEntryStart = HEADER_SIZE + colId * COLUMN_DIRECTORY_ENTRY_SIZE;
+      int compressionTypeValue = byteBuffer.getInt(directoryEntryStart);
+      int blockStart = byteBuffer.getInt(directoryEntryStart + Integer.BYTES);
+      int blockSize = byteBuffer.getInt(directoryEntryStart + 2 * Integer.BYTES);
+      int uncompressedBlockSize = byteBuffer.getInt(directoryEntryStart + 3 * Integer.BYTES);
+
+      ByteBuffer block = byteBuffer.duplicate();
+      block.limit(blockStart + blockSize);
+      block.position(blockStart);
+      block = block.slice();
+      if (compressionTypeValue != ChunkCompressorFactory.CompressionType.PASS_THROUGH.getValue()) {
+        block = decompressBlock(block, getCompressionType(compressionTypeValue), uncompressedBlockSize);
+      }
+      _columnBlocks[colId] = block;
+      initColumn(colId);
+    }
+  }
+
+  private static ChunkCompressorFactory.CompressionType getCompressionType(int value) {
+    for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+      if (compressionType.getValue() == value) {
+        return compressionType;
+      }
+    }
+    throw new UnsupportedOperationException("Unsupported column block compression type: " + value);
+  }
+
+  private static ByteBuffer decompressBlock(ByteBuffer compressedBlock,
+      ChunkCompressorFactory.CompressionType compressionType, int uncompressedBlockSize) throws IOException {
+    // Native compressors only work on direct buffers
+    ByteBuffer compressedInput = compressedBlock;
+    if (!compressedInput.isDirect()) {
+      compressedInput = ByteBuffer.allocateDirect(compressedBlock.remaining());
+      compressedInput.put(compressedBlock);
+      compressedInput.flip();
+    }
+    ByteBuffer decompressedOutput = ByteBuffer.allocateDirect(uncompressedBlockSize);
+    int decompressedSize =
+        ChunkCompressorFactory.getDecompressor(compressionType).decompress(compressedInput, decompressedOutput);
+    if (decompressedSize != uncompressedBlockSize) {
+      throw new IOException(
+          "Column block decompressed into " + decompressedSize + " bytes, expected: " + uncompressedBlockSize);
+    }
+    return decompressedOutput;
+  }
+
+  static int getDictionarySizeInBytes(byte[][] dictionary) {
+    int sizeInBytes = Integer.BYTES;
+    for (byte[] value : dictionary) {
+      sizeInBytes += Integer.BYTES + value.length;
+    }
+    return sizeInBytes;
+  }
+
+  static void writeDictionary(ByteBuffer block, byte[][] dictionary) {
+    block.putInt(dictionary.length);
+    for (byte[] value : dictionary) {
+      block.putInt(value.length);
+      block.put(value);
+    }
+  }
+
+  /**
+   * Read the dictionary (if any) and locate the values for the given column.
+   */
+  private void initColumn(int colId) {
+    DataSchema.ColumnDataType columnDataType = _dataSchema.getColumnDataType(colId);
+    if (columnDataType != DataSchema.ColumnDataType.STRING && columnDataType != DataSchema.ColumnDataType.BYTES
+        && columnDataType != DataSchema.ColumnDataType.STRING_ARRAY) {
+      return;
+    }
+    ByteBuffer block = _columnBlocks[colId].duplicate();
+    block.position(0);
+    int dictionarySize = block.getInt();
+    String[] dictionary = new String[dictionarySize];
+    for (int dictId = 0; dictId < dictionarySize; dictId++) {
+      byte[] bytes = new byte[block.getInt()];
+      block.get(bytes);
+      dictionary[dictId] = StringUtil.decodeUtf8(bytes);
+    }
+    _dictionaries[colId] = dictionary;
+    _valueStarts[colId] = block.position();
+  }
+
+  @Override
+  public void addException(@Nonnull ProcessingException processingException) {
+    _metadata.put(EXCEPTION_METADATA_KEY + processingException.getErrorCode(), processingException.getMessage());
+  }
+
+  @Nonnull
+  @Override
+  public byte[] toBytes() throws IOException {
+    byte[] metadataBytes = DataTableUtils.serializeMetadata(_metadata);
+    byte[] dataSchemaBytes = _dataSchema != null ? _dataSchema.toBytes() : null;
+    int dataSchemaLength = dataSchemaBytes != null ? dataSchemaBytes.length : 0;
+
+    // Compress the column blocks.
+    ByteBuffer[] serializedBlocks = new ByteBuffer[_numColumns];
+    int[] compressionTypeValues = new int[_numColumns];
+    int totalSize = HEADER_SIZE + _numColumns * COLUMN_DIRECTORY_ENTRY_SIZE + metadataBytes.length + dataSchemaLength;
+    ByteBuffer compressionBuffer = null;
+    if (_compressionType != ChunkCompressorFactory.CompressionType.PASS_THROUGH) {
+      int maxBlockSize = 0;
+      for (ByteBuffer columnBlock : _columnBlocks) {
+        maxBlockSize = Math.max(maxBlockSize, columnBlock.capacity());
+      }
+      if (maxBlockSize >= MIN_BLOCK_SIZE_TO_COMPRESS) {
+        // Native compressors only work on direct buffers, share one for all the blocks (input plus twice the input for
+        // the output)
+        compressionBuffer = ByteBuffer.allocateDirect(maxBlockSize * 3);
+      }
+    }
+    for (int colId = 0; colId < _numColumns; colId++) {
+      ByteBuffer block = _columnBlocks[colId].duplicate();
+      block.clear();
+      ChunkCompressorFactory.CompressionType compressionType = ChunkCompressorFactory.CompressionType.PASS_THROUGH;
+      if (compressionBuffer != null && block.capacity() >= MIN_BLOCK_SIZE_TO_COMPRESS) {
+        ByteBuffer compressedBlock = compressBlock(block, compressionBuffer);
+        // Only keep the compressed block if it actually saves space
+        if (compressedBlock.remaining() < block.capacity()) {
+          block = compressedBlock;
+          compressionType = _compressionType;
+        }
+      }
+      serializedBlocks[colId] = block;
+      compressionTypeValues[colId] = compressionType.getValue();
+      totalSize += block.remaining();
+    }
+
+    ByteBuffer byteBuffer = ByteBuffer.allocate(totalSize);
+    byteBuffer.putInt(VERSION);
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
+    int dataOffset = HEADER_SIZE + _numColumns * COLUMN_DIRECTORY_ENTRY_SIZE;
+
+    // Write metadata.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(metadataBytes.length);
+    dataOffset += metadataBytes.length;
+
+    // Write data schema.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dataSchemaLength);
+    dataOffset += dataSchemaLength;
+
+    // Write column directory.
+    for (int colId = 0; colId < _numColumns; colId++) {
+      int blockSize = serializedBlocks[colId].remaining();
+      byteBuffer.putInt(compressionTypeValues[colId]);
+      byteBuffer.putInt(dataOffset);
+      byteBuffer.putInt(blockSize);
+      byteBuffer.putInt(_columnBlocks[colId].capacity());
+      dataOffset += blockSize;
+    }
+
+    // Write actual data.
+    byteBuffer.put(metadataBytes);
+    if (dataSchemaBytes != null) {
+      byteBuffer.put(dataSchemaBytes);
+    }
+    for (ByteBuffer serializedBlock : serializedBlocks) {
+      byteBuffer.put(serializedBlock);
+    }
+
+    return byteBuffer.array();
+  }
+
+  /**
+   * Compresses the block with the given direct buffer, and returns a heap copy of the compressed block so that the
+   * direct buffer can be reused for the next block.
+   */
+  private ByteBuffer compressBlock(ByteBuffer block, ByteBuffer compressionBuffer) throws IOException {
+    int blockSize = block.remaining();
+    compressionBuffer.clear();
+    compressionBuffer.limit(blockSize);
+    ByteBuffer uncompressedInput = compressionBuffer.slice();
+    uncompressedInput.put(block.duplicate());
+    uncompressedInput.flip();
+    compressionBuffer.limit(blockSize * 3);
+    compressionBuffer.position(blockSize);
+    ByteBuffer compressedOutput = compressionBuffer.slice();
+    int compressedSize =
+        ChunkCompressorFactory.getCompressor(_compressionType).compress(uncompressedInput, compressedOutput);
+    ByteBuffer compressedBlock = ByteBuffer.allocate(compressedSize);
+    compressedOutput.position(0);
+    compressedOutput.limit(compressedSize);
+    compressedBlock.put(compressedOutput);
+    compressedBlock.flip();
+    return compressedBlock;
+  }
+
+  @Nonnull
+  @Override
+  public Map<String, String> getMetadata() {
+    return _metadata;
+  }
+
+  @Nullable
+  @Override
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  @Override
+  public int getNumberOfRows() {
+    return _numRows;
+  }
+
+  @Override
+  public int getInt(int rowId, int colId) {
+    return _columnBlocks[colId].getInt(rowId * Integer.BYTES);
+  }
+
+  @Override
+  public long getLong(int rowId, int colId) {
+    return _columnBlocks[colId].getLong(rowId * Long.BYTES);
+  }
+
+  @Override
+  public float getFloat(int rowId, int colId) {
+    return _columnBlocks[colId].getFloat(rowId * Float.BYTES);
+  }
+
+  @Override
+  public double getDouble(int rowId, int colId) {
+    return _columnBlocks[colId].getDouble(rowId * Double.BYTES);
+  }
+
+  @Nonnull
+  @Override
+  public String getString(int rowId, int colId) {
+    return _dictionaries[colId][_columnBlocks[colId].getInt(_valueStarts[colId] + rowId * Integer.BYTES)];
+  }
+
+  @Nonnull
+  @Override
+  public <T> T getObject(int rowId, int colId) {
+    int valueStart = getVariableSizeValueStart(rowId, colId);
+    int valueEnd = getVariableSizeValueStart(rowId + 1, colId);
+    ByteBuffer columnBlock = _columnBlocks[colId];
+    int objectTypeValue = columnBlock.getInt(valueStart);
+    ByteBuffer byteBuffer = columnBlock.duplicate();
+    byteBuffer.limit(valueEnd);
+    byteBuffer.position(valueStart + Integer.BYTES);
+    return ObjectSerDeUtils.deserialize(byteBuffer.slice(), objectTypeValue);
+  }
+
+  @Nonnull
+  @Override
+  public int[] getIntArray(int rowId, int colId) {
+    int valueStart = getVariableSizeValueStart(rowId, colId);
+    int length = (getVariableSizeValueStart(rowId + 1, colId) - valueStart) / Integer.BYTES;
+    ByteBuffer columnBlock = _columnBlocks[colId];
+    int[] ints = new int[length];
+    for (int i = 0; i < length; i++) {
+      ints[i] = columnBlock.getInt(valueStart + i * Integer.BYTES);
+    }
+    return ints;
+  }
+
+  @Nonnull
+  @Override
+  public long[] getLongArray(int rowId, int colId) {
+    int valueStart = getVariableSizeValueStart(rowId, colId);
+    int length = (getVariableSizeValueStart(rowId + 1, colId) - valueStart) / Long.BYTES;
+    ByteBuffer columnBlock = _columnBlocks[colId];
+    long[] longs = new long[length];
+    for (int i = 0; i < length; i++) {
+      longs[i] = columnBlock.getLong(valueStart + i * Long.BYTES);
+    }
+    return longs;
+  }
+
+  @Nonnull
+  @Override
+  public float[] getFloatArray(int rowId, int colId) {
+    int valueStart = getVariableSizeValueStart(rowId, colId);
+    int length = (getVariableSizeValueStart(rowId + 1, colId) - valueStart) / Float.BYTES;
+    ByteBuffer columnBlock = _columnBlocks[colId];
+    float[] floats = new float[length];
+    for (int i = 0; i < length; i++) {
+      floats[i] = columnBlock.getFloat(valueStart + i * Float.BYTES);
+    }
+    return floats;
+  }
+
+  @Nonnull
+  @Override
+  public double[] getDoubleArray(int rowId, int colId) {
+    int valueStart = getVariableSizeValueStart(rowId, colId);
+    int length = (getVariableSizeValueStart(rowId + 1, colId) - valueStart) / Double.BYTES;
+    ByteBuffer columnBlock = _columnBlocks[colId];
+    double[] doubles = new double[length];
+    for (int i = 0; i < length; i++) {
+      doubles[i] = columnBlock.getDouble(valueStart + i * Double.BYTES);
+    }
+    return doubles;
+  }
+
+  @Nonnull
+  @Override
+  public String[] getStringArray(int rowId, int colId) {
+    int valueStart = getVariableSizeValueStart(rowId, colId);
+    int length = (getVariableSizeValueStart(rowId + 1, colId) - valueStart) / Integer.BYTES;
+    ByteBuffer columnBlock = _columnBlocks[colId];
+    String[] dictionary = _dictionaries[colId];
+    String[] strings = new String[length];
+    for (int i = 0; i < length; i++) {
+      strings[i] = dictionary[columnBlock.getInt(valueStart + i * Integer.BYTES)];
+    }
+    return strings;
+  }
+
+  /**
+   * Returns the position of the variable size value for the given row in the column block. Passing in the number of
+   * rows returns the end of the last value.
+   */
+  private int getVariableSizeValueStart(int rowId, int colId) {
+    int valueOffsetsStart = _valueStarts[colId];
+    int valuesStart = valueOffsetsStart + (_numRows + 1) * Integer.BYTES;
+    return valuesStart + _columnBlocks[colId].getInt(valueOffsetsStart + rowId * Integer.BYTES);
+  }
+
+  @Override
+  public String toString() {
+    if (_dataSchema == null) {
+      return _metadata.toString();
+    }
+
+    StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(_dataSchema.toString()).append('\n');
+    stringBuilder.append("numRows: ").append(_numRows).append('\n');
+
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      for (int colId = 0; colId < _numColumns; colId++) {
+        switch (_dataSchema.getColumnDataType(colId)) {
+          case INT:
+            stringBuilder.append(getInt(rowId, colId));
+            break;
+          case LONG:
+            stringBuilder.append(getLong(rowId, colId));
+            break;
+          case FLOAT:
+            stringBuilder.append(getFloat(rowId, colId));
+            break;
+          case DOUBLE:
+            stringBuilder.append(getDouble(rowId, colId));
+            break;
+          case STRING:
+          case BYTES:
+            stringBuilder.append(_columnBlocks[colId].getInt(_valueStarts[colId] + rowId * Integer.BYTES));
+            break;
+          // Object and array.
+          default:
+            int valueStart = getVariableSizeValueStart(rowId, colId);
+            stringBuilder.append(
+                String.format("(%s:%s)", valueStart, getVariableSizeValueStart(rowId + 1, colId) - valueStart));
+            break;
+        }
+        stringBuilder.append("\t");
+      }
+      stringBuilder.append("\n");
+    }
+    return stringBuilder.toString();
+  }
+}
@@ -20,6 +20,7 @@ import com.linkedin.pinot.common.segment.SegmentMetadata;
 import java.io.File;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -122,4 +123,11 @@ public interface InstanceDataManager {
    * Returns the maximum number of segments allowed to refresh in parallel.
    */
   int getMaxParallelRefreshThreads();
+
+  /**
+   * Returns the bounded executor shared by all OFFLINE tables to download and load segments in parallel, or
+   * <code>null</code> if not configured.
+   */
+  @Nullable
+  ExecutorService getSegmentDownloadExecutor();
 }
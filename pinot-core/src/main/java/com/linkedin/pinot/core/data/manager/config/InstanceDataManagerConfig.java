@@ -46,5 +46,7 @@ public interface InstanceDataManagerConfig {
 
   boolean isDirectRealtimeOffheapAllocation();
 
+  int getRealtimeNumDecoderThreads();
+
   int getMaxParallelSegmentBuilds();
 }
@@ -17,10 +17,13 @@ package com.linkedin.pinot.core.data.manager.offline;
 
 import com.linkedin.pinot.common.metrics.ServerMetrics;
 import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.common.utils.NamedThreadFactory;
 import com.linkedin.pinot.core.data.manager.TableDataManager;
 import com.linkedin.pinot.core.data.manager.config.InstanceDataManagerConfig;
 import com.linkedin.pinot.core.data.manager.config.TableDataManagerConfig;
 import com.linkedin.pinot.core.data.manager.realtime.RealtimeTableDataManager;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import javax.annotation.Nonnull;
 import org.apache.helix.ZNRecord;
@@ -32,6 +35,9 @@ import org.apache.helix.store.zk.ZkHelixPropertyStore;
  */
 public class TableDataManagerProvider {
   private static Semaphore _segmentBuildSemaphore;
+  // Shared by all the consuming segments of the server, null if parallel decoding is disabled
+  private static ExecutorService _realtimeDecoderExecutor;
+  private static ExecutorService _realtimePrefetchExecutor;
 
   private TableDataManagerProvider() {
   }
@@ -41,6 +47,29 @@ public class TableDataManagerProvider {
     if (maxParallelBuilds > 0) {
       _segmentBuildSemaphore = new Semaphore(maxParallelBuilds, true);
     }
+    shutDown();
+    int numDecoderThreads = instanceDataManagerConfig.getRealtimeNumDecoderThreads();
+    if (numDecoderThreads > 0) {
+      _realtimeDecoderExecutor =
+          Executors.newFixedThreadPool(numDecoderThreads, new NamedThreadFactory("RealtimeDecoderExecutorService"));
+      // Each consuming segment has at most one in-flight prefetch, and idle threads are released after 60 seconds
+      _realtimePrefetchExecutor =
+          Executors.newCachedThreadPool(new NamedThreadFactory("RealtimePrefetchExecutorService"));
+    }
+  }
+
+  /**
+   * Shuts down the thread pools shared by the table data managers.
+   */
+  public static void shutDown() {
+    if (_realtimeDecoderExecutor != null) {
+      _realtimeDecoderExecutor.shutdownNow();
+      _realtimeDecoderExecutor = null;
+    }
+    if (_realtimePrefetchExecutor != null) {
+      _realtimePrefetchExecutor.shutdownNow();
+      _realtimePrefetchExecutor = null;
+    }
   }
 
   public static TableDataManager getTableDataManager(@Nonnull TableDataManagerConfig tableDataManagerConfig,
@@ -52,7 +81,8 @@ public class TableDataManagerProvider {
         tableDataManager = new OfflineTableDataManager();
         break;
       case REALTIME:
-        tableDataManager = new RealtimeTableDataManager(_segmentBuildSemaphore);
+        tableDataManager =
+            new RealtimeTableDataManager(_segmentBuildSemaphore, _realtimeDecoderExecutor, _realtimePrefetchExecutor);
         break;
       default:
         throw new IllegalStateException();
@@ -35,6 +35,7 @@ import com.linkedin.pinot.common.utils.LLCSegmentName;
 import com.linkedin.pinot.common.utils.NetUtil;
 import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.manager.realtime.ParallelStreamMessageDecoder.DecodedMessageBatch;
 import com.linkedin.pinot.core.data.recordtransformer.CompoundTransformer;
 import com.linkedin.pinot.core.data.recordtransformer.RecordTransformer;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
@@ -61,10 +62,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -181,6 +186,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private final TableConfig _tableConfig;
   private final RealtimeTableDataManager _realtimeTableDataManager;
   private final StreamMessageDecoder _messageDecoder;
+  // Used instead of the message decoder when parallel decoding is enabled
+  private final ParallelStreamMessageDecoder _parallelMessageDecoder;
+  private final ExecutorService _prefetchExecutor;
   private final int _segmentMaxRowCount;
   private final String _resourceDataDir;
   private final IndexLoadingConfig _indexLoadingConfig;
@@ -331,47 +339,67 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
     final long _endOffset = Long.MAX_VALUE; // No upper limit on stream offset
     segmentLogger.info("Starting consumption loop start offset {}, finalOffset {}", _currentOffset, _finalOffset);
-    while(!_shouldStop && !endCriteriaReached()) {
-      // Consume for the next readTime ms, or we get to final offset, whichever happens earlier,
-      // Update _currentOffset upon return from this method
-      MessageBatch messageBatch;
-      try {
-        messageBatch = _partitionLevelConsumer.fetchMessages(_currentOffset, _endOffset,
-            _partitionLevelStreamConfig.getFetchTimeoutMillis());
-        consecutiveErrorCount = 0;
-      } catch (TimeoutException e) {
-        handleTransientStreamErrors(e);
-        continue;
-      } catch (TransientConsumerException e) {
-        handleTransientStreamErrors(e);
-        continue;
-      } catch (PermanentConsumerException e) {
-        segmentLogger.warn("Permanent exception from stream when fetching messages, stopping consumption", e);
-        throw e;
-      } catch (Exception e) {
-        // Unknown exception from stream. Treat as a transient exception.
-        // One such exception seen so far is java.net.SocketTimeoutException
-        handleTransientStreamErrors(e);
-        continue;
-      }
+    // With parallel decoding, the next message batch is fetched while the current one is being processed
+    Future<MessageBatch> prefetchFuture = null;
+    long prefetchOffset = -1;
+    try {
+      while(!_shouldStop && !endCriteriaReached()) {
+        // Consume for the next readTime ms, or we get to final offset, whichever happens earlier,
+        // Update _currentOffset upon return from this method
+        MessageBatch messageBatch;
+        try {
+          Future<MessageBatch> future = prefetchFuture;
+          prefetchFuture = null;
+          messageBatch = fetchMessages(future, prefetchOffset, _endOffset);
+          consecutiveErrorCount = 0;
+        } catch (TimeoutException e) {
+          handleTransientStreamErrors(e);
+          continue;
+        } catch (TransientConsumerException e) {
+          handleTransientStreamErrors(e);
+          continue;
+        } catch (PermanentConsumerException e) {
+          segmentLogger.warn("Permanent exception from stream when fetching messages, stopping consumption", e);
+          throw e;
+        } catch (Exception e) {
+          // Unknown exception from stream. Treat as a transient exception.
+          // One such exception seen so far is java.net.SocketTimeoutException
+          handleTransientStreamErrors(e);
+          continue;
+        }
 
-      processStreamEvents(messageBatch, idlePipeSleepTimeMillis);
+        DecodedMessageBatch decodedMessageBatch = null;
+        if (_parallelMessageDecoder != null) {
+          decodedMessageBatch = _parallelMessageDecoder.decode(messageBatch);
+          int messageCount = messageBatch.getMessageCount();
+          if (messageCount > 0) {
+            prefetchOffset = messageBatch.getNextStreamMessageOffsetAtIndex(messageCount - 1);
+            prefetchFuture = prefetchMessages(prefetchOffset, _endOffset);
+          }
+        }
 
-      if (_currentOffset != lastUpdatedOffset) {
-        // We consumed something. Update the highest stream offset as well as partition-consuming metric.
-        _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.HIGHEST_KAFKA_OFFSET_CONSUMED, _currentOffset);
-        _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.HIGHEST_STREAM_OFFSET_CONSUMED, _currentOffset);
-        _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_CONSUMING, 1);
-        lastUpdatedOffset = _currentOffset;
-      } else {
-        // We did not consume any rows. Update the partition-consuming metric only if we have been idling for a long time.
-        // Create a new stream consumer wrapper, in case we are stuck on something.
-        if (++idleCount > maxIdleCountBeforeStatUpdate) {
+        processStreamEvents(messageBatch, decodedMessageBatch, idlePipeSleepTimeMillis);
+
+        if (_currentOffset != lastUpdatedOffset) {
+          // We consumed something. Update the highest stream offset as well as partition-consuming metric.
+          _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.HIGHEST_KAFKA_OFFSET_CONSUMED, _currentOffset);
+          _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.HIGHEST_STREAM_OFFSET_CONSUMED, _currentOffset);
           _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_CONSUMING, 1);
-          idleCount = 0;
-          makeStreamConsumer("Idle for too long");
+          lastUpdatedOffset = _currentOffset;
+        } else {
+          // We did not consume any rows. Update the partition-consuming metric only if we have been idling for a long time.
+          // Create a new stream consumer wrapper, in case we are stuck on something.
+          if (++idleCount > maxIdleCountBeforeStatUpdate) {
+            _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_CONSUMING, 1);
+            idleCount = 0;
+            waitForPrefetch(prefetchFuture);
+            prefetchFuture = null;
+            makeStreamConsumer("Idle for too long");
+          }
         }
       }
+    } finally {
+      waitForPrefetch(prefetchFuture);
     }
 
     if (_numRowsErrored > 0) {
@@ -381,14 +409,57 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     return true;
   }
 
-  private void processStreamEvents(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis) {
+  /**
+   * Fetches the next message batch starting from the current offset, or returns the prefetched message batch if it
+   * starts from the current offset.
+   */
+  private MessageBatch fetchMessages(@Nullable Future<MessageBatch> prefetchFuture, long prefetchOffset,
+      long endOffset) throws Exception {
+    if (prefetchFuture != null) {
+      try {
+        MessageBatch messageBatch = prefetchFuture.get();
+        if (prefetchOffset == _currentOffset) {
+          return messageBatch;
+        }
+      } catch (ExecutionException e) {
+        if (prefetchOffset == _currentOffset) {
+          Utils.rethrowException(e.getCause());
+        }
+      }
+    }
+    return _partitionLevelConsumer.fetchMessages(_currentOffset, endOffset,
+        _partitionLevelStreamConfig.getFetchTimeoutMillis());
+  }
+
+  private Future<MessageBatch> prefetchMessages(long startOffset, long endOffset) {
+    PartitionLevelConsumer partitionLevelConsumer = _partitionLevelConsumer;
+    int fetchTimeoutMillis = _partitionLevelStreamConfig.getFetchTimeoutMillis();
+    return _prefetchExecutor.submit(
+        () -> partitionLevelConsumer.fetchMessages(startOffset, endOffset, fetchTimeoutMillis));
+  }
+
+  /**
+   * Waits for the in-flight prefetch (if any) to finish so that the stream consumer is never accessed concurrently.
+   */
+  private static void waitForPrefetch(@Nullable Future<MessageBatch> prefetchFuture) {
+    if (prefetchFuture != null) {
+      try {
+        Uninterruptibles.getUninterruptibly(prefetchFuture);
+      } catch (Exception e) {
+        // Ignored, the prefetched message batch is discarded
+      }
+    }
+  }
+
+  private void processStreamEvents(MessageBatch messagesAndOffsets, @Nullable DecodedMessageBatch decodedMessages,
+      long idlePipeSleepTimeMillis) throws InterruptedException {
     Meter realtimeRowsConsumedMeter = null;
     Meter realtimeRowsDroppedMeter = null;
 
     int indexedMessageCount = 0;
     int streamMessageCount = 0;
     boolean canTakeMore = true;
-    GenericRow decodedRow = null;
+    GenericRow reuse = null;
     for (int index = 0; index < messagesAndOffsets.getMessageCount(); index ++) {
       if (_shouldStop || endCriteriaReached()) {
         break;
@@ -414,15 +485,21 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       }
 
       // Index each message
-      decodedRow = GenericRow.createOrReuseRow(decodedRow);
-
-      decodedRow = _messageDecoder
-          .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
-              messagesAndOffsets.getMessageLengthAtIndex(index), decodedRow);
+      GenericRow decodedRow;
+      if (decodedMessages != null) {
+        decodedRow = decodedMessages.getDecodedRow(index);
+      } else {
+        reuse = GenericRow.createOrReuseRow(reuse);
+        decodedRow = _messageDecoder
+            .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
+                messagesAndOffsets.getMessageLengthAtIndex(index), reuse);
+        reuse = decodedRow;
+      }
 
       if (decodedRow != null) {
         try {
-          GenericRow transformedRow = _recordTransformer.transform(decodedRow);
+          GenericRow transformedRow = decodedMessages != null ? decodedMessages.getTransformedRow(index)
+              : _recordTransformer.transform(decodedRow);
 
           if (transformedRow != null) {
             realtimeRowsConsumedMeter =
@@ -451,6 +528,10 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       _numRowsConsumed++;
       streamMessageCount++;
     }
+    if (decodedMessages != null) {
+      // Stop decoding the messages that are not indexed
+      decodedMessages.cancel();
+    }
     updateCurrentDocumentCountMetrics();
     if (streamMessageCount != 0) {
       segmentLogger.debug("Indexed {} messages ({} messages read from stream) current offset {}", indexedMessageCount,
@@ -1058,6 +1139,17 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
     // Create message decoder
     _messageDecoder = StreamDecoderProvider.create(_partitionLevelStreamConfig, _schema);
+    int numDecoderThreads = indexLoadingConfig.getRealtimeNumDecoderThreads();
+    ExecutorService decoderExecutor = realtimeTableDataManager.getRealtimeDecoderExecutor();
+    if (numDecoderThreads > 0 && decoderExecutor != null) {
+      segmentLogger.info("Decoding messages with {} threads shared by all consuming segments", numDecoderThreads);
+      _parallelMessageDecoder =
+          new ParallelStreamMessageDecoder(decoderExecutor, numDecoderThreads, _partitionLevelStreamConfig, _schema);
+      _prefetchExecutor = realtimeTableDataManager.getRealtimePrefetchExecutor();
+    } else {
+      _parallelMessageDecoder = null;
+      _prefetchExecutor = null;
+    }
     _clientId = _streamPartitionId + "-" + NetUtil.getHostnameOrAddress();
 
     // Create record transformer
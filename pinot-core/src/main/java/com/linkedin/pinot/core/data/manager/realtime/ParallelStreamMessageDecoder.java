@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.Utils;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.recordtransformer.CompoundTransformer;
+import com.linkedin.pinot.core.data.recordtransformer.RecordTransformer;
+import com.linkedin.pinot.core.realtime.stream.MessageBatch;
+import com.linkedin.pinot.core.realtime.stream.StreamConfig;
+import com.linkedin.pinot.core.realtime.stream.StreamDecoderProvider;
+import com.linkedin.pinot.core.realtime.stream.StreamMessageDecoder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>ParallelStreamMessageDecoder</code> class decodes and transforms the messages of a {@link MessageBatch} in
+ * parallel, so that a single indexing thread can consume the decoded rows in offset order.
+ * <p>The decoding tasks run on the bounded thread pool shared by all the consuming segments of the server (see
+ * {@link RealtimeTableDataManager#getRealtimeDecoderExecutor()}), so the number of decoding threads does not grow with
+ * the number of consuming segments.
+ * <p>Each decoding task uses its own {@link StreamMessageDecoder} and {@link RecordTransformer} because the decoders
+ * are not thread-safe. They are created on demand and reused, so there are at most as many of them as the tasks of
+ * this segment running concurrently, which is bounded by the size of the shared thread pool.
+ */
+@ThreadSafe
+public class ParallelStreamMessageDecoder {
+  // Split the messages into more tasks than threads to balance the load, but avoid tiny tasks
+  private static final int NUM_TASKS_PER_THREAD = 4;
+  private static final int MIN_NUM_MESSAGES_PER_TASK = 32;
+
+  private final ExecutorService _executorService;
+  private final int _numThreads;
+  private final StreamConfig _streamConfig;
+  private final Schema _schema;
+  private final Queue<DecoderContext> _decoderContexts = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Constructor for the class.
+   *
+   * @param executorService Shared thread pool to run the decoding tasks
+   * @param numThreads Number of threads in the shared thread pool
+   * @param streamConfig Stream config to create the decoders
+   * @param schema Schema to create the decoders and record transformers
+   */
+  public ParallelStreamMessageDecoder(ExecutorService executorService, int numThreads, StreamConfig streamConfig,
+      Schema schema) {
+    Preconditions.checkArgument(numThreads > 0, "Number of decoder threads must be positive");
+    _executorService = executorService;
+    _numThreads = numThreads;
+    _streamConfig = streamConfig;
+    _schema = schema;
+  }
+
+  /**
+   * Submits the messages in the message batch to be decoded and transformed, and returns immediately.
+   */
+  public DecodedMessageBatch decode(MessageBatch messageBatch) {
+    int numMessages = messageBatch.getMessageCount();
+    if (numMessages == 0) {
+      return new DecodedMessageBatch(0, 0, 1);
+    }
+    int numTasks = Math.max(Math.min(_numThreads * NUM_TASKS_PER_THREAD, numMessages / MIN_NUM_MESSAGES_PER_TASK), 1);
+    int numMessagesPerTask = (numMessages + numTasks - 1) / numTasks;
+    numTasks = (numMessages + numMessagesPerTask - 1) / numMessagesPerTask;
+    DecodedMessageBatch decodedMessageBatch = new DecodedMessageBatch(numMessages, numTasks, numMessagesPerTask);
+    for (int i = 0; i < numTasks; i++) {
+      int startIndex = i * numMessagesPerTask;
+      int endIndex = Math.min(startIndex + numMessagesPerTask, numMessages);
+      decodedMessageBatch._futures[i] = _executorService.submit(() -> {
+        decodeMessages(messageBatch, startIndex, endIndex, decodedMessageBatch);
+        return null;
+      });
+    }
+    return decodedMessageBatch;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void decodeMessages(MessageBatch messageBatch, int startIndex, int endIndex,
+      DecodedMessageBatch decodedMessageBatch) {
+    DecoderContext decoderContext = _decoderContexts.poll();
+    if (decoderContext == null) {
+      decoderContext = new DecoderContext(StreamDecoderProvider.create(_streamConfig, _schema),
+          CompoundTransformer.getDefaultTransformer(_schema));
+    }
+    try {
+      for (int i = startIndex; i < endIndex; i++) {
+        if (decodedMessageBatch._cancelled) {
+          return;
+        }
+        GenericRow decodedRow = decoderContext._decoder.decode(messageBatch.getMessageAtIndex(i),
+            messageBatch.getMessageOffsetAtIndex(i), messageBatch.getMessageLengthAtIndex(i), new GenericRow());
+        if (decodedRow != null) {
+          decodedMessageBatch._decodedRows[i] = decodedRow;
+          try {
+            decodedMessageBatch._transformedRows[i] = decoderContext._recordTransformer.transform(decodedRow);
+          } catch (Exception e) {
+            decodedMessageBatch._transformExceptions[i] = e;
+          }
+        }
+      }
+    } finally {
+      _decoderContexts.offer(decoderContext);
+    }
+  }
+
+  private static class DecoderContext {
+    final StreamMessageDecoder _decoder;
+    final RecordTransformer _recordTransformer;
+
+    DecoderContext(StreamMessageDecoder decoder, RecordTransformer recordTransformer) {
+      _decoder = decoder;
+      _recordTransformer = recordTransformer;
+    }
+  }
+
+  /**
+   * The decoded rows of a message batch, which should be accessed in order by a single thread.
+   */
+  public static class DecodedMessageBatch {
+    private final int _numMessagesPerTask;
+    private final Future[] _futures;
+    private final GenericRow[] _decodedRows;
+    private final GenericRow[] _transformedRows;
+    private final Exception[] _transformExceptions;
+    private volatile boolean _cancelled;
+    private int _numTasksDone;
+
+    private DecodedMessageBatch(int numMessages, int numTasks, int numMessagesPerTask) {
+      _numMessagesPerTask = numMessagesPerTask;
+      _futures = new Future[numTasks];
+      _decodedRows = new GenericRow[numMessages];
+      _transformedRows = new GenericRow[numMessages];
+      _transformExceptions = new Exception[numMessages];
+    }
+
+    /**
+     * Waits for the message at the given index to be decoded, and returns the decoded row, or <code>null</code> if the
+     * message cannot be decoded.
+     */
+    @Nullable
+    public GenericRow getDecodedRow(int index) throws InterruptedException {
+      int taskId = index / _numMessagesPerTask;
+      while (_numTasksDone <= taskId) {
+        try {
+          _futures[_numTasksDone].get();
+        } catch (ExecutionException e) {
+          Utils.rethrowException(e.getCause());
+        }
+        _numTasksDone++;
+      }
+      return _decodedRows[index];
+    }
+
+    /**
+     * Returns the transformed row for the message at the given index, or throws the exception caught while
+     * transforming the row. Should be called after {@link #getDecodedRow(int)} returns a non-null row.
+     */
+    @Nullable
+    public GenericRow getTransformedRow(int index) throws Exception {
+      Exception transformException = _transformExceptions[index];
+      if (transformException != null) {
+        throw transformException;
+      }
+      return _transformedRows[index];
+    }
+
+    /**
+     * Stops decoding the remaining messages.
+     */
+    public void cancel() {
+      _cancelled = true;
+    }
+  }
+}
@@ -48,6 +48,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.io.FileUtils;
 
@@ -61,6 +62,8 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   private SegmentBuildTimeLeaseExtender _leaseExtender;
   private RealtimeSegmentStatsHistory _statsHistory;
   private final Semaphore _segmentBuildSemaphore;
+  private final ExecutorService _realtimeDecoderExecutor;
+  private final ExecutorService _realtimePrefetchExecutor;
 
   private static final String STATS_FILE_NAME = "stats.ser";
   private static final String CONSUMERS_DIR = "consumers";
@@ -79,7 +82,14 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   private static final int MIN_INTERVAL_BETWEEN_STATS_UPDATES_MINUTES = 30;
 
   public RealtimeTableDataManager(Semaphore segmentBuildSemaphore) {
+    this(segmentBuildSemaphore, null, null);
+  }
+
+  public RealtimeTableDataManager(Semaphore segmentBuildSemaphore, @Nullable ExecutorService realtimeDecoderExecutor,
+      @Nullable ExecutorService realtimePrefetchExecutor) {
     _segmentBuildSemaphore = segmentBuildSemaphore;
+    _realtimeDecoderExecutor = realtimeDecoderExecutor;
+    _realtimePrefetchExecutor = realtimePrefetchExecutor;
   }
 
   @Override
@@ -153,6 +163,24 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     return _segmentBuildSemaphore;
   }
 
+  /**
+   * Returns the thread pool shared by all the consuming segments of the server to decode the messages, or
+   * <code>null</code> if parallel decoding is disabled.
+   */
+  @Nullable
+  public ExecutorService getRealtimeDecoderExecutor() {
+    return _realtimeDecoderExecutor;
+  }
+
+  /**
+   * Returns the thread pool shared by all the consuming segments of the server to prefetch the message batches, or
+   * <code>null</code> if parallel decoding is disabled.
+   */
+  @Nullable
+  public ExecutorService getRealtimePrefetchExecutor() {
+    return _realtimePrefetchExecutor;
+  }
+
   public String getConsumerDir() {
     String consumerDirPath = _tableDataManagerConfig.getConsumerDir();
     File consumerDir;
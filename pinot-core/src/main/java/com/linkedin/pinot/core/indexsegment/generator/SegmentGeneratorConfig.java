@@ -74,6 +74,7 @@ public class SegmentGeneratorConfig {
   private Set<String> _rawIndexCreationColumns = new HashSet<>();
   private Map<String, ChunkCompressorFactory.CompressionType> _rawIndexCompressionType = new HashMap<>();
   private List<String> _invertedIndexCreationColumns = new ArrayList<>();
+  private List<String> _bloomFilterCreationColumns = new ArrayList<>();
   private List<String> _columnSortOrder = new ArrayList<>();
   private String _dataDir = null;
   private String _inputFilePath = null;
@@ -96,6 +97,8 @@ public class SegmentGeneratorConfig {
   private boolean _enableStarTreeIndex = false;
   private StarTreeIndexSpec _starTreeIndexSpec = null;
   private List<StarTreeV2BuilderConfig> _starTreeV2BuilderConfigs = null;
+  // Number of threads to build star-tree v2 (build multiple star-trees and sort records in parallel)
+  private int _starTreeV2NumBuildThreads = 1;
   private String _creatorVersion = null;
   private HllConfig _hllConfig = null;
   private SegmentNameGenerator _segmentNameGenerator = null;
@@ -121,6 +124,7 @@ public class SegmentGeneratorConfig {
     _rawIndexCreationColumns.addAll(config._rawIndexCreationColumns);
     _rawIndexCompressionType.putAll(config._rawIndexCompressionType);
     _invertedIndexCreationColumns.addAll(config._invertedIndexCreationColumns);
+    _bloomFilterCreationColumns.addAll(config._bloomFilterCreationColumns);
     _columnSortOrder.addAll(config._columnSortOrder);
     _dataDir = config._dataDir;
     _inputFilePath = config._inputFilePath;
@@ -143,6 +147,7 @@ public class SegmentGeneratorConfig {
     _enableStarTreeIndex = config._enableStarTreeIndex;
     _starTreeIndexSpec = config._starTreeIndexSpec;
     _starTreeV2BuilderConfigs = config._starTreeV2BuilderConfigs;
+    _starTreeV2NumBuildThreads = config._starTreeV2NumBuildThreads;
     _creatorVersion = config._creatorVersion;
     _hllConfig = config._hllConfig;
     _segmentNameGenerator = config._segmentNameGenerator;
@@ -206,6 +211,11 @@ public class SegmentGeneratorConfig {
       _invertedIndexCreationColumns = indexingConfig.getInvertedIndexColumns();
     }
 
+    List<String> bloomFilterColumns = indexingConfig.getBloomFilterColumns();
+    if (bloomFilterColumns != null) {
+      _bloomFilterCreationColumns.addAll(bloomFilterColumns);
+    }
+
     SegmentsValidationAndRetentionConfig validationConfig = tableConfig.getValidationConfig();
     _hllConfig = validationConfig.getHllConfig();
   }
@@ -254,6 +264,10 @@ public class SegmentGeneratorConfig {
     return _invertedIndexCreationColumns;
   }
 
+  public List<String> getBloomFilterCreationColumns() {
+    return _bloomFilterCreationColumns;
+  }
+
   public List<String> getColumnSortOrder() {
     return _columnSortOrder;
   }
@@ -268,6 +282,11 @@ public class SegmentGeneratorConfig {
     _invertedIndexCreationColumns.addAll(indexCreationColumns);
   }
 
+  public void setBloomFilterCreationColumns(List<String> bloomFilterCreationColumns) {
+    Preconditions.checkNotNull(bloomFilterCreationColumns);
+    _bloomFilterCreationColumns.addAll(bloomFilterCreationColumns);
+  }
+
   public void setColumnSortOrder(List<String> sortOrder) {
     Preconditions.checkNotNull(sortOrder);
     _columnSortOrder.addAll(sortOrder);
@@ -530,6 +549,14 @@ public class SegmentGeneratorConfig {
     _starTreeV2BuilderConfigs = starTreeV2BuilderConfigs;
   }
 
+  public int getStarTreeV2NumBuildThreads() {
+    return _starTreeV2NumBuildThreads;
+  }
+
+  public void setStarTreeV2NumBuildThreads(int starTreeV2NumBuildThreads) {
+    _starTreeV2NumBuildThreads = starTreeV2NumBuildThreads;
+  }
+
   public HllConfig getHllConfig() {
     return _hllConfig;
   }
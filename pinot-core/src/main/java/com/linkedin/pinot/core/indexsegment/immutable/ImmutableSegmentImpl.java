@@ -22,6 +22,7 @@ import com.linkedin.pinot.core.io.reader.DataFileReader;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.data.source.ColumnDataSource;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
@@ -69,6 +70,11 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
     return _indexContainerMap.get(column).getInvertedIndex();
   }
 
+  @Override
+  public BloomFilterReader getBloomFilter(String column) {
+    return _indexContainerMap.get(column).getBloomFilter();
+  }
+
   @Override
   public long getSegmentSizeBytes() {
     return _segmentDirectory.getDiskSizeBytes();
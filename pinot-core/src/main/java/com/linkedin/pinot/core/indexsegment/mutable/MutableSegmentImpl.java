@@ -495,7 +495,7 @@ public class MutableSegmentImpl implements MutableSegment {
         numValues);
 
     for (int i = 0; i < numValues; i++) {
-      intIterators[i] = invertedIndex.getDocIds(dictionary.indexOf(values[i])).getIntIterator();
+      intIterators[i] = invertedIndex.getDocIdIterator(dictionary.indexOf(values[i]));
     }
     return intIterators;
   }
@@ -517,7 +517,7 @@ public class MutableSegmentImpl implements MutableSegment {
         numValues);
 
     for (int i = 0; i < numValues; i++) {
-      intIterators[i] = invertedIndex.getDocIds(dictionary.indexOf(values[i])).getIntIterator();
+      intIterators[i] = invertedIndex.getDocIdIterator(dictionary.indexOf(values[i]));
     }
     return intIterators;
   }
@@ -539,7 +539,7 @@ public class MutableSegmentImpl implements MutableSegment {
         numValues);
 
     for (int i = 0; i < numValues; i++) {
-      intIterators[i] = invertedIndex.getDocIds(dictionary.indexOf(values[i])).getIntIterator();
+      intIterators[i] = invertedIndex.getDocIdIterator(dictionary.indexOf(values[i]));
     }
     return intIterators;
   }
@@ -561,7 +561,7 @@ public class MutableSegmentImpl implements MutableSegment {
         column, numValues);
 
     for (int i = 0; i < numValues; i++) {
-      intIterators[i] = invertedIndex.getDocIds(dictionary.indexOf(values[i])).getIntIterator();
+      intIterators[i] = invertedIndex.getDocIdIterator(dictionary.indexOf(values[i]));
     }
     return intIterators;
   }
@@ -583,7 +583,7 @@ public class MutableSegmentImpl implements MutableSegment {
         column, numValues);
 
     for (int i = 0; i < numValues; i++) {
-      intIterators[i] = invertedIndex.getDocIds(dictionary.indexOf(values[i])).getIntIterator();
+      intIterators[i] = invertedIndex.getDocIdIterator(dictionary.indexOf(values[i]));
     }
     return intIterators;
   }
@@ -41,10 +41,7 @@ public final class FixedBitSingleValueReader extends BaseSingleColumnSingleValue
 
   @Override
   public void readValues(int[] rows, int rowsStartIndex, int rowSize, int[] values, int valuesStartIndex) {
-    int rowsEndIndex = rowsStartIndex + rowSize;
-    for (int i = rowsStartIndex; i < rowsEndIndex; i++) {
-      values[valuesStartIndex++] = getInt(rows[i]);
-    }
+    _reader.readInt(rows, rowsStartIndex, rowSize, values, valuesStartIndex);
   }
 
   @Override
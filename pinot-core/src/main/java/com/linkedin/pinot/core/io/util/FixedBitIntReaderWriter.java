@@ -40,6 +40,13 @@ public final class FixedBitIntReaderWriter implements Closeable {
     _dataBitSet.readInt(startIndex, _numBitsPerValue, length, buffer);
   }
 
+  /**
+   * Reads the values for the given sorted indices into the buffer.
+   */
+  public void readInt(int[] indices, int indicesStartIndex, int length, int[] buffer, int bufferStartIndex) {
+    _dataBitSet.readInt(indices, indicesStartIndex, _numBitsPerValue, length, buffer, bufferStartIndex);
+  }
+
   public void writeInt(int index, int value) {
     _dataBitSet.writeInt(index, _numBitsPerValue, value);
   }
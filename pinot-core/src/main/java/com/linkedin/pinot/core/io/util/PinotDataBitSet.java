@@ -18,6 +18,7 @@ package com.linkedin.pinot.core.io.util;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteOrder;
 
 
 public final class PinotDataBitSet implements Closeable {
@@ -68,9 +69,13 @@ public final class PinotDataBitSet implements Closeable {
   }
 
   private final PinotDataBuffer _dataBuffer;
+  private final long _size;
+  private final boolean _bigEndian;
 
   public PinotDataBitSet(PinotDataBuffer dataBuffer) {
     _dataBuffer = dataBuffer;
+    _size = dataBuffer.size();
+    _bigEndian = dataBuffer.order() == ByteOrder.BIG_ENDIAN;
   }
 
   public int readInt(int index, int numBitsPerValue) {
@@ -78,6 +83,11 @@ public final class PinotDataBitSet implements Closeable {
     int byteOffset = (int) (bitOffset / Byte.SIZE);
     int bitOffsetInFirstByte = (int) (bitOffset % Byte.SIZE);
 
+    // Read the whole value with one word read when there are enough bytes left in the buffer
+    if (byteOffset + Long.BYTES <= _size) {
+      return (int) ((getLongBigEndian(byteOffset) << bitOffsetInFirstByte) >>> (Long.SIZE - numBitsPerValue));
+    }
+
     // Initiated with the value in first byte
     int currentValue = _dataBuffer.getByte(byteOffset) & (BYTE_MASK >>> bitOffsetInFirstByte);
 
@@ -96,39 +106,209 @@ public final class PinotDataBitSet implements Closeable {
     }
   }
 
+  /**
+   * Reads <code>length</code> consecutive values starting from <code>startIndex</code> into the buffer.
+   */
   public void readInt(int startIndex, int numBitsPerValue, int length, int[] buffer) {
-    long startBitOffset = (long) startIndex * numBitsPerValue;
-    int byteOffset = (int) (startBitOffset / Byte.SIZE);
-    int bitOffsetInFirstByte = (int) (startBitOffset % Byte.SIZE);
+    readInt(startIndex, numBitsPerValue, length, buffer, 0);
+  }
 
-    // Initiated with the value in first byte
-    int currentValue = _dataBuffer.getByte(byteOffset) & (BYTE_MASK >>> bitOffsetInFirstByte);
+  /**
+   * Reads <code>length</code> consecutive values starting from <code>startIndex</code> into the buffer starting from
+   * <code>bufferStartIndex</code>.
+   * <p>Values are unpacked with kernels specialized for the number of bits per value: byte-aligned values (8, 16 and
+   * 32 bits) are read directly, values packed inside bytes (1, 2 and 4 bits) are unpacked one byte at a time, and the
+   * other values are extracted from one (unaligned) word read per value.
+   */
+  public void readInt(int startIndex, int numBitsPerValue, int length, int[] buffer, int bufferStartIndex) {
+    switch (numBitsPerValue) {
+      case 1:
+        readSubByteValues(startIndex, 1, length, buffer, bufferStartIndex);
+        return;
+      case 2:
+        readSubByteValues(startIndex, 2, length, buffer, bufferStartIndex);
+        return;
+      case 4:
+        readSubByteValues(startIndex, 4, length, buffer, bufferStartIndex);
+        return;
+      case 8:
+        for (int i = 0; i < length; i++) {
+          buffer[bufferStartIndex + i] = _dataBuffer.getByte(startIndex + i) & BYTE_MASK;
+        }
+        return;
+      case 16:
+        for (int i = 0; i < length; i++) {
+          buffer[bufferStartIndex + i] = getShortBigEndian((startIndex + i) << 1) & 0xFFFF;
+        }
+        return;
+      case 32:
+        for (int i = 0; i < length; i++) {
+          buffer[bufferStartIndex + i] = getIntBigEndian((startIndex + i) << 2);
+        }
+        return;
+      default:
+        readUnalignedValues(startIndex, numBitsPerValue, length, buffer, bufferStartIndex);
+    }
+  }
 
-    for (int i = 0; i < length; i++) {
-      if (bitOffsetInFirstByte == Byte.SIZE) {
-        bitOffsetInFirstByte = 0;
-        currentValue = _dataBuffer.getByte(++byteOffset) & BYTE_MASK;
-      }
-      int numBitsLeft = numBitsPerValue - (Byte.SIZE - bitOffsetInFirstByte);
-      if (numBitsLeft <= 0) {
-        // The value is inside the first byte
-        buffer[i] = currentValue >>> -numBitsLeft;
-        bitOffsetInFirstByte = Byte.SIZE + numBitsLeft;
-        currentValue = currentValue & (BYTE_MASK >>> bitOffsetInFirstByte);
-      } else {
-        // The value is in multiple bytes
-        while (numBitsLeft > Byte.SIZE) {
-          currentValue = (currentValue << Byte.SIZE) | (_dataBuffer.getByte(++byteOffset) & BYTE_MASK);
-          numBitsLeft -= Byte.SIZE;
+  /**
+   * Reads the values for the given sorted indices into the buffer starting from <code>bufferStartIndex</code>.
+   * <p>Consecutive indices are read with the kernels for contiguous ranges.
+   */
+  public void readInt(int[] indices, int indicesStartIndex, int numBitsPerValue, int length, int[] buffer,
+      int bufferStartIndex) {
+    if (length == 0) {
+      return;
+    }
+    int startIndex = indices[indicesStartIndex];
+    if (indices[indicesStartIndex + length - 1] - startIndex == length - 1) {
+      readInt(startIndex, numBitsPerValue, length, buffer, bufferStartIndex);
+      return;
+    }
+    int indicesEndIndex = indicesStartIndex + length;
+    switch (numBitsPerValue) {
+      case 8:
+        for (int i = indicesStartIndex; i < indicesEndIndex; i++) {
+          buffer[bufferStartIndex++] = _dataBuffer.getByte(indices[i]) & BYTE_MASK;
         }
-        int nextByte = _dataBuffer.getByte(++byteOffset) & BYTE_MASK;
-        buffer[i] = (currentValue << numBitsLeft) | (nextByte >>> (Byte.SIZE - numBitsLeft));
-        bitOffsetInFirstByte = numBitsLeft;
-        currentValue = nextByte & (BYTE_MASK >>> bitOffsetInFirstByte);
+        return;
+      case 16:
+        for (int i = indicesStartIndex; i < indicesEndIndex; i++) {
+          buffer[bufferStartIndex++] = getShortBigEndian(indices[i] << 1) & 0xFFFF;
+        }
+        return;
+      case 32:
+        for (int i = indicesStartIndex; i < indicesEndIndex; i++) {
+          buffer[bufferStartIndex++] = getIntBigEndian(indices[i] << 2);
+        }
+        return;
+      default:
+        // Indices are sorted, so all the values before the first one too close to the end of the buffer can be read
+        // with one word read
+        int shift = Long.SIZE - numBitsPerValue;
+        long maxWordByteOffset = _size - Long.BYTES;
+        int i = indicesStartIndex;
+        for (; i < indicesEndIndex; i++) {
+          long bitOffset = (long) indices[i] * numBitsPerValue;
+          int byteOffset = (int) (bitOffset >>> 3);
+          if (byteOffset > maxWordByteOffset) {
+            break;
+          }
+          buffer[bufferStartIndex++] = (int) ((getLongBigEndian(byteOffset) << (bitOffset & 7)) >>> shift);
+        }
+        for (; i < indicesEndIndex; i++) {
+          buffer[bufferStartIndex++] = readInt(indices[i], numBitsPerValue);
+        }
+    }
+  }
+
+  /**
+   * Unpacks values with 1, 2 or 4 bits per value, which never cross the byte boundary.
+   */
+  private void readSubByteValues(int startIndex, int numBitsPerValue, int length, int[] buffer,
+      int bufferStartIndex) {
+    int numValuesPerByte = Byte.SIZE / numBitsPerValue;
+    int valueMask = (1 << numBitsPerValue) - 1;
+    int i = 0;
+
+    // Values before the first byte boundary
+    while (i < length && (startIndex + i) % numValuesPerByte != 0) {
+      buffer[bufferStartIndex + i] = readInt(startIndex + i, numBitsPerValue);
+      i++;
+    }
+
+    // Values in whole bytes
+    int byteOffset = (startIndex + i) / numValuesPerByte;
+    int numWholeBytes = (length - i) / numValuesPerByte;
+    int bufferIndex = bufferStartIndex + i;
+    switch (numBitsPerValue) {
+      case 1:
+        for (int j = 0; j < numWholeBytes; j++) {
+          int currentByte = _dataBuffer.getByte(byteOffset++);
+          buffer[bufferIndex] = (currentByte >>> 7) & 1;
+          buffer[bufferIndex + 1] = (currentByte >>> 6) & 1;
+          buffer[bufferIndex + 2] = (currentByte >>> 5) & 1;
+          buffer[bufferIndex + 3] = (currentByte >>> 4) & 1;
+          buffer[bufferIndex + 4] = (currentByte >>> 3) & 1;
+          buffer[bufferIndex + 5] = (currentByte >>> 2) & 1;
+          buffer[bufferIndex + 6] = (currentByte >>> 1) & 1;
+          buffer[bufferIndex + 7] = currentByte & 1;
+          bufferIndex += 8;
+        }
+        break;
+      case 2:
+        for (int j = 0; j < numWholeBytes; j++) {
+          int currentByte = _dataBuffer.getByte(byteOffset++);
+          buffer[bufferIndex] = (currentByte >>> 6) & 3;
+          buffer[bufferIndex + 1] = (currentByte >>> 4) & 3;
+          buffer[bufferIndex + 2] = (currentByte >>> 2) & 3;
+          buffer[bufferIndex + 3] = currentByte & 3;
+          bufferIndex += 4;
+        }
+        break;
+      case 4:
+        for (int j = 0; j < numWholeBytes; j++) {
+          int currentByte = _dataBuffer.getByte(byteOffset++);
+          buffer[bufferIndex] = (currentByte >>> 4) & 0xF;
+          buffer[bufferIndex + 1] = currentByte & 0xF;
+          bufferIndex += 2;
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported number of bits per value: " + numBitsPerValue);
+    }
+    i += numWholeBytes * numValuesPerByte;
+
+    // Values after the last byte boundary
+    if (i < length) {
+      int currentByte = _dataBuffer.getByte(byteOffset);
+      int shift = Byte.SIZE;
+      for (; i < length; i++) {
+        shift -= numBitsPerValue;
+        buffer[bufferStartIndex + i] = (currentByte >>> shift) & valueMask;
       }
     }
   }
 
+  /**
+   * Unpacks values not aligned to the byte boundary by extracting each value from one word read.
+   * <p>The values in the last few bytes of the buffer are read byte by byte to avoid reading past the end of the
+   * buffer.
+   */
+  private void readUnalignedValues(int startIndex, int numBitsPerValue, int length, int[] buffer,
+      int bufferStartIndex) {
+    // Number of values (from the beginning of the buffer) that can be read with one word read
+    long numWordReadableValues =
+        _size >= Long.BYTES ? ((_size - Long.BYTES) * Byte.SIZE + Byte.SIZE - 1) / numBitsPerValue + 1 : 0;
+    int numWordReads = (int) Math.max(0, Math.min(length, numWordReadableValues - startIndex));
+
+    int shift = Long.SIZE - numBitsPerValue;
+    long bitOffset = (long) startIndex * numBitsPerValue;
+    int i = 0;
+    for (; i < numWordReads; i++) {
+      buffer[bufferStartIndex + i] = (int) ((getLongBigEndian((int) (bitOffset >>> 3)) << (bitOffset & 7)) >>> shift);
+      bitOffset += numBitsPerValue;
+    }
+    for (; i < length; i++) {
+      buffer[bufferStartIndex + i] = readInt(startIndex + i, numBitsPerValue);
+    }
+  }
+
+  private short getShortBigEndian(int byteOffset) {
+    short value = _dataBuffer.getShort(byteOffset);
+    return _bigEndian ? value : Short.reverseBytes(value);
+  }
+
+  private int getIntBigEndian(int byteOffset) {
+    int value = _dataBuffer.getInt(byteOffset);
+    return _bigEndian ? value : Integer.reverseBytes(value);
+  }
+
+  private long getLongBigEndian(int byteOffset) {
+    long value = _dataBuffer.getLong(byteOffset);
+    return _bigEndian ? value : Long.reverseBytes(value);
+  }
+
   public void writeInt(int index, int numBitsPerValue, int value) {
     long bitOffset = (long) index * numBitsPerValue;
     int byteOffset = (int) (bitOffset / Byte.SIZE);
@@ -26,19 +26,17 @@ import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
-import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
-import com.linkedin.pinot.core.util.trace.TraceRunnable;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupByCombineTable;
+import com.linkedin.pinot.core.util.trace.TraceCallable;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,9 +54,16 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
   private final ExecutorService _executorService;
   private final long _timeOutMs;
   private final int _numGroupsLimit;
+  private final int _maxThreadsPerQuery;
 
   public CombineGroupByOperator(List<Operator> operators, BrokerRequest brokerRequest, ExecutorService executorService,
       long timeOutMs, int numGroupsLimit) {
+    this(operators, brokerRequest, executorService, timeOutMs, numGroupsLimit,
+        CombineOperator.DEFAULT_MAX_THREADS_PER_QUERY);
+  }
+
+  public CombineGroupByOperator(List<Operator> operators, BrokerRequest brokerRequest, ExecutorService executorService,
+      long timeOutMs, int numGroupsLimit, int maxThreadsPerQuery) {
     Preconditions.checkArgument(brokerRequest.isSetAggregationsInfo() && brokerRequest.isSetGroupBy());
 
     _operators = operators;
@@ -66,6 +71,7 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
     _executorService = executorService;
     _timeOutMs = timeOutMs;
     _numGroupsLimit = numGroupsLimit;
+    _maxThreadsPerQuery = CombineOperator.getMaxThreadsPerQuery(brokerRequest, maxThreadsPerQuery);
   }
 
   /**
@@ -75,12 +81,17 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
    * result block.
    * <ul>
    *   <li>
-   *     Concurrently merge group-by results form multiple result blocks into a map from group key to group results
+   *     Each worker thread pulls segment operators from a shared index, and merges their group-by results into its
+   *     own {@link GroupByCombineTable} keyed by the typed group keys, so no string key is built and no lock is taken
+   *     per group
+   *   </li>
+   *   <li>
+   *     Merge the tables from all worker threads into one table
    *   </li>
    *   <li>
-   *     Sort and trim the results map based on {@code TOP N} in the request
-   *     <p>Results map will be converted from {@code Map<String, Object[]>} to {@code List<Map<String, Object>>} which
-   *     is expected by the broker
+   *     Sort and trim the results based on {@code TOP N} in the request
+   *     <p>Results will be converted from {@link GroupByCombineTable} to {@code Map<String, Object[]>}, and sent to the
+   *     broker with one row per group
    *   </li>
    *   <li>
    *     Set all exceptions encountered during execution into the merged result block
@@ -89,10 +100,9 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
    */
   @Override
   protected IntermediateResultsBlock getNextBlock() {
+    long endTime = System.currentTimeMillis() + _timeOutMs;
     int numOperators = _operators.size();
-    CountDownLatch operatorLatch = new CountDownLatch(numOperators);
-    ConcurrentHashMap<String, Object[]> resultsMap = new ConcurrentHashMap<>();
-    AtomicInteger numGroups = new AtomicInteger();
+    int numThreads = CombineOperator.getNumThreads(numOperators, _maxThreadsPerQuery);
     ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions = new ConcurrentLinkedQueue<>();
 
     AggregationFunctionContext[] aggregationFunctionContexts =
@@ -103,78 +113,87 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
       aggregationFunctions[i] = aggregationFunctionContexts[i].getAggregationFunction();
     }
 
-    Future[] futures = new Future[numOperators];
-    for (int i = 0; i < numOperators; i++) {
-      int index = i;
-      futures[i] = _executorService.submit(new TraceRunnable() {
-        @SuppressWarnings("unchecked")
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
+    AtomicBoolean segmentNumGroupsLimitReached = new AtomicBoolean();
+    @SuppressWarnings("unchecked")
+    Future<GroupByCombineTable>[] futures = new Future[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      futures[i] = _executorService.submit(new TraceCallable<GroupByCombineTable>() {
         @Override
-        public void runJob() {
-          AggregationGroupByResult aggregationGroupByResult;
-
-          try {
-            IntermediateResultsBlock intermediateResultsBlock =
-                (IntermediateResultsBlock) _operators.get(index).nextBlock();
-
-            // Merge processing exceptions.
-            List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
-            if (processingExceptionsToMerge != null) {
-              mergedProcessingExceptions.addAll(processingExceptionsToMerge);
-            }
+        public GroupByCombineTable callJob() {
+          GroupByCombineTable combineTable = new GroupByCombineTable(aggregationFunctions, _numGroupsLimit);
+          int index;
+          while ((index = nextOperatorIndex.getAndIncrement()) < numOperators) {
+            AggregationGroupByResult aggregationGroupByResult = null;
+            try {
+              IntermediateResultsBlock intermediateResultsBlock =
+                  (IntermediateResultsBlock) _operators.get(index).nextBlock();
+              aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
+
+              // Merge processing exceptions.
+              List<ProcessingException> processingExceptionsToMerge =
+                  intermediateResultsBlock.getProcessingExceptions();
+              if (processingExceptionsToMerge != null) {
+                mergedProcessingExceptions.addAll(processingExceptionsToMerge);
+              }
 
-            // Merge aggregation group-by result.
-            aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
-            if (aggregationGroupByResult != null) {
-              // Iterate over the group-by keys, for each key, update the group-by result in the resultsMap.
-              Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-              while (groupKeyIterator.hasNext()) {
-                GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                resultsMap.compute(groupKey._stringKey, (key, value) -> {
-                  if (value == null) {
-                    if (numGroups.get() < _numGroupsLimit) {
-                      numGroups.getAndIncrement();
-                      value = new Object[numAggregationFunctions];
-                      for (int i = 0; i < numAggregationFunctions; i++) {
-                        value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
-                      }
-                    }
-                  } else {
-                    for (int i = 0; i < numAggregationFunctions; i++) {
-                      value[i] = aggregationFunctions[i].merge(value[i],
-                          aggregationGroupByResult.getResultForKey(groupKey, i));
-                    }
-                  }
-                  return value;
-                });
+              // Merge aggregation group-by result.
+              if (aggregationGroupByResult != null) {
+                combineTable.merge(aggregationGroupByResult);
+              }
+              if (intermediateResultsBlock.isNumGroupsLimitReached()) {
+                segmentNumGroupsLimitReached.set(true);
+              }
+            } catch (Exception e) {
+              LOGGER.error("Exception processing CombineGroupBy for index {}, operator {}", index,
+                  _operators.get(index).getClass().getName(), e);
+              mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
+            } finally {
+              // Release the off-heap memory for the following segments, whether the results are merged or not (e.g.
+              // the merge failed, or the query timed out and the result is discarded)
+              if (aggregationGroupByResult != null) {
+                aggregationGroupByResult.release();
               }
             }
-          } catch (Exception e) {
-            LOGGER.error("Exception processing CombineGroupBy for index {}, operator {}", index,
-                _operators.get(index).getClass().getName(), e);
-            mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
           }
-
-          operatorLatch.countDown();
+          return combineTable;
         }
       });
     }
 
     try {
-      boolean opCompleted = operatorLatch.await(_timeOutMs, TimeUnit.MILLISECONDS);
-      if (!opCompleted) {
-        // If this happens, the broker side should already timed out, just log the error and return
-        String errorMessage = "Timed out while combining group-by results after " + _timeOutMs + "ms";
-        LOGGER.error(errorMessage);
-        return new IntermediateResultsBlock(new TimeoutException(errorMessage));
+      // Merge the tables from all the worker threads into the first one
+      GroupByCombineTable mergedTable = null;
+      boolean numGroupsLimitReached = false;
+      for (Future<GroupByCombineTable> future : futures) {
+        long timeLeftMs = endTime - System.currentTimeMillis();
+        GroupByCombineTable combineTable;
+        try {
+          combineTable = future.get(timeLeftMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+          // If this happens, the broker side should already timed out, just log the error and return
+          String errorMessage = "Timed out while combining group-by results after " + _timeOutMs + "ms";
+          LOGGER.error(errorMessage);
+          return new IntermediateResultsBlock(new TimeoutException(errorMessage));
+        }
+        numGroupsLimitReached |= combineTable.isNumGroupsLimitReached();
+        if (mergedTable == null) {
+          mergedTable = combineTable;
+        } else {
+          mergedTable.merge(combineTable);
+        }
+      }
+      if (mergedTable == null) {
+        mergedTable = new GroupByCombineTable(aggregationFunctions, _numGroupsLimit);
       }
 
       // Trim the results map.
       AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
           new AggregationGroupByTrimmingService(aggregationFunctions, (int) _brokerRequest.getGroupBy().getTopN());
-      List<Map<String, Object>> trimmedResults =
-          aggregationGroupByTrimmingService.trimIntermediateResultsMap(resultsMap);
-      IntermediateResultsBlock mergedBlock =
-          new IntermediateResultsBlock(aggregationFunctionContexts, trimmedResults, true);
+      Map<String, Object[]> trimmedResults =
+          aggregationGroupByTrimmingService.trimIntermediateResults(mergedTable.toResultsMap());
+      IntermediateResultsBlock mergedBlock = new IntermediateResultsBlock(aggregationFunctionContexts,
+          _brokerRequest.getGroupBy().getExpressions(), trimmedResults);
 
       // Set the processing exceptions.
       if (!mergedProcessingExceptions.isEmpty()) {
@@ -193,8 +212,9 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
       mergedBlock.setNumEntriesScannedInFilter(executionStatistics.getNumEntriesScannedInFilter());
       mergedBlock.setNumEntriesScannedPostFilter(executionStatistics.getNumEntriesScannedPostFilter());
       mergedBlock.setNumTotalRawDocs(executionStatistics.getNumTotalRawDocs());
-      // NOTE: numGroups might go slightly over numGroupsLimit because the comparison is not atomic
-      if (numGroups.get() >= _numGroupsLimit) {
+      mergedBlock.setFilterStatistics(executionStatistics.getFilterStatistics());
+      // Groups might also be dropped within a segment, where the segment result reached the limit
+      if (numGroupsLimitReached || mergedTable.isNumGroupsLimitReached() || segmentNumGroupsLimitReached.get()) {
         mergedBlock.setNumGroupsLimitReached(true);
       }
 
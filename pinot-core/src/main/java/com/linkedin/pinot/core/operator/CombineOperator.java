@@ -17,14 +17,15 @@ package com.linkedin.pinot.core.operator;
 
 import com.linkedin.pinot.common.exception.QueryException;
 import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import com.linkedin.pinot.core.common.Block;
 import com.linkedin.pinot.core.common.Operator;
 import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
 import com.linkedin.pinot.core.query.reduce.CombineService;
 import com.linkedin.pinot.core.util.trace.TraceCallable;
 import com.linkedin.pinot.core.util.trace.TraceRunnable;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
@@ -32,6 +33,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,54 +49,66 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
   private final BrokerRequest _brokerRequest;
   private final ExecutorService _executorService;
   private final long _timeOutMs;
-  //Make this configurable
-  //These two control the parallelism on a per query basis, depending on the number of segments to process
-  private static final int MIN_THREADS_PER_QUERY;
-  private static final int MAX_THREADS_PER_QUERY;
+  private final int _maxThreadsPerQuery;
+
+  // These two control the default parallelism on a per query basis, depending on the number of segments to process.
+  // The upper bound can be overridden through the server config or the query options.
+  public static final int DEFAULT_MIN_THREADS_PER_QUERY;
+  public static final int DEFAULT_MAX_THREADS_PER_QUERY;
   private static final int MIN_SEGMENTS_PER_THREAD = 10;
 
   static {
     int numCores = Runtime.getRuntime().availableProcessors();
-    MIN_THREADS_PER_QUERY = Math.max(1, (int) (numCores * .5));
+    DEFAULT_MIN_THREADS_PER_QUERY = Math.max(1, (int) (numCores * .5));
     //Dont have more than 10 threads per query
-    MAX_THREADS_PER_QUERY = Math.min(10, (int) (numCores * .5));
+    DEFAULT_MAX_THREADS_PER_QUERY = Math.min(10, (int) (numCores * .5));
   }
 
   public CombineOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
       BrokerRequest brokerRequest) {
+    this(operators, executorService, timeOutMs, brokerRequest, DEFAULT_MAX_THREADS_PER_QUERY);
+  }
+
+  public CombineOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
+      BrokerRequest brokerRequest, int maxThreadsPerQuery) {
     _operators = operators;
     _executorService = executorService;
     _brokerRequest = brokerRequest;
     _timeOutMs = timeOutMs;
+    _maxThreadsPerQuery = getMaxThreadsPerQuery(brokerRequest, maxThreadsPerQuery);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Segment operators are not assigned to threads up front. Each worker starts with one operator (the number of
+   * workers never exceeds the number of operators), then keeps pulling the next operator from a shared index and merges
+   * its result into a thread-local block, which is handed over to the merger once no operator is left. This way a few
+   * expensive segments do not pin a fixed group of other segments onto the same thread.
+   */
   @Override
   protected IntermediateResultsBlock getNextBlock() {
     final long startTime = System.currentTimeMillis();
     final long queryEndTime = System.currentTimeMillis() + _timeOutMs;
     final int numOperators = _operators.size();
-    // Ensure that the number of groups is not more than the number of segments
-    final int numGroups = Math.min(numOperators, Math.max(MIN_THREADS_PER_QUERY,
-        Math.min(MAX_THREADS_PER_QUERY, (numOperators + MIN_SEGMENTS_PER_THREAD - 1) / MIN_SEGMENTS_PER_THREAD)));
-
-    final List<List<Operator>> operatorGroups = new ArrayList<>(numGroups);
-    for (int i = 0; i < numGroups; i++) {
-      operatorGroups.add(new ArrayList<Operator>());
-    }
-    for (int i = 0; i < numOperators; i++) {
-      operatorGroups.get(i % numGroups).add(_operators.get(i));
-    }
+    // Ensure that the number of threads is not more than the number of segments
+    final int numThreads = getNumThreads(numOperators, _maxThreadsPerQuery);
 
-    final BlockingQueue<Block> blockingQueue = new ArrayBlockingQueue<>(numGroups);
-    // Submit operators.
-    for (final List<Operator> operatorGroup : operatorGroups) {
+    // Operators [0, numThreads) are the first operators of the workers, the rest are pulled from the shared index
+    final AtomicInteger nextOperatorIndex = new AtomicInteger(numThreads);
+    final BlockingQueue<Block> blockingQueue = new ArrayBlockingQueue<>(numThreads);
+    // Submit workers.
+    for (int i = 0; i < numThreads; i++) {
+      final int firstOperatorIndex = i;
       _executorService.submit(new TraceRunnable() {
         @Override
         public void runJob() {
           IntermediateResultsBlock mergedBlock = null;
           try {
-            for (Operator operator : operatorGroup) {
-              IntermediateResultsBlock blockToMerge = (IntermediateResultsBlock) operator.nextBlock();
+            int operatorIndex = firstOperatorIndex;
+            while (operatorIndex < numOperators) {
+              IntermediateResultsBlock blockToMerge =
+                  (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
               if (mergedBlock == null) {
                 mergedBlock = blockToMerge;
               } else {
@@ -106,6 +120,7 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
                       QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
                 }
               }
+              operatorIndex = nextOperatorIndex.getAndIncrement();
             }
           } catch (Exception e) {
             LOGGER.error("Caught exception while executing query.", e);
@@ -126,7 +141,7 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
               throws Exception {
             int mergedBlocksNumber = 0;
             IntermediateResultsBlock mergedBlock = null;
-            while (mergedBlocksNumber < numGroups) {
+            while (mergedBlocksNumber < numThreads) {
               if (mergedBlock == null) {
                 mergedBlock = (IntermediateResultsBlock) blockingQueue.poll(queryEndTime - System.currentTimeMillis(),
                     TimeUnit.MILLISECONDS);
@@ -187,10 +202,40 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
     mergedBlock.setNumEntriesScannedInFilter(executionStatistics.getNumEntriesScannedInFilter());
     mergedBlock.setNumEntriesScannedPostFilter(executionStatistics.getNumEntriesScannedPostFilter());
     mergedBlock.setNumTotalRawDocs(executionStatistics.getNumTotalRawDocs());
+    mergedBlock.setFilterStatistics(executionStatistics.getFilterStatistics());
 
     return mergedBlock;
   }
 
+  /**
+   * Returns the number of worker threads to use for the given number of segment operators.
+   */
+  static int getNumThreads(int numOperators, int maxThreadsPerQuery) {
+    int minThreadsPerQuery = Math.min(DEFAULT_MIN_THREADS_PER_QUERY, maxThreadsPerQuery);
+    return Math.min(numOperators, Math.max(minThreadsPerQuery,
+        Math.min(maxThreadsPerQuery, (numOperators + MIN_SEGMENTS_PER_THREAD - 1) / MIN_SEGMENTS_PER_THREAD)));
+  }
+
+  /**
+   * Returns the max number of threads per query. The query option (if set) can lower the configured value, but cannot
+   * exceed it so that a single query cannot take over the shared executor.
+   */
+  public static int getMaxThreadsPerQuery(BrokerRequest brokerRequest, int configuredMaxThreadsPerQuery) {
+    Map<String, String> queryOptions = brokerRequest.getQueryOptions();
+    if (queryOptions != null) {
+      String maxThreadsPerQuery = queryOptions.get(QueryOptionKey.MAX_THREADS_PER_QUERY);
+      if (maxThreadsPerQuery != null) {
+        try {
+          return Math.max(1, Math.min(Integer.parseInt(maxThreadsPerQuery), configuredMaxThreadsPerQuery));
+        } catch (NumberFormatException e) {
+          LOGGER.warn("Invalid value: {} for query option: {}, using: {}", maxThreadsPerQuery,
+              QueryOptionKey.MAX_THREADS_PER_QUERY, configuredMaxThreadsPerQuery);
+        }
+      }
+    }
+    return Math.max(1, configuredMaxThreadsPerQuery);
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
@@ -88,6 +88,9 @@ public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
 
   @Override
   public ExecutionStatistics getExecutionStatistics() {
-    return new ExecutionStatistics(0L, _filterBlockDocIdSet.getNumEntriesScannedInFilter(), 0L, 0L);
+    ExecutionStatistics executionStatistics =
+        new ExecutionStatistics(0L, _filterBlockDocIdSet.getNumEntriesScannedInFilter(), 0L, 0L);
+    _filterOperator.addFilterStatistics(_filterBlockDocIdSet, executionStatistics.getFilterStatistics());
+    return executionStatistics;
   }
 }
@@ -15,6 +15,10 @@
  */
 package com.linkedin.pinot.core.operator;
 
+import java.util.HashMap;
+import java.util.Map;
+
+
 /**
  * The <code>ExecutionStatistics</code> class contains the operator statistics during execution time.
  */
@@ -23,6 +27,8 @@ public class ExecutionStatistics {
   private long _numEntriesScannedInFilter;
   private long _numEntriesScannedPostFilter;
   private long _numTotalRawDocs;
+  // Number of entries scanned by each leaf filter operator, keyed by the leaf filter description
+  private final Map<String, Long> _filterStatistics = new HashMap<>();
 
   public ExecutionStatistics() {
   }
@@ -35,6 +41,12 @@ public class ExecutionStatistics {
     _numTotalRawDocs = numTotalRawDocs;
   }
 
+  public ExecutionStatistics(long numDocsScanned, long numEntriesScannedInFilter, long numEntriesScannedPostFilter,
+      long numTotalRawDocs, Map<String, Long> filterStatistics) {
+    this(numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter, numTotalRawDocs);
+    _filterStatistics.putAll(filterStatistics);
+  }
+
   public long getNumDocsScanned() {
     return _numDocsScanned;
   }
@@ -51,6 +63,14 @@ public class ExecutionStatistics {
     return _numTotalRawDocs;
   }
 
+  /**
+   * Returns the number of entries scanned by each leaf filter operator, keyed by the leaf filter description (see
+   * {@link com.linkedin.pinot.core.operator.filter.BaseFilterOperator#addFilterStatistics}).
+   */
+  public Map<String, Long> getFilterStatistics() {
+    return _filterStatistics;
+  }
+
   /**
    * Merge another execution statistics into the current one.
    *
@@ -61,6 +81,9 @@ public class ExecutionStatistics {
     _numEntriesScannedInFilter += executionStatisticsToMerge._numEntriesScannedInFilter;
     _numEntriesScannedPostFilter += executionStatisticsToMerge._numEntriesScannedPostFilter;
     _numTotalRawDocs += executionStatisticsToMerge._numTotalRawDocs;
+    for (Map.Entry<String, Long> entry : executionStatisticsToMerge._filterStatistics.entrySet()) {
+      _filterStatistics.merge(entry.getKey(), entry.getValue(), Long::sum);
+    }
   }
 
   @Override
@@ -69,6 +92,7 @@ public class ExecutionStatistics {
         + "\n  numDocsScanned: " + _numDocsScanned
         + "\n  numEntriesScannedInFilter: " + _numEntriesScannedInFilter
         + "\n  numEntriesScannedPostFilter: " + _numEntriesScannedPostFilter
-        + "\n  numTotalRawDocs: " + _numTotalRawDocs;
+        + "\n  numTotalRawDocs: " + _numTotalRawDocs
+        + "\n  filterStatistics: " + _filterStatistics;
   }
 }
@@ -16,6 +16,8 @@
 package com.linkedin.pinot.core.operator;
 
 import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.operator.blocks.InstanceResponseBlock;
 import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
 
@@ -24,14 +26,24 @@ public class InstanceResponseOperator extends BaseOperator<InstanceResponseBlock
   private static final String OPERATOR_NAME = "InstanceResponseOperator";
 
   private final Operator _operator;
+  private final int _dataTableVersion;
+  private final ChunkCompressorFactory.CompressionType _dataTableCompressionType;
 
   public InstanceResponseOperator(Operator combinedOperator) {
+    this(combinedOperator, DataTableImplV2.VERSION, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  public InstanceResponseOperator(Operator combinedOperator, int dataTableVersion,
+      ChunkCompressorFactory.CompressionType dataTableCompressionType) {
     _operator = combinedOperator;
+    _dataTableVersion = dataTableVersion;
+    _dataTableCompressionType = dataTableCompressionType;
   }
 
   @Override
   protected InstanceResponseBlock getNextBlock() {
-    return new InstanceResponseBlock((IntermediateResultsBlock) _operator.nextBlock());
+    return new InstanceResponseBlock((IntermediateResultsBlock) _operator.nextBlock(), _dataTableVersion,
+        _dataTableCompressionType);
   }
 
   @Override
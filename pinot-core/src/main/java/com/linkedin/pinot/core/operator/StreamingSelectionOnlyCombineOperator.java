@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator;
+
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.reduce.CombineService;
+import com.linkedin.pinot.core.query.request.ResponseChunkSender;
+import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import com.linkedin.pinot.core.util.trace.TraceRunnable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>StreamingSelectionOnlyCombineOperator</code> class is the operator to combine selection only results by
+ * streaming them to the broker as response chunks.
+ * <p>The rows of each segment are sent in chunks of at most the response chunk size as soon as the segment is
+ * processed, so the server never holds more than one segment worth of rows per thread. Once the selection size is
+ * reached, no more segment is processed. The returned block only carries the data schema, the processing exceptions
+ * and the execution statistics, and becomes the last response after all the chunks.
+ */
+public class StreamingSelectionOnlyCombineOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StreamingSelectionOnlyCombineOperator.class);
+  private static final String OPERATOR_NAME = "StreamingSelectionOnlyCombineOperator";
+
+  private final List<Operator> _operators;
+  private final BrokerRequest _brokerRequest;
+  private final ExecutorService _executorService;
+  private final long _timeOutMs;
+  private final int _maxThreadsPerQuery;
+  private final ResponseChunkSender _responseChunkSender;
+  private final int _responseChunkSize;
+  private final int _dataTableVersion;
+  private final ChunkCompressorFactory.CompressionType _dataTableCompressionType;
+
+  public StreamingSelectionOnlyCombineOperator(List<Operator> operators, BrokerRequest brokerRequest,
+      ExecutorService executorService, long timeOutMs, int maxThreadsPerQuery, ResponseChunkSender responseChunkSender,
+      int responseChunkSize, int dataTableVersion, ChunkCompressorFactory.CompressionType dataTableCompressionType) {
+    _operators = operators;
+    _brokerRequest = brokerRequest;
+    _executorService = executorService;
+    _timeOutMs = timeOutMs;
+    _maxThreadsPerQuery = CombineOperator.getMaxThreadsPerQuery(brokerRequest, maxThreadsPerQuery);
+    _responseChunkSender = responseChunkSender;
+    _responseChunkSize = responseChunkSize;
+    _dataTableVersion = dataTableVersion;
+    _dataTableCompressionType = dataTableCompressionType;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    final long queryEndTime = System.currentTimeMillis() + _timeOutMs;
+    final int numOperators = _operators.size();
+    final int numThreads = CombineOperator.getNumThreads(numOperators, _maxThreadsPerQuery);
+
+    // Operators [0, numThreads) are the first operators of the workers, the rest are pulled from the shared index
+    final AtomicInteger nextOperatorIndex = new AtomicInteger(numThreads);
+    // Rows reserved by a worker are sent by the same worker, the workers stop once no row is left to send
+    final AtomicInteger numRowsRemaining = new AtomicInteger(_brokerRequest.getSelections().getSize());
+    final BlockingQueue<IntermediateResultsBlock> blockingQueue = new ArrayBlockingQueue<>(numThreads);
+    Future[] futures = new Future[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      final int firstOperatorIndex = i;
+      futures[i] = _executorService.submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          IntermediateResultsBlock mergedBlock = null;
+          try {
+            int operatorIndex = firstOperatorIndex;
+            while (operatorIndex < numOperators) {
+              IntermediateResultsBlock blockToMerge =
+                  (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
+              DataSchema dataSchema = blockToMerge.getSelectionDataSchema();
+              if (dataSchema != null) {
+                sendRows(dataSchema, blockToMerge.getSelectionResult(), numRowsRemaining, queryEndTime);
+                // Only keep the data schema, the rows are already sent
+                blockToMerge.setSelectionResult(new ArrayList<Serializable[]>(0));
+              }
+              if (mergedBlock == null) {
+                mergedBlock = blockToMerge;
+              } else {
+                CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
+              }
+              if (numRowsRemaining.get() == 0) {
+                break;
+              }
+              operatorIndex = nextOperatorIndex.getAndIncrement();
+            }
+          } catch (TimeoutException e) {
+            LOGGER.error("Caught TimeoutException while sending response chunk.", e);
+            mergedBlock = new IntermediateResultsBlock(QueryException.EXECUTION_TIMEOUT_ERROR, e);
+          } catch (Exception e) {
+            LOGGER.error("Caught exception while executing query.", e);
+            mergedBlock = new IntermediateResultsBlock(e);
+          }
+          assert mergedBlock != null;
+          blockingQueue.offer(mergedBlock);
+        }
+      });
+    }
+
+    // Merge the data schemas and processing exceptions of the workers.
+    IntermediateResultsBlock mergedBlock = null;
+    try {
+      for (int i = 0; i < numThreads; i++) {
+        IntermediateResultsBlock blockToMerge =
+            blockingQueue.poll(queryEndTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        if (blockToMerge == null) {
+          throw new TimeoutException("Timed out waiting for " + (numThreads - i) + " workers");
+        }
+        if (mergedBlock == null) {
+          mergedBlock = blockToMerge;
+        } else {
+          CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.error("Caught InterruptedException.", e);
+      mergedBlock = new IntermediateResultsBlock(QueryException.getException(QueryException.FUTURE_CALL_ERROR, e));
+    } catch (TimeoutException e) {
+      LOGGER.error("Caught TimeoutException", e);
+      mergedBlock =
+          new IntermediateResultsBlock(QueryException.getException(QueryException.EXECUTION_TIMEOUT_ERROR, e));
+    } finally {
+      // Stop the workers still running, no more row should be sent after the last response
+      numRowsRemaining.set(0);
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+    }
+
+    // Update execution statistics.
+    ExecutionStatistics executionStatistics = new ExecutionStatistics();
+    for (Operator operator : _operators) {
+      ExecutionStatistics executionStatisticsToMerge = operator.getExecutionStatistics();
+      if (executionStatisticsToMerge != null) {
+        executionStatistics.merge(executionStatisticsToMerge);
+      }
+    }
+    mergedBlock.setNumDocsScanned(executionStatistics.getNumDocsScanned());
+    mergedBlock.setNumEntriesScannedInFilter(executionStatistics.getNumEntriesScannedInFilter());
+    mergedBlock.setNumEntriesScannedPostFilter(executionStatistics.getNumEntriesScannedPostFilter());
+    mergedBlock.setNumTotalRawDocs(executionStatistics.getNumTotalRawDocs());
+    mergedBlock.setFilterStatistics(executionStatistics.getFilterStatistics());
+
+    return mergedBlock;
+  }
+
+  /**
+   * Sends the rows of a segment as response chunks, up to the number of rows remaining for the query.
+   */
+  private void sendRows(DataSchema dataSchema, Collection<Serializable[]> rows, AtomicInteger numRowsRemaining,
+      long queryEndTime) throws Exception {
+    int numRowsToSend = reserveRows(numRowsRemaining, rows.size());
+    Iterator<Serializable[]> iterator = rows.iterator();
+    while (numRowsToSend > 0) {
+      int numRowsInChunk = Math.min(numRowsToSend, _responseChunkSize);
+      List<Serializable[]> chunkRows = new ArrayList<>(numRowsInChunk);
+      for (int i = 0; i < numRowsInChunk; i++) {
+        chunkRows.add(iterator.next());
+      }
+      DataTable dataTableChunk =
+          SelectionOperatorUtils.getDataTableFromRows(chunkRows, dataSchema, _dataTableVersion,
+              _dataTableCompressionType);
+      if (!_responseChunkSender.sendResponseChunk(dataTableChunk, queryEndTime - System.currentTimeMillis())) {
+        numRowsRemaining.set(0);
+        throw new TimeoutException("Timed out sending response chunk");
+      }
+      numRowsToSend -= numRowsInChunk;
+    }
+  }
+
+  /**
+   * Reserves up to the given number of rows from the rows remaining, and returns the number of rows reserved.
+   */
+  private static int reserveRows(AtomicInteger numRowsRemaining, int numRows) {
+    while (true) {
+      int remaining = numRowsRemaining.get();
+      int numRowsToReserve = Math.min(remaining, numRows);
+      if (numRowsToReserve == 0 || numRowsRemaining.compareAndSet(remaining, remaining - numRowsToReserve)) {
+        return numRowsToReserve;
+      }
+    }
+  }
+
+  /**
+   * Returns the max number of rows per response chunk from the query options, or 0 if the response should not be
+   * chunked.
+   */
+  public static int getResponseChunkSize(BrokerRequest brokerRequest) {
+    Map<String, String> queryOptions = brokerRequest.getQueryOptions();
+    if (queryOptions != null) {
+      String responseChunkSize = queryOptions.get(QueryOptionKey.RESPONSE_CHUNK_SIZE);
+      if (responseChunkSize != null) {
+        try {
+          return Math.max(0, Integer.parseInt(responseChunkSize));
+        } catch (NumberFormatException e) {
+          LOGGER.warn("Invalid value: {} for query option: {}, sending a single response", responseChunkSize,
+              QueryOptionKey.RESPONSE_CHUNK_SIZE);
+        }
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+}
@@ -21,6 +21,8 @@ import com.linkedin.pinot.core.common.BlockDocIdSet;
 import com.linkedin.pinot.core.common.BlockDocIdValueSet;
 import com.linkedin.pinot.core.common.BlockMetadata;
 import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,8 +38,13 @@ public class InstanceResponseBlock implements Block {
   private DataTable _instanceResponseDataTable;
 
   public InstanceResponseBlock(IntermediateResultsBlock intermediateResultsBlock) {
+    this(intermediateResultsBlock, DataTableImplV2.VERSION, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  public InstanceResponseBlock(IntermediateResultsBlock intermediateResultsBlock, int dataTableVersion,
+      ChunkCompressorFactory.CompressionType dataTableCompressionType) {
     try {
-      _instanceResponseDataTable = intermediateResultsBlock.getDataTable();
+      _instanceResponseDataTable = intermediateResultsBlock.getDataTable(dataTableVersion, dataTableCompressionType);
     } catch (Exception e) {
       LOGGER.error("Caught exception while building data table.", e);
       throw new RuntimeException("Caught exception while building data table.", e);
@@ -26,8 +26,10 @@ import com.linkedin.pinot.core.common.BlockMetadata;
 import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -47,12 +49,14 @@ public class IntermediateResultsBlock implements Block {
   private AggregationFunctionContext[] _aggregationFunctionContexts;
   private List<Object> _aggregationResult;
   private AggregationGroupByResult _aggregationGroupByResult;
-  private List<Map<String, Object>> _combinedAggregationGroupByResult;
+  private List<String> _groupByColumns;
+  private Map<String, Object[]> _combinedAggregationGroupByResult;
   private List<ProcessingException> _processingExceptions;
   private long _numDocsScanned;
   private long _numEntriesScannedInFilter;
   private long _numEntriesScannedPostFilter;
   private long _numTotalRawDocs;
+  private Map<String, Long> _filterStatistics;
   private boolean _numGroupsLimitReached;
 
   /**
@@ -65,19 +69,23 @@ public class IntermediateResultsBlock implements Block {
   }
 
   /**
-   * Constructor for aggregation result.
-   * <p>For aggregation only, the result is a list of values.
-   * <p>For aggregation group-by, the result is a list of maps from group keys to aggregation values.
+   * Constructor for aggregation only result, which is a list of values.
    */
-  @SuppressWarnings("unchecked")
   public IntermediateResultsBlock(@Nonnull AggregationFunctionContext[] aggregationFunctionContexts,
-      @Nonnull List aggregationResult, boolean isGroupBy) {
+      @Nonnull List<Object> aggregationResult) {
     _aggregationFunctionContexts = aggregationFunctionContexts;
-    if (isGroupBy) {
-      _combinedAggregationGroupByResult = aggregationResult;
-    } else {
-      _aggregationResult = aggregationResult;
-    }
+    _aggregationResult = aggregationResult;
+  }
+
+  /**
+   * Constructor for combined aggregation group-by result, which is a map from group keys to the intermediate results
+   * for all aggregation functions.
+   */
+  public IntermediateResultsBlock(@Nonnull AggregationFunctionContext[] aggregationFunctionContexts,
+      @Nonnull List<String> groupByColumns, @Nonnull Map<String, Object[]> combinedAggregationGroupByResult) {
+    _aggregationFunctionContexts = aggregationFunctionContexts;
+    _groupByColumns = groupByColumns;
+    _combinedAggregationGroupByResult = combinedAggregationGroupByResult;
   }
 
   /**
@@ -177,23 +185,45 @@ public class IntermediateResultsBlock implements Block {
     _numTotalRawDocs = numTotalRawDocs;
   }
 
+  public void setFilterStatistics(Map<String, Long> filterStatistics) {
+    _filterStatistics = filterStatistics;
+  }
+
   public void setNumGroupsLimitReached(boolean numGroupsLimitReached) {
     _numGroupsLimitReached = numGroupsLimitReached;
   }
 
+  public boolean isNumGroupsLimitReached() {
+    return _numGroupsLimitReached;
+  }
+
   @Nonnull
   public DataTable getDataTable()
       throws Exception {
+    return getDataTable(DataTableImplV2.VERSION, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  /**
+   * Builds the data table in the given version.
+   *
+   * @param version data table version to build.
+   * @param compressionType compression type for column blocks of version 3 data table.
+   * @return data table.
+   * @throws Exception
+   */
+  @Nonnull
+  public DataTable getDataTable(int version, @Nonnull ChunkCompressorFactory.CompressionType compressionType)
+      throws Exception {
     if (_selectionResult != null) {
-      return getSelectionResultDataTable();
+      return getSelectionResultDataTable(version, compressionType);
     }
 
     if (_aggregationResult != null) {
-      return getAggregationResultDataTable();
+      return getAggregationResultDataTable(version, compressionType);
     }
 
     if (_combinedAggregationGroupByResult != null) {
-      return getAggregationGroupByResultDataTable();
+      return getAggregationGroupByResultDataTable(version, compressionType);
     }
 
     if (_processingExceptions != null && _processingExceptions.size() > 0) {
@@ -204,14 +234,15 @@ public class IntermediateResultsBlock implements Block {
   }
 
   @Nonnull
-  private DataTable getSelectionResultDataTable()
+  private DataTable getSelectionResultDataTable(int version, ChunkCompressorFactory.CompressionType compressionType)
       throws Exception {
     return attachMetadataToDataTable(
-        SelectionOperatorUtils.getDataTableFromRows(_selectionResult, _selectionDataSchema));
+        SelectionOperatorUtils.getDataTableFromRows(_selectionResult, _selectionDataSchema, version,
+            compressionType));
   }
 
   @Nonnull
-  private DataTable getAggregationResultDataTable()
+  private DataTable getAggregationResultDataTable(int version, ChunkCompressorFactory.CompressionType compressionType)
       throws Exception {
     // Extract each aggregation column name and type from aggregation function context.
     int numAggregationFunctions = _aggregationFunctionContexts.length;
@@ -224,7 +255,8 @@ public class IntermediateResultsBlock implements Block {
     }
 
     // Build the data table.
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+    DataTableBuilder dataTableBuilder =
+        new DataTableBuilder(new DataSchema(columnNames, columnDataTypes), version, compressionType);
     dataTableBuilder.startRow();
     for (int i = 0; i < numAggregationFunctions; i++) {
       switch (columnDataTypes[i]) {
@@ -248,20 +280,59 @@ public class IntermediateResultsBlock implements Block {
     return attachMetadataToDataTable(dataTable);
   }
 
+  /**
+   * Builds the data table for the combined aggregation group-by result, with one row per group.
+   * <p>The first columns are the group-by columns, each storing one part of the group key, and the following columns
+   * are the intermediate results of the aggregation functions.
+   */
   @Nonnull
-  private DataTable getAggregationGroupByResultDataTable() throws Exception {
-    String[] columnNames = new String[]{"functionName", "GroupByResultMap"};
-    DataSchema.ColumnDataType[] columnDataTypes =
-        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.OBJECT};
-
-    // Build the data table.
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+  private DataTable getAggregationGroupByResultDataTable(int version,
+      ChunkCompressorFactory.CompressionType compressionType) throws Exception {
+    int numGroupByColumns = _groupByColumns.size();
     int numAggregationFunctions = _aggregationFunctionContexts.length;
+    int numColumns = numGroupByColumns + numAggregationFunctions;
+    String[] columnNames = new String[numColumns];
+    DataSchema.ColumnDataType[] columnDataTypes = new DataSchema.ColumnDataType[numColumns];
+    for (int i = 0; i < numGroupByColumns; i++) {
+      columnNames[i] = _groupByColumns.get(i);
+      columnDataTypes[i] = DataSchema.ColumnDataType.STRING;
+    }
     for (int i = 0; i < numAggregationFunctions; i++) {
-      dataTableBuilder.startRow();
       AggregationFunctionContext aggregationFunctionContext = _aggregationFunctionContexts[i];
-      dataTableBuilder.setColumn(0, aggregationFunctionContext.getAggregationColumnName());
-      dataTableBuilder.setColumn(1, _combinedAggregationGroupByResult.get(i));
+      columnNames[numGroupByColumns + i] = aggregationFunctionContext.getAggregationColumnName();
+      columnDataTypes[numGroupByColumns + i] =
+          aggregationFunctionContext.getAggregationFunction().getIntermediateResultColumnType();
+    }
+
+    // Build the data table.
+    DataTableBuilder dataTableBuilder =
+        new DataTableBuilder(new DataSchema(columnNames, columnDataTypes), version, compressionType);
+    for (Map.Entry<String, Object[]> entry : _combinedAggregationGroupByResult.entrySet()) {
+      dataTableBuilder.startRow();
+      // Set limit to -1 to prevent removing trailing empty strings
+      String[] groupKeys = entry.getKey().split(AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER, -1);
+      for (int i = 0; i < numGroupByColumns; i++) {
+        dataTableBuilder.setColumn(i, groupKeys[i]);
+      }
+      Object[] intermediateResults = entry.getValue();
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        int columnId = numGroupByColumns + i;
+        switch (columnDataTypes[columnId]) {
+          case LONG:
+            dataTableBuilder.setColumn(columnId, ((Number) intermediateResults[i]).longValue());
+            break;
+          case DOUBLE:
+            dataTableBuilder.setColumn(columnId, ((Number) intermediateResults[i]).doubleValue());
+            break;
+          case OBJECT:
+            dataTableBuilder.setColumn(columnId, intermediateResults[i]);
+            break;
+          default:
+            throw new UnsupportedOperationException(
+                "Unsupported aggregation column data type: " + columnDataTypes[columnId] + " for column: "
+                    + columnNames[columnId]);
+        }
+      }
       dataTableBuilder.finishRow();
     }
     DataTable dataTable = dataTableBuilder.build();
@@ -280,6 +351,12 @@ public class IntermediateResultsBlock implements Block {
     dataTable.getMetadata()
         .put(DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY, String.valueOf(_numEntriesScannedPostFilter));
     dataTable.getMetadata().put(DataTable.TOTAL_DOCS_METADATA_KEY, String.valueOf(_numTotalRawDocs));
+    if (_filterStatistics != null) {
+      for (Map.Entry<String, Long> entry : _filterStatistics.entrySet()) {
+        dataTable.getMetadata()
+            .put(DataTable.FILTER_STATISTICS_METADATA_KEY_PREFIX + entry.getKey(), String.valueOf(entry.getValue()));
+      }
+    }
     if (_numGroupsLimitReached) {
       dataTable.getMetadata().put(DataTable.NUM_GROUPS_LIMIT_REACHED_KEY, "true");
     }
@@ -20,12 +20,17 @@ import com.linkedin.pinot.core.common.BlockMetadata;
 import com.linkedin.pinot.core.common.BlockSingleValIterator;
 import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.operator.docvalsets.SingleValueSet;
 import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
+  // Number of dictionary ids decoded in one batch when scanning dictionary-encoded columns
+  private static final int DICT_ID_BUFFER_SIZE = 256;
+
   private int _currentDocId = -1;
+  private final BlockValSet _blockValSet;
   private final BlockSingleValIterator _valueIterator;
   private int _startDocId;
   private int _endDocId;
@@ -34,10 +39,18 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private int _numEntriesScanned = 0;
   private final ValueMatcher _valueMatcher;
 
+  // Buffers for decoding dictionary ids in batches, null if the values are matched one by one
+  private final int[] _docIdBuffer;
+  private final int[] _dictIdBuffer;
+  // Range of the doc ids (inclusive) whose dictionary ids are in the dictionary id buffer
+  private int _bufferStartDocId = 0;
+  private int _bufferEndDocId = -1;
+
   public SVScanDocIdIterator(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
     _datasourceName = datasourceName;
     _evaluator = evaluator;
+    _blockValSet = blockValSet;
     _valueIterator = (BlockSingleValIterator) blockValSet.iterator();
 
     if (evaluator.isAlwaysFalse()) {
@@ -55,6 +68,14 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       _valueMatcher = getValueMatcherForType(blockMetadata.getDataType());
     }
     _valueMatcher.setEvaluator(evaluator);
+
+    if (evaluator.isDictionaryBased() && blockValSet instanceof SingleValueSet) {
+      _docIdBuffer = new int[DICT_ID_BUFFER_SIZE];
+      _dictIdBuffer = new int[DICT_ID_BUFFER_SIZE];
+    } else {
+      _docIdBuffer = null;
+      _dictIdBuffer = null;
+    }
   }
 
   /**
@@ -112,6 +133,20 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (_currentDocId == Constants.EOF) {
       return Constants.EOF;
     }
+    if (_dictIdBuffer != null) {
+      while (_currentDocId < _endDocId) {
+        int docId = ++_currentDocId;
+        if (docId > _bufferEndDocId || docId < _bufferStartDocId) {
+          fillDictIdBuffer(docId);
+        }
+        _numEntriesScanned++;
+        if (_evaluator.applySV(_dictIdBuffer[docId - _bufferStartDocId])) {
+          return docId;
+        }
+      }
+      _currentDocId = Constants.EOF;
+      return Constants.EOF;
+    }
     while (_valueIterator.hasNext() && _currentDocId < _endDocId) {
       _currentDocId = _currentDocId + 1;
       _numEntriesScanned++;
@@ -140,6 +175,24 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       return result;
     }
     IntIterator intIterator = answer.getIntIterator();
+    if (_dictIdBuffer != null) {
+      int length = 0;
+      while (intIterator.hasNext()) {
+        int docId = intIterator.next();
+        if (docId > _endDocId) {
+          break;
+        }
+        if (docId >= _startDocId) {
+          _docIdBuffer[length++] = docId;
+          if (length == DICT_ID_BUFFER_SIZE) {
+            matchDocIds(length, result);
+            length = 0;
+          }
+        }
+      }
+      matchDocIds(length, result);
+      return result;
+    }
     int docId = -1;
     while (intIterator.hasNext() && docId < _endDocId) {
       docId = intIterator.next();
@@ -159,6 +212,37 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     return _numEntriesScanned;
   }
 
+  /**
+   * Decodes the dictionary ids for the consecutive doc ids starting from the given doc id into the buffer.
+   */
+  private void fillDictIdBuffer(int startDocId) {
+    int length = Math.min(DICT_ID_BUFFER_SIZE, _endDocId - startDocId + 1);
+    for (int i = 0; i < length; i++) {
+      _docIdBuffer[i] = startDocId + i;
+    }
+    _blockValSet.getDictionaryIds(_docIdBuffer, 0, length, _dictIdBuffer, 0);
+    _bufferStartDocId = startDocId;
+    _bufferEndDocId = startDocId + length - 1;
+  }
+
+  /**
+   * Decodes the dictionary ids for the doc ids in the buffer, and adds the matching doc ids into the result.
+   * <p>The dictionary id buffer is overwritten, so the buffered doc id range for {@link #next()} is invalidated.
+   */
+  private void matchDocIds(int length, MutableRoaringBitmap result) {
+    _bufferEndDocId = -1;
+    if (length == 0) {
+      return;
+    }
+    _blockValSet.getDictionaryIds(_docIdBuffer, 0, length, _dictIdBuffer, 0);
+    _numEntriesScanned += length;
+    for (int i = 0; i < length; i++) {
+      if (_evaluator.applySV(_dictIdBuffer[i])) {
+        result.add(_docIdBuffer[i]);
+      }
+    }
+  }
+
   /**
    * Helper method to get value matcher for a given data type.
    * @param dataType data type for which to get the value matcher
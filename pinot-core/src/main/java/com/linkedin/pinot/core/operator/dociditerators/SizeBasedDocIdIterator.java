@@ -21,9 +21,17 @@ import com.linkedin.pinot.core.common.Constants;
 
 public final class SizeBasedDocIdIterator implements BlockDocIdIterator {
   private final int _maxDocId;
-  private int _currentDocId = -1;
+  private int _currentDocId;
 
   public SizeBasedDocIdIterator(int maxDocId) {
+    this(0, maxDocId);
+  }
+
+  /**
+   * Iterates over all the documents in range [startDocId, maxDocId] (both inclusive).
+   */
+  public SizeBasedDocIdIterator(int startDocId, int maxDocId) {
+    _currentDocId = startDocId - 1;
     _maxDocId = maxDocId;
   }
 
@@ -25,6 +25,7 @@ import com.linkedin.pinot.core.operator.dociditerators.RangelessBitmapDocIdItera
 import com.linkedin.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import com.linkedin.pinot.core.util.SortedRangeIntersection;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
@@ -86,7 +87,7 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
     List<BlockDocIdIterator> rawIterators = new ArrayList<>();
     boolean useBitmapBasedIntersection = false;
     for (BlockDocIdSet docIdSet : blockDocIdSets) {
-      if (docIdSet instanceof BitmapDocIdSet) {
+      if (docIdSet instanceof BitmapDocIdSet || docIdSet instanceof RealtimeInvertedIndexDocIdSet) {
         useBitmapBasedIntersection = true;
       }
     }
@@ -103,9 +104,8 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
                                                              // start, exclusive end.
           }
           allBitmaps.add(bitmap);
-        } else if (docIdSet instanceof BitmapDocIdSet) {
-          BitmapDocIdSet bitmapDocIdSet = (BitmapDocIdSet) docIdSet;
-          ImmutableRoaringBitmap childBitmap = bitmapDocIdSet.getRaw();
+        } else if (docIdSet instanceof BitmapDocIdSet || docIdSet instanceof RealtimeInvertedIndexDocIdSet) {
+          ImmutableRoaringBitmap childBitmap = docIdSet.getRaw();
           allBitmaps.add(childBitmap);
         } else {
           BlockDocIdIterator iterator = docIdSet.iterator();
@@ -154,6 +154,11 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
         BitmapDocIdSet bitmapDocIdSet = (BitmapDocIdSet) docIdSet;
         ImmutableRoaringBitmap childBitmap = bitmapDocIdSet.getRaw();
         childBitmaps.add(childBitmap);
+      } else if (docIdSet instanceof RealtimeInvertedIndexDocIdSet) {
+        // Materialize the posting lists of the consuming segment so that they can be intersected as bitmap
+        RealtimeInvertedIndexDocIdSet realtimeInvertedIndexDocIdSet = (RealtimeInvertedIndexDocIdSet) docIdSet;
+        ImmutableRoaringBitmap childBitmap = realtimeInvertedIndexDocIdSet.getRaw();
+        childBitmaps.add(childBitmap);
       } else if (docIdSet instanceof ScanBasedSingleValueDocIdSet) {
         scanBasedDocIdSets.add((ScanBasedSingleValueDocIdSet) docIdSet);
       } else if (docIdSet instanceof ScanBasedMultiValueDocIdSet) {
@@ -183,8 +188,9 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
           answer.add(pair.getLeft(), pair.getRight() + 1);
         }
       }
-      // handle bitmaps
+      // handle bitmaps, starting from the smallest one to keep the intermediate result small
       if (childBitmaps.size() > 0) {
+        childBitmaps.sort(Comparator.comparingInt(ImmutableRoaringBitmap::getCardinality));
         if (answer == null) {
           answer = childBitmaps.get(0).toMutableRoaringBitmap();
           for (int i = 1; i < childBitmaps.size(); i++) {
@@ -195,13 +201,32 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
             answer.and(childBitmaps.get(i));
           }
         }
+        // The child bitmaps cover the whole segment, clip the answer to the document range of the filter
+        if (minDocId > maxDocId) {
+          answer.clear();
+        } else {
+          if (minDocId > 0) {
+            answer.remove(0, minDocId);
+          }
+          if (!answer.isEmpty()) {
+            int lastDocId = answer.select(answer.getCardinality() - 1);
+            if (lastDocId > maxDocId) {
+              answer.remove(maxDocId + 1, lastDocId + 1);
+            }
+          }
+        }
       }
 
       // At this point, we must have 'answer' to be non-null.
       assert (answer != null) : "sortedRangeSets=" + sortedRangeSets.size() + ",childBitmaps=" + childBitmaps.size();
 
-      // handle raw iterators
+      // handle raw iterators, only scan the documents matching all the previous filters
       for (FilterBlockDocIdSet scanBasedDocIdSet : scanBasedDocIdSets) {
+        if (answer.isEmpty()) {
+          LOGGER.debug("No document matches the index based filters, skipping {} scan based filters",
+              scanBasedDocIdSets.size());
+          break;
+        }
         ScanBasedDocIdIterator iterator = (ScanBasedDocIdIterator) scanBasedDocIdSet.iterator();
         MutableRoaringBitmap scanAnswer = iterator.applyAnd(answer);
         answer.and(scanAnswer);
@@ -210,7 +235,7 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
       LOGGER.debug("Time to evaluate and Filter:{}", (end - start));
       // if other iterators exists resort to iterator style intersection
       BlockDocIdIterator answerDocIdIterator = new RangelessBitmapDocIdIterator(answer.getIntIterator());
-      if (remainingIterators.size() == 0) {
+      if (remainingIterators.size() == 0 || answer.isEmpty()) {
         return answerDocIdIterator;
       } else {
         BlockDocIdIterator[] docIdIterators = new BlockDocIdIterator[remainingIterators.size() + 1];
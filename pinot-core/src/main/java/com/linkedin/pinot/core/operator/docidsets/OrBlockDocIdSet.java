@@ -20,6 +20,7 @@ import com.linkedin.pinot.core.common.BlockDocIdIterator;
 import com.linkedin.pinot.core.common.BlockDocIdSet;
 import com.linkedin.pinot.core.operator.dociditerators.BitmapDocIdIterator;
 import com.linkedin.pinot.core.operator.dociditerators.OrDocIdIterator;
+import com.linkedin.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import java.util.ArrayList;
 import java.util.List;
 import org.roaringbitmap.IntIterator;
@@ -75,13 +76,14 @@ public final class OrBlockDocIdSet implements FilterBlockDocIdSet {
   public BlockDocIdIterator iterator() {
     boolean useBitmapOr = false;
     for (BlockDocIdSet docIdSet : _docIdSets) {
-      if (docIdSet instanceof BitmapDocIdSet) {
+      if (docIdSet instanceof BitmapDocIdSet || docIdSet instanceof RealtimeInvertedIndexDocIdSet) {
         useBitmapOr = true;
         break;
       }
     }
     if (useBitmapOr) {
       List<BlockDocIdIterator> iterators = new ArrayList<>();
+      List<BlockDocIdSet> scanBasedDocIdSets = new ArrayList<>();
       MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
       for (BlockDocIdSet docIdSet : _docIdSets) {
         if (docIdSet instanceof SortedDocIdSet) {
@@ -90,12 +92,30 @@ public final class OrBlockDocIdSet implements FilterBlockDocIdSet {
             // Add takes [start, end) i.e inclusive start, exclusive end
             bitmap.add(pair.getLeft(), pair.getRight() + 1);
           }
-        } else if (docIdSet instanceof BitmapDocIdSet) {
+        } else if (docIdSet instanceof BitmapDocIdSet || docIdSet instanceof RealtimeInvertedIndexDocIdSet) {
           bitmap.or((ImmutableRoaringBitmap) docIdSet.getRaw());
+        } else if (docIdSet instanceof ScanBasedSingleValueDocIdSet
+            || docIdSet instanceof ScanBasedMultiValueDocIdSet) {
+          scanBasedDocIdSets.add(docIdSet);
         } else {
           iterators.add(docIdSet.iterator());
         }
       }
+      // Only scan the documents not matched by the index based filters and the previous scan based filters
+      if (!scanBasedDocIdSets.isEmpty() && _minDocId <= _maxDocId) {
+        MutableRoaringBitmap unmatchedDocIds = new MutableRoaringBitmap();
+        unmatchedDocIds.add(_minDocId, _maxDocId + 1);
+        unmatchedDocIds.andNot(bitmap);
+        for (BlockDocIdSet scanBasedDocIdSet : scanBasedDocIdSets) {
+          if (unmatchedDocIds.isEmpty()) {
+            break;
+          }
+          MutableRoaringBitmap scanMatchedDocIds =
+              ((ScanBasedDocIdIterator) scanBasedDocIdSet.iterator()).applyAnd(unmatchedDocIds);
+          bitmap.or(scanMatchedDocIds);
+          unmatchedDocIds.andNot(scanMatchedDocIds);
+        }
+      }
       IntIterator intIterator = bitmap.getIntIterator();
       BitmapDocIdIterator bitmapDocIdIterator = new BitmapDocIdIterator(intIterator);
       bitmapDocIdIterator.setStartDocId(_minDocId);
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.docidsets;
+
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.operator.dociditerators.BitmapDocIdIterator;
+import com.linkedin.pinot.core.operator.dociditerators.EmptyBlockDocIdIterator;
+import com.linkedin.pinot.core.operator.dociditerators.OrDocIdIterator;
+import com.linkedin.pinot.core.realtime.impl.invertedindex.RealtimeInvertedIndexReader;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Doc id set backed by the {@link RealtimeInvertedIndexReader} of a consuming segment.
+ * <p>The posting lists are iterated in place and bounded by the end document id, which must not exceed the number of
+ * documents indexed when the query started. Only exclusive predicates materialize the matching doc ids into a bitmap.
+ * <p>When combined with other filters, {@link AndBlockDocIdSet} and {@link OrBlockDocIdSet} take the matching doc ids
+ * within the document range as a bitmap from {@link #getRaw()}, same as {@link BitmapDocIdSet}.
+ */
+public class RealtimeInvertedIndexDocIdSet implements FilterBlockDocIdSet {
+  private final RealtimeInvertedIndexReader _invertedIndex;
+  private final int[] _dictIds;
+  private final boolean _exclusive;
+  private int _startDocId;
+  // Inclusive
+  private int _endDocId;
+
+  public RealtimeInvertedIndexDocIdSet(RealtimeInvertedIndexReader invertedIndex, int[] dictIds, int startDocId,
+      int endDocId, boolean exclusive) {
+    _invertedIndex = invertedIndex;
+    _dictIds = dictIds;
+    _exclusive = exclusive;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public int getMinDocId() {
+    return _startDocId;
+  }
+
+  @Override
+  public int getMaxDocId() {
+    return _endDocId;
+  }
+
+  @Override
+  public void setStartDocId(int startDocId) {
+    _startDocId = startDocId;
+  }
+
+  @Override
+  public void setEndDocId(int endDocId) {
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public long getNumEntriesScannedInFilter() {
+    return 0L;
+  }
+
+  @Override
+  public BlockDocIdIterator iterator() {
+    int numDictIds = _dictIds.length;
+    if (_exclusive) {
+      return getBitmapDocIdIterator(getBitmap().getIntIterator());
+    }
+    if (numDictIds == 0) {
+      return EmptyBlockDocIdIterator.getInstance();
+    }
+    if (numDictIds == 1) {
+      return getBitmapDocIdIterator(_invertedIndex.getDocIdIterator(_dictIds[0]));
+    }
+    BlockDocIdIterator[] docIdIterators = new BlockDocIdIterator[numDictIds];
+    for (int i = 0; i < numDictIds; i++) {
+      docIdIterators[i] = getBitmapDocIdIterator(_invertedIndex.getDocIdIterator(_dictIds[i]));
+    }
+    return new OrDocIdIterator(docIdIterators, _startDocId, _endDocId);
+  }
+
+  private BitmapDocIdIterator getBitmapDocIdIterator(IntIterator intIterator) {
+    BitmapDocIdIterator bitmapDocIdIterator = new BitmapDocIdIterator(intIterator);
+    bitmapDocIdIterator.setStartDocId(_startDocId);
+    bitmapDocIdIterator.setEndDocId(_endDocId);
+    return bitmapDocIdIterator;
+  }
+
+  /**
+   * Returns the matching doc ids within the document range as a {@link MutableRoaringBitmap}.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T getRaw() {
+    return (T) getBitmap();
+  }
+
+  private MutableRoaringBitmap getBitmap() {
+    MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+    for (int dictId : _dictIds) {
+      IntIterator intIterator = _invertedIndex.getDocIdIterator(dictId);
+      while (intIterator.hasNext()) {
+        int docId = intIterator.next();
+        if (docId > _endDocId) {
+          break;
+        }
+        if (docId >= _startDocId) {
+          bitmap.add(docId);
+        }
+      }
+    }
+    if (_exclusive) {
+      bitmap.flip(_startDocId, _endDocId + 1);
+    }
+    return bitmap;
+  }
+}
@@ -20,15 +20,24 @@ import com.linkedin.pinot.core.operator.dociditerators.SizeBasedDocIdIterator;
 
 
 public final class SizeBasedDocIdSet implements FilterBlockDocIdSet {
+  private final int _minDocId;
   private final int _maxDocId;
 
   public SizeBasedDocIdSet(int maxDocId) {
+    this(0, maxDocId);
+  }
+
+  /**
+   * Document id set for all the documents in range [minDocId, maxDocId] (both inclusive).
+   */
+  public SizeBasedDocIdSet(int minDocId, int maxDocId) {
+    _minDocId = minDocId;
     _maxDocId = maxDocId;
   }
 
   @Override
   public int getMinDocId() {
-    return 0;
+    return _minDocId;
   }
 
   @Override
@@ -51,7 +60,7 @@ public final class SizeBasedDocIdSet implements FilterBlockDocIdSet {
 
   @Override
   public BlockDocIdIterator iterator() {
-    return new SizeBasedDocIdIterator(_maxDocId);
+    return new SizeBasedDocIdIterator(_minDocId, _maxDocId);
   }
 
   @Override
@@ -41,7 +41,8 @@ public class SortedDocIdSet implements FilterBlockDocIdSet {
     if (pairs.size() > 0) {
       return pairs.get(0).getLeft();
     } else {
-      return 0;
+      // Empty range, so that it does not extend the document range of the parent OR doc id set
+      return Integer.MAX_VALUE;
     }
   }
 
@@ -50,7 +51,7 @@ public class SortedDocIdSet implements FilterBlockDocIdSet {
     if (pairs.size() > 0) {
       return pairs.get(pairs.size() - 1).getRight();
     } else {
-      return 0;
+      return Integer.MIN_VALUE;
     }
   }
 
@@ -17,6 +17,8 @@ package com.linkedin.pinot.core.operator.filter;
 
 import com.linkedin.pinot.core.operator.BaseOperator;
 import com.linkedin.pinot.core.operator.blocks.FilterBlock;
+import com.linkedin.pinot.core.operator.docidsets.FilterBlockDocIdSet;
+import java.util.Map;
 
 
 /**
@@ -28,4 +30,32 @@ public abstract class BaseFilterOperator extends BaseOperator<FilterBlock> {
    * Returns {@code true} if the result is always empty (without calling {@link #nextBlock()}), {@code false} otherwise.
    */
   public abstract boolean isResultEmpty();
+
+  /**
+   * Returns the estimated fraction (between 0 and 1) of the documents matching the filter (without calling
+   * {@link #nextBlock()}), which is used to order the child filter operators of {@link AndFilterOperator} and
+   * {@link OrFilterOperator}. Returns 1 if the selectivity cannot be estimated cheaply.
+   */
+  public double getEstimatedSelectivity() {
+    return 1.0;
+  }
+
+  /**
+   * Adds the number of entries scanned by each leaf filter operator into the filter statistics, keyed by the leaf
+   * filter description (which shows the plan chosen for the predicate). Should be called after the filter block
+   * document id set returned by this operator is processed.
+   *
+   * @param filterBlockDocIdSet Filter block document id set returned by this operator
+   * @param filterStatistics Map from leaf filter description to number of entries scanned
+   */
+  public void addFilterStatistics(FilterBlockDocIdSet filterBlockDocIdSet, Map<String, Long> filterStatistics) {
+    filterStatistics.merge(getFilterDescription(), filterBlockDocIdSet.getNumEntriesScannedInFilter(), Long::sum);
+  }
+
+  /**
+   * Returns the description of the filter in the filter statistics.
+   */
+  protected String getFilterDescription() {
+    return getOperatorName();
+  }
 }
@@ -18,7 +18,9 @@ package com.linkedin.pinot.core.operator.filter;
 import com.linkedin.pinot.core.common.DataSource;
 import com.linkedin.pinot.core.operator.blocks.FilterBlock;
 import com.linkedin.pinot.core.operator.docidsets.BitmapDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.RealtimeInvertedIndexDocIdSet;
 import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.realtime.impl.invertedindex.RealtimeInvertedIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import java.util.ArrayList;
 import java.util.List;
@@ -67,9 +69,16 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
 
     int[] dictIds = _exclusive ? _predicateEvaluator.getNonMatchingDictIds() : _predicateEvaluator.getMatchingDictIds();
 
+    // For consuming segments, iterate over the posting lists in place instead of copying them into bitmaps
+    InvertedIndexReader invertedIndex = _dataSource.getInvertedIndex();
+    if (invertedIndex instanceof RealtimeInvertedIndexReader) {
+      return new FilterBlock(
+          new RealtimeInvertedIndexDocIdSet((RealtimeInvertedIndexReader) invertedIndex, dictIds, _startDocId,
+              _endDocId, _exclusive));
+    }
+
     // For realtime use case, it is possible that inverted index has not yet generated for the given dict id, so we
     // filter out null bitmaps
-    InvertedIndexReader invertedIndex = _dataSource.getInvertedIndex();
     int length = dictIds.length;
     List<ImmutableRoaringBitmap> bitmaps = new ArrayList<>(length);
     for (int dictId : dictIds) {
@@ -95,6 +104,27 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
     return _predicateEvaluator != null && _predicateEvaluator.isAlwaysFalse();
   }
 
+  @Override
+  public double getEstimatedSelectivity() {
+    if (_predicateEvaluator != null) {
+      return FilterOperatorUtils.getEstimatedSelectivity(_predicateEvaluator, _dataSource.getDataSourceMetadata());
+    }
+    long numMatchingDocs = 0;
+    for (ImmutableRoaringBitmap bitmap : _bitmaps) {
+      numMatchingDocs += bitmap.getCardinality();
+    }
+    double selectivity = Math.min((double) numMatchingDocs / (_endDocId - _startDocId + 1), 1.0);
+    return _exclusive ? 1.0 - selectivity : selectivity;
+  }
+
+  @Override
+  protected String getFilterDescription() {
+    if (_predicateEvaluator == null) {
+      return OPERATOR_NAME;
+    }
+    return FilterOperatorUtils.getLeafFilterDescription(OPERATOR_NAME, _predicateEvaluator, _dataSource);
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
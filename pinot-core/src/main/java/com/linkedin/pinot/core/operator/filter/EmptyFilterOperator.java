@@ -43,6 +43,11 @@ public final class EmptyFilterOperator extends BaseFilterOperator {
     return true;
   }
 
+  @Override
+  public double getEstimatedSelectivity() {
+    return 0.0;
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
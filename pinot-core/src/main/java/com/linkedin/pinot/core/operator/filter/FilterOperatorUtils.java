@@ -20,6 +20,7 @@ import com.linkedin.pinot.core.common.DataSourceMetadata;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -59,16 +60,23 @@ public class FilterOperatorUtils {
 
   /**
    * For AND filter operator, reorders its child filter operators based on the their cost and puts the ones with
-   * inverted index first in order to reduce the number of documents to be processed.
+   * inverted index first in order to reduce the number of documents to be processed. Child filter operators of the
+   * same kind are ordered by their estimated selectivity, so that the most selective ones are evaluated first and the
+   * scan based ones only scan the documents matching the previous ones.
    * <p>Special filter operators such as {@link MatchAllFilterOperator} and {@link EmptyFilterOperator} should be
    * removed from the list before calling this method.
    */
   public static void reorderAndFilterChildOperators(List<BaseFilterOperator> filterOperators,
       @Nullable Map<String, String> debugOptions) {
+    final Map<BaseFilterOperator, Double> estimatedSelectivities = getEstimatedSelectivities(filterOperators);
     filterOperators.sort(new Comparator<BaseFilterOperator>() {
       @Override
       public int compare(BaseFilterOperator o1, BaseFilterOperator o2) {
-        return getPriority(o1) - getPriority(o2);
+        int result = getPriority(o1) - getPriority(o2);
+        if (result != 0) {
+          return result;
+        }
+        return Double.compare(estimatedSelectivities.get(o1), estimatedSelectivities.get(o2));
       }
 
       int getPriority(BaseFilterOperator filterOperator) {
@@ -93,6 +101,77 @@ public class FilterOperatorUtils {
     });
   }
 
+  /**
+   * For OR filter operator, reorders its child filter operators so that the ones with inverted index are evaluated
+   * first, followed by the others in descending order of their estimated selectivity. The scan based ones then only
+   * scan the documents not matched by the previous ones.
+   */
+  public static void reorderOrFilterChildOperators(List<BaseFilterOperator> filterOperators) {
+    final Map<BaseFilterOperator, Double> estimatedSelectivities = getEstimatedSelectivities(filterOperators);
+    filterOperators.sort(new Comparator<BaseFilterOperator>() {
+      @Override
+      public int compare(BaseFilterOperator o1, BaseFilterOperator o2) {
+        int result = getPriority(o1) - getPriority(o2);
+        if (result != 0) {
+          return result;
+        }
+        return Double.compare(estimatedSelectivities.get(o2), estimatedSelectivities.get(o1));
+      }
+
+      int getPriority(BaseFilterOperator filterOperator) {
+        if (filterOperator instanceof SortedInvertedIndexBasedFilterOperator
+            || filterOperator instanceof BitmapBasedFilterOperator) {
+          return 0;
+        }
+        return 1;
+      }
+    });
+  }
+
+  /**
+   * Estimates the selectivity of each filter operator once before sorting, as estimating the selectivity of AND/OR
+   * filter operators recursively estimates their children.
+   */
+  private static Map<BaseFilterOperator, Double> getEstimatedSelectivities(List<BaseFilterOperator> filterOperators) {
+    Map<BaseFilterOperator, Double> estimatedSelectivities = new IdentityHashMap<>(filterOperators.size());
+    for (BaseFilterOperator filterOperator : filterOperators) {
+      estimatedSelectivities.put(filterOperator, filterOperator.getEstimatedSelectivity());
+    }
+    return estimatedSelectivities;
+  }
+
+  /**
+   * Returns the estimated fraction of the documents matching the predicate, based on the fraction of the dictionary
+   * ids matching the predicate (assuming uniform distribution of the values). Returns 1 if the selectivity cannot be
+   * estimated cheaply (raw value based predicate, or REGEXP_LIKE predicate which requires evaluating the regex on every
+   * dictionary value).
+   */
+  public static double getEstimatedSelectivity(PredicateEvaluator predicateEvaluator,
+      DataSourceMetadata dataSourceMetadata) {
+    if (predicateEvaluator.isAlwaysFalse()) {
+      return 0.0;
+    }
+    int cardinality = dataSourceMetadata.getCardinality();
+    if (!predicateEvaluator.isDictionaryBased()
+        || predicateEvaluator.getPredicateType() == Predicate.Type.REGEXP_LIKE || cardinality <= 0) {
+      return 1.0;
+    }
+    if (predicateEvaluator.isExclusive()) {
+      return Math.max(1.0 - (double) predicateEvaluator.getNumNonMatchingDictIds() / cardinality, 0.0);
+    } else {
+      return Math.min((double) predicateEvaluator.getNumMatchingDictIds() / cardinality, 1.0);
+    }
+  }
+
+  /**
+   * Returns the description of a leaf filter operator in the filter statistics, e.g.
+   * <code>ScanBasedFilterOperator(ColumnDataSource [column1] RANGE)</code>.
+   */
+  static String getLeafFilterDescription(String operatorName, PredicateEvaluator predicateEvaluator,
+      DataSource dataSource) {
+    return operatorName + '(' + dataSource.getOperatorName() + ' ' + predicateEvaluator.getPredicateType() + ')';
+  }
+
   /**
    * Returns the priority for scan based filtering. Multivalue column evaluation is costly, so
    * reorder such that multivalue columns are evaluated after single value columns.
@@ -16,21 +16,32 @@
 package com.linkedin.pinot.core.operator.filter;
 
 import com.linkedin.pinot.core.operator.blocks.FilterBlock;
+import com.linkedin.pinot.core.operator.docidsets.FilterBlockDocIdSet;
 import com.linkedin.pinot.core.operator.docidsets.SizeBasedDocIdSet;
+import java.util.Map;
 
 
 public class MatchAllFilterOperator extends BaseFilterOperator {
   private static final String OPERATOR_NAME = "MatchEntireSegmentOperator";
 
-  private int _maxDocId;
+  private final int _startDocId;
+  private final int _endDocId;
 
   public MatchAllFilterOperator(int totalDocs) {
-    _maxDocId = totalDocs - 1;
+    this(0, totalDocs - 1);
+  }
+
+  /**
+   * Matches all the documents in range [startDocId, endDocId] (both inclusive).
+   */
+  public MatchAllFilterOperator(int startDocId, int endDocId) {
+    _startDocId = startDocId;
+    _endDocId = endDocId;
   }
 
   @Override
   protected FilterBlock getNextBlock() {
-    return new FilterBlock(new SizeBasedDocIdSet(_maxDocId));
+    return new FilterBlock(new SizeBasedDocIdSet(_startDocId, _endDocId));
   }
 
   @Override
@@ -38,6 +49,11 @@ public class MatchAllFilterOperator extends BaseFilterOperator {
     return false;
   }
 
+  @Override
+  public void addFilterStatistics(FilterBlockDocIdSet filterBlockDocIdSet, Map<String, Long> filterStatistics) {
+    // No filter to report
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
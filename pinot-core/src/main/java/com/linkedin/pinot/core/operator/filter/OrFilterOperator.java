@@ -20,12 +20,15 @@ import com.linkedin.pinot.core.operator.docidsets.FilterBlockDocIdSet;
 import com.linkedin.pinot.core.operator.docidsets.OrBlockDocIdSet;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 
 public class OrFilterOperator extends BaseFilterOperator {
   private static final String OPERATOR_NAME = "OrFilterOperator";
 
   private List<BaseFilterOperator> _filterOperators;
+  // Filter block document id sets of the child filter operators, in the same order
+  private List<FilterBlockDocIdSet> _filterBlockDocIdSets;
 
   public OrFilterOperator(List<BaseFilterOperator> filterOperators) {
     _filterOperators = filterOperators;
@@ -37,9 +40,18 @@ public class OrFilterOperator extends BaseFilterOperator {
     for (BaseFilterOperator filterOperator : _filterOperators) {
       filterBlockDocIdSets.add(filterOperator.nextBlock().getBlockDocIdSet());
     }
+    _filterBlockDocIdSets = filterBlockDocIdSets;
     return new FilterBlock(new OrBlockDocIdSet(filterBlockDocIdSets));
   }
 
+  @Override
+  public void addFilterStatistics(FilterBlockDocIdSet filterBlockDocIdSet, Map<String, Long> filterStatistics) {
+    int numFilterOperators = _filterOperators.size();
+    for (int i = 0; i < numFilterOperators; i++) {
+      _filterOperators.get(i).addFilterStatistics(_filterBlockDocIdSets.get(i), filterStatistics);
+    }
+  }
+
   @Override
   public boolean isResultEmpty() {
     for (BaseFilterOperator filterOperator : _filterOperators) {
@@ -50,6 +62,19 @@ public class OrFilterOperator extends BaseFilterOperator {
     return true;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Assumes that the child filters are independent.
+   */
+  @Override
+  public double getEstimatedSelectivity() {
+    double nonMatchingFraction = 1.0;
+    for (BaseFilterOperator filterOperator : _filterOperators) {
+      nonMatchingFraction *= 1.0 - filterOperator.getEstimatedSelectivity();
+    }
+    return 1.0 - nonMatchingFraction;
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
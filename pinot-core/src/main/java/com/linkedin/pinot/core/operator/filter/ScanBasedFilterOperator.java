@@ -72,6 +72,16 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
     return _predicateEvaluator.isAlwaysFalse();
   }
 
+  @Override
+  public double getEstimatedSelectivity() {
+    return FilterOperatorUtils.getEstimatedSelectivity(_predicateEvaluator, _dataSource.getDataSourceMetadata());
+  }
+
+  @Override
+  protected String getFilterDescription() {
+    return FilterOperatorUtils.getLeafFilterDescription(OPERATOR_NAME, _predicateEvaluator, _dataSource);
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
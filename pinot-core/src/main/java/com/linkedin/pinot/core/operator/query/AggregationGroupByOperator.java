@@ -73,21 +73,30 @@ public class AggregationGroupByOperator extends BaseOperator<IntermediateResults
               _transformOperator);
     }
     TransformBlock transformBlock;
-    while ((transformBlock = _transformOperator.nextBlock()) != null) {
-      numDocsScanned += transformBlock.getNumDocs();
-      groupByExecutor.process(transformBlock);
+    try {
+      while ((transformBlock = _transformOperator.nextBlock()) != null) {
+        numDocsScanned += transformBlock.getNumDocs();
+        groupByExecutor.process(transformBlock);
+      }
+    } catch (RuntimeException | Error e) {
+      // No result block is returned, release the off-heap memory of the result holders here
+      groupByExecutor.getResult().release();
+      throw e;
     }
     AggregationGroupByResult groupByResult = groupByExecutor.getResult();
 
     // Gather execution statistics
-    long numEntriesScannedInFilter = _transformOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
+    ExecutionStatistics filterExecutionStatistics = _transformOperator.getExecutionStatistics();
+    long numEntriesScannedInFilter = filterExecutionStatistics.getNumEntriesScannedInFilter();
     long numEntriesScannedPostFilter = numDocsScanned * _transformOperator.getNumColumnsProjected();
     _executionStatistics =
         new ExecutionStatistics(numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter,
-            _numTotalRawDocs);
+            _numTotalRawDocs, filterExecutionStatistics.getFilterStatistics());
 
     // Build intermediate result block based on aggregation group-by result from the executor
-    return new IntermediateResultsBlock(_functionContexts, groupByResult);
+    IntermediateResultsBlock resultsBlock = new IntermediateResultsBlock(_functionContexts, groupByResult);
+    resultsBlock.setNumGroupsLimitReached(groupByResult.isNumGroupsLimitReached(_numGroupsLimit));
+    return resultsBlock;
   }
 
   @Override
@@ -68,14 +68,15 @@ public class AggregationOperator extends BaseOperator<IntermediateResultsBlock>
     List<Object> aggregationResult = aggregationExecutor.getResult();
 
     // Create execution statistics
-    long numEntriesScannedInFilter = _transformOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
+    ExecutionStatistics filterExecutionStatistics = _transformOperator.getExecutionStatistics();
+    long numEntriesScannedInFilter = filterExecutionStatistics.getNumEntriesScannedInFilter();
     long numEntriesScannedPostFilter = numDocsScanned * _transformOperator.getNumColumnsProjected();
     _executionStatistics =
         new ExecutionStatistics(numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter,
-            _numTotalRawDocs);
+            _numTotalRawDocs, filterExecutionStatistics.getFilterStatistics());
 
     // Build intermediate result block based on aggregation result from the executor
-    return new IntermediateResultsBlock(_functionContexts, aggregationResult, false);
+    return new IntermediateResultsBlock(_functionContexts, aggregationResult);
   }
 
   @Override
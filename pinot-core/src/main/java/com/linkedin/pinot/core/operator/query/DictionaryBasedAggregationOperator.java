@@ -99,7 +99,7 @@ public class DictionaryBasedAggregationOperator extends BaseOperator<Intermediat
             _totalRawDocs);
 
     // Build intermediate result block based on aggregation result from the executor.
-    return new IntermediateResultsBlock(_aggregationFunctionContexts, aggregationResults, false);
+    return new IntermediateResultsBlock(_aggregationFunctionContexts, aggregationResults);
   }
 
   @Override
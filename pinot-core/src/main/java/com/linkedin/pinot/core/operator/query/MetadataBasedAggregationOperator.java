@@ -74,7 +74,7 @@ public class MetadataBasedAggregationOperator extends BaseOperator<IntermediateR
             totalRawDocs);
 
     // Build intermediate result block based on aggregation result from the executor.
-    return new IntermediateResultsBlock(_aggregationFunctionContexts, aggregationResults, false);
+    return new IntermediateResultsBlock(_aggregationFunctionContexts, aggregationResults);
   }
 
   @Override
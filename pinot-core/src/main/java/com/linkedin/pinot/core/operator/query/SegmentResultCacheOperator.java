@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.query;
+
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import javax.annotation.Nonnull;
+
+
+/**
+ * The <code>SegmentResultCacheOperator</code> class provides the operator to either serve the result of a single
+ * segment from the {@link SegmentResultCache}, or compute the result with the underlying operator and cache it.
+ */
+public class SegmentResultCacheOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final String OPERATOR_NAME = "SegmentResultCacheOperator";
+
+  private final SegmentResultCache.CachedResult _cachedResult;
+  private final SegmentResultCache _segmentResultCache;
+  private final String _key;
+  private final IndexSegment _indexSegment;
+  private final Operator _operator;
+
+  private ExecutionStatistics _executionStatistics;
+
+  /**
+   * Constructor for the cached result.
+   */
+  public SegmentResultCacheOperator(@Nonnull SegmentResultCache.CachedResult cachedResult) {
+    _cachedResult = cachedResult;
+    _segmentResultCache = null;
+    _key = null;
+    _indexSegment = null;
+    _operator = null;
+  }
+
+  /**
+   * Constructor for the result to be computed by the underlying operator and cached.
+   */
+  public SegmentResultCacheOperator(@Nonnull SegmentResultCache segmentResultCache, @Nonnull String key,
+      @Nonnull IndexSegment indexSegment, @Nonnull Operator operator) {
+    _cachedResult = null;
+    _segmentResultCache = segmentResultCache;
+    _key = key;
+    _indexSegment = indexSegment;
+    _operator = operator;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    if (_cachedResult != null) {
+      _executionStatistics = _cachedResult.getExecutionStatistics();
+      return _cachedResult.toResultsBlock();
+    }
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) _operator.nextBlock();
+    _executionStatistics = _operator.getExecutionStatistics();
+    // Cache the result before it gets merged with the results of other segments
+    _segmentResultCache.put(_key, _indexSegment, resultsBlock, _executionStatistics);
+    return resultsBlock;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _executionStatistics;
+  }
+}
@@ -26,16 +26,25 @@ import com.linkedin.pinot.core.operator.ProjectionOperator;
 import com.linkedin.pinot.core.operator.blocks.DocIdSetBlock;
 import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
 import com.linkedin.pinot.core.operator.blocks.ProjectionBlock;
+import com.linkedin.pinot.core.query.selection.SelectionFetcher;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorService;
+import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import com.linkedin.pinot.core.query.selection.SelectionTopKCollector;
+import com.linkedin.pinot.core.query.selection.SelectionTopKThreshold;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import javax.annotation.Nullable;
 
 
 /**
  * This MSelectionOperator will take care of applying a selection query to one IndexSegment.
  * nextBlock() will return an IntermediateResultBlock for the given IndexSegment.
- *
- *
+ * <p>The top documents are collected with a {@link SelectionTopKCollector} over the sort columns, and the selection
+ * columns are fetched only for the final top documents. If a {@link SelectionTopKThreshold} is shared across the
+ * segments of the query, the segment is skipped when it cannot contain any value better than the threshold.
  */
 public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBlock> {
   private static final String OPERATOR_NAME = "SelectionOrderByOperator";
@@ -47,13 +56,20 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
   private final DataSchema _dataSchema;
   private final Block[] _blocks;
   private final Set<String> _selectionColumns = new HashSet<>();
+  private final SelectionTopKThreshold _topKThreshold;
   private ExecutionStatistics _executionStatistics;
 
   public SelectionOrderByOperator(IndexSegment indexSegment, Selection selection,
       ProjectionOperator projectionOperator) {
+    this(indexSegment, selection, projectionOperator, null);
+  }
+
+  public SelectionOrderByOperator(IndexSegment indexSegment, Selection selection,
+      ProjectionOperator projectionOperator, @Nullable SelectionTopKThreshold topKThreshold) {
     _indexSegment = indexSegment;
     _selection = selection;
     _projectionOperator = projectionOperator;
+    _topKThreshold = topKThreshold;
 
     initColumnarDataSourcePlanNodeMap(indexSegment);
     _selectionOperatorService = new SelectionOperatorService(_selection, indexSegment);
@@ -81,27 +97,77 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
 
   @Override
   protected IntermediateResultsBlock getNextBlock() {
-    int numDocsScanned = 0;
+    long numTotalRawDocs = _indexSegment.getSegmentMetadata().getTotalRawDocs();
+    if (_topKThreshold != null && _topKThreshold.canSkipSegment(_indexSegment)) {
+      _executionStatistics = new ExecutionStatistics(0L, 0L, 0L, numTotalRawDocs);
+      return new IntermediateResultsBlock(_dataSchema, _selectionOperatorService.getRows());
+    }
 
+    int numDocsScanned = 0;
+    int maxNumRows = _selectionOperatorService.getMaxNumRows();
+    SelectionTopKCollector topKCollector = null;
     ProjectionBlock projectionBlock;
-    while ((projectionBlock = _projectionOperator.nextBlock()) != null) {
-      for (int i = 0; i < _dataSchema.size(); i++) {
-        _blocks[i] = projectionBlock.getBlock(_dataSchema.getColumnName(i));
+    while ((topKCollector == null || !topKCollector.isDone())
+        && (projectionBlock = _projectionOperator.nextBlock()) != null) {
+      if (topKCollector == null) {
+        // NOTE: the blocks are shared by all the projection blocks
+        for (int i = 0; i < _dataSchema.size(); i++) {
+          _blocks[i] = projectionBlock.getBlock(_dataSchema.getColumnName(i));
+        }
+        topKCollector = new SelectionTopKCollector(_selectionOperatorService.getSortSequence(), _blocks, maxNumRows,
+            isFirstSortColumnSorted());
       }
       DocIdSetBlock docIdSetBlock = projectionBlock.getDocIdSetBlock();
-      _selectionOperatorService.iterateOnBlocksWithOrdering(docIdSetBlock.getBlockDocIdSet().iterator(), _blocks);
+      int[] docIds = docIdSetBlock.getDocIdSet();
+      int length = docIdSetBlock.getSearchableLength();
+      for (int i = 0; i < length; i++) {
+        numDocsScanned++;
+        topKCollector.add(docIds[i]);
+        if (topKCollector.isDone()) {
+          break;
+        }
+      }
+    }
+
+    // Fetch the rows for the top documents
+    if (topKCollector != null) {
+      SelectionFetcher selectionFetcher = new SelectionFetcher(_blocks, _dataSchema);
+      int[] topDocIds = topKCollector.getDocIds();
+      List<Serializable[]> rows = new ArrayList<>(topDocIds.length);
+      for (int docId : topDocIds) {
+        rows.add(selectionFetcher.getRow(docId));
+      }
+      SelectionOperatorUtils.mergeWithOrdering(_selectionOperatorService.getRows(), rows, maxNumRows);
+
+      if (_topKThreshold != null) {
+        Comparable kthValue = topKCollector.getKthValue();
+        if (kthValue != null) {
+          _topKThreshold.update(kthValue);
+        }
+      }
     }
 
     // Create execution statistics.
-    numDocsScanned += _selectionOperatorService.getNumDocsScanned();
-    long numEntriesScannedInFilter = _projectionOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
-    long numEntriesScannedPostFilter = numDocsScanned * _projectionOperator.getNumColumnsProjected();
-    long numTotalRawDocs = _indexSegment.getSegmentMetadata().getTotalRawDocs();
+    ExecutionStatistics filterExecutionStatistics = _projectionOperator.getExecutionStatistics();
+    long numEntriesScannedInFilter = filterExecutionStatistics.getNumEntriesScannedInFilter();
+    long numEntriesScannedPostFilter = (long) numDocsScanned * _projectionOperator.getNumColumnsProjected();
     _executionStatistics =
         new ExecutionStatistics(numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter,
-            numTotalRawDocs);
+            numTotalRawDocs, filterExecutionStatistics.getFilterStatistics());
 
-    return new IntermediateResultsBlock(_selectionOperatorService.getDataSchema(), _selectionOperatorService.getRows());
+    return new IntermediateResultsBlock(_dataSchema, _selectionOperatorService.getRows());
+  }
+
+  /**
+   * Returns whether the first sort column is sorted in the segment, in which case documents are scanned in the order
+   * of the first sort column.
+   */
+  private boolean isFirstSortColumnSorted() {
+    List<SelectionSort> sortSequence = _selectionOperatorService.getSortSequence();
+    if (sortSequence.isEmpty()) {
+      return false;
+    }
+    return _indexSegment.getDataSource(sortSequence.get(0).getColumn()).getDataSourceMetadata().isSorted();
   }
 
   @Override
@@ -50,6 +50,7 @@ public class AggregationGroupByPlanNode implements PlanNode {
   private final List<AggregationInfo> _aggregationInfos;
   private final AggregationFunctionContext[] _functionContexts;
   private final GroupBy _groupBy;
+  private final int _numTotalRawDocs;
   private final TransformPlanNode _transformPlanNode;
   private final StarTreeTransformPlanNode _starTreeTransformPlanNode;
 
@@ -62,6 +63,7 @@ public class AggregationGroupByPlanNode implements PlanNode {
     _functionContexts =
         AggregationFunctionUtils.getAggregationFunctionContexts(_aggregationInfos, indexSegment.getSegmentMetadata());
     _groupBy = brokerRequest.getGroupBy();
+    _numTotalRawDocs = indexSegment.getSegmentMetadata().getTotalRawDocs();
 
     List<StarTreeV2> starTrees = indexSegment.getStarTrees();
     if (starTrees != null) {
@@ -92,17 +94,34 @@ public class AggregationGroupByPlanNode implements PlanNode {
     _starTreeTransformPlanNode = null;
   }
 
+  /**
+   * Constructor for the plan node which only aggregates the documents in range [startDocId, endDocId] (both inclusive)
+   * of the segment, so that a large segment can be processed by multiple threads. Star-tree is not used.
+   */
+  public AggregationGroupByPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest,
+      int maxInitialResultHolderCapacity, int numGroupsLimit, int startDocId, int endDocId) {
+    _indexSegment = indexSegment;
+    _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
+    _numGroupsLimit = numGroupsLimit;
+    _aggregationInfos = brokerRequest.getAggregationsInfo();
+    _functionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(_aggregationInfos, indexSegment.getSegmentMetadata());
+    _groupBy = brokerRequest.getGroupBy();
+    _numTotalRawDocs = endDocId - startDocId + 1;
+    _transformPlanNode = new TransformPlanNode(_indexSegment, brokerRequest, startDocId, endDocId);
+    _starTreeTransformPlanNode = null;
+  }
+
   @Override
   public AggregationGroupByOperator run() {
-    int numTotalRawDocs = _indexSegment.getSegmentMetadata().getTotalRawDocs();
     if (_transformPlanNode != null) {
       // Do not use star-tree
       return new AggregationGroupByOperator(_functionContexts, _groupBy, _maxInitialResultHolderCapacity,
-          _numGroupsLimit, _transformPlanNode.run(), numTotalRawDocs, false);
+          _numGroupsLimit, _transformPlanNode.run(), _numTotalRawDocs, false);
     } else {
       // Use star-tree
       return new AggregationGroupByOperator(_functionContexts, _groupBy, _maxInitialResultHolderCapacity,
-          _numGroupsLimit, _starTreeTransformPlanNode.run(), numTotalRawDocs, true);
+          _numGroupsLimit, _starTreeTransformPlanNode.run(), _numTotalRawDocs, true);
     }
   }
 
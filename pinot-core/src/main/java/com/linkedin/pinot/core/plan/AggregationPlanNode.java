@@ -45,6 +45,7 @@ public class AggregationPlanNode implements PlanNode {
   private final IndexSegment _indexSegment;
   private final List<AggregationInfo> _aggregationInfos;
   private final AggregationFunctionContext[] _functionContexts;
+  private final int _numTotalRawDocs;
   private final TransformPlanNode _transformPlanNode;
   private final StarTreeTransformPlanNode _starTreeTransformPlanNode;
 
@@ -53,6 +54,7 @@ public class AggregationPlanNode implements PlanNode {
     _aggregationInfos = brokerRequest.getAggregationsInfo();
     _functionContexts =
         AggregationFunctionUtils.getAggregationFunctionContexts(_aggregationInfos, indexSegment.getSegmentMetadata());
+    _numTotalRawDocs = indexSegment.getSegmentMetadata().getTotalRawDocs();
 
     List<StarTreeV2> starTrees = indexSegment.getStarTrees();
     if (starTrees != null) {
@@ -79,15 +81,29 @@ public class AggregationPlanNode implements PlanNode {
     _starTreeTransformPlanNode = null;
   }
 
+  /**
+   * Constructor for the plan node which only aggregates the documents in range [startDocId, endDocId] (both inclusive)
+   * of the segment, so that a large segment can be processed by multiple threads. Star-tree is not used.
+   */
+  public AggregationPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest, int startDocId,
+      int endDocId) {
+    _indexSegment = indexSegment;
+    _aggregationInfos = brokerRequest.getAggregationsInfo();
+    _functionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(_aggregationInfos, indexSegment.getSegmentMetadata());
+    _numTotalRawDocs = endDocId - startDocId + 1;
+    _transformPlanNode = new TransformPlanNode(_indexSegment, brokerRequest, startDocId, endDocId);
+    _starTreeTransformPlanNode = null;
+  }
+
   @Override
   public AggregationOperator run() {
-    int numTotalRawDocs = _indexSegment.getSegmentMetadata().getTotalRawDocs();
     if (_transformPlanNode != null) {
       // Do not use star-tree
-      return new AggregationOperator(_functionContexts, _transformPlanNode.run(), numTotalRawDocs, false);
+      return new AggregationOperator(_functionContexts, _transformPlanNode.run(), _numTotalRawDocs, false);
     } else {
       // Use star-tree
-      return new AggregationOperator(_functionContexts, _starTreeTransformPlanNode.run(), numTotalRawDocs, true);
+      return new AggregationOperator(_functionContexts, _starTreeTransformPlanNode.run(), _numTotalRawDocs, true);
     }
   }
 
@@ -17,15 +17,19 @@ package com.linkedin.pinot.core.plan;
 
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.operator.CombineGroupByOperator;
 import com.linkedin.pinot.core.operator.CombineOperator;
+import com.linkedin.pinot.core.operator.StreamingSelectionOnlyCombineOperator;
 import com.linkedin.pinot.core.query.exception.BadQueryRequestException;
+import com.linkedin.pinot.core.query.request.ResponseChunkSender;
 import com.linkedin.pinot.core.util.trace.TraceCallable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +48,12 @@ public class CombinePlanNode implements PlanNode {
   private final ExecutorService _executorService;
   private final long _timeOutMs;
   private final int _numGroupsLimit;
+  private final int _maxThreadsPerQuery;
+  // Null if the selection only results should not be streamed as response chunks
+  private final ResponseChunkSender _responseChunkSender;
+  private final int _responseChunkSize;
+  private final int _dataTableVersion;
+  private final ChunkCompressorFactory.CompressionType _dataTableCompressionType;
 
   /**
    * Constructor for the class.
@@ -52,14 +62,58 @@ public class CombinePlanNode implements PlanNode {
    * @param brokerRequest Broker request
    * @param executorService Executor service
    * @param timeOutMs Time out in milliseconds for query execution (not for planning phase)
+   * @param numGroupsLimit Limit of number of groups stored in each segment
    */
   public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
       long timeOutMs, int numGroupsLimit) {
+    this(planNodes, brokerRequest, executorService, timeOutMs, numGroupsLimit,
+        CombineOperator.DEFAULT_MAX_THREADS_PER_QUERY);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param planNodes List of underlying plan nodes
+   * @param brokerRequest Broker request
+   * @param executorService Executor service
+   * @param timeOutMs Time out in milliseconds for query execution (not for planning phase)
+   * @param numGroupsLimit Limit of number of groups stored in each segment
+   * @param maxThreadsPerQuery Max number of threads used to combine results (can be overridden by query option)
+   */
+  public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
+      long timeOutMs, int numGroupsLimit, int maxThreadsPerQuery) {
+    this(planNodes, brokerRequest, executorService, timeOutMs, numGroupsLimit, maxThreadsPerQuery, null, 0, 0,
+        ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  /**
+   * Constructor for the class, where the selection only results are streamed as response chunks if a response chunk
+   * sender is given.
+   *
+   * @param planNodes List of underlying plan nodes
+   * @param brokerRequest Broker request
+   * @param executorService Executor service
+   * @param timeOutMs Time out in milliseconds for query execution (not for planning phase)
+   * @param numGroupsLimit Limit of number of groups stored in each segment
+   * @param maxThreadsPerQuery Max number of threads used to combine results (can be overridden by query option)
+   * @param responseChunkSender Sender for the response chunks, or null to send a single response
+   * @param responseChunkSize Max number of rows per response chunk
+   * @param dataTableVersion Data table version of the response chunks
+   * @param dataTableCompressionType Compression type for the column blocks of version 3 response chunks
+   */
+  public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
+      long timeOutMs, int numGroupsLimit, int maxThreadsPerQuery, @Nullable ResponseChunkSender responseChunkSender,
+      int responseChunkSize, int dataTableVersion, ChunkCompressorFactory.CompressionType dataTableCompressionType) {
     _planNodes = planNodes;
     _brokerRequest = brokerRequest;
     _executorService = executorService;
     _timeOutMs = timeOutMs;
     _numGroupsLimit = numGroupsLimit;
+    _maxThreadsPerQuery = maxThreadsPerQuery;
+    _responseChunkSender = responseChunkSender;
+    _responseChunkSize = responseChunkSize;
+    _dataTableVersion = dataTableVersion;
+    _dataTableCompressionType = dataTableCompressionType;
   }
 
   @Override
@@ -117,10 +171,15 @@ public class CombinePlanNode implements PlanNode {
     // TODO: use the same combine operator for both aggregation and selection query.
     if (_brokerRequest.isSetAggregationsInfo() && _brokerRequest.getGroupBy() != null) {
       // Aggregation group-by query
-      return new CombineGroupByOperator(operators, _brokerRequest, _executorService, _timeOutMs, _numGroupsLimit);
+      return new CombineGroupByOperator(operators, _brokerRequest, _executorService, _timeOutMs, _numGroupsLimit,
+          _maxThreadsPerQuery);
+    } else if (_responseChunkSender != null) {
+      // Selection only query streamed as response chunks
+      return new StreamingSelectionOnlyCombineOperator(operators, _brokerRequest, _executorService, _timeOutMs,
+          _maxThreadsPerQuery, _responseChunkSender, _responseChunkSize, _dataTableVersion, _dataTableCompressionType);
     } else {
       // Selection or aggregation only query
-      return new CombineOperator(operators, _executorService, _timeOutMs, _brokerRequest);
+      return new CombineOperator(operators, _executorService, _timeOutMs, _brokerRequest, _maxThreadsPerQuery);
     }
   }
 
@@ -44,6 +44,17 @@ public class DocIdSetPlanNode implements PlanNode {
     this(indexSegment, brokerRequest, MAX_DOC_PER_CALL);
   }
 
+  /**
+   * Constructor for the plan node which only processes the documents in range [startDocId, endDocId] (both inclusive)
+   * of the segment.
+   */
+  public DocIdSetPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest, int startDocId,
+      int endDocId) {
+    _indexSegment = indexSegment;
+    _filterPlanNode = new FilterPlanNode(_indexSegment, brokerRequest, startDocId, endDocId);
+    _maxDocPerCall = MAX_DOC_PER_CALL;
+  }
+
   @Override
   public DocIdSetOperator run() {
     return new DocIdSetOperator(_filterPlanNode.run(), _maxDocPerCall);
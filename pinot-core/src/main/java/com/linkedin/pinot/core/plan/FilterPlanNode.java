@@ -42,25 +42,40 @@ public class FilterPlanNode implements PlanNode {
   private static final Logger LOGGER = LoggerFactory.getLogger(FilterPlanNode.class);
   private final BrokerRequest _brokerRequest;
   private final IndexSegment _segment;
+  // TODO: make it exclusive
+  // NOTE: end is inclusive
+  private final int _startDocId;
+  private final int _endDocId;
 
   public FilterPlanNode(IndexSegment segment, BrokerRequest brokerRequest) {
+    this(segment, brokerRequest, 0, segment.getSegmentMetadata().getTotalRawDocs() - 1);
+  }
+
+  /**
+   * Constructor for the filter plan node which only filters the documents in range [startDocId, endDocId] (both
+   * inclusive) of the segment.
+   */
+  public FilterPlanNode(IndexSegment segment, BrokerRequest brokerRequest, int startDocId, int endDocId) {
     _segment = segment;
     _brokerRequest = brokerRequest;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
   }
 
   @Override
   public BaseFilterOperator run() {
     FilterQueryTree rootFilterNode = RequestUtils.generateFilterQueryTree(_brokerRequest);
-    return constructPhysicalOperator(rootFilterNode, _segment, _brokerRequest.getDebugOptions());
+    return constructPhysicalOperator(rootFilterNode, _segment, _startDocId, _endDocId,
+        _brokerRequest.getDebugOptions());
   }
 
   /**
    * Helper method to build the operator tree from the filter query tree.
    */
   private static BaseFilterOperator constructPhysicalOperator(FilterQueryTree filterQueryTree, IndexSegment segment,
-      @Nullable Map<String, String> debugOptions) {
+      int startDocId, int endDocId, @Nullable Map<String, String> debugOptions) {
     if (filterQueryTree == null) {
-      return new MatchAllFilterOperator(segment.getSegmentMetadata().getTotalRawDocs());
+      return new MatchAllFilterOperator(startDocId, endDocId);
     }
 
     // For non-leaf node, recursively create the child filter operators
@@ -70,7 +85,8 @@ public class FilterPlanNode implements PlanNode {
       List<BaseFilterOperator> childFilterOperators = new ArrayList<>(childFilters.size());
       if (filterType == FilterOperator.AND) {
         for (FilterQueryTree childFilter : childFilters) {
-          BaseFilterOperator childFilterOperator = constructPhysicalOperator(childFilter, segment, debugOptions);
+          BaseFilterOperator childFilterOperator =
+              constructPhysicalOperator(childFilter, segment, startDocId, endDocId, debugOptions);
           if (childFilterOperator.isResultEmpty()) {
             return EmptyFilterOperator.getInstance();
           }
@@ -80,7 +96,8 @@ public class FilterPlanNode implements PlanNode {
         return new AndFilterOperator(childFilterOperators);
       } else {
         for (FilterQueryTree childFilter : childFilters) {
-          BaseFilterOperator childFilterOperator = constructPhysicalOperator(childFilter, segment, debugOptions);
+          BaseFilterOperator childFilterOperator =
+              constructPhysicalOperator(childFilter, segment, startDocId, endDocId, debugOptions);
           if (!childFilterOperator.isResultEmpty()) {
             childFilterOperators.add(childFilterOperator);
           }
@@ -90,6 +107,7 @@ public class FilterPlanNode implements PlanNode {
         } else if (childFilterOperators.size() == 1) {
           return childFilterOperators.get(0);
         } else {
+          FilterOperatorUtils.reorderOrFilterChildOperators(childFilterOperators);
           return new OrFilterOperator(childFilterOperators);
         }
       }
@@ -97,10 +115,6 @@ public class FilterPlanNode implements PlanNode {
       Predicate predicate = Predicate.newPredicate(filterQueryTree);
       DataSource dataSource = segment.getDataSource(filterQueryTree.getColumn());
       PredicateEvaluator predicateEvaluator = PredicateEvaluatorProvider.getPredicateEvaluator(predicate, dataSource);
-      int startDocId = 0;
-      // TODO: make it exclusive
-      // NOTE: end is inclusive
-      int endDocId = segment.getSegmentMetadata().getTotalRawDocs() - 1;
       return FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
     }
   }
@@ -15,6 +15,8 @@
  */
 package com.linkedin.pinot.core.plan;
 
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.operator.InstanceResponseOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,15 +26,25 @@ public class InstanceResponsePlanNode implements PlanNode {
   private static final Logger LOGGER = LoggerFactory.getLogger(InstanceResponsePlanNode.class);
 
   private final CombinePlanNode _combinePlanNode;
+  private final int _dataTableVersion;
+  private final ChunkCompressorFactory.CompressionType _dataTableCompressionType;
 
   public InstanceResponsePlanNode(CombinePlanNode combinePlanNode) {
+    this(combinePlanNode, DataTableImplV2.VERSION, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  public InstanceResponsePlanNode(CombinePlanNode combinePlanNode, int dataTableVersion,
+      ChunkCompressorFactory.CompressionType dataTableCompressionType) {
     _combinePlanNode = combinePlanNode;
+    _dataTableVersion = dataTableVersion;
+    _dataTableCompressionType = dataTableCompressionType;
   }
 
   @Override
   public InstanceResponseOperator run() {
     long start = System.currentTimeMillis();
-    InstanceResponseOperator instanceResponseOperator = new InstanceResponseOperator(_combinePlanNode.run());
+    InstanceResponseOperator instanceResponseOperator =
+        new InstanceResponseOperator(_combinePlanNode.run(), _dataTableVersion, _dataTableCompressionType);
     long end = System.currentTimeMillis();
     LOGGER.debug("InstanceResponsePlanNode.run took: {}ms", end - start);
     return instanceResponseOperator;
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.plan;
+
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.operator.query.SegmentResultCacheOperator;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCachePlanNode</code> class provides the execution plan for serving the result of a single
+ * segment from the {@link SegmentResultCache}, or computing it with the underlying plan node and caching it.
+ */
+public class SegmentResultCachePlanNode implements PlanNode {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCachePlanNode.class);
+
+  private final SegmentResultCache _segmentResultCache;
+  private final String _key;
+  private final IndexSegment _indexSegment;
+  private final SegmentResultCache.CachedResult _cachedResult;
+  private final PlanNode _planNode;
+
+  /**
+   * Constructor for the cached result.
+   */
+  public SegmentResultCachePlanNode(@Nonnull IndexSegment indexSegment,
+      @Nonnull SegmentResultCache.CachedResult cachedResult) {
+    _segmentResultCache = null;
+    _key = null;
+    _indexSegment = indexSegment;
+    _cachedResult = cachedResult;
+    _planNode = null;
+  }
+
+  /**
+   * Constructor for the result to be computed by the underlying plan node and cached.
+   */
+  public SegmentResultCachePlanNode(@Nonnull SegmentResultCache segmentResultCache, @Nonnull String key,
+      @Nonnull IndexSegment indexSegment, @Nonnull PlanNode planNode) {
+    _segmentResultCache = segmentResultCache;
+    _key = key;
+    _indexSegment = indexSegment;
+    _cachedResult = null;
+    _planNode = planNode;
+  }
+
+  @Override
+  public SegmentResultCacheOperator run() {
+    if (_cachedResult != null) {
+      return new SegmentResultCacheOperator(_cachedResult);
+    } else {
+      return new SegmentResultCacheOperator(_segmentResultCache, _key, _indexSegment, _planNode.run());
+    }
+  }
+
+  @Override
+  public void showTree(String prefix) {
+    LOGGER.debug(prefix + "Segment Result Cache Plan Node:");
+    LOGGER.debug(prefix + "Operator: SegmentResultCacheOperator");
+    LOGGER.debug(prefix + "Argument 0: IndexSegment - " + _indexSegment.getSegmentName());
+    LOGGER.debug(prefix + "Argument 1: Cached - " + (_cachedResult != null));
+    if (_planNode != null) {
+      LOGGER.debug(prefix + "Argument 2: PlanNode -");
+      _planNode.showTree(prefix + "    ");
+    }
+  }
+}
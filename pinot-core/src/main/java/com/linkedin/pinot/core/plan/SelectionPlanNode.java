@@ -23,6 +23,8 @@ import com.linkedin.pinot.core.operator.query.EmptySelectionOperator;
 import com.linkedin.pinot.core.operator.query.SelectionOnlyOperator;
 import com.linkedin.pinot.core.operator.query.SelectionOrderByOperator;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import com.linkedin.pinot.core.query.selection.SelectionTopKThreshold;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,10 +38,24 @@ public class SelectionPlanNode implements PlanNode {
   private final IndexSegment _indexSegment;
   private final Selection _selection;
   private final ProjectionPlanNode _projectionPlanNode;
+  private final SelectionTopKThreshold _topKThreshold;
 
   public SelectionPlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest) {
+    this(indexSegment, brokerRequest, null);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param indexSegment Index segment
+   * @param brokerRequest Broker request
+   * @param topKThreshold Top K threshold shared across the segments of the query for selection with ORDER BY
+   */
+  public SelectionPlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest,
+      @Nullable SelectionTopKThreshold topKThreshold) {
     _indexSegment = indexSegment;
     _selection = brokerRequest.getSelections();
+    _topKThreshold = topKThreshold;
 
     if (_selection.getSize() > 0) {
       int maxDocPerNextCall = DocIdSetPlanNode.MAX_DOC_PER_CALL;
@@ -61,7 +77,7 @@ public class SelectionPlanNode implements PlanNode {
   public Operator run() {
     if (_selection.getSize() > 0) {
       if (_selection.isSetSelectionSortSequence()) {
-        return new SelectionOrderByOperator(_indexSegment, _selection, _projectionPlanNode.run());
+        return new SelectionOrderByOperator(_indexSegment, _selection, _projectionPlanNode.run(), _topKThreshold);
       } else {
         return new SelectionOnlyOperator(_indexSegment, _selection, _projectionPlanNode.run());
       }
@@ -19,9 +19,18 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.linkedin.pinot.common.request.AggregationInfo;
 import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.Selection;
 import com.linkedin.pinot.common.request.transform.TransformExpressionTree;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
 import com.linkedin.pinot.core.data.manager.SegmentDataManager;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.operator.CombineOperator;
+import com.linkedin.pinot.core.operator.StreamingSelectionOnlyCombineOperator;
 import com.linkedin.pinot.core.plan.AggregationGroupByPlanNode;
 import com.linkedin.pinot.core.plan.AggregationPlanNode;
 import com.linkedin.pinot.core.plan.CombinePlanNode;
@@ -31,14 +40,20 @@ import com.linkedin.pinot.core.plan.InstanceResponsePlanNode;
 import com.linkedin.pinot.core.plan.MetadataBasedAggregationPlanNode;
 import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.PlanNode;
+import com.linkedin.pinot.core.plan.SegmentResultCachePlanNode;
 import com.linkedin.pinot.core.plan.SelectionPlanNode;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionType;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
+import com.linkedin.pinot.core.query.request.ResponseChunkSender;
+import com.linkedin.pinot.core.query.selection.SelectionTopKThreshold;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.core.startree.StarTreeUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,21 +68,59 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public static final int DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY = 10_000;
   public static final String NUM_GROUPS_LIMIT = "num.groups.limit";
   public static final int DEFAULT_NUM_GROUPS_LIMIT = 100_000;
+  public static final String MAX_THREADS_PER_QUERY_KEY = "max.threads.per.query";
+  // Size in bytes of the per-segment result cache for immutable segments, 0 to disable the cache
+  public static final String SEGMENT_RESULT_CACHE_SIZE_BYTES_KEY = "segment.result.cache.size.bytes";
+  public static final long DEFAULT_SEGMENT_RESULT_CACHE_SIZE_BYTES = 0L;
+  // Min number of documents in each doc id range when splitting a large segment to be processed by multiple threads,
+  // 0 to disable the splitting
+  public static final String MIN_NUM_DOCS_PER_SEGMENT_SPLIT_KEY = "min.num.docs.per.segment.split";
+  public static final int DEFAULT_MIN_NUM_DOCS_PER_SEGMENT_SPLIT = 0;
 
   private final int _maxInitialResultHolderCapacity;
   // Limit on number of groups, beyond which no new group will be created
   private final int _numGroupsLimit;
+  // Limit on number of threads used to combine segment results for a query, can be overridden by query option
+  private final int _maxThreadsPerQuery;
+  // Null if the per-segment result cache is disabled
+  private final SegmentResultCache _segmentResultCache;
+  // Non-positive if the segment splitting is disabled
+  private final int _minNumDocsPerSegmentSplit;
+  // Highest data table version to respond with, and compression type for the column blocks of version 3 data tables
+  private final int _maxDataTableVersion;
+  private final ChunkCompressorFactory.CompressionType _dataTableCompressionType;
 
   @VisibleForTesting
   public InstancePlanMakerImplV2() {
     _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
     _numGroupsLimit = DEFAULT_NUM_GROUPS_LIMIT;
+    _maxThreadsPerQuery = CombineOperator.DEFAULT_MAX_THREADS_PER_QUERY;
+    _segmentResultCache = null;
+    _minNumDocsPerSegmentSplit = DEFAULT_MIN_NUM_DOCS_PER_SEGMENT_SPLIT;
+    _maxDataTableVersion = DataTableImplV2.VERSION;
+    _dataTableCompressionType = ChunkCompressorFactory.CompressionType.PASS_THROUGH;
   }
 
   @VisibleForTesting
   public InstancePlanMakerImplV2(int maxInitialResultHolderCapacity, int numGroupsLimit) {
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
+    _maxThreadsPerQuery = CombineOperator.DEFAULT_MAX_THREADS_PER_QUERY;
+    _segmentResultCache = null;
+    _minNumDocsPerSegmentSplit = DEFAULT_MIN_NUM_DOCS_PER_SEGMENT_SPLIT;
+    _maxDataTableVersion = DataTableImplV2.VERSION;
+    _dataTableCompressionType = ChunkCompressorFactory.CompressionType.PASS_THROUGH;
+  }
+
+  @VisibleForTesting
+  public InstancePlanMakerImplV2(@Nullable SegmentResultCache segmentResultCache) {
+    _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
+    _numGroupsLimit = DEFAULT_NUM_GROUPS_LIMIT;
+    _maxThreadsPerQuery = CombineOperator.DEFAULT_MAX_THREADS_PER_QUERY;
+    _segmentResultCache = segmentResultCache;
+    _minNumDocsPerSegmentSplit = DEFAULT_MIN_NUM_DOCS_PER_SEGMENT_SPLIT;
+    _maxDataTableVersion = DataTableImplV2.VERSION;
+    _dataTableCompressionType = ChunkCompressorFactory.CompressionType.PASS_THROUGH;
   }
 
   /**
@@ -75,6 +128,10 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
    * <ul>
    *   <li>Set limit on the initial result holder capacity</li>
    *   <li>Set limit on number of groups returned from each segment and combined result</li>
+   *   <li>Set limit on number of threads used to combine segment results for a query</li>
+   *   <li>Set size of the per-segment result cache</li>
+   *   <li>Set min number of documents per doc id range when splitting large segments</li>
+   *   <li>Set max data table version and compression type for the response</li>
    * </ul>
    *
    * @param queryExecutorConfig Query executor configuration
@@ -83,11 +140,25 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _maxInitialResultHolderCapacity = queryExecutorConfig.getConfig()
         .getInt(MAX_INITIAL_RESULT_HOLDER_CAPACITY_KEY, DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
     _numGroupsLimit = queryExecutorConfig.getConfig().getInt(NUM_GROUPS_LIMIT, DEFAULT_NUM_GROUPS_LIMIT);
+    _maxThreadsPerQuery = queryExecutorConfig.getConfig()
+        .getInt(MAX_THREADS_PER_QUERY_KEY, CombineOperator.DEFAULT_MAX_THREADS_PER_QUERY);
     Preconditions.checkState(_maxInitialResultHolderCapacity <= _numGroupsLimit,
         "Invalid configuration: maxInitialResultHolderCapacity: %d must be smaller or equal to numGroupsLimit: %d",
         _maxInitialResultHolderCapacity, _numGroupsLimit);
-    LOGGER.info("Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}",
-        _maxInitialResultHolderCapacity, _numGroupsLimit);
+    Preconditions.checkState(_maxThreadsPerQuery > 0,
+        "Invalid configuration: maxThreadsPerQuery: %d must be positive", _maxThreadsPerQuery);
+    long segmentResultCacheSizeInBytes = queryExecutorConfig.getConfig()
+        .getLong(SEGMENT_RESULT_CACHE_SIZE_BYTES_KEY, DEFAULT_SEGMENT_RESULT_CACHE_SIZE_BYTES);
+    _segmentResultCache =
+        segmentResultCacheSizeInBytes > 0 ? new SegmentResultCache(segmentResultCacheSizeInBytes) : null;
+    _minNumDocsPerSegmentSplit = queryExecutorConfig.getConfig()
+        .getInt(MIN_NUM_DOCS_PER_SEGMENT_SPLIT_KEY, DEFAULT_MIN_NUM_DOCS_PER_SEGMENT_SPLIT);
+    _maxDataTableVersion = queryExecutorConfig.getMaxDataTableVersion();
+    _dataTableCompressionType = queryExecutorConfig.getDataTableCompressionType();
+    LOGGER.info(
+        "Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}, maxThreadsPerQuery: {}, "
+            + "segmentResultCacheSizeInBytes: {}, minNumDocsPerSegmentSplit: {}", _maxInitialResultHolderCapacity,
+        _numGroupsLimit, _maxThreadsPerQuery, segmentResultCacheSizeInBytes, _minNumDocsPerSegmentSplit);
   }
 
   @Override
@@ -115,6 +186,12 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   @Override
   public Plan makeInterSegmentPlan(List<SegmentDataManager> segmentDataManagers, BrokerRequest brokerRequest,
       ExecutorService executorService, long timeOutMs) {
+    return makeInterSegmentPlan(segmentDataManagers, brokerRequest, executorService, timeOutMs, null);
+  }
+
+  @Override
+  public Plan makeInterSegmentPlan(List<SegmentDataManager> segmentDataManagers, BrokerRequest brokerRequest,
+      ExecutorService executorService, long timeOutMs, @Nullable ResponseChunkSender responseChunkSender) {
     // TODO: pass in List<IndexSegment> directly.
     List<IndexSegment> indexSegments = new ArrayList<>(segmentDataManagers.size());
     for (SegmentDataManager segmentDataManager : segmentDataManagers) {
@@ -123,13 +200,172 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     BrokerRequestPreProcessor.preProcess(indexSegments, brokerRequest);
 
     List<PlanNode> planNodes = new ArrayList<>();
-    for (IndexSegment indexSegment : indexSegments) {
-      planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+    if (isSelectionOrderByQuery(brokerRequest)) {
+      // Process the segments with better values first, and skip the segments that cannot beat the current top K
+      SelectionTopKThreshold topKThreshold =
+          new SelectionTopKThreshold(brokerRequest.getSelections().getSelectionSortSequence().get(0));
+      topKThreshold.sortSegments(indexSegments);
+      for (IndexSegment indexSegment : indexSegments) {
+        planNodes.add(new SelectionPlanNode(indexSegment, brokerRequest, topKThreshold));
+      }
+    } else {
+      boolean useSegmentResultCache = _segmentResultCache != null && brokerRequest.isSetAggregationsInfo();
+      FilterQueryTree rootFilterNode =
+          useSegmentResultCache ? RequestUtils.generateFilterQueryTree(brokerRequest) : null;
+      int maxNumSplitsPerSegment = getMaxNumSplitsPerSegment(brokerRequest, indexSegments.size());
+      for (IndexSegment indexSegment : indexSegments) {
+        int numSplits = getNumSplits(indexSegment, brokerRequest, maxNumSplitsPerSegment);
+        if (useSegmentResultCache) {
+          addCachedInnerSegmentPlans(indexSegment, brokerRequest, rootFilterNode, numSplits, planNodes);
+        } else if (numSplits > 1) {
+          addSplitInnerSegmentPlans(indexSegment, brokerRequest, numSplits, null, planNodes);
+        } else {
+          planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+        }
+      }
+    }
+
+    // Build the response directly in the data table version negotiated with the broker
+    int dataTableVersion = DataTableFactory.getResponseVersion(brokerRequest, _maxDataTableVersion);
+
+    // Only stream the selection only results when the broker asked for response chunks
+    int responseChunkSize = 0;
+    if (responseChunkSender != null && isSelectionOnlyQuery(brokerRequest)) {
+      responseChunkSize = StreamingSelectionOnlyCombineOperator.getResponseChunkSize(brokerRequest);
+    }
+    CombinePlanNode combinePlanNode;
+    if (responseChunkSize > 0) {
+      combinePlanNode =
+          new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs, _numGroupsLimit,
+              _maxThreadsPerQuery, responseChunkSender, responseChunkSize, dataTableVersion,
+              _dataTableCompressionType);
+    } else {
+      combinePlanNode =
+          new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs, _numGroupsLimit,
+              _maxThreadsPerQuery);
+    }
+    return new GlobalPlanImplV0(
+        new InstanceResponsePlanNode(combinePlanNode, dataTableVersion, _dataTableCompressionType));
+  }
+
+  /**
+   * Helper method to identify if the query is a selection query with <code>ORDER BY</code> that returns rows.
+   */
+  private static boolean isSelectionOrderByQuery(BrokerRequest brokerRequest) {
+    if (brokerRequest.isSetAggregationsInfo() || !brokerRequest.isSetSelections()) {
+      return false;
+    }
+    Selection selection = brokerRequest.getSelections();
+    return selection.getSize() > 0 && selection.isSetSelectionSortSequence() && !selection.getSelectionSortSequence()
+        .isEmpty();
+  }
+
+  /**
+   * Helper method to identify if the query is a selection query without <code>ORDER BY</code> that returns rows.
+   */
+  private static boolean isSelectionOnlyQuery(BrokerRequest brokerRequest) {
+    if (brokerRequest.isSetAggregationsInfo() || !brokerRequest.isSetSelections()) {
+      return false;
     }
-    CombinePlanNode combinePlanNode =
-        new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs, _numGroupsLimit);
+    Selection selection = brokerRequest.getSelections();
+    return selection.getSize() > 0 && !selection.isSetSelectionSortSequence();
+  }
+
+  /**
+   * Helper method to add the inner segment plans which serve the segment result from the per-segment result cache if
+   * possible, or cache the segment result after computing it. Plans served from metadata or dictionary are cheap, so
+   * their results are not cached.
+   * <p>On a cache miss, a large segment is still split into doc id ranges, and the result of each range is cached under
+   * its own key, so that the following queries with the same number of splits are served from the cache.
+   */
+  private void addCachedInnerSegmentPlans(IndexSegment indexSegment, BrokerRequest brokerRequest,
+      @Nullable FilterQueryTree rootFilterNode, int numSplits, List<PlanNode> planNodes) {
+    String key = SegmentResultCache.getKey(indexSegment, brokerRequest, rootFilterNode);
+    if (key != null) {
+      SegmentResultCache.CachedResult cachedResult = _segmentResultCache.get(key, indexSegment);
+      if (cachedResult != null) {
+        planNodes.add(new SegmentResultCachePlanNode(indexSegment, cachedResult));
+        return;
+      }
+    }
+    if (numSplits > 1) {
+      addSplitInnerSegmentPlans(indexSegment, brokerRequest, numSplits, key, planNodes);
+      return;
+    }
+    PlanNode planNode = makeInnerSegmentPlan(indexSegment, brokerRequest);
+    if (key != null && (planNode instanceof AggregationPlanNode || planNode instanceof AggregationGroupByPlanNode)) {
+      planNode = new SegmentResultCachePlanNode(_segmentResultCache, key, indexSegment, planNode);
+    }
+    planNodes.add(planNode);
+  }
+
+  /**
+   * Helper method to get the max number of doc id ranges each segment can be split into, so that the total number of
+   * inner segment plans does not exceed the max number of threads for the query.
+   */
+  private int getMaxNumSplitsPerSegment(BrokerRequest brokerRequest, int numSegments) {
+    if (_minNumDocsPerSegmentSplit <= 0 || numSegments == 0) {
+      return 1;
+    }
+    return CombineOperator.getMaxThreadsPerQuery(brokerRequest, _maxThreadsPerQuery) / numSegments;
+  }
+
+  /**
+   * Helper method to get the number of doc id ranges to split the segment into. Only aggregation queries on immutable
+   * segments that are not served from metadata, dictionary or star-tree can be split.
+   */
+  private int getNumSplits(IndexSegment indexSegment, BrokerRequest brokerRequest, int maxNumSplitsPerSegment) {
+    if (maxNumSplitsPerSegment <= 1 || !(indexSegment instanceof ImmutableSegment)
+        || !brokerRequest.isSetAggregationsInfo()) {
+      return 1;
+    }
+    if (indexSegment.getStarTrees() != null && !StarTreeUtils.isStarTreeDisabled(brokerRequest)) {
+      return 1;
+    }
+    if (!brokerRequest.isSetGroupBy() && (isFitForMetadataBasedPlan(brokerRequest, indexSegment)
+        || isFitForDictionaryBasedPlan(brokerRequest, indexSegment))) {
+      return 1;
+    }
+    int numDocs = indexSegment.getSegmentMetadata().getTotalRawDocs();
+    return Math.min(maxNumSplitsPerSegment, numDocs / _minNumDocsPerSegmentSplit);
+  }
 
-    return new GlobalPlanImplV0(new InstanceResponsePlanNode(combinePlanNode));
+  /**
+   * Helper method to split the segment into doc id ranges of similar size, and add one inner segment plan for each
+   * range. The results of the ranges are merged the same way as the results of different segments.
+   * <p>If the cache key of the segment is given, the result of each range is served from or cached into the per-segment
+   * result cache under the key of the range.
+   */
+  private void addSplitInnerSegmentPlans(IndexSegment indexSegment, BrokerRequest brokerRequest, int numSplits,
+      @Nullable String key, List<PlanNode> planNodes) {
+    int numDocs = indexSegment.getSegmentMetadata().getTotalRawDocs();
+    int numDocsPerSplit = (numDocs + numSplits - 1) / numSplits;
+    for (int startDocId = 0; startDocId < numDocs; startDocId += numDocsPerSplit) {
+      // NOTE: end is inclusive
+      int endDocId = Math.min(startDocId + numDocsPerSplit, numDocs) - 1;
+      String splitKey = null;
+      if (key != null) {
+        splitKey = SegmentResultCache.getSplitKey(key, startDocId, endDocId);
+        SegmentResultCache.CachedResult cachedResult = _segmentResultCache.get(splitKey, indexSegment);
+        if (cachedResult != null) {
+          planNodes.add(new SegmentResultCachePlanNode(indexSegment, cachedResult));
+          continue;
+        }
+      }
+      PlanNode planNode;
+      if (brokerRequest.isSetGroupBy()) {
+        planNode = new AggregationGroupByPlanNode(indexSegment, brokerRequest, _maxInitialResultHolderCapacity,
+            _numGroupsLimit, startDocId, endDocId);
+      } else {
+        planNode = new AggregationPlanNode(indexSegment, brokerRequest, startDocId, endDocId);
+      }
+      if (splitKey != null) {
+        planNode = new SegmentResultCachePlanNode(_segmentResultCache, splitKey, indexSegment, planNode);
+      }
+      planNodes.add(planNode);
+    }
+    LOGGER.debug("Split segment: {} with {} documents into {} doc id ranges", indexSegment.getSegmentName(), numDocs,
+        numSplits);
   }
 
   /**
@@ -20,8 +20,10 @@ import com.linkedin.pinot.core.data.manager.SegmentDataManager;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.PlanNode;
+import com.linkedin.pinot.core.query.request.ResponseChunkSender;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 
 
 /**
@@ -49,4 +51,18 @@ public interface PlanMaker {
    */
   Plan makeInterSegmentPlan(List<SegmentDataManager> segmentDataManagers, BrokerRequest brokerRequest,
       ExecutorService executorService, long timeOutMs);
+
+  /**
+   * Make instance level {@link Plan} which contains execution plan on multiple segments, where the selection only
+   * results can be streamed to the broker as response chunks.
+   *
+   * @param segmentDataManagers list of segment data manager.
+   * @param brokerRequest broker request.
+   * @param executorService executor service.
+   * @param timeOutMs time out in milliseconds.
+   * @param responseChunkSender sender for the response chunks, or null if the transport does not support them.
+   * @return instance level plan.
+   */
+  Plan makeInterSegmentPlan(List<SegmentDataManager> segmentDataManagers, BrokerRequest brokerRequest,
+      ExecutorService executorService, long timeOutMs, @Nullable ResponseChunkSender responseChunkSender);
 }
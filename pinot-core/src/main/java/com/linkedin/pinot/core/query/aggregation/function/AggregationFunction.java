@@ -19,7 +19,9 @@ import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.query.aggregation.AggregationResultHolder;
 import com.linkedin.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import com.linkedin.pinot.core.query.aggregation.groupby.OffHeapGroupByResultArena;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 
 /**
@@ -59,6 +61,18 @@ public interface AggregationFunction<IntermediateResult, FinalResult extends Com
   @Nonnull
   GroupByResultHolder createGroupByResultHolder(int initialCapacity, int maxCapacity);
 
+  /**
+   * Create an off-heap group-by result holder with the given initial capacity and max capacity for this function, which
+   * allocates memory from the given arena. Returns <code>null</code> if the intermediate result is not fixed-width.
+   * <p>NOTE: The off-heap result holder does not support the object APIs of {@link GroupByResultHolder}, so a function
+   * returning it must aggregate into and extract results from its fields.
+   */
+  @Nullable
+  default GroupByResultHolder createOffHeapGroupByResultHolder(int initialCapacity, int maxCapacity,
+      @Nonnull OffHeapGroupByResultArena arena) {
+    return null;
+  }
+
   /**
    * Perform aggregation on the given projection block value sets.
    */
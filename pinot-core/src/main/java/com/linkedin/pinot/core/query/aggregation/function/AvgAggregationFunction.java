@@ -24,10 +24,16 @@ import com.linkedin.pinot.core.query.aggregation.ObjectAggregationResultHolder;
 import com.linkedin.pinot.core.query.aggregation.function.customobject.AvgPair;
 import com.linkedin.pinot.core.query.aggregation.groupby.GroupByResultHolder;
 import com.linkedin.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import com.linkedin.pinot.core.query.aggregation.groupby.OffHeapGroupByResultArena;
+import com.linkedin.pinot.core.query.aggregation.groupby.OffHeapGroupByResultHolder;
 import javax.annotation.Nonnull;
 
 
 public class AvgAggregationFunction implements AggregationFunction<AvgPair, Double> {
+  // Fields of the off-heap group-by result holder
+  private static final int SUM_FIELD = 0;
+  private static final int COUNT_FIELD = 1;
+
   private static final double DEFAULT_FINAL_RESULT = Double.NEGATIVE_INFINITY;
 
   @Nonnull
@@ -59,6 +65,12 @@ public class AvgAggregationFunction implements AggregationFunction<AvgPair, Doub
     return new ObjectGroupByResultHolder(initialCapacity, maxCapacity);
   }
 
+  @Override
+  public GroupByResultHolder createOffHeapGroupByResultHolder(int initialCapacity, int maxCapacity,
+      @Nonnull OffHeapGroupByResultArena arena) {
+    return new OffHeapGroupByResultHolder(initialCapacity, maxCapacity, arena, 0.0, 0.0);
+  }
+
   @Override
   public void aggregate(int length, @Nonnull AggregationResultHolder aggregationResultHolder,
       @Nonnull BlockValSet... blockValSets) {
@@ -163,8 +175,17 @@ public class AvgAggregationFunction implements AggregationFunction<AvgPair, Doub
     }
   }
 
-  protected void setGroupByResult(int groupKey, @Nonnull GroupByResultHolder groupByResultHolder, double sum,
+  // NOTE: Final so that sub-classes cannot bypass the off-heap result holder handling
+  protected final void setGroupByResult(int groupKey, @Nonnull GroupByResultHolder groupByResultHolder, double sum,
       long count) {
+    if (groupByResultHolder instanceof OffHeapGroupByResultHolder) {
+      OffHeapGroupByResultHolder offHeapResultHolder = (OffHeapGroupByResultHolder) groupByResultHolder;
+      offHeapResultHolder.setDoubleValue(groupKey, SUM_FIELD,
+          offHeapResultHolder.getDoubleValue(groupKey, SUM_FIELD) + sum);
+      offHeapResultHolder.setLongValue(groupKey, COUNT_FIELD,
+          offHeapResultHolder.getLongValue(groupKey, COUNT_FIELD) + count);
+      return;
+    }
     AvgPair avgPair = groupByResultHolder.getResult(groupKey);
     if (avgPair == null) {
       groupByResultHolder.setValueForKey(groupKey, new AvgPair(sum, count));
@@ -186,7 +207,12 @@ public class AvgAggregationFunction implements AggregationFunction<AvgPair, Doub
 
   @Nonnull
   @Override
-  public AvgPair extractGroupByResult(@Nonnull GroupByResultHolder groupByResultHolder, int groupKey) {
+  public final AvgPair extractGroupByResult(@Nonnull GroupByResultHolder groupByResultHolder, int groupKey) {
+    if (groupByResultHolder instanceof OffHeapGroupByResultHolder) {
+      OffHeapGroupByResultHolder offHeapResultHolder = (OffHeapGroupByResultHolder) groupByResultHolder;
+      return new AvgPair(offHeapResultHolder.getDoubleValue(groupKey, SUM_FIELD),
+          offHeapResultHolder.getLongValue(groupKey, COUNT_FIELD));
+    }
     AvgPair avgPair = groupByResultHolder.getResult(groupKey);
     if (avgPair == null) {
       return new AvgPair(0.0, 0L);
@@ -21,6 +21,8 @@ import com.linkedin.pinot.core.query.aggregation.AggregationResultHolder;
 import com.linkedin.pinot.core.query.aggregation.DoubleAggregationResultHolder;
 import com.linkedin.pinot.core.query.aggregation.groupby.DoubleGroupByResultHolder;
 import com.linkedin.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import com.linkedin.pinot.core.query.aggregation.groupby.OffHeapGroupByResultArena;
+import com.linkedin.pinot.core.query.aggregation.groupby.OffHeapGroupByResultHolder;
 import javax.annotation.Nonnull;
 
 
@@ -57,6 +59,12 @@ public class CountAggregationFunction implements AggregationFunction<Long, Long>
     return new DoubleGroupByResultHolder(initialCapacity, maxCapacity, DEFAULT_INITIAL_VALUE);
   }
 
+  @Override
+  public GroupByResultHolder createOffHeapGroupByResultHolder(int initialCapacity, int maxCapacity,
+      @Nonnull OffHeapGroupByResultArena arena) {
+    return new OffHeapGroupByResultHolder(initialCapacity, maxCapacity, arena, DEFAULT_INITIAL_VALUE);
+  }
+
   @Override
   public void aggregate(int length, @Nonnull AggregationResultHolder aggregationResultHolder,
       @Nonnull BlockValSet... blockValSets) {
@@ -24,10 +24,15 @@ import com.linkedin.pinot.core.query.aggregation.ObjectAggregationResultHolder;
 import com.linkedin.pinot.core.query.aggregation.function.customobject.MinMaxRangePair;
 import com.linkedin.pinot.core.query.aggregation.groupby.GroupByResultHolder;
 import com.linkedin.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import com.linkedin.pinot.core.query.aggregation.groupby.OffHeapGroupByResultArena;
+import com.linkedin.pinot.core.query.aggregation.groupby.OffHeapGroupByResultHolder;
 import javax.annotation.Nonnull;
 
 
 public class MinMaxRangeAggregationFunction implements AggregationFunction<MinMaxRangePair, Double> {
+  // Fields of the off-heap group-by result holder
+  private static final int MIN_FIELD = 0;
+  private static final int MAX_FIELD = 1;
 
   @Nonnull
   @Override
@@ -58,6 +63,13 @@ public class MinMaxRangeAggregationFunction implements AggregationFunction<MinMa
     return new ObjectGroupByResultHolder(initialCapacity, maxCapacity);
   }
 
+  @Override
+  public GroupByResultHolder createOffHeapGroupByResultHolder(int initialCapacity, int maxCapacity,
+      @Nonnull OffHeapGroupByResultArena arena) {
+    return new OffHeapGroupByResultHolder(initialCapacity, maxCapacity, arena, Double.POSITIVE_INFINITY,
+        Double.NEGATIVE_INFINITY);
+  }
+
   @Override
   public void aggregate(int length, @Nonnull AggregationResultHolder aggregationResultHolder,
       @Nonnull BlockValSet... blockValSets) {
@@ -172,8 +184,17 @@ public class MinMaxRangeAggregationFunction implements AggregationFunction<MinMa
     }
   }
 
-  protected void setGroupByResult(int groupKey, @Nonnull GroupByResultHolder groupByResultHolder, double min,
+  // NOTE: Final so that sub-classes cannot bypass the off-heap result holder handling
+  protected final void setGroupByResult(int groupKey, @Nonnull GroupByResultHolder groupByResultHolder, double min,
       double max) {
+    if (groupByResultHolder instanceof OffHeapGroupByResultHolder) {
+      OffHeapGroupByResultHolder offHeapResultHolder = (OffHeapGroupByResultHolder) groupByResultHolder;
+      offHeapResultHolder.setDoubleValue(groupKey, MIN_FIELD,
+          Math.min(offHeapResultHolder.getDoubleValue(groupKey, MIN_FIELD), min));
+      offHeapResultHolder.setDoubleValue(groupKey, MAX_FIELD,
+          Math.max(offHeapResultHolder.getDoubleValue(groupKey, MAX_FIELD), max));
+      return;
+    }
     MinMaxRangePair minMaxRangePair = groupByResultHolder.getResult(groupKey);
     if (minMaxRangePair == null) {
       groupByResultHolder.setValueForKey(groupKey, new MinMaxRangePair(min, max));
@@ -195,7 +216,12 @@ public class MinMaxRangeAggregationFunction implements AggregationFunction<MinMa
 
   @Nonnull
   @Override
-  public MinMaxRangePair extractGroupByResult(@Nonnull GroupByResultHolder groupByResultHolder, int groupKey) {
+  public final MinMaxRangePair extractGroupByResult(@Nonnull GroupByResultHolder groupByResultHolder, int groupKey) {
+    if (groupByResultHolder instanceof OffHeapGroupByResultHolder) {
+      OffHeapGroupByResultHolder offHeapResultHolder = (OffHeapGroupByResultHolder) groupByResultHolder;
+      return new MinMaxRangePair(offHeapResultHolder.getDoubleValue(groupKey, MIN_FIELD),
+          offHeapResultHolder.getDoubleValue(groupKey, MAX_FIELD));
+    }
     MinMaxRangePair minMaxRangePair = groupByResultHolder.getResult(groupKey);
     if (minMaxRangePair == null) {
       return new MinMaxRangePair(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
@@ -38,12 +38,20 @@ public class AggregationGroupByResult {
 
   /**
    * Returns an iterator for group-by keys.
-   * @return
+   * @return Iterator of group keys with the string keys set
    */
   public Iterator<GroupKeyGenerator.GroupKey> getGroupKeyIterator() {
     return _groupKeyGenerator.getUniqueGroupKeys();
   }
 
+  /**
+   * Returns an iterator for group-by keys with typed keys instead of string keys.
+   * @return Iterator of group keys with the typed keys set (see {@link GroupKeyGenerator#getUniqueTypedGroupKeys()})
+   */
+  public Iterator<GroupKeyGenerator.GroupKey> getTypedGroupKeyIterator() {
+    return _groupKeyGenerator.getUniqueTypedGroupKeys();
+  }
+
   /**
    *
    * Given a group-by key and an index into the result holder array, returns
@@ -64,4 +72,38 @@ public class AggregationGroupByResult {
   public Object getResultForKey(GroupKeyGenerator.GroupKey groupKey, int index) {
     return _aggregationFunctions[index].extractGroupByResult(_resultHolders[index], groupKey._groupId);
   }
+
+  /**
+   * Given a group-by key and an index into the result holder array, returns the primitive double result without
+   * boxing. Should only be called for aggregation functions with double result holders (COUNT, SUM, MIN, MAX).
+   *
+   * @param groupKey
+   * @param index
+   * @return
+   */
+  public double getDoubleResultForKey(GroupKeyGenerator.GroupKey groupKey, int index) {
+    return _resultHolders[index].getDoubleResult(groupKey._groupId);
+  }
+
+  /**
+   * Returns whether the number of groups reached the given limit, in which case the groups beyond the limit are
+   * dropped.
+   *
+   * @param numGroupsLimit Limit on the number of groups
+   * @return Whether the number of groups reached the limit
+   */
+  public boolean isNumGroupsLimitReached(int numGroupsLimit) {
+    return _groupKeyGenerator.getCurrentGroupKeyUpperBound() >= numGroupsLimit;
+  }
+
+  /**
+   * Releases the off-heap memory of the result holders. The results should not be accessed after this method is called.
+   */
+  public void release() {
+    for (GroupByResultHolder resultHolder : _resultHolders) {
+      if (resultHolder instanceof OffHeapGroupByResultHolder) {
+        ((OffHeapGroupByResultHolder) resultHolder).close();
+      }
+    }
+  }
 }
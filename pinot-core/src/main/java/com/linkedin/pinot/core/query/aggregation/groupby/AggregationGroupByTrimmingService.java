@@ -61,55 +61,45 @@ public class AggregationGroupByTrimmingService {
 
   /**
    * Given a map from group key to the intermediate results for multiple aggregation functions, trim the results to
-   * desired size and put them into a list of maps from group key to intermediate result for each aggregation function.
+   * desired size and return a map from group key to the intermediate results for all aggregation functions.
+   * <p>A group is kept if it is within the trim size for any aggregation function, and all its intermediate results are
+   * kept so that each group can be sent as one row.
    */
-  @SuppressWarnings("unchecked")
   @Nonnull
-  public List<Map<String, Object>> trimIntermediateResultsMap(@Nonnull Map<String, Object[]> intermediateResultsMap) {
-    int numAggregationFunctions = _aggregationFunctions.length;
-    Map<String, Object>[] trimmedResultMaps = new Map[numAggregationFunctions];
-
+  public Map<String, Object[]> trimIntermediateResults(@Nonnull Map<String, Object[]> intermediateResultsMap) {
     int numGroups = intermediateResultsMap.size();
-    if (numGroups > _trimThreshold) {
+    if (numGroups <= _trimThreshold) {
       // Trim the result only if number of groups is larger than the threshold
+      return intermediateResultsMap;
+    }
 
-      Sorter[] sorters = new Sorter[numAggregationFunctions];
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        AggregationFunction aggregationFunction = _aggregationFunctions[i];
-        sorters[i] = getSorter(_trimSize, aggregationFunction, aggregationFunction.isIntermediateResultComparable());
-      }
-
-      // Add results into sorters
-      for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
-        String groupKey = entry.getKey();
-        Object[] intermediateResults = entry.getValue();
-        for (int i = 0; i < numAggregationFunctions; i++) {
-          sorters[i].add(groupKey, intermediateResults[i]);
-        }
-      }
+    int numAggregationFunctions = _aggregationFunctions.length;
+    Sorter[] sorters = new Sorter[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      AggregationFunction aggregationFunction = _aggregationFunctions[i];
+      sorters[i] = getSorter(_trimSize, aggregationFunction, aggregationFunction.isIntermediateResultComparable());
+    }
 
-      // Dump trimmed results into maps
+    // Add results into sorters
+    for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
+      String groupKey = entry.getKey();
+      Object[] intermediateResults = entry.getValue();
       for (int i = 0; i < numAggregationFunctions; i++) {
-        Map<String, Object> trimmedResultMap = new HashMap<>(_trimSize);
-        sorters[i].dumpToMap(trimmedResultMap);
-        trimmedResultMaps[i] = trimmedResultMap;
+        sorters[i].add(groupKey, intermediateResults[i]);
       }
-    } else {
-      // Simply put results from intermediateResultsMap into trimmedResults
+    }
 
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        trimmedResultMaps[i] = new HashMap<>(numGroups);
-      }
-      for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
-        String groupKey = entry.getKey();
-        Object[] intermediateResults = entry.getValue();
-        for (int i = 0; i < numAggregationFunctions; i++) {
-          trimmedResultMaps[i].put(groupKey, intermediateResults[i]);
-        }
+    // Put the groups kept by any sorter into the trimmed results
+    Map<String, Object[]> trimmedResultsMap = new HashMap<>(_trimSize);
+    Map<String, Object> trimmedResultMap = new HashMap<>(_trimSize);
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      sorters[i].dumpToMap(trimmedResultMap);
+      for (String groupKey : trimmedResultMap.keySet()) {
+        trimmedResultsMap.put(groupKey, intermediateResultsMap.get(groupKey));
       }
+      trimmedResultMap.clear();
     }
-
-    return Arrays.asList(trimmedResultMaps);
+    return trimmedResultsMap;
   }
 
   /**
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.groupby;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Typed group key for multiple group-by expressions, which holds the values of all the group-by expressions.
+ * <p>The string representation of the key is the same as the string group key, which is the values joined with
+ * {@link AggregationGroupByTrimmingService#GROUP_KEY_DELIMITER}.
+ */
+public final class CompositeGroupKey {
+  private final Object[] _values;
+  private final int _hashCode;
+
+  public CompositeGroupKey(@Nonnull Object[] values) {
+    _values = values;
+    _hashCode = Arrays.hashCode(values);
+  }
+
+  @Nonnull
+  public Object[] getValues() {
+    return _values;
+  }
+
+  @Override
+  public int hashCode() {
+    return _hashCode;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof CompositeGroupKey)) {
+      return false;
+    }
+    CompositeGroupKey that = (CompositeGroupKey) obj;
+    return _hashCode == that._hashCode && Arrays.equals(_values, that._values);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder stringBuilder = new StringBuilder(_values[0].toString());
+    int numValues = _values.length;
+    for (int i = 1; i < numValues; i++) {
+      stringBuilder.append(AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER).append(_values[i]);
+    }
+    return stringBuilder.toString();
+  }
+}
@@ -45,6 +45,10 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
   private static final ThreadLocal<int[][]> THREAD_LOCAL_MV_GROUP_KEYS =
       ThreadLocal.withInitial(() -> new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][]);
 
+  // Use off-heap result holders for the aggregation functions with fixed-width intermediate results when the number of
+  // groups can reach this threshold, to avoid allocating large on-heap arrays and one object per group
+  private static final int MIN_NUM_GROUPS_FOR_OFF_HEAP_RESULT_HOLDER = 100_000;
+
   protected final int _numFunctions;
   protected final AggregationFunction[] _functions;
   protected final TransformExpressionTree[] _aggregationExpressions;
@@ -111,8 +115,22 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
     int maxNumResults = _groupKeyGenerator.getGlobalGroupKeyUpperBound();
     int initialCapacity = Math.min(maxNumResults, maxInitialResultHolderCapacity);
     _resultHolders = new GroupByResultHolder[_numFunctions];
-    for (int i = 0; i < _numFunctions; i++) {
-      _resultHolders[i] = _functions[i].createGroupByResultHolder(initialCapacity, maxNumResults);
+    try {
+      for (int i = 0; i < _numFunctions; i++) {
+        GroupByResultHolder resultHolder = null;
+        if (maxNumResults >= MIN_NUM_GROUPS_FOR_OFF_HEAP_RESULT_HOLDER) {
+          resultHolder = _functions[i].createOffHeapGroupByResultHolder(initialCapacity, maxNumResults,
+              OffHeapGroupByResultArena.getSharedArena());
+        }
+        if (resultHolder == null) {
+          resultHolder = _functions[i].createGroupByResultHolder(initialCapacity, maxNumResults);
+        }
+        _resultHolders[i] = resultHolder;
+      }
+    } catch (RuntimeException | Error e) {
+      // Return the off-heap memory of the result holders already created
+      getResult().release();
+      throw e;
     }
 
     // Initialize map from document Id to group key
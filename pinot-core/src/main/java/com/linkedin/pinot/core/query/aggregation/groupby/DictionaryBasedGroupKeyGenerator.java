@@ -160,10 +160,15 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
 
   @Override
   public Iterator<GroupKey> getUniqueGroupKeys() {
-    return _rawKeyHolder.iterator();
+    return _rawKeyHolder.iterator(false);
   }
 
-  private interface RawKeyHolder extends Iterable<GroupKey> {
+  @Override
+  public Iterator<GroupKey> getUniqueTypedGroupKeys() {
+    return _rawKeyHolder.iterator(true);
+  }
+
+  private interface RawKeyHolder {
 
     /**
      * Process a block of documents for all single-valued group-by columns case.
@@ -187,6 +192,14 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
      * @return Upper bound of group id inside the holder
      */
     int getGroupIdUpperBound();
+
+    /**
+     * Returns an iterator of group keys inside the holder.
+     *
+     * @param typedKey Whether to set the typed key instead of the string key
+     * @return Iterator of group keys
+     */
+    Iterator<GroupKey> iterator(boolean typedKey);
   }
 
   private class ArrayBasedHolder implements RawKeyHolder {
@@ -221,9 +234,8 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       return _globalGroupIdUpperBound;
     }
 
-    @Nonnull
     @Override
-    public Iterator<GroupKey> iterator() {
+    public Iterator<GroupKey> iterator(final boolean typedKey) {
       return new Iterator<GroupKey>() {
         private int _currentGroupId;
         private final GroupKey _groupKey = new GroupKey();
@@ -242,7 +254,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
             throw new NoSuchElementException();
           }
           _groupKey._groupId = _currentGroupId;
-          _groupKey._stringKey = getGroupKey(_currentGroupId);
+          if (typedKey) {
+            _groupKey._typedKey = getTypedGroupKey(_currentGroupId);
+          } else {
+            _groupKey._stringKey = getGroupKey(_currentGroupId);
+          }
           _currentGroupId++;
           return _groupKey;
         }
@@ -303,9 +319,8 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       return _numGroups;
     }
 
-    @Nonnull
     @Override
-    public Iterator<GroupKey> iterator() {
+    public Iterator<GroupKey> iterator(final boolean typedKey) {
       return new Iterator<GroupKey>() {
         private final ObjectIterator<Int2IntMap.Entry> _iterator = _rawKeyToGroupIdMap.int2IntEntrySet().fastIterator();
         private final GroupKey _groupKey = new GroupKey();
@@ -319,7 +334,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         public GroupKey next() {
           Int2IntMap.Entry entry = _iterator.next();
           _groupKey._groupId = entry.getIntValue();
-          _groupKey._stringKey = getGroupKey(entry.getIntKey());
+          if (typedKey) {
+            _groupKey._typedKey = getTypedGroupKey(entry.getIntKey());
+          } else {
+            _groupKey._stringKey = getGroupKey(entry.getIntKey());
+          }
           return _groupKey;
         }
 
@@ -433,6 +452,27 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     }
   }
 
+  /**
+   * Helper method to get typed group key from raw key.
+   *
+   * @param rawKey Integer raw key
+   * @return Typed group key
+   */
+  private Object getTypedGroupKey(int rawKey) {
+    // Specialize single group-by column case
+    if (_numGroupByExpressions == 1) {
+      return _dictionaries[0].get(rawKey);
+    } else {
+      Object[] values = new Object[_numGroupByExpressions];
+      for (int i = 0; i < _numGroupByExpressions; i++) {
+        int cardinality = _cardinalities[i];
+        values[i] = _dictionaries[i].get(rawKey % cardinality);
+        rawKey /= cardinality;
+      }
+      return new CompositeGroupKey(values);
+    }
+  }
+
   private class LongMapBasedHolder implements RawKeyHolder {
     private final Long2IntOpenHashMap _rawKeyToGroupIdMap = new Long2IntOpenHashMap();
 
@@ -482,9 +522,8 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       return _numGroups;
     }
 
-    @Nonnull
     @Override
-    public Iterator<GroupKey> iterator() {
+    public Iterator<GroupKey> iterator(final boolean typedKey) {
       return new Iterator<GroupKey>() {
         private final ObjectIterator<Long2IntMap.Entry> _iterator =
             _rawKeyToGroupIdMap.long2IntEntrySet().fastIterator();
@@ -499,7 +538,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         public GroupKey next() {
           Long2IntMap.Entry entry = _iterator.next();
           _groupKey._groupId = entry.getIntValue();
-          _groupKey._stringKey = getGroupKey(entry.getLongKey());
+          if (typedKey) {
+            _groupKey._typedKey = getTypedGroupKey(entry.getLongKey());
+          } else {
+            _groupKey._stringKey = getGroupKey(entry.getLongKey());
+          }
           return _groupKey;
         }
 
@@ -603,6 +646,22 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     return groupKeyBuilder.toString();
   }
 
+  /**
+   * Helper method to get typed group key from raw key.
+   *
+   * @param rawKey Long raw key
+   * @return Typed group key
+   */
+  private Object getTypedGroupKey(long rawKey) {
+    Object[] values = new Object[_numGroupByExpressions];
+    for (int i = 0; i < _numGroupByExpressions; i++) {
+      int cardinality = _cardinalities[i];
+      values[i] = _dictionaries[i].get((int) (rawKey % cardinality));
+      rawKey /= cardinality;
+    }
+    return new CompositeGroupKey(values);
+  }
+
   private class ArrayMapBasedHolder implements RawKeyHolder {
     private final Object2IntOpenHashMap<IntArray> _rawKeyToGroupIdMap = new Object2IntOpenHashMap<>();
 
@@ -652,9 +711,8 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       return _numGroups;
     }
 
-    @Nonnull
     @Override
-    public Iterator<GroupKey> iterator() {
+    public Iterator<GroupKey> iterator(final boolean typedKey) {
       return new Iterator<GroupKey>() {
         private final ObjectIterator<Object2IntMap.Entry<IntArray>> _iterator =
             _rawKeyToGroupIdMap.object2IntEntrySet().fastIterator();
@@ -669,7 +727,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         public GroupKey next() {
           Object2IntMap.Entry<IntArray> entry = _iterator.next();
           _groupKey._groupId = entry.getIntValue();
-          _groupKey._stringKey = getGroupKey(entry.getKey());
+          if (typedKey) {
+            _groupKey._typedKey = getTypedGroupKey(entry.getKey());
+          } else {
+            _groupKey._stringKey = getGroupKey(entry.getKey());
+          }
           return _groupKey;
         }
 
@@ -773,6 +835,20 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     return groupKeyBuilder.toString();
   }
 
+  /**
+   * Helper method to get typed group key from raw key.
+   *
+   * @param rawKey IntArray raw key
+   * @return Typed group key
+   */
+  private Object getTypedGroupKey(IntArray rawKey) {
+    Object[] values = new Object[_numGroupByExpressions];
+    for (int i = 0; i < _numGroupByExpressions; i++) {
+      values[i] = _dictionaries[i].get(rawKey._elements[i]);
+    }
+    return new CompositeGroupKey(values);
+  }
+
   /**
    * Drop un-necessary checks for highest performance.
    */
@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.groupby;
+
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionType;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+
+/**
+ * The <code>GroupByCombineTable</code> class holds the aggregation group-by results merged from multiple segments.
+ * <ul>
+ *   <li>
+ *     Groups are keyed by the typed group keys (see {@link GroupKeyGenerator#getUniqueTypedGroupKeys()}), so no string
+ *     group key is built while merging. INT and FLOAT values are normalized to LONG and DOUBLE values, so that the same
+ *     value read with different types from different segments (e.g. after a schema change) is counted as one group.
+ *   </li>
+ *   <li>
+ *     Results of aggregation functions with double result holders (COUNT, SUM, MIN, MAX) are merged into primitive
+ *     double arrays, results of other aggregation functions are merged as objects.
+ *   </li>
+ *   <li>
+ *     String group keys and boxed results are only created in {@link #toResultsMap()}.
+ *   </li>
+ * </ul>
+ * <p>This class is not thread-safe, each combine thread should merge into its own table, and the tables are merged
+ * together at the end.
+ */
+public class GroupByCombineTable {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private enum DoubleMergeType {
+    SUM, MIN, MAX
+  }
+
+  private final AggregationFunction[] _aggregationFunctions;
+  private final int _numAggregationFunctions;
+  // Null for aggregation functions with object results
+  private final DoubleMergeType[] _doubleMergeTypes;
+  private final boolean[] _isLongResult;
+  private final int _numGroupsLimit;
+  private final Object2IntOpenHashMap<Object> _groupKeyToIdMap;
+
+  private double[][] _doubleResults;
+  private Object[][] _objectResults;
+  private int _capacity;
+  private int _numGroups;
+
+  public GroupByCombineTable(@Nonnull AggregationFunction[] aggregationFunctions, int numGroupsLimit) {
+    _aggregationFunctions = aggregationFunctions;
+    _numAggregationFunctions = aggregationFunctions.length;
+    _doubleMergeTypes = new DoubleMergeType[_numAggregationFunctions];
+    _isLongResult = new boolean[_numAggregationFunctions];
+    _numGroupsLimit = numGroupsLimit;
+    _groupKeyToIdMap = new Object2IntOpenHashMap<>();
+    _groupKeyToIdMap.defaultReturnValue(GroupKeyGenerator.INVALID_ID);
+
+    _capacity = Math.min(INITIAL_CAPACITY, numGroupsLimit);
+    _doubleResults = new double[_numAggregationFunctions][];
+    _objectResults = new Object[_numAggregationFunctions][];
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      AggregationFunctionType functionType = aggregationFunctions[i].getType();
+      switch (functionType) {
+        case COUNT:
+        case COUNTMV:
+          _isLongResult[i] = true;
+          _doubleMergeTypes[i] = DoubleMergeType.SUM;
+          break;
+        case SUM:
+        case SUMMV:
+          _doubleMergeTypes[i] = DoubleMergeType.SUM;
+          break;
+        case MIN:
+        case MINMV:
+          _doubleMergeTypes[i] = DoubleMergeType.MIN;
+          break;
+        case MAX:
+        case MAXMV:
+          _doubleMergeTypes[i] = DoubleMergeType.MAX;
+          break;
+        default:
+          break;
+      }
+      if (_doubleMergeTypes[i] != null) {
+        _doubleResults[i] = new double[_capacity];
+      } else {
+        _objectResults[i] = new Object[_capacity];
+      }
+    }
+  }
+
+  /**
+   * Merges the group-by result from one segment into the table.
+   *
+   * @param aggregationGroupByResult Aggregation group-by result from one segment
+   */
+  public void merge(@Nonnull AggregationGroupByResult aggregationGroupByResult) {
+    Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getTypedGroupKeyIterator();
+    while (groupKeyIterator.hasNext()) {
+      GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+      Object typedKey = normalizeTypedKey(groupKey._typedKey);
+      int groupId = _groupKeyToIdMap.getInt(typedKey);
+      if (groupId == GroupKeyGenerator.INVALID_ID) {
+        groupId = addGroup(typedKey);
+        if (groupId == GroupKeyGenerator.INVALID_ID) {
+          continue;
+        }
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          if (_doubleMergeTypes[i] != null) {
+            _doubleResults[i][groupId] = aggregationGroupByResult.getDoubleResultForKey(groupKey, i);
+          } else {
+            _objectResults[i][groupId] = aggregationGroupByResult.getResultForKey(groupKey, i);
+          }
+        }
+      } else {
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          DoubleMergeType doubleMergeType = _doubleMergeTypes[i];
+          if (doubleMergeType != null) {
+            _doubleResults[i][groupId] = mergeDoubles(doubleMergeType, _doubleResults[i][groupId],
+                aggregationGroupByResult.getDoubleResultForKey(groupKey, i));
+          } else {
+            _objectResults[i][groupId] = _aggregationFunctions[i].merge(_objectResults[i][groupId],
+                aggregationGroupByResult.getResultForKey(groupKey, i));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Merges another table (with the same aggregation functions) into this table.
+   *
+   * @param tableToMerge Table to merge
+   */
+  public void merge(@Nonnull GroupByCombineTable tableToMerge) {
+    ObjectIterator<Object2IntMap.Entry<Object>> iterator = tableToMerge._groupKeyToIdMap.object2IntEntrySet()
+        .fastIterator();
+    while (iterator.hasNext()) {
+      Object2IntMap.Entry<Object> entry = iterator.next();
+      int groupIdToMerge = entry.getIntValue();
+      int groupId = _groupKeyToIdMap.getInt(entry.getKey());
+      if (groupId == GroupKeyGenerator.INVALID_ID) {
+        groupId = addGroup(entry.getKey());
+        if (groupId == GroupKeyGenerator.INVALID_ID) {
+          continue;
+        }
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          if (_doubleMergeTypes[i] != null) {
+            _doubleResults[i][groupId] = tableToMerge._doubleResults[i][groupIdToMerge];
+          } else {
+            _objectResults[i][groupId] = tableToMerge._objectResults[i][groupIdToMerge];
+          }
+        }
+      } else {
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          DoubleMergeType doubleMergeType = _doubleMergeTypes[i];
+          if (doubleMergeType != null) {
+            _doubleResults[i][groupId] = mergeDoubles(doubleMergeType, _doubleResults[i][groupId],
+                tableToMerge._doubleResults[i][groupIdToMerge]);
+          } else {
+            _objectResults[i][groupId] = _aggregationFunctions[i].merge(_objectResults[i][groupId],
+                tableToMerge._objectResults[i][groupIdToMerge]);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of groups inside the table.
+   */
+  public int getNumGroups() {
+    return _numGroups;
+  }
+
+  /**
+   * Returns whether the number of groups limit has been reached.
+   */
+  public boolean isNumGroupsLimitReached() {
+    return _numGroups >= _numGroupsLimit;
+  }
+
+  /**
+   * Converts the table into a map from string group key to intermediate results, which is expected by
+   * {@link AggregationGroupByTrimmingService}.
+   * <p>Different typed keys might still render to the same string group key (e.g. a STRING value and a numeric value
+   * after a schema change), in which case their results are merged.
+   *
+   * @return Map from string group key to intermediate results
+   */
+  @Nonnull
+  public Map<String, Object[]> toResultsMap() {
+    // Size the map so that it does not need to be rehashed
+    Map<String, Object[]> resultsMap = new HashMap<>((int) (_numGroups / 0.75f) + 1);
+    ObjectIterator<Object2IntMap.Entry<Object>> iterator = _groupKeyToIdMap.object2IntEntrySet().fastIterator();
+    while (iterator.hasNext()) {
+      Object2IntMap.Entry<Object> entry = iterator.next();
+      int groupId = entry.getIntValue();
+      Object[] results = new Object[_numAggregationFunctions];
+      for (int i = 0; i < _numAggregationFunctions; i++) {
+        if (_doubleMergeTypes[i] != null) {
+          double result = _doubleResults[i][groupId];
+          if (_isLongResult[i]) {
+            results[i] = (long) result;
+          } else {
+            results[i] = result;
+          }
+        } else {
+          results[i] = _objectResults[i][groupId];
+        }
+      }
+      Object[] existingResults = resultsMap.putIfAbsent(entry.getKey().toString(), results);
+      if (existingResults != null) {
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          existingResults[i] = _aggregationFunctions[i].merge(existingResults[i], results[i]);
+        }
+      }
+    }
+    return resultsMap;
+  }
+
+  /**
+   * Helper method to normalize the typed group key so that the same value with different numeric types maps to the
+   * same group. INT values are widened to LONG, FLOAT values are converted to the DOUBLE values with the same string
+   * representation, so that the string group key is not changed.
+   */
+  private static Object normalizeTypedKey(Object typedKey) {
+    if (typedKey instanceof CompositeGroupKey) {
+      Object[] values = ((CompositeGroupKey) typedKey).getValues();
+      Object[] normalizedValues = null;
+      int numValues = values.length;
+      for (int i = 0; i < numValues; i++) {
+        Object normalizedValue = normalizeValue(values[i]);
+        if (normalizedValue != values[i]) {
+          if (normalizedValues == null) {
+            normalizedValues = values.clone();
+          }
+          normalizedValues[i] = normalizedValue;
+        }
+      }
+      return normalizedValues != null ? new CompositeGroupKey(normalizedValues) : typedKey;
+    }
+    return normalizeValue(typedKey);
+  }
+
+  private static Object normalizeValue(Object value) {
+    if (value instanceof Integer) {
+      return ((Integer) value).longValue();
+    }
+    if (value instanceof Float) {
+      return Double.valueOf(value.toString());
+    }
+    return value;
+  }
+
+  /**
+   * Helper method to add a new group into the table, returns {@link GroupKeyGenerator#INVALID_ID} if the number of
+   * groups limit has been reached.
+   */
+  private int addGroup(Object groupKey) {
+    if (_numGroups >= _numGroupsLimit) {
+      return GroupKeyGenerator.INVALID_ID;
+    }
+    int groupId = _numGroups++;
+    if (groupId == _capacity) {
+      expand();
+    }
+    _groupKeyToIdMap.put(groupKey, groupId);
+    return groupId;
+  }
+
+  /**
+   * Helper method to expand the result arrays.
+   */
+  private void expand() {
+    _capacity = (int) Math.min((long) _capacity * 2, _numGroupsLimit);
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      if (_doubleMergeTypes[i] != null) {
+        _doubleResults[i] = Arrays.copyOf(_doubleResults[i], _capacity);
+      } else {
+        _objectResults[i] = Arrays.copyOf(_objectResults[i], _capacity);
+      }
+    }
+  }
+
+  private static double mergeDoubles(DoubleMergeType doubleMergeType, double value1, double value2) {
+    switch (doubleMergeType) {
+      case SUM:
+        return value1 + value2;
+      case MIN:
+        return Math.min(value1, value2);
+      case MAX:
+        return Math.max(value1, value2);
+      default:
+        throw new IllegalStateException();
+    }
+  }
+}
@@ -70,10 +70,23 @@ public interface GroupKeyGenerator {
   Iterator<GroupKey> getUniqueGroupKeys();
 
   /**
-   * This class encapsulates the integer group id and the string group key.
+   * Returns an iterator of group keys with typed keys instead of string keys. Use this interface to merge group keys
+   * from multiple segments without building the string keys.
+   * <p>The typed key is the value of the group-by expression for single group-by expression, or a
+   * {@link CompositeGroupKey} of the values for multiple group-by expressions. The string representation of the typed
+   * key is the same as the string key.
+   *
+   * @return iterator of group keys with typed keys.
+   */
+  Iterator<GroupKey> getUniqueTypedGroupKeys();
+
+  /**
+   * This class encapsulates the integer group id and the string (or typed) group key.
    */
   class GroupKey {
     public int _groupId;
     public String _stringKey;
+    // Only set when iterating with getUniqueTypedGroupKeys(), in which case _stringKey is not set
+    public Object _typedKey;
   }
 }
@@ -144,7 +144,12 @@ public class NoDictionaryMultiColumnGroupKeyGenerator implements GroupKeyGenerat
 
   @Override
   public Iterator<GroupKey> getUniqueGroupKeys() {
-    return new GroupKeyIterator(_groupKeyMap);
+    return new GroupKeyIterator(_groupKeyMap, false);
+  }
+
+  @Override
+  public Iterator<GroupKey> getUniqueTypedGroupKeys() {
+    return new GroupKeyIterator(_groupKeyMap, true);
   }
 
   /**
@@ -170,10 +175,12 @@ public class NoDictionaryMultiColumnGroupKeyGenerator implements GroupKeyGenerat
   class GroupKeyIterator implements Iterator<GroupKey> {
     Iterator<Map.Entry<FixedIntArray, Integer>> _iterator;
     GroupKey _groupKey;
+    boolean _typedKey;
 
-    public GroupKeyIterator(Map<FixedIntArray, Integer> map) {
+    public GroupKeyIterator(Map<FixedIntArray, Integer> map, boolean typedKey) {
       _iterator = map.entrySet().iterator();
       _groupKey = new GroupKey();
+      _typedKey = typedKey;
     }
 
     @Override
@@ -185,7 +192,11 @@ public class NoDictionaryMultiColumnGroupKeyGenerator implements GroupKeyGenerat
     public GroupKey next() {
       Map.Entry<FixedIntArray, Integer> entry = _iterator.next();
       _groupKey._groupId = entry.getValue();
-      _groupKey._stringKey = buildStringKeyFromIds(entry.getKey());
+      if (_typedKey) {
+        _groupKey._typedKey = buildTypedKeyFromIds(entry.getKey());
+      } else {
+        _groupKey._stringKey = buildStringKeyFromIds(entry.getKey());
+      }
       return _groupKey;
     }
 
@@ -217,6 +228,42 @@ public class NoDictionaryMultiColumnGroupKeyGenerator implements GroupKeyGenerat
     return builder.toString();
   }
 
+  private CompositeGroupKey buildTypedKeyFromIds(FixedIntArray keyList) {
+    int[] keys = keyList.elements();
+    int numKeys = keyList.size();
+    Object[] values = new Object[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      int dictId = keys[i];
+
+      if (_dictionaries[i] != null) {
+        values[i] = _dictionaries[i].get(dictId);
+      } else {
+        ValueToIdMap onTheFlyDictionary = _onTheFlyDictionaries[i];
+        switch (_dataTypes[i]) {
+          case INT:
+            values[i] = onTheFlyDictionary.getInt(dictId);
+            break;
+          case LONG:
+            values[i] = onTheFlyDictionary.getLong(dictId);
+            break;
+          case FLOAT:
+            values[i] = onTheFlyDictionary.getFloat(dictId);
+            break;
+          case DOUBLE:
+            values[i] = onTheFlyDictionary.getDouble(dictId);
+            break;
+          case STRING:
+            values[i] = onTheFlyDictionary.getString(dictId);
+            break;
+          default:
+            throw new IllegalArgumentException("Illegal data type for no-dictionary key generator: " + _dataTypes[i]);
+        }
+      }
+    }
+
+    return new CompositeGroupKey(values);
+  }
+
   /**
    * Helper method to fetch values from BlockValSet
    * @param dataType Data type
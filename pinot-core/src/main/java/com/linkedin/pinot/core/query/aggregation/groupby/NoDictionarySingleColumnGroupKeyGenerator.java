@@ -161,7 +161,12 @@ public class NoDictionarySingleColumnGroupKeyGenerator implements GroupKeyGenera
 
   @Override
   public Iterator<GroupKey> getUniqueGroupKeys() {
-    return new GroupKeyIterator(_groupKeyMap);
+    return new GroupKeyIterator(_groupKeyMap, false);
+  }
+
+  @Override
+  public Iterator<GroupKey> getUniqueTypedGroupKeys() {
+    return new GroupKeyIterator(_groupKeyMap, true);
   }
 
   @SuppressWarnings("unchecked")
@@ -235,11 +240,13 @@ public class NoDictionarySingleColumnGroupKeyGenerator implements GroupKeyGenera
   class GroupKeyIterator implements Iterator<GroupKey> {
     Iterator<Map.Entry<Object, Integer>> _iterator;
     GroupKey _groupKey;
+    boolean _typedKey;
 
     @SuppressWarnings("unchecked")
-    public GroupKeyIterator(Map map) {
+    public GroupKeyIterator(Map map, boolean typedKey) {
       _iterator = (Iterator<Map.Entry<Object, Integer>>) map.entrySet().iterator();
       _groupKey = new GroupKey();
+      _typedKey = typedKey;
     }
 
     @Override
@@ -251,7 +258,11 @@ public class NoDictionarySingleColumnGroupKeyGenerator implements GroupKeyGenera
     public GroupKey next() {
       Map.Entry<Object, Integer> entry = _iterator.next();
       _groupKey._groupId = entry.getValue();
-      _groupKey._stringKey = entry.getKey().toString();
+      if (_typedKey) {
+        _groupKey._typedKey = entry.getKey();
+      } else {
+        _groupKey._stringKey = entry.getKey().toString();
+      }
       return _groupKey;
     }
 
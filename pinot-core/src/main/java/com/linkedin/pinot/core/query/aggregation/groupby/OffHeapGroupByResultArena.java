@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.groupby;
+
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>OffHeapGroupByResultArena</code> class caches the off-heap buffers released by the
+ * {@link OffHeapGroupByResultHolder}s, so that the following segments and group-by queries can reuse them instead of
+ * allocating a new direct buffer for each segment.
+ * <p>Buffer sizes are rounded up to power of 2 so that they can be reused for different capacities, and the total size
+ * of the cached buffers is bounded.
+ * <p>The query threads share one arena, so the memory cached for reuse is bounded for the whole server no matter how
+ * many threads run group-by queries. The buffers are only borrowed once per segment, so the lock is not contended.
+ */
+@ThreadSafe
+public class OffHeapGroupByResultArena {
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapGroupByResultArena.class);
+
+  // Max total size of the buffers cached by the shared arena
+  private static final long DEFAULT_MAX_CACHED_BYTES = 32L * 1024 * 1024;
+  // Min buffer size is 4KB
+  private static final int MIN_BUFFER_SIZE_SHIFT = 12;
+
+  private static final OffHeapGroupByResultArena SHARED_ARENA =
+      new OffHeapGroupByResultArena(DEFAULT_MAX_CACHED_BYTES);
+
+  /**
+   * Returns the arena shared by all the query threads.
+   */
+  public static OffHeapGroupByResultArena getSharedArena() {
+    return SHARED_ARENA;
+  }
+
+  private final long _maxCachedBytes;
+  // Cached buffers indexed by the log2 of the buffer size
+  @SuppressWarnings("unchecked")
+  private final ArrayDeque<PinotDataBuffer>[] _cachedBuffers = new ArrayDeque[Long.SIZE];
+  private long _cachedBytes;
+
+  public OffHeapGroupByResultArena(long maxCachedBytes) {
+    _maxCachedBytes = maxCachedBytes;
+  }
+
+  /**
+   * Returns a buffer of at least the given size, either from the cache or newly allocated.
+   * <p>NOTE: The contents of the returned buffer are not defined.
+   */
+  public synchronized PinotDataBuffer allocate(long size) {
+    int sizeShift = Math.max(Long.SIZE - Long.numberOfLeadingZeros(size - 1), MIN_BUFFER_SIZE_SHIFT);
+    ArrayDeque<PinotDataBuffer> cachedBuffers = _cachedBuffers[sizeShift];
+    if (cachedBuffers != null && !cachedBuffers.isEmpty()) {
+      _cachedBytes -= 1L << sizeShift;
+      return cachedBuffers.pollLast();
+    }
+    return PinotDataBuffer.allocateDirect(1L << sizeShift, PinotDataBuffer.NATIVE_ORDER,
+        OffHeapGroupByResultArena.class.getSimpleName());
+  }
+
+  /**
+   * Returns a buffer allocated from this arena, which is cached for reuse if the cache is not full, or closed
+   * otherwise.
+   */
+  public synchronized void release(PinotDataBuffer buffer) {
+    long size = buffer.size();
+    if (_cachedBytes + size <= _maxCachedBytes) {
+      int sizeShift = Long.numberOfTrailingZeros(size);
+      ArrayDeque<PinotDataBuffer> cachedBuffers = _cachedBuffers[sizeShift];
+      if (cachedBuffers == null) {
+        cachedBuffers = new ArrayDeque<>();
+        _cachedBuffers[sizeShift] = cachedBuffers;
+      }
+      cachedBuffers.addLast(buffer);
+      _cachedBytes += size;
+    } else {
+      try {
+        buffer.close();
+      } catch (IOException e) {
+        LOGGER.warn("Caught exception while closing buffer of size: {}", size, e);
+      }
+    }
+  }
+
+  /**
+   * Returns the total size of the cached buffers.
+   */
+  public synchronized long getCachedBytes() {
+    return _cachedBytes;
+  }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.groupby;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.Closeable;
+
+
+/**
+ * Off-heap group-by result holder for fixed-width intermediate results, where the result for each group is a struct of
+ * 8-byte fields (double or long). The fields are stored in struct-of-arrays layout: the values of each field for all
+ * the groups are stored contiguously.
+ * <p>The memory is borrowed from an {@link OffHeapGroupByResultArena}, and should be returned by calling
+ * {@link #close()} after the results are extracted.
+ * <p>The double APIs of {@link GroupByResultHolder} access the first field, so that a single-field holder can be used
+ * in place of the {@link DoubleGroupByResultHolder}. Same as the {@link DoubleGroupByResultHolder}, the object APIs are
+ * not supported: functions with object intermediate results (e.g. AVG) must read and write the fields directly.
+ */
+public class OffHeapGroupByResultHolder implements GroupByResultHolder, Closeable {
+  private static final int FIELD_SIZE = Long.BYTES;
+
+  private final int _maxCapacity;
+  private final OffHeapGroupByResultArena _arena;
+  private final int _numFields;
+  // Default values of the fields, stored as raw bits
+  private final long[] _defaultValues;
+
+  private int _resultHolderCapacity;
+  private PinotDataBuffer _buffer;
+
+  /**
+   * Constructor for the class.
+   * <p>NOTE: The default values are given as double, the default value for a long field is the raw bits of the double
+   * default value (e.g. 0 for 0.0).
+   *
+   * @param initialCapacity Initial capacity of the result holder
+   * @param maxCapacity Maximum capacity of the result holder
+   * @param arena Arena to allocate the off-heap memory from
+   * @param defaultValues Default values of un-initialized results, one for each field
+   */
+  public OffHeapGroupByResultHolder(int initialCapacity, int maxCapacity, OffHeapGroupByResultArena arena,
+      double... defaultValues) {
+    Preconditions.checkArgument(defaultValues.length > 0);
+    _maxCapacity = maxCapacity;
+    _arena = arena;
+    _numFields = defaultValues.length;
+    _defaultValues = new long[_numFields];
+    for (int i = 0; i < _numFields; i++) {
+      _defaultValues[i] = Double.doubleToRawLongBits(defaultValues[i]);
+    }
+
+    resize(Math.max(initialCapacity, 1));
+  }
+
+  @Override
+  public void ensureCapacity(int capacity) {
+    Preconditions.checkArgument(capacity <= _maxCapacity);
+
+    if (capacity > _resultHolderCapacity) {
+      // Cap the growth to maximum possible number of group keys
+      resize(Math.min(Math.max(_resultHolderCapacity * 2, capacity), _maxCapacity));
+    }
+  }
+
+  /**
+   * Moves the results into a new buffer of at least the given capacity. The capacity is rounded up to use the whole
+   * buffer from the arena.
+   */
+  private void resize(int capacity) {
+    long structSize = (long) _numFields * FIELD_SIZE;
+    PinotDataBuffer buffer = _arena.allocate(capacity * structSize);
+    int newCapacity = (int) Math.min(buffer.size() / structSize, _maxCapacity);
+    int copyLength = _resultHolderCapacity;
+    for (int i = 0; i < _numFields; i++) {
+      long offset = (long) i * newCapacity * FIELD_SIZE;
+      if (copyLength > 0) {
+        _buffer.copyTo((long) i * copyLength * FIELD_SIZE, buffer, offset, (long) copyLength * FIELD_SIZE);
+      }
+      long defaultValue = _defaultValues[i];
+      for (int groupKey = copyLength; groupKey < newCapacity; groupKey++) {
+        buffer.putLong(offset + (long) groupKey * FIELD_SIZE, defaultValue);
+      }
+    }
+    if (_buffer != null) {
+      _arena.release(_buffer);
+    }
+    _buffer = buffer;
+    _resultHolderCapacity = newCapacity;
+  }
+
+  private long getOffset(int groupKey, int field) {
+    return ((long) field * _resultHolderCapacity + groupKey) * FIELD_SIZE;
+  }
+
+  /**
+   * Returns the double value of the given field for the given group key.
+   */
+  public double getDoubleValue(int groupKey, int field) {
+    if (groupKey == GroupKeyGenerator.INVALID_ID) {
+      return Double.longBitsToDouble(_defaultValues[field]);
+    } else {
+      return _buffer.getDouble(getOffset(groupKey, field));
+    }
+  }
+
+  /**
+   * Sets the double value of the given field for the given group key.
+   */
+  public void setDoubleValue(int groupKey, int field, double value) {
+    if (groupKey != GroupKeyGenerator.INVALID_ID) {
+      _buffer.putDouble(getOffset(groupKey, field), value);
+    }
+  }
+
+  /**
+   * Returns the long value of the given field for the given group key.
+   */
+  public long getLongValue(int groupKey, int field) {
+    if (groupKey == GroupKeyGenerator.INVALID_ID) {
+      return _defaultValues[field];
+    } else {
+      return _buffer.getLong(getOffset(groupKey, field));
+    }
+  }
+
+  /**
+   * Sets the long value of the given field for the given group key.
+   */
+  public void setLongValue(int groupKey, int field, long value) {
+    if (groupKey != GroupKeyGenerator.INVALID_ID) {
+      _buffer.putLong(getOffset(groupKey, field), value);
+    }
+  }
+
+  @Override
+  public double getDoubleResult(int groupKey) {
+    return getDoubleValue(groupKey, 0);
+  }
+
+  @Override
+  public <T> T getResult(int groupKey) {
+    throw new UnsupportedOperationException("Off-heap result holder does not store objects, access the fields instead");
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, double newValue) {
+    setDoubleValue(groupKey, 0, newValue);
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, Object newValue) {
+    throw new UnsupportedOperationException("Off-heap result holder does not store objects, access the fields instead");
+  }
+
+  /**
+   * Returns the off-heap memory to the arena. The result holder should not be accessed after this method is called.
+   */
+  @Override
+  public void close() {
+    if (_buffer != null) {
+      _arena.release(_buffer);
+      _buffer = null;
+    }
+  }
+}
@@ -0,0 +1,491 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.linkedin.pinot.common.request.AggregationInfo;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.FilterOperator;
+import com.linkedin.pinot.common.request.GroupBy;
+import com.linkedin.pinot.common.segment.SegmentMetadata;
+import com.linkedin.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.core.common.ObjectSerDeUtils;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.operator.blocks.TransformBlock;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.query.aggregation.groupby.DoubleGroupByResultHolder;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.query.pruner.AbstractSegmentPruner;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCache</code> class caches the per-segment aggregation (and aggregation group-by) results of
+ * immutable segments, bounded by the estimated size in bytes of the cached results.
+ * <ul>
+ *   <li>
+ *     Results are keyed by the table name, segment name and CRC, and a canonical form of the aggregations, group-by and
+ *     filter of the query. Range predicates on the time column that match all the documents of the segment are removed
+ *     from the key, so that queries with a sliding time range share the results of the segments fully inside the range.
+ *   </li>
+ *   <li>
+ *     Results are bound to the loaded segment instance, so that they are never served after the segment gets reloaded
+ *     or replaced, and get evicted as the least recently used entries.
+ *   </li>
+ *   <li>
+ *     Intermediate results are merged in place when combining the segment results, so non-primitive results are cached
+ *     in the serialized format and de-serialized for each query.
+ *   </li>
+ * </ul>
+ */
+@ThreadSafe
+public class SegmentResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCache.class);
+
+  // Rough estimation of the memory overhead of each entry, group and result
+  private static final int ENTRY_OVERHEAD_BYTES = 256;
+  private static final int GROUP_OVERHEAD_BYTES = 64;
+  private static final int RESULT_OVERHEAD_BYTES = 32;
+
+  private final Cache<String, CachedResult> _cache;
+
+  public SegmentResultCache(long maxSizeInBytes) {
+    _cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeInBytes)
+        .<String, CachedResult>weigher((key, cachedResult) -> cachedResult._sizeInBytes)
+        .build();
+  }
+
+  /**
+   * Returns the cache key for the given segment and query, or <code>null</code> if the results are not cacheable.
+   * <p>Only aggregation queries on immutable segments are cacheable. Queries with trace enabled or with query option
+   * 'skipResultCache' set to true are not cacheable.
+   *
+   * @param indexSegment Index segment
+   * @param brokerRequest Broker request (after pre-processing)
+   * @param rootFilterNode Root of the filter query tree (null if the query has no filter)
+   * @return Cache key, or null if the results are not cacheable
+   */
+  @Nullable
+  public static String getKey(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest,
+      @Nullable FilterQueryTree rootFilterNode) {
+    if (!(indexSegment instanceof ImmutableSegment) || !brokerRequest.isSetAggregationsInfo()
+        || brokerRequest.isEnableTrace()) {
+      return null;
+    }
+    Map<String, String> queryOptions = brokerRequest.getQueryOptions();
+    if (queryOptions != null && Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_RESULT_CACHE))) {
+      return null;
+    }
+    SegmentMetadata segmentMetadata = indexSegment.getSegmentMetadata();
+
+    StringBuilder keyBuilder = new StringBuilder();
+    keyBuilder.append(brokerRequest.getQuerySource().getTableName())
+        .append('|')
+        .append(indexSegment.getSegmentName())
+        .append('|')
+        .append(segmentMetadata.getCrc())
+        .append('|');
+    for (AggregationInfo aggregationInfo : brokerRequest.getAggregationsInfo()) {
+      keyBuilder.append(aggregationInfo.getAggregationType())
+          .append('(')
+          .append(AggregationFunctionUtils.getColumn(aggregationInfo))
+          .append(')');
+    }
+    keyBuilder.append('|');
+    GroupBy groupBy = brokerRequest.getGroupBy();
+    if (groupBy != null) {
+      keyBuilder.append(groupBy.getColumns())
+          .append(groupBy.getExpressions())
+          .append(groupBy.getTopN());
+    }
+    keyBuilder.append('|');
+    if (rootFilterNode != null) {
+      ColumnMetadata timeColumnMetadata = null;
+      String timeColumn = segmentMetadata.getTimeColumn();
+      if (timeColumn != null && segmentMetadata instanceof SegmentMetadataImpl) {
+        timeColumnMetadata = ((SegmentMetadataImpl) segmentMetadata).getColumnMetadataFor(timeColumn);
+      }
+      if (!matchesAllDocs(rootFilterNode, timeColumnMetadata)) {
+        appendFilter(keyBuilder, rootFilterNode, timeColumnMetadata);
+      }
+    }
+    return keyBuilder.toString();
+  }
+
+  /**
+   * Returns the cache key for the doc id range [startDocId, endDocId] (both inclusive) of the segment with the given
+   * cache key, for the segments split into doc id ranges.
+   */
+  @Nonnull
+  public static String getSplitKey(@Nonnull String key, int startDocId, int endDocId) {
+    return key + '|' + startDocId + '-' + endDocId;
+  }
+
+  /**
+   * Helper method to append the canonical form of the filter (children of AND/OR sorted, predicates matching all the
+   * documents removed from AND) to the key.
+   */
+  private static void appendFilter(StringBuilder keyBuilder, FilterQueryTree filterNode,
+      @Nullable ColumnMetadata timeColumnMetadata) {
+    List<FilterQueryTree> children = filterNode.getChildren();
+    if (children == null || children.isEmpty()) {
+      keyBuilder.append(filterNode.getColumn())
+          .append(' ')
+          .append(filterNode.getOperator())
+          .append(' ')
+          .append(filterNode.getValue());
+    } else {
+      List<String> childKeys = new ArrayList<>(children.size());
+      for (FilterQueryTree child : children) {
+        if (filterNode.getOperator() == FilterOperator.AND && matchesAllDocs(child, timeColumnMetadata)) {
+          continue;
+        }
+        StringBuilder childKeyBuilder = new StringBuilder();
+        appendFilter(childKeyBuilder, child, timeColumnMetadata);
+        childKeys.add(childKeyBuilder.toString());
+      }
+      if (childKeys.size() == 1) {
+        keyBuilder.append(childKeys.get(0));
+      } else {
+        Collections.sort(childKeys);
+        keyBuilder.append(filterNode.getOperator()).append(childKeys);
+      }
+    }
+  }
+
+  /**
+   * Helper method to check whether the filter node is a range predicate on the time column which matches all the
+   * documents of the segment based on the min/max value of the time column.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean matchesAllDocs(FilterQueryTree filterNode, @Nullable ColumnMetadata timeColumnMetadata) {
+    if (timeColumnMetadata == null || filterNode.getOperator() != FilterOperator.RANGE
+        || !timeColumnMetadata.getColumnName().equals(filterNode.getColumn())) {
+      return false;
+    }
+    Comparable minValue = timeColumnMetadata.getMinValue();
+    Comparable maxValue = timeColumnMetadata.getMaxValue();
+    if (minValue == null || maxValue == null) {
+      return false;
+    }
+    RangePredicate rangePredicate = new RangePredicate(null, filterNode.getValue());
+    String lowerBoundary = rangePredicate.getLowerBoundary();
+    if (!lowerBoundary.equals(RangePredicate.UNBOUNDED)) {
+      int compareResult =
+          AbstractSegmentPruner.getValue(lowerBoundary, timeColumnMetadata.getDataType()).compareTo(minValue);
+      if (compareResult > 0 || (compareResult == 0 && !rangePredicate.includeLowerBoundary())) {
+        return false;
+      }
+    }
+    String upperBoundary = rangePredicate.getUpperBoundary();
+    if (!upperBoundary.equals(RangePredicate.UNBOUNDED)) {
+      int compareResult =
+          AbstractSegmentPruner.getValue(upperBoundary, timeColumnMetadata.getDataType()).compareTo(maxValue);
+      if (compareResult < 0 || (compareResult == 0 && !rangePredicate.includeUpperBoundary())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the cached result for the given key and segment, or <code>null</code> if there is no cached result or the
+   * cached result was computed on another instance of the segment (before reloading or replacing the segment).
+   */
+  @Nullable
+  public CachedResult get(@Nonnull String key, @Nonnull IndexSegment indexSegment) {
+    CachedResult cachedResult = _cache.getIfPresent(key);
+    if (cachedResult == null) {
+      return null;
+    }
+    if (cachedResult._indexSegment.get() != indexSegment) {
+      _cache.invalidate(key);
+      return null;
+    }
+    return cachedResult;
+  }
+
+  /**
+   * Caches the result of the given segment. Results with processing exceptions are not cached.
+   */
+  public void put(@Nonnull String key, @Nonnull IndexSegment indexSegment,
+      @Nonnull IntermediateResultsBlock resultsBlock, @Nonnull ExecutionStatistics executionStatistics) {
+    if (resultsBlock.getProcessingExceptions() != null || resultsBlock.getAggregationFunctionContexts() == null) {
+      return;
+    }
+    try {
+      CachedResult cachedResult = new CachedResult(indexSegment, resultsBlock, executionStatistics);
+      _cache.put(key, cachedResult);
+    } catch (Exception e) {
+      // Some intermediate results might not be serializable
+      LOGGER.warn("Caught exception while caching result of segment: {}, skipping caching it",
+          indexSegment.getSegmentName(), e);
+    }
+  }
+
+  /**
+   * The cached result of a segment.
+   */
+  public static class CachedResult {
+    private final WeakReference<IndexSegment> _indexSegment;
+    private final AggregationFunctionContext[] _functionContexts;
+    private final ExecutionStatistics _executionStatistics;
+    private final boolean _numGroupsLimitReached;
+    // For aggregation only results
+    private final Object[] _aggregationResults;
+    // For aggregation group-by results
+    private final Object[] _groupKeys;
+    private final Object[][] _groupByResults;
+    private final int _sizeInBytes;
+
+    private CachedResult(IndexSegment indexSegment, IntermediateResultsBlock resultsBlock,
+        ExecutionStatistics executionStatistics) {
+      _indexSegment = new WeakReference<>(indexSegment);
+      _functionContexts = resultsBlock.getAggregationFunctionContexts();
+      // No document or entry is scanned when serving the cached result
+      _executionStatistics = new ExecutionStatistics(0L, 0L, 0L, executionStatistics.getNumTotalRawDocs());
+      _numGroupsLimitReached = resultsBlock.isNumGroupsLimitReached();
+      int numFunctions = _functionContexts.length;
+      long sizeInBytes = ENTRY_OVERHEAD_BYTES;
+
+      List<Object> aggregationResult = resultsBlock.getAggregationResult();
+      if (aggregationResult != null) {
+        _aggregationResults = new Object[numFunctions];
+        for (int i = 0; i < numFunctions; i++) {
+          _aggregationResults[i] = snapshot(aggregationResult.get(i));
+          sizeInBytes += getSizeInBytes(_aggregationResults[i]);
+        }
+        _groupKeys = null;
+        _groupByResults = null;
+      } else {
+        AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+        List<Object> groupKeys = new ArrayList<>();
+        List<Object[]> results = new ArrayList<>();
+        if (aggregationGroupByResult != null) {
+          Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getTypedGroupKeyIterator();
+          while (groupKeyIterator.hasNext()) {
+            GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+            groupKeys.add(groupKey._typedKey);
+            Object[] groupResults = new Object[numFunctions];
+            for (int i = 0; i < numFunctions; i++) {
+              groupResults[i] = snapshot(aggregationGroupByResult.getResultForKey(groupKey, i));
+              sizeInBytes += getSizeInBytes(groupResults[i]);
+            }
+            results.add(groupResults);
+          }
+        }
+        int numGroups = groupKeys.size();
+        _aggregationResults = null;
+        _groupKeys = groupKeys.toArray();
+        _groupByResults = new Object[numFunctions][numGroups];
+        for (int groupId = 0; groupId < numGroups; groupId++) {
+          Object[] groupResults = results.get(groupId);
+          for (int i = 0; i < numFunctions; i++) {
+            _groupByResults[i][groupId] = groupResults[i];
+          }
+        }
+        sizeInBytes += (long) numGroups * GROUP_OVERHEAD_BYTES;
+      }
+      _sizeInBytes = (int) Math.min(sizeInBytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the execution statistics for serving the cached result, where the number of documents and entries scanned
+     * are 0, and the number of total documents is the same as computing the result.
+     */
+    public ExecutionStatistics getExecutionStatistics() {
+      return _executionStatistics;
+    }
+
+    /**
+     * Returns a new results block with the cached results, which can be modified when merged with other results.
+     */
+    public IntermediateResultsBlock toResultsBlock() {
+      int numFunctions = _functionContexts.length;
+      if (_aggregationResults != null) {
+        List<Object> aggregationResult = new ArrayList<>(numFunctions);
+        for (Object result : _aggregationResults) {
+          aggregationResult.add(restore(result));
+        }
+        return new IntermediateResultsBlock(_functionContexts, aggregationResult);
+      } else {
+        int numGroups = _groupKeys.length;
+        AggregationFunction[] functions = new AggregationFunction[numFunctions];
+        GroupByResultHolder[] resultHolders = new GroupByResultHolder[numFunctions];
+        for (int i = 0; i < numFunctions; i++) {
+          functions[i] = _functionContexts[i].getAggregationFunction();
+          GroupByResultHolder resultHolder = functions[i].createGroupByResultHolder(numGroups, numGroups);
+          Object[] results = _groupByResults[i];
+          if (resultHolder instanceof DoubleGroupByResultHolder) {
+            for (int groupId = 0; groupId < numGroups; groupId++) {
+              resultHolder.setValueForKey(groupId, ((Number) results[groupId]).doubleValue());
+            }
+          } else {
+            for (int groupId = 0; groupId < numGroups; groupId++) {
+              resultHolder.setValueForKey(groupId, restore(results[groupId]));
+            }
+          }
+          resultHolders[i] = resultHolder;
+        }
+        IntermediateResultsBlock resultsBlock = new IntermediateResultsBlock(_functionContexts,
+            new AggregationGroupByResult(new CachedGroupKeyGenerator(_groupKeys), functions, resultHolders));
+        resultsBlock.setNumGroupsLimitReached(_numGroupsLimitReached);
+        return resultsBlock;
+      }
+    }
+  }
+
+  /**
+   * Returns an immutable snapshot of the intermediate result.
+   */
+  private static Object snapshot(Object result) {
+    if (result instanceof Long || result instanceof Double || result instanceof String) {
+      return result;
+    }
+    ObjectSerDeUtils.ObjectType objectType = ObjectSerDeUtils.ObjectType.getObjectType(result);
+    return new SerializedResult(ObjectSerDeUtils.serialize(result, objectType), objectType);
+  }
+
+  private static Object restore(Object snapshot) {
+    if (snapshot instanceof SerializedResult) {
+      SerializedResult serializedResult = (SerializedResult) snapshot;
+      return ObjectSerDeUtils.deserialize(serializedResult._bytes, serializedResult._objectType);
+    }
+    return snapshot;
+  }
+
+  private static long getSizeInBytes(Object snapshot) {
+    if (snapshot instanceof SerializedResult) {
+      return ((SerializedResult) snapshot)._bytes.length + RESULT_OVERHEAD_BYTES;
+    }
+    if (snapshot instanceof String) {
+      return 2L * ((String) snapshot).length() + RESULT_OVERHEAD_BYTES;
+    }
+    return RESULT_OVERHEAD_BYTES;
+  }
+
+  private static class SerializedResult {
+    final byte[] _bytes;
+    final ObjectSerDeUtils.ObjectType _objectType;
+
+    SerializedResult(byte[] bytes, ObjectSerDeUtils.ObjectType objectType) {
+      _bytes = bytes;
+      _objectType = objectType;
+    }
+  }
+
+  /**
+   * Read-only group key generator over the cached typed group keys, where the group id is the index of the group key.
+   */
+  private static class CachedGroupKeyGenerator implements GroupKeyGenerator {
+    private final Object[] _typedKeys;
+
+    CachedGroupKeyGenerator(Object[] typedKeys) {
+      _typedKeys = typedKeys;
+    }
+
+    @Override
+    public int getGlobalGroupKeyUpperBound() {
+      return _typedKeys.length;
+    }
+
+    @Override
+    public void generateKeysForBlock(@Nonnull TransformBlock transformBlock,
+        @Nonnull int[] groupKeys) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void generateKeysForBlock(@Nonnull TransformBlock transformBlock,
+        @Nonnull int[][] groupKeys) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getCurrentGroupKeyUpperBound() {
+      return _typedKeys.length;
+    }
+
+    @Override
+    public Iterator<GroupKey> getUniqueGroupKeys() {
+      return new GroupKeyIterator(false);
+    }
+
+    @Override
+    public Iterator<GroupKey> getUniqueTypedGroupKeys() {
+      return new GroupKeyIterator(true);
+    }
+
+    private class GroupKeyIterator implements Iterator<GroupKey> {
+      private final boolean _typed;
+      private final GroupKey _groupKey = new GroupKey();
+      private int _groupId;
+
+      GroupKeyIterator(boolean typed) {
+        _typed = typed;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return _groupId < _typedKeys.length;
+      }
+
+      @Override
+      public GroupKey next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        _groupKey._groupId = _groupId;
+        if (_typed) {
+          _groupKey._typedKey = _typedKeys[_groupId];
+        } else {
+          _groupKey._stringKey = _typedKeys[_groupId].toString();
+        }
+        _groupId++;
+        return _groupKey;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    }
+  }
+}
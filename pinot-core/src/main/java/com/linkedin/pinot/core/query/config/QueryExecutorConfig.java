@@ -15,6 +15,8 @@
  */
 package com.linkedin.pinot.core.query.config;
 
+import com.linkedin.pinot.core.common.datatable.DataTableImplV3;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
 
@@ -32,6 +34,10 @@ public class QueryExecutorConfig {
   public static final String QUERY_PLANNER = "queryPlanner";
   // Prefix key of TimeOut
   public static final String TIME_OUT = "timeout";
+  // Highest data table version to respond with, the actual version is negotiated with the broker
+  public static final String DATA_TABLE_MAX_VERSION = "dataTable.maxVersion";
+  // Compression type for the column blocks of version 3 data tables
+  public static final String DATA_TABLE_COMPRESSION_TYPE = "dataTable.compressionType";
 
   private static final String[] REQUIRED_KEYS = {};
 
@@ -39,6 +45,8 @@ public class QueryExecutorConfig {
   private SegmentPrunerConfig _segmentPrunerConfig;
   private QueryPlannerConfig _queryPlannerConfig;
   private final long _timeOutMs;
+  private final int _maxDataTableVersion;
+  private final ChunkCompressorFactory.CompressionType _dataTableCompressionType;
 
   public QueryExecutorConfig(Configuration config) throws ConfigurationException {
     _queryExecutorConfig = config;
@@ -46,6 +54,10 @@ public class QueryExecutorConfig {
     _segmentPrunerConfig = new SegmentPrunerConfig(_queryExecutorConfig.subset(QUERY_PRUNER));
     _queryPlannerConfig = new QueryPlannerConfig(_queryExecutorConfig.subset(QUERY_PLANNER));
     _timeOutMs = _queryExecutorConfig.getLong(TIME_OUT, -1);
+    _maxDataTableVersion = _queryExecutorConfig.getInt(DATA_TABLE_MAX_VERSION, DataTableImplV3.VERSION);
+    _dataTableCompressionType = ChunkCompressorFactory.CompressionType.valueOf(
+        _queryExecutorConfig.getString(DATA_TABLE_COMPRESSION_TYPE,
+            ChunkCompressorFactory.CompressionType.PASS_THROUGH.name()).toUpperCase());
   }
 
   private void checkRequiredKeys() throws ConfigurationException {
@@ -71,4 +83,12 @@ public class QueryExecutorConfig {
   public long getTimeOut() {
     return _timeOutMs;
   }
+
+  public int getMaxDataTableVersion() {
+    return _maxDataTableVersion;
+  }
+
+  public ChunkCompressorFactory.CompressionType getDataTableCompressionType() {
+    return _dataTableCompressionType;
+  }
 }
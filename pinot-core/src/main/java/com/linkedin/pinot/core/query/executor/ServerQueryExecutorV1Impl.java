@@ -24,11 +24,13 @@ import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
 import com.linkedin.pinot.core.data.manager.InstanceDataManager;
 import com.linkedin.pinot.core.data.manager.SegmentDataManager;
 import com.linkedin.pinot.core.data.manager.TableDataManager;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import com.linkedin.pinot.core.plan.maker.PlanMaker;
@@ -61,6 +63,8 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
   private long _defaultTimeOutMs = CommonConstants.Server.DEFAULT_QUERY_EXECUTOR_TIMEOUT_MS;
   private final Map<String, Long> _tableTimeoutMs = new ConcurrentHashMap<>();
   private ServerMetrics _serverMetrics;
+  private int _maxDataTableVersion;
+  private ChunkCompressorFactory.CompressionType _dataTableCompressionType;
 
   @Override
   public synchronized void init(Configuration config, InstanceDataManager instanceDataManager,
@@ -72,6 +76,10 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       _defaultTimeOutMs = queryExecutorConfig.getTimeOut();
     }
     LOGGER.info("Default timeout for query executor : {}", _defaultTimeOutMs);
+    _maxDataTableVersion = queryExecutorConfig.getMaxDataTableVersion();
+    _dataTableCompressionType = queryExecutorConfig.getDataTableCompressionType();
+    LOGGER.info("Max data table version: {}, data table compression type: {}", _maxDataTableVersion,
+        _dataTableCompressionType);
     LOGGER.info("Trying to build SegmentPrunerService");
     _segmentPrunerService = new SegmentPrunerService(queryExecutorConfig.getPrunerConfig());
     LOGGER.info("Trying to build QueryPlanMaker");
@@ -136,7 +144,8 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       queryRequest.setSegmentCountAfterPruning(numSegmentsMatched);
       LOGGER.debug("Matched {} segments", numSegmentsMatched);
       if (numSegmentsMatched == 0) {
-        dataTable = DataTableBuilder.buildEmptyDataTable(brokerRequest);
+        dataTable = DataTableBuilder.buildEmptyDataTable(brokerRequest,
+            DataTableFactory.getResponseVersion(brokerRequest, _maxDataTableVersion), _dataTableCompressionType);
         Map<String, String> metadata = dataTable.getMetadata();
         metadata.put(DataTable.TOTAL_DOCS_METADATA_KEY, String.valueOf(totalRawDocs));
         metadata.put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, "0");
@@ -145,7 +154,8 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       } else {
         TimerContext.Timer planBuildTimer = timerContext.startNewPhaseTimer(ServerQueryPhase.BUILD_QUERY_PLAN);
         Plan globalQueryPlan =
-            _planMaker.makeInterSegmentPlan(segmentDataManagers, brokerRequest, executorService, remainingTimeMs);
+            _planMaker.makeInterSegmentPlan(segmentDataManagers, brokerRequest, executorService, remainingTimeMs,
+                queryRequest.getResponseChunkSender());
         planBuildTimer.stopAndRecord();
 
         if (PRINT_QUERY_PLAN) {
@@ -85,7 +85,7 @@ public abstract class AbstractSegmentPruner implements SegmentPruner {
    * @note It is assumed that the 'input' here is a value taken from the query, so this method
    * should not be used to for other internal purposes.
    */
-  protected static Comparable getValue(@Nonnull String input, @Nonnull FieldSpec.DataType dataType) {
+  public static Comparable getValue(@Nonnull String input, @Nonnull FieldSpec.DataType dataType) {
     try {
       switch (dataType) {
         case INT:
@@ -18,20 +18,26 @@ package com.linkedin.pinot.core.query.pruner;
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.request.FilterOperator;
 import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.core.common.predicate.InPredicate;
 import com.linkedin.pinot.core.common.predicate.RangePredicate;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
 import com.linkedin.pinot.core.query.request.ServerQueryRequest;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 
 
 /**
  * An implementation of SegmentPruner.
  * <p>Pruner will prune segment based on the column value inside the filter.
+ * <p>For EQUALITY and IN predicates on immutable segments, the column bloom filter (if exists) is also used to prune
+ * the segment, which works for the high cardinality columns (e.g. ids) where the min/max value cannot prune anything.
  */
 public class ColumnValueSegmentPruner extends AbstractSegmentPruner {
 
@@ -48,7 +54,11 @@ public class ColumnValueSegmentPruner extends AbstractSegmentPruner {
     // For realtime segment, this map can be null.
     Map<String, ColumnMetadata> columnMetadataMap =
         ((SegmentMetadataImpl) segment.getSegmentMetadata()).getColumnMetadataMap();
-    return (columnMetadataMap != null) && pruneSegment(filterQueryTree, columnMetadataMap);
+    if (columnMetadataMap == null) {
+      return false;
+    }
+    ImmutableSegment immutableSegment = segment instanceof ImmutableSegment ? (ImmutableSegment) segment : null;
+    return pruneSegment(filterQueryTree, columnMetadataMap, immutableSegment);
   }
 
   @Override
@@ -71,18 +81,28 @@ public class ColumnValueSegmentPruner extends AbstractSegmentPruner {
    * @param columnMetadataMap Map from column name to column metadata.
    * @return True if segment can be pruned out, false otherwise.
    */
-  @SuppressWarnings("unchecked")
   @Override
   public boolean pruneSegment(@Nonnull FilterQueryTree filterQueryTree,
       @Nonnull Map<String, ColumnMetadata> columnMetadataMap) {
+    return pruneSegment(filterQueryTree, columnMetadataMap, null);
+  }
+
+  /**
+   * Same as {@link #pruneSegment(FilterQueryTree, Map)}, but also uses the bloom filters from the given immutable
+   * segment to prune the EQUALITY and IN predicates.
+   */
+  @SuppressWarnings("unchecked")
+  private boolean pruneSegment(@Nonnull FilterQueryTree filterQueryTree,
+      @Nonnull Map<String, ColumnMetadata> columnMetadataMap, @Nullable ImmutableSegment immutableSegment) {
     FilterOperator filterOperator = filterQueryTree.getOperator();
     List<FilterQueryTree> children = filterQueryTree.getChildren();
 
     if (children == null || children.isEmpty()) {
       // Leaf Node
 
-      // Skip operator other than EQUALITY and RANGE
-      if ((filterOperator != FilterOperator.EQUALITY) && (filterOperator != FilterOperator.RANGE)) {
+      // Skip operator other than EQUALITY, IN and RANGE
+      if ((filterOperator != FilterOperator.EQUALITY) && (filterOperator != FilterOperator.IN) && (filterOperator
+          != FilterOperator.RANGE)) {
         return false;
       }
 
@@ -95,18 +115,26 @@ public class ColumnValueSegmentPruner extends AbstractSegmentPruner {
       Comparable minValue = columnMetadata.getMinValue();
       Comparable maxValue = columnMetadata.getMaxValue();
 
+      BloomFilterReader bloomFilter =
+          immutableSegment != null ? immutableSegment.getBloomFilter(columnMetadata.getColumnName()) : null;
+
       if (filterOperator == FilterOperator.EQUALITY) {
         // EQUALITY
 
-        // Doesn't have min/max value set in metadata
-        if ((minValue == null) || (maxValue == null)) {
-          return false;
-        }
-
-        // Check if the value is in the min/max range
         FieldSpec.DataType dataType = columnMetadata.getDataType();
         Comparable value = getValue(filterQueryTree.getValue().get(0), dataType);
-        return (value.compareTo(minValue) < 0) || (value.compareTo(maxValue) > 0);
+        return isValueAbsent(value, minValue, maxValue, bloomFilter);
+      } else if (filterOperator == FilterOperator.IN) {
+        // IN
+
+        // Prune the segment only if none of the values can be in the segment
+        FieldSpec.DataType dataType = columnMetadata.getDataType();
+        for (String value : new InPredicate(null, filterQueryTree.getValue()).getValues()) {
+          if (!isValueAbsent(getValue(value, dataType), minValue, maxValue, bloomFilter)) {
+            return false;
+          }
+        }
+        return true;
       } else {
         // RANGE
 
@@ -170,7 +198,42 @@ public class ColumnValueSegmentPruner extends AbstractSegmentPruner {
       }
     } else {
       // Parent node
-      return pruneNonLeaf(filterQueryTree, columnMetadataMap);
+      switch (filterOperator) {
+        case AND:
+          for (FilterQueryTree child : children) {
+            if (pruneSegment(child, columnMetadataMap, immutableSegment)) {
+              return true;
+            }
+          }
+          return false;
+        case OR:
+          for (FilterQueryTree child : children) {
+            if (!pruneSegment(child, columnMetadataMap, immutableSegment)) {
+              return false;
+            }
+          }
+          return true;
+        default:
+          throw new IllegalStateException("Unsupported filter operator: " + filterOperator);
+      }
     }
   }
+
+  /**
+   * Returns <code>true</code> if the value is definitely not in the segment based on the min/max value and the bloom
+   * filter of the column, <code>false</code> otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean isValueAbsent(Comparable value, @Nullable Comparable minValue, @Nullable Comparable maxValue,
+      @Nullable BloomFilterReader bloomFilter) {
+    // Check if the value is in the min/max range
+    if ((minValue != null) && (maxValue != null)) {
+      if ((value.compareTo(minValue) < 0) || (value.compareTo(maxValue) > 0)) {
+        return true;
+      }
+    }
+
+    // Values are stored in the string format inside the bloom filter
+    return (bloomFilter != null) && !bloomFilter.mightContain(value.toString());
+  }
 }
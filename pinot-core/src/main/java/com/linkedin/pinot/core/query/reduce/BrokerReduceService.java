@@ -19,6 +19,7 @@ import com.linkedin.pinot.common.config.TableNameBuilder;
 import com.linkedin.pinot.common.exception.QueryException;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.metrics.BrokerQueryPhase;
 import com.linkedin.pinot.common.query.ReduceService;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.request.GroupBy;
@@ -34,6 +35,7 @@ import com.linkedin.pinot.common.response.broker.SelectionResults;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.common.utils.NamedThreadFactory;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
@@ -41,12 +43,19 @@ import com.linkedin.pinot.core.query.selection.SelectionOperatorService;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -62,10 +71,117 @@ import org.slf4j.LoggerFactory;
 public class BrokerReduceService implements ReduceService<BrokerResponseNative> {
   private static final Logger LOGGER = LoggerFactory.getLogger(BrokerReduceService.class);
 
+  // Column names of the legacy group-by data table
+  private static final String LEGACY_GROUP_BY_FUNCTION_NAME_COLUMN = "functionName";
+  private static final String LEGACY_GROUP_BY_RESULT_MAP_COLUMN = "GroupByResultMap";
+
+  // Minimum number of rows in the data tables to reduce them in parallel
+  private static final int MIN_NUM_ROWS_FOR_PARALLEL_REDUCE = 10_000;
+
+  private final int _numReduceThreads;
+  // Null if the data tables are reduced on the request thread only
+  private final ExecutorService _reduceExecutorService;
+
+  /**
+   * Constructor for the class, where the data tables are reduced on the request thread.
+   */
+  public BrokerReduceService() {
+    this(1);
+  }
+
+  /**
+   * Constructor for the class.
+   * <p>With more than one reduce threads, large selection order-by and aggregation group-by results are reduced in
+   * parallel with a bounded executor, where the request thread also takes part of the work.
+   *
+   * @param numReduceThreads number of threads to reduce the data tables of a query.
+   */
+  public BrokerReduceService(int numReduceThreads) {
+    if (numReduceThreads > 1) {
+      _numReduceThreads = numReduceThreads;
+      // The request thread runs one of the tasks
+      _reduceExecutorService =
+          Executors.newFixedThreadPool(numReduceThreads - 1, new NamedThreadFactory("broker-reduce"));
+    } else {
+      _numReduceThreads = 1;
+      _reduceExecutorService = null;
+    }
+  }
+
+  public void shutDown() {
+    if (_reduceExecutorService != null) {
+      _reduceExecutorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns a merger that merges the data tables of the query as soon as they are received, or {@code null} if the
+   * query is not an aggregation group-by query or the data tables are reduced on the request thread only.
+   * <p>The merger should be passed to {@link #reduceOnDataTable(BrokerRequest, Map, GroupByDataTableMerger,
+   * BrokerMetrics)} to reduce the merged results.
+   */
+  @Nullable
+  public GroupByDataTableMerger getGroupByDataTableMerger(@Nonnull BrokerRequest brokerRequest) {
+    if (_reduceExecutorService == null || brokerRequest.isSetSelections() || !brokerRequest.isSetGroupBy()) {
+      return null;
+    }
+    return new GroupByDataTableMerger(_reduceExecutorService,
+        AggregationFunctionUtils.getAggregationFunctions(brokerRequest.getAggregationsInfo()),
+        brokerRequest.getGroupBy().getExpressionsSize(), _numReduceThreads);
+  }
+
+  /**
+   * Returns a collector that reduces the response chunks of the query as soon as they are received, or {@code null} if
+   * the query is not a selection only query.
+   * <p>The collector should be passed to {@link #reduceOnDataTable(BrokerRequest, Map, GroupByDataTableMerger,
+   * SelectionDataTableCollector, BrokerMetrics)} to reduce the collected rows.
+   */
+  @Nullable
+  public SelectionDataTableCollector getSelectionDataTableCollector(@Nonnull BrokerRequest brokerRequest) {
+    if (brokerRequest.isSetAggregationsInfo() || !brokerRequest.isSetSelections()) {
+      return null;
+    }
+    Selection selection = brokerRequest.getSelections();
+    if (selection.getSize() <= 0 || selection.isSetSelectionSortSequence()) {
+      return null;
+    }
+    return new SelectionDataTableCollector(selection.getSize());
+  }
+
   @Nonnull
   @Override
   public BrokerResponseNative reduceOnDataTable(@Nonnull BrokerRequest brokerRequest,
       @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nullable BrokerMetrics brokerMetrics) {
+    return reduceOnDataTable(brokerRequest, dataTableMap, null, null, brokerMetrics);
+  }
+
+  /**
+   * Reduces the data tables gathered from the servers, where the group-by data tables might already be merged by the
+   * given merger.
+   */
+  @Nonnull
+  public BrokerResponseNative reduceOnDataTable(@Nonnull BrokerRequest brokerRequest,
+      @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nullable GroupByDataTableMerger groupByDataTableMerger,
+      @Nullable BrokerMetrics brokerMetrics) {
+    return reduceOnDataTable(brokerRequest, dataTableMap, groupByDataTableMerger, null, brokerMetrics);
+  }
+
+  /**
+   * Reduces the data tables gathered from the servers, where the group-by data tables might already be merged by the
+   * given merger, and the rows of the selection response chunks are already collected by the given collector.
+   *
+   * @param brokerRequest broker request.
+   * @param dataTableMap map from server to data table.
+   * @param groupByDataTableMerger merger the data tables were passed to on receipt, or null if there is none.
+   * @param selectionDataTableCollector collector the response chunks were passed to on receipt, or null if there is
+   *                                    none.
+   * @param brokerMetrics broker metrics.
+   * @return broker response.
+   */
+  @Nonnull
+  public BrokerResponseNative reduceOnDataTable(@Nonnull BrokerRequest brokerRequest,
+      @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nullable GroupByDataTableMerger groupByDataTableMerger,
+      @Nullable SelectionDataTableCollector selectionDataTableCollector, @Nullable BrokerMetrics brokerMetrics) {
     if (dataTableMap.size() == 0) {
       // Empty response.
       return BrokerResponseNative.empty();
@@ -77,6 +193,7 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
     long numEntriesScannedInFilter = 0L;
     long numEntriesScannedPostFilter = 0L;
     long numTotalRawDocs = 0L;
+    Map<String, Long> filterStatistics = new TreeMap<>();
     boolean numGroupsLimitReached = false;
 
     // Cache a data schema from data tables (try to cache one with data rows associated with it).
@@ -100,6 +217,9 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
       for (String key : metadata.keySet()) {
         if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
           processingExceptions.add(new QueryProcessingException(Integer.parseInt(key.substring(9)), metadata.get(key)));
+        } else if (key.startsWith(DataTable.FILTER_STATISTICS_METADATA_KEY_PREFIX)) {
+          filterStatistics.merge(key.substring(DataTable.FILTER_STATISTICS_METADATA_KEY_PREFIX.length()),
+              Long.parseLong(metadata.get(key)), Long::sum);
         }
       }
 
@@ -143,6 +263,9 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
     brokerResponseNative.setNumDocsScanned(numDocsScanned);
     brokerResponseNative.setNumEntriesScannedInFilter(numEntriesScannedInFilter);
     brokerResponseNative.setNumEntriesScannedPostFilter(numEntriesScannedPostFilter);
+    if (!filterStatistics.isEmpty()) {
+      brokerResponseNative.setFilterStatistics(filterStatistics);
+    }
     brokerResponseNative.setTotalDocs(numTotalRawDocs);
     brokerResponseNative.setNumGroupsLimitReached(numGroupsLimitReached);
 
@@ -162,26 +285,40 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
         .getOrDefault(CommonConstants.Broker.Request.QueryOptionKey.PRESERVE_TYPE, "false");
     boolean preserveType = Boolean.valueOf(preserveTypeString);
 
-    if (dataTableMap.isEmpty()) {
+    // Rows of the selection response chunks collected on receipt
+    DataSchema collectedDataSchema =
+        selectionDataTableCollector != null ? selectionDataTableCollector.getDataSchema() : null;
+
+    if (dataTableMap.isEmpty() && collectedDataSchema == null) {
       // For empty data table map, construct empty result using the cached data schema.
 
-      // This will only happen to selection query.
+      // This will only happen to selection query and aggregation group-by query without any group.
       if (cachedDataSchema != null) {
-        List<String> selectionColumns =
-            SelectionOperatorUtils.getSelectionColumns(brokerRequest.getSelections().getSelectionColumns(),
-                cachedDataSchema);
-        brokerResponseNative.setSelectionResults(new SelectionResults(selectionColumns, new ArrayList<>(0)));
+        if (brokerRequest.isSetSelections()) {
+          List<String> selectionColumns =
+              SelectionOperatorUtils.getSelectionColumns(brokerRequest.getSelections().getSelectionColumns(),
+                  cachedDataSchema);
+          brokerResponseNative.setSelectionResults(new SelectionResults(selectionColumns, new ArrayList<>(0)));
+        } else if (brokerRequest.isSetGroupBy()) {
+          setGroupByHavingResults(brokerResponseNative,
+              AggregationFunctionUtils.getAggregationFunctions(brokerRequest.getAggregationsInfo()),
+              AggregationFunctionUtils.getAggregationFunctionsSelectStatus(brokerRequest.getAggregationsInfo()),
+              brokerRequest.getGroupBy(), dataTableMap, cachedDataSchema, brokerRequest.getHavingFilterQuery(),
+              brokerRequest.getHavingFilterSubQueryMap(), preserveType, null, brokerMetrics, rawTableName);
+        }
       }
     } else {
       // Reduce server responses data and set query results into the broker response.
-      assert cachedDataSchema != null;
+      assert cachedDataSchema != null || collectedDataSchema != null;
 
       if (brokerRequest.isSetSelections()) {
         // Selection query.
 
-        // For data table map with more than one data tables, remove conflicting data tables.
-        DataSchema masterDataSchema = cachedDataSchema.clone();
-        if (dataTableMap.size() > 1) {
+        // For data table map with more than one data tables (or data tables to reduce with the collected rows), remove
+        // conflicting data tables.
+        DataSchema masterDataSchema =
+            collectedDataSchema != null ? collectedDataSchema.clone() : cachedDataSchema.clone();
+        if (dataTableMap.size() > 1 || (collectedDataSchema != null && !dataTableMap.isEmpty())) {
           List<String> droppedServers = removeConflictingResponses(masterDataSchema, dataTableMap);
           if (!droppedServers.isEmpty()) {
             String errorMessage =
@@ -195,8 +332,24 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
                 new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
           }
         }
-        setSelectionResults(brokerResponseNative, brokerRequest.getSelections(), dataTableMap, masterDataSchema,
-            preserveType);
+        List<Serializable[]> collectedRows = null;
+        if (collectedDataSchema != null) {
+          collectedRows = selectionDataTableCollector.getRows();
+          int numChunksDropped = selectionDataTableCollector.getNumChunksDropped();
+          if (numChunksDropped > 0) {
+            String errorMessage =
+                QueryException.MERGE_RESPONSE_ERROR.getMessage() + ": " + numChunksDropped + " response chunks for "
+                    + "table: " + tableName + " got dropped due to data schema inconsistency.";
+            LOGGER.info(errorMessage);
+            if (brokerMetrics != null) {
+              brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1L);
+            }
+            brokerResponseNative.addToExceptions(
+                new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
+          }
+        }
+        setSelectionResults(brokerResponseNative, brokerRequest.getSelections(), dataTableMap, collectedRows,
+            masterDataSchema, preserveType, brokerMetrics, rawTableName);
       } else {
         // Aggregation query.
         AggregationFunction[] aggregationFunctions =
@@ -210,8 +363,9 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
           boolean[] aggregationFunctionSelectStatus =
               AggregationFunctionUtils.getAggregationFunctionsSelectStatus(brokerRequest.getAggregationsInfo());
           setGroupByHavingResults(brokerResponseNative, aggregationFunctions, aggregationFunctionSelectStatus,
-              brokerRequest.getGroupBy(), dataTableMap, brokerRequest.getHavingFilterQuery(),
-              brokerRequest.getHavingFilterSubQueryMap(), preserveType);
+              brokerRequest.getGroupBy(), dataTableMap, cachedDataSchema, brokerRequest.getHavingFilterQuery(),
+              brokerRequest.getHavingFilterSubQueryMap(), preserveType, groupByDataTableMerger, brokerMetrics,
+              rawTableName);
           if (brokerMetrics != null && (!brokerResponseNative.getAggregationResults().isEmpty())) {
             // We emit the group by size when the result isn't empty. All the sizes among group-by results should be the same.
             // Thus, we can just emit the one from the 1st result.
@@ -257,10 +411,15 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
    * @param brokerResponseNative broker response.
    * @param selection selection information.
    * @param dataTableMap map from server to data table.
+   * @param collectedRows rows of the selection only response chunks collected on receipt, or null if there is none.
    * @param dataSchema data schema.
+   * @param brokerMetrics broker metrics.
+   * @param rawTableName raw table name.
    */
   private void setSelectionResults(@Nonnull BrokerResponseNative brokerResponseNative, @Nonnull Selection selection,
-      @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nonnull DataSchema dataSchema, boolean preserveType) {
+      @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nullable List<Serializable[]> collectedRows,
+      @Nonnull DataSchema dataSchema, boolean preserveType, @Nullable BrokerMetrics brokerMetrics,
+      @Nonnull String rawTableName) {
     // Reduce the selection results.
     int selectionSize = selection.getSize();
     SelectionResults selectionResults;
@@ -269,14 +428,29 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
         SelectionOperatorUtils.getSelectionColumns(selection.getSelectionColumns(), dataSchema);
     if (selection.isSetSelectionSortSequence() && selectionSize != 0) {
       // Selection order-by.
+      long mergeStartTimeNs = System.nanoTime();
       SelectionOperatorService selectionService = new SelectionOperatorService(selection, dataSchema);
-      selectionService.reduceWithOrdering(dataTableMap);
+      if (shouldReduceInParallel(dataTableMap)) {
+        reduceWithOrderingInParallel(selectionService, new ArrayList<>(dataTableMap.values()));
+      } else {
+        selectionService.reduceWithOrdering(dataTableMap);
+      }
+      addPhaseTiming(brokerMetrics, rawTableName, BrokerQueryPhase.REDUCE_MERGE, mergeStartTimeNs);
+      long trimStartTimeNs = System.nanoTime();
       selectionResults = selectionService.renderSelectionResultsWithOrdering();
+      addPhaseTiming(brokerMetrics, rawTableName, BrokerQueryPhase.REDUCE_TRIM, trimStartTimeNs);
       columnIndices = SelectionOperatorUtils.getColumnIndicesWithOrdering(selectionColumns, dataSchema);
     } else {
       // Selection only.
-      selectionResults = SelectionOperatorUtils.renderSelectionResultsWithoutOrdering(
-          SelectionOperatorUtils.reduceWithoutOrdering(dataTableMap, selectionSize), dataSchema, selectionColumns);
+      List<Serializable[]> rows;
+      if (collectedRows != null) {
+        rows = collectedRows;
+        rows.addAll(SelectionOperatorUtils.reduceWithoutOrdering(dataTableMap, selectionSize - rows.size()));
+      } else {
+        rows = SelectionOperatorUtils.reduceWithoutOrdering(dataTableMap, selectionSize);
+      }
+      selectionResults =
+          SelectionOperatorUtils.renderSelectionResultsWithoutOrdering(rows, dataSchema, selectionColumns);
       columnIndices = SelectionOperatorUtils.getColumnIndicesWithoutOrdering(selectionColumns, dataSchema);
     }
 
@@ -349,58 +523,68 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
 
   /**
    * Reduce group-by results from multiple servers and set them into BrokerResponseNative passed in.
+   * <p>Each data table has one row per group, with the group-by columns followed by the intermediate results of all
+   * aggregation functions, so all aggregation functions of a group are merged with one hash lookup. Data tables from
+   * servers running older code, which have one map from group key to intermediate result per aggregation function, are
+   * merged into the same results.
    *
    * @param brokerResponseNative broker response.
    * @param aggregationFunctions array of aggregation functions.
    * @param groupBy group-by information.
    * @param dataTableMap map from server to data table.
+   * @param dataSchema data schema.
    * @param havingFilterQuery having filter query
    * @param havingFilterQueryMap having filter query map
+   * @param groupByDataTableMerger merger the data tables were passed to on receipt, or null if there is none.
+   * @param brokerMetrics broker metrics.
+   * @param rawTableName raw table name.
    */
   @SuppressWarnings("unchecked")
   private void setGroupByHavingResults(@Nonnull BrokerResponseNative brokerResponseNative,
       @Nonnull AggregationFunction[] aggregationFunctions, boolean[] aggregationFunctionsSelectStatus,
-      @Nonnull GroupBy groupBy, @Nonnull Map<ServerInstance, DataTable> dataTableMap,
-      HavingFilterQuery havingFilterQuery, HavingFilterQueryMap havingFilterQueryMap, boolean preserveType) {
+      @Nonnull GroupBy groupBy, @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nonnull DataSchema dataSchema,
+      HavingFilterQuery havingFilterQuery, HavingFilterQueryMap havingFilterQueryMap, boolean preserveType,
+      @Nullable GroupByDataTableMerger groupByDataTableMerger, @Nullable BrokerMetrics brokerMetrics,
+      @Nonnull String rawTableName) {
+    long mergeStartTimeNs = System.nanoTime();
     int numAggregationFunctions = aggregationFunctions.length;
+    int numGroupByColumns = groupBy.getExpressionsSize();
 
     // Merge results from all data tables.
+    Map<String, Comparable>[] finalResultMaps;
+    if (groupByDataTableMerger != null || shouldReduceInParallel(dataTableMap)) {
+      List<DataTable> dataTables = new ArrayList<>(dataTableMap.values());
+      finalResultMaps =
+          mergeGroupByResultsInParallel(aggregationFunctions, numGroupByColumns, dataTables, groupByDataTableMerger);
+    } else {
+      Map<String, Object[]>[] intermediateResultsMaps = new Map[]{new HashMap<>()};
+      for (DataTable dataTable : dataTableMap.values()) {
+        mergeGroupByDataTable(aggregationFunctions, numGroupByColumns, dataTable, intermediateResultsMaps);
+      }
+      finalResultMaps = new Map[numAggregationFunctions];
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        finalResultMaps[i] = new HashMap<>();
+      }
+      extractFinalResults(aggregationFunctions, intermediateResultsMaps[0], finalResultMaps);
+    }
+    addPhaseTiming(brokerMetrics, rawTableName, BrokerQueryPhase.REDUCE_MERGE, mergeStartTimeNs);
+
+    // Read the column names after the merge, where no other thread is reading the rows of the data tables
     String[] columnNames = new String[numAggregationFunctions];
-    Map<String, Object>[] intermediateResultMaps = new Map[numAggregationFunctions];
-    for (DataTable dataTable : dataTableMap.values()) {
+    if (!isLegacyGroupByDataSchema(dataSchema)) {
       for (int i = 0; i < numAggregationFunctions; i++) {
-        if (columnNames[i] == null) {
+        columnNames[i] = dataSchema.getColumnName(numGroupByColumns + i);
+      }
+    }
+    for (DataTable dataTable : dataTableMap.values()) {
+      if (isLegacyGroupByDataSchema(dataTable.getDataSchema())) {
+        for (int i = 0; i < numAggregationFunctions; i++) {
           columnNames[i] = dataTable.getString(i, 0);
-          intermediateResultMaps[i] = dataTable.getObject(i, 1);
-        } else {
-          Map<String, Object> mergedIntermediateResultMap = intermediateResultMaps[i];
-          Map<String, Object> intermediateResultMapToMerge = dataTable.getObject(i, 1);
-          for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
-            String groupKey = entry.getKey();
-            Object intermediateResultToMerge = entry.getValue();
-            if (mergedIntermediateResultMap.containsKey(groupKey)) {
-              Object mergedIntermediateResult = mergedIntermediateResultMap.get(groupKey);
-              mergedIntermediateResultMap.put(groupKey,
-                  aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge));
-            } else {
-              mergedIntermediateResultMap.put(groupKey, intermediateResultToMerge);
-            }
-          }
         }
       }
     }
 
-    // Extract final result maps from the merged intermediate result maps.
-    Map<String, Comparable>[] finalResultMaps = new Map[numAggregationFunctions];
-    for (int i = 0; i < numAggregationFunctions; i++) {
-      Map<String, Object> intermediateResultMap = intermediateResultMaps[i];
-      Map<String, Comparable> finalResultMap = new HashMap<>();
-      for (String groupKey : intermediateResultMap.keySet()) {
-        Object intermediateResult = intermediateResultMap.get(groupKey);
-        finalResultMap.put(groupKey, aggregationFunctions[i].extractFinalResult(intermediateResult));
-      }
-      finalResultMaps[i] = finalResultMap;
-    }
+    long trimStartTimeNs = System.nanoTime();
     //If HAVING clause is set, we further filter the group by results based on the HAVING predicate
     if (havingFilterQuery != null) {
       HavingClauseComparisonTree havingClauseComparisonTree =
@@ -478,9 +662,284 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
         aggregationResults.add(new AggregationResult(groupByResultList, groupBy.getExpressions(), finalColumnNames[i]));
       }
       brokerResponseNative.setAggregationResults(aggregationResults);
+      addPhaseTiming(brokerMetrics, rawTableName, BrokerQueryPhase.REDUCE_TRIM, trimStartTimeNs);
     } else {
       throw new IllegalStateException(
           "There should be minimum one aggregation function in the select list of a Group by query");
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Helper method to merge a group-by data table into the maps from group key to intermediate results, where the
+   * groups are partitioned into the maps by the hash code of the group key.
+   */
+  static void mergeGroupByDataTable(@Nonnull AggregationFunction[] aggregationFunctions, int numGroupByColumns,
+      @Nonnull DataTable dataTable, @Nonnull Map<String, Object[]>[] intermediateResultsMaps) {
+    int numAggregationFunctions = aggregationFunctions.length;
+    DataSchema dataSchema = dataTable.getDataSchema();
+    if (isLegacyGroupByDataSchema(dataSchema)) {
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        Map<String, Object> intermediateResultMapToMerge = dataTable.getObject(i, 1);
+        for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
+          String groupKey = entry.getKey();
+          Object[] intermediateResults = getPartition(intermediateResultsMaps, groupKey).computeIfAbsent(groupKey,
+              k -> new Object[numAggregationFunctions]);
+          mergeIntermediateResult(aggregationFunctions[i], intermediateResults, i, entry.getValue());
+        }
+      }
+    } else {
+      int numRows = dataTable.getNumberOfRows();
+      StringBuilder groupKeyBuilder = new StringBuilder();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        groupKeyBuilder.setLength(0);
+        groupKeyBuilder.append(dataTable.getString(rowId, 0));
+        for (int i = 1; i < numGroupByColumns; i++) {
+          groupKeyBuilder.append(AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER)
+              .append(dataTable.getString(rowId, i));
+        }
+        String groupKey = groupKeyBuilder.toString();
+        Object[] intermediateResults = getPartition(intermediateResultsMaps, groupKey).computeIfAbsent(groupKey,
+            k -> new Object[numAggregationFunctions]);
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          int columnId = numGroupByColumns + i;
+          Object intermediateResultToMerge;
+          DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(columnId);
+          switch (columnDataType) {
+            case LONG:
+              intermediateResultToMerge = dataTable.getLong(rowId, columnId);
+              break;
+            case DOUBLE:
+              intermediateResultToMerge = dataTable.getDouble(rowId, columnId);
+              break;
+            case OBJECT:
+              intermediateResultToMerge = dataTable.getObject(rowId, columnId);
+              break;
+            default:
+              throw new IllegalStateException("Illegal column data type in group-by results: " + columnDataType);
+          }
+          mergeIntermediateResult(aggregationFunctions[i], intermediateResults, i, intermediateResultToMerge);
+        }
+      }
+    }
+  }
+
+  private static Map<String, Object[]> getPartition(@Nonnull Map<String, Object[]>[] intermediateResultsMaps,
+      @Nonnull String groupKey) {
+    int numPartitions = intermediateResultsMaps.length;
+    if (numPartitions == 1) {
+      return intermediateResultsMaps[0];
+    }
+    return intermediateResultsMaps[(groupKey.hashCode() & Integer.MAX_VALUE) % numPartitions];
+  }
+
+  /**
+   * Helper method to merge an intermediate result into the intermediate results of a group.
+   */
+  private static void mergeIntermediateResult(@Nonnull AggregationFunction aggregationFunction,
+      @Nonnull Object[] intermediateResults, int index, @Nullable Object intermediateResultToMerge) {
+    if (intermediateResultToMerge == null) {
+      return;
+    }
+    Object mergedIntermediateResult = intermediateResults[index];
+    if (mergedIntermediateResult == null) {
+      intermediateResults[index] = intermediateResultToMerge;
+    } else {
+      intermediateResults[index] = aggregationFunction.merge(mergedIntermediateResult, intermediateResultToMerge);
+    }
+  }
+
+  /**
+   * Helper method to extract the final results from a map from group key to intermediate results, and put them into
+   * the final result maps for each aggregation function.
+   */
+  private static void extractFinalResults(@Nonnull AggregationFunction[] aggregationFunctions,
+      @Nonnull Map<String, Object[]> intermediateResultsMap, @Nonnull Map<String, Comparable>[] finalResultMaps) {
+    int numAggregationFunctions = aggregationFunctions.length;
+    for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
+      String groupKey = entry.getKey();
+      Object[] intermediateResults = entry.getValue();
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        // Groups might be missing for some aggregation functions in legacy data tables
+        Object intermediateResult = intermediateResults[i];
+        if (intermediateResult != null) {
+          finalResultMaps[i].put(groupKey, aggregationFunctions[i].extractFinalResult(intermediateResult));
+        }
+      }
+    }
+  }
+
+  /**
+   * Helper method to merge the group-by data tables in parallel, and return the final result maps for each aggregation
+   * function.
+   * <ul>
+   *   <li>
+   *     Each task merges a subset of the data tables into its own maps, one per partition of the group keys, where the
+   *     data tables already merged by the merger on receipt are skipped
+   *   </li>
+   *   <li>
+   *     Each task merges one partition of all the tasks, and extracts the final results for the partition
+   *   </li>
+   * </ul>
+   * <p>A group only exists in one partition, so the partitions can be merged without any lock.
+   */
+  @SuppressWarnings("unchecked")
+  private Map<String, Comparable>[] mergeGroupByResultsInParallel(@Nonnull AggregationFunction[] aggregationFunctions,
+      int numGroupByColumns, @Nonnull List<DataTable> dataTables,
+      @Nullable GroupByDataTableMerger groupByDataTableMerger) {
+    int numAggregationFunctions = aggregationFunctions.length;
+    int numPartitions = _numReduceThreads;
+
+    List<Map<String, Object[]>[]> intermediateResultsMapsList = new ArrayList<>();
+    List<DataTable> dataTablesToMerge = new ArrayList<>();
+    for (DataTable dataTable : dataTables) {
+      Map<String, Object[]>[] intermediateResultsMaps = null;
+      if (groupByDataTableMerger != null) {
+        intermediateResultsMaps = groupByDataTableMerger.getIntermediateResultsMaps(dataTable);
+      }
+      if (intermediateResultsMaps != null) {
+        intermediateResultsMapsList.add(intermediateResultsMaps);
+      } else {
+        dataTablesToMerge.add(dataTable);
+      }
+    }
+
+    int numDataTablesToMerge = dataTablesToMerge.size();
+    if (numDataTablesToMerge > 0) {
+      int numTasks = Math.min(_numReduceThreads, numDataTablesToMerge);
+      Map<String, Object[]>[][] taskIntermediateResultsMaps = new Map[numTasks][numPartitions];
+      runInParallel(numTasks, taskId -> {
+        Map<String, Object[]>[] intermediateResultsMaps = taskIntermediateResultsMaps[taskId];
+        for (int i = 0; i < numPartitions; i++) {
+          intermediateResultsMaps[i] = new HashMap<>();
+        }
+        for (int i = taskId; i < numDataTablesToMerge; i += numTasks) {
+          mergeGroupByDataTable(aggregationFunctions, numGroupByColumns, dataTablesToMerge.get(i),
+              intermediateResultsMaps);
+        }
+      });
+      Collections.addAll(intermediateResultsMapsList, taskIntermediateResultsMaps);
+    }
+    int numIntermediateResultsMaps = intermediateResultsMapsList.size();
+
+    Map<String, Comparable>[][] partitionFinalResultMaps = new Map[numPartitions][numAggregationFunctions];
+    runInParallel(numPartitions, partitionId -> {
+      Map<String, Object[]> mergedIntermediateResultsMap = intermediateResultsMapsList.get(0)[partitionId];
+      for (int i = 1; i < numIntermediateResultsMaps; i++) {
+        for (Map.Entry<String, Object[]> entry : intermediateResultsMapsList.get(i)[partitionId].entrySet()) {
+          Object[] intermediateResultsToMerge = entry.getValue();
+          Object[] mergedIntermediateResults = mergedIntermediateResultsMap.putIfAbsent(entry.getKey(),
+              intermediateResultsToMerge);
+          if (mergedIntermediateResults != null) {
+            for (int j = 0; j < numAggregationFunctions; j++) {
+              mergeIntermediateResult(aggregationFunctions[j], mergedIntermediateResults, j,
+                  intermediateResultsToMerge[j]);
+            }
+          }
+        }
+      }
+      Map<String, Comparable>[] finalResultMaps = partitionFinalResultMaps[partitionId];
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        finalResultMaps[i] = new HashMap<>();
+      }
+      extractFinalResults(aggregationFunctions, mergedIntermediateResultsMap, finalResultMaps);
+    });
+
+    Map<String, Comparable>[] finalResultMaps = new Map[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      int numGroups = 0;
+      for (int j = 0; j < numPartitions; j++) {
+        numGroups += partitionFinalResultMaps[j][i].size();
+      }
+      // Size the map so that it does not need to be rehashed
+      Map<String, Comparable> finalResultMap = new HashMap<>((int) (numGroups / 0.75f) + 1);
+      for (int j = 0; j < numPartitions; j++) {
+        finalResultMap.putAll(partitionFinalResultMaps[j][i]);
+      }
+      finalResultMaps[i] = finalResultMap;
+    }
+    return finalResultMaps;
+  }
+
+  /**
+   * Helper method to reduce the selection order-by data tables in parallel, where each task reduces a subset of the
+   * data tables into its own priority queue, and the priority queues are merged into the selection results.
+   * <p>The rows inside each data table are not sorted, so the data tables cannot be k-way merged directly.
+   */
+  @SuppressWarnings("unchecked")
+  private void reduceWithOrderingInParallel(@Nonnull SelectionOperatorService selectionService,
+      @Nonnull List<DataTable> dataTables) {
+    int numDataTables = dataTables.size();
+    int numTasks = Math.min(_numReduceThreads, numDataTables);
+    PriorityQueue<Serializable[]>[] taskRows = new PriorityQueue[numTasks];
+    runInParallel(numTasks, taskId -> {
+      List<DataTable> dataTablesToReduce = new ArrayList<>();
+      for (int i = taskId; i < numDataTables; i += numTasks) {
+        dataTablesToReduce.add(dataTables.get(i));
+      }
+      taskRows[taskId] = selectionService.reduceToPriorityQueue(dataTablesToReduce);
+    });
+    for (PriorityQueue<Serializable[]> rows : taskRows) {
+      selectionService.mergeWithOrdering(rows);
+    }
+  }
+
+  /**
+   * Helper method to check whether the data tables should be reduced in parallel.
+   */
+  private boolean shouldReduceInParallel(@Nonnull Map<ServerInstance, DataTable> dataTableMap) {
+    if (_reduceExecutorService == null || dataTableMap.size() < 2) {
+      return false;
+    }
+    long numRows = 0;
+    for (DataTable dataTable : dataTableMap.values()) {
+      numRows += dataTable.getNumberOfRows();
+    }
+    return numRows >= MIN_NUM_ROWS_FOR_PARALLEL_REDUCE;
+  }
+
+  /**
+   * Helper method to run the tasks with the given number of task ids in parallel, where the first task is run on the
+   * current thread. Returns after all the tasks finish, and throws the first exception from the tasks if any.
+   */
+  private void runInParallel(int numTasks, @Nonnull IntConsumer task) {
+    Future[] futures = new Future[numTasks - 1];
+    for (int i = 1; i < numTasks; i++) {
+      int taskId = i;
+      futures[i - 1] = _reduceExecutorService.submit(() -> task.accept(taskId));
+    }
+    try {
+      task.accept(0);
+      for (Future future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while reducing data tables in parallel", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Caught exception while reducing data tables in parallel", e.getCause());
+    } finally {
+      // Cancel the remaining tasks if any task failed
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+    }
+  }
+
+  private static void addPhaseTiming(@Nullable BrokerMetrics brokerMetrics, @Nonnull String rawTableName,
+      @Nonnull BrokerQueryPhase phase, long startTimeNs) {
+    if (brokerMetrics != null) {
+      brokerMetrics.addPhaseTiming(rawTableName, phase, System.nanoTime() - startTimeNs);
+    }
+  }
+
+  /**
+   * Helper method to check whether the data schema is for the legacy group-by data table, which has one row per
+   * aggregation function with the function name and the map from group key to intermediate result.
+   */
+  private static boolean isLegacyGroupByDataSchema(@Nonnull DataSchema dataSchema) {
+    return dataSchema.size() == 2 && LEGACY_GROUP_BY_FUNCTION_NAME_COLUMN.equals(dataSchema.getColumnName(0))
+        && LEGACY_GROUP_BY_RESULT_MAP_COLUMN.equals(dataSchema.getColumnName(1));
+  }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.reduce;
+
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The {@code GroupByDataTableMerger} class merges the group-by data tables of a query on the reduce executor as soon as
+ * they are received, instead of after all the servers responded.
+ * <p>Each data table is merged into its own maps from group key to intermediate results, partitioned the same way as
+ * {@link BrokerReduceService} partitions the groups, so that the reduce only needs to merge the partitions.
+ * <p>The data table should not be read by other threads before its merged results are fetched, because reading rows
+ * from the data table is not thread-safe.
+ */
+@ThreadSafe
+public class GroupByDataTableMerger implements Consumer<DataTable> {
+  private final ExecutorService _executorService;
+  private final AggregationFunction[] _aggregationFunctions;
+  private final int _numGroupByColumns;
+  private final int _numPartitions;
+  private final Map<DataTable, Future<Map<String, Object[]>[]>> _futures =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+
+  GroupByDataTableMerger(@Nonnull ExecutorService executorService, @Nonnull AggregationFunction[] aggregationFunctions,
+      int numGroupByColumns, int numPartitions) {
+    _executorService = executorService;
+    _aggregationFunctions = aggregationFunctions;
+    _numGroupByColumns = numGroupByColumns;
+    _numPartitions = numPartitions;
+  }
+
+  /**
+   * Starts merging the data table on the reduce executor.
+   * <p>Called on the thread receiving the data table, so it should not block.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public void accept(@Nonnull DataTable dataTable) {
+    // Data tables without data rows inside are skipped by the reduce
+    if (dataTable.getDataSchema() == null || dataTable.getNumberOfRows() == 0) {
+      return;
+    }
+    _futures.put(dataTable, _executorService.submit(() -> {
+      Map<String, Object[]>[] intermediateResultsMaps = new Map[_numPartitions];
+      for (int i = 0; i < _numPartitions; i++) {
+        intermediateResultsMaps[i] = new HashMap<>();
+      }
+      BrokerReduceService.mergeGroupByDataTable(_aggregationFunctions, _numGroupByColumns, dataTable,
+          intermediateResultsMaps);
+      return intermediateResultsMaps;
+    }));
+  }
+
+  /**
+   * Waits for the data table to be merged and returns its partitioned maps from group key to intermediate results, or
+   * {@code null} if the data table was not passed to this merger.
+   */
+  @Nullable
+  Map<String, Object[]>[] getIntermediateResultsMaps(@Nonnull DataTable dataTable) {
+    Future<Map<String, Object[]>[]> future = _futures.get(dataTable);
+    if (future == null) {
+      return null;
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while merging data tables", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Caught exception while merging data tables", e.getCause());
+    }
+  }
+}
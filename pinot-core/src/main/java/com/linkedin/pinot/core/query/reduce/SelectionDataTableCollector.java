@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.reduce;
+
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The {@code SelectionDataTableCollector} class reduces the response chunks of a selection only query as soon as they
+ * are received, instead of after all the servers responded.
+ * <p>The rows of each chunk are extracted on receipt and the chunk is dropped right after, so the broker holds at most
+ * the selection size worth of rows no matter how many chunks the servers send. Once enough rows are collected, the
+ * following chunks are dropped without being read.
+ * <p>The last response of each server is not a chunk, and is reduced with the other data tables.
+ */
+@ThreadSafe
+public class SelectionDataTableCollector implements Consumer<DataTable> {
+  private final int _selectionSize;
+  private final List<Serializable[]> _rows;
+  private DataSchema _dataSchema;
+  private int _numChunksDropped;
+
+  SelectionDataTableCollector(int selectionSize) {
+    _selectionSize = selectionSize;
+    _rows = new ArrayList<>();
+  }
+
+  /**
+   * Collects the rows of the response chunk.
+   * <p>Called on the thread receiving the data table, the work is bounded by the rows of one chunk.
+   */
+  @Override
+  public synchronized void accept(@Nonnull DataTable dataTable) {
+    if (!dataTable.getMetadata().containsKey(DataTable.RESPONSE_CHUNK_METADATA_KEY)) {
+      return;
+    }
+    DataSchema dataSchema = dataTable.getDataSchema();
+    if (dataSchema == null || _rows.size() == _selectionSize) {
+      return;
+    }
+    if (_dataSchema == null) {
+      _dataSchema = dataSchema.clone();
+    } else if (_dataSchema.isTypeCompatibleWith(dataSchema)) {
+      _dataSchema.upgradeToCover(dataSchema);
+    } else {
+      _numChunksDropped++;
+      return;
+    }
+    int numRows = dataTable.getNumberOfRows();
+    for (int rowId = 0; rowId < numRows && _rows.size() < _selectionSize; rowId++) {
+      _rows.add(SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId));
+    }
+  }
+
+  /**
+   * Returns the data schema covering all the chunks collected, or {@code null} if no chunk was collected.
+   */
+  @Nullable
+  synchronized DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  /**
+   * Returns a copy of the rows collected.
+   */
+  @Nonnull
+  synchronized List<Serializable[]> getRows() {
+    return new ArrayList<>(_rows);
+  }
+
+  /**
+   * Returns the number of chunks dropped because of data schema inconsistency.
+   */
+  synchronized int getNumChunksDropped() {
+    return _numChunksDropped;
+  }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.request;
+
+import com.linkedin.pinot.common.utils.DataTable;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>ResponseChunkSender</code> interface sends the intermediate chunks of a chunked server response to the
+ * broker while the query is still running. The query response is sent after all the chunks.
+ */
+@ThreadSafe
+public interface ResponseChunkSender {
+
+  /**
+   * Sends a response chunk. Can be called concurrently by the threads executing the query.
+   * <p>The implementation waits while the transport cannot accept more data, so that a slow broker applies
+   * back-pressure on the query execution instead of making the server buffer the whole response.
+   *
+   * @param dataTableChunk Data table chunk to send
+   * @param timeoutMs Max time in milliseconds to wait for the transport
+   * @return Whether the chunk was accepted by the transport within the timeout.
+   * @throws Exception If the chunk cannot be serialized
+   */
+  boolean sendResponseChunk(@Nonnull DataTable dataTableChunk, long timeoutMs) throws Exception;
+}
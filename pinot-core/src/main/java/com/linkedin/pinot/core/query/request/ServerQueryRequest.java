@@ -62,6 +62,7 @@ public class ServerQueryRequest {
 
   // Query processing context
   private volatile int _segmentCountAfterPruning = -1;
+  private volatile ResponseChunkSender _responseChunkSender;
 
   public ServerQueryRequest(InstanceRequest instanceRequest, ServerMetrics serverMetrics, long queryArrivalTimeMs) {
     _requestId = instanceRequest.getRequestId();
@@ -199,4 +200,17 @@ public class ServerQueryRequest {
   public void setSegmentCountAfterPruning(int segmentCountAfterPruning) {
     _segmentCountAfterPruning = segmentCountAfterPruning;
   }
+
+  /**
+   * Returns the sender for the intermediate chunks of a chunked response, or {@code null} if the transport does not
+   * support chunked responses.
+   */
+  @Nullable
+  public ResponseChunkSender getResponseChunkSender() {
+    return _responseChunkSender;
+  }
+
+  public void setResponseChunkSender(@Nullable ResponseChunkSender responseChunkSender) {
+    _responseChunkSender = responseChunkSender;
+  }
 }
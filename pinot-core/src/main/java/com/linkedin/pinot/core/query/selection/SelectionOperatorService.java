@@ -21,11 +21,7 @@ import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.response.broker.SelectionResults;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
-import com.linkedin.pinot.core.common.Block;
-import com.linkedin.pinot.core.common.BlockDocIdIterator;
-import com.linkedin.pinot.core.common.Constants;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
-import com.linkedin.pinot.core.query.selection.comparator.CompositeDocIdValComparator;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -72,8 +68,6 @@ public class SelectionOperatorService {
   private final int _maxNumRows;
   private final PriorityQueue<Serializable[]> _rows;
 
-  private long _numDocsScanned = 0;
-
   /**
    * Constructor for <code>SelectionOperatorService</code> with {@link IndexSegment}. (Inner segment)
    *
@@ -246,46 +240,32 @@ public class SelectionOperatorService {
   }
 
   /**
-   * Get the selection results.
+   * Get the de-duplicated sort sequence.
    *
-   * @return selection results.
+   * @return sort sequence.
    */
   @Nonnull
-  public PriorityQueue<Serializable[]> getRows() {
-    return _rows;
+  public List<SelectionSort> getSortSequence() {
+    return _sortSequence;
   }
 
   /**
-   * Get number of documents scanned. (Inner segment)
+   * Get the maximum number of rows to keep (offset + size).
    *
-   * @return number of documents scanned.
+   * @return maximum number of rows.
    */
-  public long getNumDocsScanned() {
-    return _numDocsScanned;
+  public int getMaxNumRows() {
+    return _maxNumRows;
   }
 
   /**
-   * Iterate over {@link Block}s, extract values from them and merge the values to the selection results for selection
-   * queries with <code>ORDER BY</code>. (Inner segment)
+   * Get the selection results.
    *
-   * @param blockDocIdIterator block document id iterator.
-   * @param blocks {@link Block} array.
+   * @return selection results.
    */
-  public void iterateOnBlocksWithOrdering(@Nonnull BlockDocIdIterator blockDocIdIterator, @Nonnull Block[] blocks) {
-    Comparator<Integer> rowDocIdComparator = new CompositeDocIdValComparator(_sortSequence, blocks);
-    PriorityQueue<Integer> rowDocIdPriorityQueue = new PriorityQueue<>(_maxNumRows, rowDocIdComparator);
-    int docId;
-    while ((docId = blockDocIdIterator.next()) != Constants.EOF) {
-      _numDocsScanned++;
-      SelectionOperatorUtils.addToPriorityQueue(docId, rowDocIdPriorityQueue, _maxNumRows);
-    }
-
-    SelectionFetcher selectionFetcher = new SelectionFetcher(blocks, _dataSchema);
-    Collection<Serializable[]> rows = new ArrayList<>(rowDocIdPriorityQueue.size());
-    for (int rowDocId : rowDocIdPriorityQueue) {
-      rows.add(selectionFetcher.getRow(rowDocId));
-    }
-    SelectionOperatorUtils.mergeWithOrdering(_rows, rows, _maxNumRows);
+  @Nonnull
+  public PriorityQueue<Serializable[]> getRows() {
+    return _rows;
   }
 
   /**
@@ -296,11 +276,42 @@ public class SelectionOperatorService {
    */
   public void reduceWithOrdering(@Nonnull Map<ServerInstance, DataTable> selectionResults) {
     for (DataTable dataTable : selectionResults.values()) {
-      int numRows = dataTable.getNumberOfRows();
-      for (int rowId = 0; rowId < numRows; rowId++) {
-        Serializable[] row = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
-        SelectionOperatorUtils.addToPriorityQueue(row, _rows, _maxNumRows);
-      }
+      reduceWithOrdering(dataTable, _rows);
+    }
+  }
+
+  /**
+   * Reduce a collection of {@link DataTable}s to a new priority queue of selection rows for selection queries with
+   * <code>ORDER BY</code>, which can be merged into the selection results with method "mergeWithOrdering()". (Broker
+   * side)
+   * <p>This method does not modify the selection results, and can be called concurrently.
+   *
+   * @param dataTables {@link Collection} of {@link DataTable}s.
+   * @return priority queue of selection rows.
+   */
+  @Nonnull
+  public PriorityQueue<Serializable[]> reduceToPriorityQueue(@Nonnull Collection<DataTable> dataTables) {
+    PriorityQueue<Serializable[]> rows = new PriorityQueue<>(_maxNumRows, _rows.comparator());
+    for (DataTable dataTable : dataTables) {
+      reduceWithOrdering(dataTable, rows);
+    }
+    return rows;
+  }
+
+  /**
+   * Merge selection rows into the selection results for selection queries with <code>ORDER BY</code>. (Broker side)
+   *
+   * @param rows selection rows to merge.
+   */
+  public void mergeWithOrdering(@Nonnull Collection<Serializable[]> rows) {
+    SelectionOperatorUtils.mergeWithOrdering(_rows, rows, _maxNumRows);
+  }
+
+  private void reduceWithOrdering(@Nonnull DataTable dataTable, @Nonnull PriorityQueue<Serializable[]> rows) {
+    int numRows = dataTable.getNumberOfRows();
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Serializable[] row = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
+      SelectionOperatorUtils.addToPriorityQueue(row, rows, _maxNumRows);
     }
   }
 
@@ -23,7 +23,9 @@ import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.DataSourceMetadata;
 import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -231,9 +233,28 @@ public class SelectionOperatorUtils {
   @Nonnull
   public static DataTable getDataTableFromRows(@Nonnull Collection<Serializable[]> rows, @Nonnull DataSchema dataSchema)
       throws Exception {
+    return getDataTableFromRows(rows, dataSchema, DataTableImplV2.VERSION,
+        ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  /**
+   * Build a {@link DataTable} of the given version from a {@link Collection} of selection rows with {@link DataSchema}.
+   * (Server side)
+   *
+   * @param rows {@link Collection} of selection rows.
+   * @param dataSchema data schema.
+   * @param version data table version to build.
+   * @param compressionType compression type for column blocks of version 3 data table.
+   * @return data table.
+   * @throws Exception
+   */
+  @Nonnull
+  public static DataTable getDataTableFromRows(@Nonnull Collection<Serializable[]> rows, @Nonnull DataSchema dataSchema,
+      int version, @Nonnull ChunkCompressorFactory.CompressionType compressionType)
+      throws Exception {
     int numColumns = dataSchema.size();
 
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, version, compressionType);
     for (Serializable[] row : rows) {
       dataTableBuilder.startRow();
       for (int i = 0; i < numColumns; i++) {
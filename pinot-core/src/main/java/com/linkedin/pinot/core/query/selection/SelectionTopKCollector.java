@@ -0,0 +1,372 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.selection;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.request.SelectionSort;
+import com.linkedin.pinot.core.common.Block;
+import com.linkedin.pinot.core.common.BlockMetadata;
+import com.linkedin.pinot.core.common.BlockSingleValIterator;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * The <code>SelectionTopKCollector</code> class collects the top K documents of a segment for selection queries with
+ * <code>ORDER BY</code>. (Inner segment)
+ * <p>Documents are compared on primitive sort keys instead of boxed values: dictionary ids for columns with sorted
+ * dictionary (dictionary ids keep the value order), or values otherwise. Each sort key is read at most once per
+ * document, and the secondary sort keys are read only if the document is not worse than the current K-th document on
+ * the first sort column. The selection columns are not read here, they only need to be fetched for the final K
+ * documents.
+ * <p>If the first sort column is sorted in the segment and the order is ascending, documents are scanned in the sort
+ * order, so the collector is done once a document is worse than the current K-th document on the first sort column.
+ * <p>Multi-value and bytes sort columns are not compared, same as the strict comparator in
+ * {@link SelectionOperatorService}.
+ */
+public class SelectionTopKCollector {
+  private final int _maxNumRows;
+  private final SortColumn[] _sortColumns;
+  private final int _numSortColumns;
+  private final boolean _canTerminateEarly;
+
+  // Entries [0, _maxNumRows] store the documents, where one entry is the scratch entry for the document being added
+  private final int[] _docIds;
+  // Heap of the entry ids, where the worst document is on the top
+  private final int[] _heap;
+  private int _numEntries;
+  private int _scratchEntryId;
+  private boolean _done;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param sortSequence De-duplicated sort sequence
+   * @param blocks Blocks of the sort columns in the same order as the sort sequence, followed by other columns
+   * @param maxNumRows Max number of documents to collect (offset + size)
+   * @param isFirstSortColumnSorted Whether the first sort column is sorted in the segment
+   */
+  public SelectionTopKCollector(@Nonnull List<SelectionSort> sortSequence, @Nonnull Block[] blocks, int maxNumRows,
+      boolean isFirstSortColumnSorted) {
+    _maxNumRows = maxNumRows;
+    List<SortColumn> sortColumns = new ArrayList<>();
+    boolean isFirstSortColumnComparable = false;
+    int numSortColumns = sortSequence.size();
+    for (int i = 0; i < numSortColumns; i++) {
+      SortColumn sortColumn = SortColumn.create(blocks[i], sortSequence.get(i).isIsAsc(), maxNumRows + 1);
+      if (sortColumn != null) {
+        sortColumns.add(sortColumn);
+        if (i == 0) {
+          isFirstSortColumnComparable = true;
+        }
+      }
+    }
+    _sortColumns = sortColumns.toArray(new SortColumn[0]);
+    _numSortColumns = _sortColumns.length;
+    // When no sort column is comparable, any K documents can be returned
+    _canTerminateEarly = _numSortColumns == 0 || (isFirstSortColumnComparable && isFirstSortColumnSorted
+        && _sortColumns[0]._isAsc);
+
+    _docIds = new int[maxNumRows + 1];
+    _heap = new int[maxNumRows];
+    _scratchEntryId = maxNumRows;
+  }
+
+  /**
+   * Adds a document. Documents must be added in ascending order of the document id.
+   */
+  public void add(int docId) {
+    if (_numEntries < _maxNumRows) {
+      int entryId = _numEntries;
+      for (SortColumn sortColumn : _sortColumns) {
+        sortColumn.readKey(docId, entryId);
+      }
+      _docIds[entryId] = docId;
+      _heap[_numEntries++] = entryId;
+      siftUp(entryId);
+      return;
+    }
+    if (_numSortColumns == 0) {
+      _done = true;
+      return;
+    }
+
+    // Compare with the current K-th document on the first sort column
+    int topEntryId = _heap[0];
+    int scratchEntryId = _scratchEntryId;
+    SortColumn firstSortColumn = _sortColumns[0];
+    firstSortColumn.readKey(docId, scratchEntryId);
+    int result = firstSortColumn.compare(scratchEntryId, topEntryId);
+    if (result > 0) {
+      if (_canTerminateEarly) {
+        _done = true;
+      }
+      return;
+    }
+    for (int i = 1; i < _numSortColumns; i++) {
+      _sortColumns[i].readKey(docId, scratchEntryId);
+    }
+    if (result == 0) {
+      for (int i = 1; i < _numSortColumns; i++) {
+        result = _sortColumns[i].compare(scratchEntryId, topEntryId);
+        if (result != 0) {
+          break;
+        }
+      }
+      if (result >= 0) {
+        return;
+      }
+    }
+
+    // Replace the current K-th document
+    _docIds[scratchEntryId] = docId;
+    _heap[0] = scratchEntryId;
+    _scratchEntryId = topEntryId;
+    siftDown();
+  }
+
+  /**
+   * Returns <code>true</code> if no more document can be collected, in which case the remaining documents do not need
+   * to be added.
+   */
+  public boolean isDone() {
+    return _done;
+  }
+
+  /**
+   * Returns the ids of the collected documents in ascending order.
+   */
+  public int[] getDocIds() {
+    int[] docIds = new int[_numEntries];
+    for (int i = 0; i < _numEntries; i++) {
+      docIds[i] = _docIds[_heap[i]];
+    }
+    Arrays.sort(docIds);
+    return docIds;
+  }
+
+  /**
+   * Returns the value of the first sort column for the current K-th document, or <code>null</code> if less than K
+   * documents are collected or the first sort column is not comparable.
+   */
+  @Nullable
+  public Comparable getKthValue() {
+    if (_numEntries < _maxNumRows || _numSortColumns == 0) {
+      return null;
+    }
+    return _sortColumns[0].getValue(_heap[0]);
+  }
+
+  /**
+   * Returns a positive value if the first entry is worse than the second entry, negative value if better, 0 if equal.
+   */
+  private int compare(int entryId1, int entryId2) {
+    for (int i = 0; i < _numSortColumns; i++) {
+      int result = _sortColumns[i].compare(entryId1, entryId2);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  private void siftUp(int index) {
+    int entryId = _heap[index];
+    while (index > 0) {
+      int parentIndex = (index - 1) >>> 1;
+      int parentEntryId = _heap[parentIndex];
+      if (compare(entryId, parentEntryId) <= 0) {
+        break;
+      }
+      _heap[index] = parentEntryId;
+      index = parentIndex;
+    }
+    _heap[index] = entryId;
+  }
+
+  private void siftDown() {
+    int index = 0;
+    int entryId = _heap[0];
+    int half = _numEntries >>> 1;
+    while (index < half) {
+      int childIndex = 2 * index + 1;
+      int childEntryId = _heap[childIndex];
+      int rightChildIndex = childIndex + 1;
+      if (rightChildIndex < _numEntries && compare(_heap[rightChildIndex], childEntryId) > 0) {
+        childIndex = rightChildIndex;
+        childEntryId = _heap[childIndex];
+      }
+      if (compare(entryId, childEntryId) >= 0) {
+        break;
+      }
+      _heap[index] = childEntryId;
+      index = childIndex;
+    }
+    _heap[index] = entryId;
+  }
+
+  /**
+   * Sort keys of one sort column for all the entries.
+   */
+  private static class SortColumn {
+    final boolean _isAsc;
+    final BlockSingleValIterator _iterator;
+    final FieldSpec.DataType _dataType;
+    // Dictionary for dictionary-encoded column, null for raw column
+    final Dictionary _dictionary;
+    // Whether the keys are dictionary ids (for sorted dictionary)
+    final boolean _isDictIdKey;
+    // Only one of the key arrays is used based on the data type
+    final long[] _longKeys;
+    final double[] _doubleKeys;
+    final String[] _stringKeys;
+
+    SortColumn(boolean isAsc, BlockSingleValIterator iterator, FieldSpec.DataType dataType,
+        @Nullable Dictionary dictionary, int numEntries) {
+      _isAsc = isAsc;
+      _iterator = iterator;
+      _dataType = dataType;
+      _dictionary = dictionary;
+      _isDictIdKey = dictionary != null && dictionary.isSorted();
+      if (_isDictIdKey) {
+        _longKeys = new long[numEntries];
+        _doubleKeys = null;
+        _stringKeys = null;
+      } else {
+        switch (dataType) {
+          case INT:
+          case LONG:
+            _longKeys = new long[numEntries];
+            _doubleKeys = null;
+            _stringKeys = null;
+            break;
+          case FLOAT:
+          case DOUBLE:
+            _longKeys = null;
+            _doubleKeys = new double[numEntries];
+            _stringKeys = null;
+            break;
+          case STRING:
+            _longKeys = null;
+            _doubleKeys = null;
+            _stringKeys = new String[numEntries];
+            break;
+          default:
+            throw new IllegalStateException("Unsupported data type: " + dataType);
+        }
+      }
+    }
+
+    /**
+     * Returns the sort column for the given block, or <code>null</code> if the column is not comparable.
+     */
+    @Nullable
+    static SortColumn create(Block block, boolean isAsc, int numEntries) {
+      BlockMetadata blockMetadata = block.getMetadata();
+      if (!blockMetadata.isSingleValue()) {
+        return null;
+      }
+      FieldSpec.DataType dataType = blockMetadata.getDataType();
+      switch (dataType) {
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+        case STRING:
+          Dictionary dictionary = blockMetadata.hasDictionary() ? blockMetadata.getDictionary() : null;
+          return new SortColumn(isAsc, (BlockSingleValIterator) block.getBlockValueSet().iterator(), dataType,
+              dictionary, numEntries);
+        default:
+          return null;
+      }
+    }
+
+    void readKey(int docId, int entryId) {
+      _iterator.skipTo(docId);
+      if (_dictionary != null) {
+        int dictId = _iterator.nextIntVal();
+        if (_isDictIdKey) {
+          _longKeys[entryId] = dictId;
+        } else {
+          switch (_dataType) {
+            case INT:
+            case LONG:
+              _longKeys[entryId] = _dictionary.getLongValue(dictId);
+              break;
+            case FLOAT:
+            case DOUBLE:
+              _doubleKeys[entryId] = _dictionary.getDoubleValue(dictId);
+              break;
+            default:
+              _stringKeys[entryId] = _dictionary.getStringValue(dictId);
+              break;
+          }
+        }
+      } else {
+        switch (_dataType) {
+          case INT:
+            _longKeys[entryId] = _iterator.nextIntVal();
+            break;
+          case LONG:
+            _longKeys[entryId] = _iterator.nextLongVal();
+            break;
+          case FLOAT:
+            _doubleKeys[entryId] = _iterator.nextFloatVal();
+            break;
+          case DOUBLE:
+            _doubleKeys[entryId] = _iterator.nextDoubleVal();
+            break;
+          default:
+            _stringKeys[entryId] = _iterator.nextStringVal();
+            break;
+        }
+      }
+    }
+
+    /**
+     * Returns a positive value if the first entry is worse than the second entry, negative value if better, 0 if
+     * equal.
+     */
+    int compare(int entryId1, int entryId2) {
+      int result;
+      if (_longKeys != null) {
+        result = Long.compare(_longKeys[entryId1], _longKeys[entryId2]);
+      } else if (_doubleKeys != null) {
+        result = Double.compare(_doubleKeys[entryId1], _doubleKeys[entryId2]);
+      } else {
+        result = _stringKeys[entryId1].compareTo(_stringKeys[entryId2]);
+      }
+      return _isAsc ? result : -result;
+    }
+
+    Comparable getValue(int entryId) {
+      if (_isDictIdKey) {
+        return (Comparable) _dictionary.get((int) _longKeys[entryId]);
+      }
+      if (_longKeys != null) {
+        return _longKeys[entryId];
+      } else if (_doubleKeys != null) {
+        return _doubleKeys[entryId];
+      } else {
+        return _stringKeys[entryId];
+      }
+    }
+  }
+}
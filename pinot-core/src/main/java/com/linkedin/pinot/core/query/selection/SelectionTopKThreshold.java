@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.selection;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.request.SelectionSort;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.common.DataSourceMetadata;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.realtime.impl.dictionary.MutableDictionary;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>SelectionTopKThreshold</code> class tracks the best known K-th value of the first sort column across the
+ * segments of a selection query with <code>ORDER BY</code>, and uses it to skip the segments that cannot contain any
+ * value better than it. (Server side)
+ * <p>If a segment has K documents not worse than a value, the K-th value of all segments is not worse than it either,
+ * so a segment whose best value (max for descending order, min for ascending order) is strictly worse than the
+ * threshold cannot contribute to the results.
+ * <p>The best value of a segment is read from the dictionary of the column. Segments with raw (no dictionary) column
+ * or non-comparable (e.g. BYTES) column are never skipped.
+ */
+@ThreadSafe
+public class SelectionTopKThreshold {
+  private final String _column;
+  private final boolean _isAsc;
+
+  private volatile Comparable _threshold;
+
+  public SelectionTopKThreshold(@Nonnull SelectionSort firstSelectionSort) {
+    _column = firstSelectionSort.getColumn();
+    _isAsc = firstSelectionSort.isIsAsc();
+  }
+
+  /**
+   * Updates the threshold with the K-th value of a segment.
+   */
+  public synchronized void update(@Nonnull Comparable kthValue) {
+    if (_threshold == null || compare(kthValue, _threshold) < 0) {
+      _threshold = kthValue;
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the given segment cannot contain any value better than the threshold.
+   */
+  public boolean canSkipSegment(@Nonnull IndexSegment indexSegment) {
+    Comparable threshold = _threshold;
+    if (threshold == null) {
+      return false;
+    }
+    Comparable bestValue = getBestValue(indexSegment);
+    return bestValue != null && compare(bestValue, threshold) > 0;
+  }
+
+  /**
+   * Sorts the segments so that the segments with better values are processed first, which makes the threshold more
+   * selective for the following segments. Segments without best value are put in the front because they cannot be
+   * skipped.
+   */
+  public void sortSegments(@Nonnull List<IndexSegment> indexSegments) {
+    Map<IndexSegment, Comparable> bestValueMap = new IdentityHashMap<>();
+    Class valueClass = null;
+    for (IndexSegment indexSegment : indexSegments) {
+      Comparable bestValue = getBestValue(indexSegment);
+      if (bestValue != null) {
+        // Values of different classes are not strictly ordered, do not sort the segments
+        if (valueClass == null) {
+          valueClass = bestValue.getClass();
+        } else if (bestValue.getClass() != valueClass) {
+          return;
+        }
+        bestValueMap.put(indexSegment, bestValue);
+      }
+    }
+    indexSegments.sort((segment1, segment2) -> {
+      Comparable value1 = bestValueMap.get(segment1);
+      Comparable value2 = bestValueMap.get(segment2);
+      if (value1 == null) {
+        return value2 == null ? 0 : -1;
+      }
+      if (value2 == null) {
+        return 1;
+      }
+      return compare(value1, value2);
+    });
+  }
+
+  /**
+   * Returns the best value of the column in the given segment, or <code>null</code> if not available.
+   */
+  @Nullable
+  private Comparable getBestValue(@Nonnull IndexSegment indexSegment) {
+    DataSource dataSource = indexSegment.getDataSource(_column);
+    if (dataSource == null) {
+      return null;
+    }
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    if (!dataSourceMetadata.isSingleValue() || dataSourceMetadata.getDataType() == FieldSpec.DataType.BYTES) {
+      return null;
+    }
+    Dictionary dictionary = dataSource.getDictionary();
+    if (dictionary == null) {
+      return null;
+    }
+    Object bestValue;
+    if (dictionary instanceof MutableDictionary) {
+      MutableDictionary mutableDictionary = (MutableDictionary) dictionary;
+      if (mutableDictionary.isEmpty()) {
+        return null;
+      }
+      bestValue = _isAsc ? mutableDictionary.getMinVal() : mutableDictionary.getMaxVal();
+    } else {
+      if (!dictionary.isSorted() || dictionary.length() == 0) {
+        return null;
+      }
+      bestValue = dictionary.get(_isAsc ? 0 : dictionary.length() - 1);
+    }
+    return bestValue instanceof Comparable ? (Comparable) bestValue : null;
+  }
+
+  /**
+   * Returns a positive value if the first value is worse than the second value, negative value if better, 0 if equal or
+   * not comparable.
+   */
+  @SuppressWarnings("unchecked")
+  private int compare(@Nonnull Comparable value1, @Nonnull Comparable value2) {
+    int result;
+    if (value1 instanceof Number && value2 instanceof Number) {
+      if ((value1 instanceof Integer || value1 instanceof Long) && (value2 instanceof Integer
+          || value2 instanceof Long)) {
+        result = Long.compare(((Number) value1).longValue(), ((Number) value2).longValue());
+      } else {
+        result = Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+      }
+    } else if (value1.getClass() == value2.getClass()) {
+      result = value1.compareTo(value2);
+    } else {
+      return 0;
+    }
+    return _isAsc ? result : -result;
+  }
+}
@@ -24,7 +24,6 @@ import com.linkedin.pinot.common.data.TimeFieldSpec;
 import com.linkedin.pinot.common.data.TimeGranularitySpec;
 import com.linkedin.pinot.common.metrics.ServerGauge;
 import com.linkedin.pinot.common.metrics.ServerMetrics;
-import com.linkedin.pinot.core.data.recordtransformer.CompoundTransformer;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
 import com.linkedin.pinot.core.indexsegment.mutable.MutableSegmentImpl;
@@ -138,7 +137,8 @@ public class RealtimeSegmentConverter {
     final SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
     RealtimeSegmentSegmentCreationDataSource dataSource =
         new RealtimeSegmentSegmentCreationDataSource(realtimeSegmentImpl, reader, dataSchema);
-    driver.init(genConfig, dataSource, CompoundTransformer.getPassThroughTransformer());
+    // Build the segment column-at-a-time from the dictionaries and forward indexes of the realtime segment
+    driver.init(genConfig, dataSource);
     driver.build();
 
     if (segmentPartitionConfig != null && segmentPartitionConfig.getColumnPartitionMap() != null) {
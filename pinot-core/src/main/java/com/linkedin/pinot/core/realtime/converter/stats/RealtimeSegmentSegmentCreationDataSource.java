@@ -19,15 +19,18 @@ import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.core.data.readers.RecordReader;
 import com.linkedin.pinot.core.indexsegment.mutable.MutableSegmentImpl;
 import com.linkedin.pinot.core.realtime.converter.RealtimeSegmentRecordReader;
-import com.linkedin.pinot.core.segment.creator.SegmentCreationDataSource;
+import com.linkedin.pinot.core.segment.creator.ColumnarSegmentCreationDataSource;
 import com.linkedin.pinot.core.segment.creator.SegmentPreIndexStatsContainer;
 import com.linkedin.pinot.core.segment.creator.StatsCollectorConfig;
+import com.linkedin.pinot.core.segment.index.data.source.ColumnDataSource;
+import javax.annotation.Nullable;
 
 
 /**
  * Segment creation data source that is based on an in-memory realtime segment.
+ * <p>The data can be read column-at-a-time from the forward indexes and dictionaries of the realtime segment.
  */
-public class RealtimeSegmentSegmentCreationDataSource implements SegmentCreationDataSource {
+public class RealtimeSegmentSegmentCreationDataSource implements ColumnarSegmentCreationDataSource {
   private final MutableSegmentImpl _realtimeSegment;
   private final RealtimeSegmentRecordReader _realtimeSegmentRecordReader;
   private final Schema _schema;
@@ -51,4 +54,15 @@ public class RealtimeSegmentSegmentCreationDataSource implements SegmentCreation
   public RecordReader getRecordReader() {
     return _realtimeSegmentRecordReader;
   }
+
+  @Nullable
+  @Override
+  public int[] getSortedDocIds() {
+    return _realtimeSegmentRecordReader.getSortedDocIdIterationOrder();
+  }
+
+  @Override
+  public ColumnDataSource getDataSource(String column) {
+    return _realtimeSegment.getDataSource(column);
+  }
 }
@@ -16,52 +16,76 @@
 package com.linkedin.pinot.core.realtime.impl.invertedindex;
 
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
+/**
+ * Inverted index for consuming segments, written by a single ingestion thread and read by query threads without
+ * locking or copying.
+ * <p>Document ids are always added in ascending order, so the posting list for each dictionary id is append-only: doc
+ * ids within the current chunk of 2^16 doc ids (same as a roaring bitmap container) are appended to an int array, and
+ * once the writer moves to the next chunk, the array is converted into an immutable bitmap. Readers iterate over the
+ * sealed bitmaps followed by the appended doc ids published when the iterator is created, and are expected to bound
+ * the iteration by the number of documents indexed.
+ */
 public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableRoaringBitmap> {
-  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
-  private final ReentrantReadWriteLock.ReadLock _readLock;
-  private final ReentrantReadWriteLock.WriteLock _writeLock;
-
-  public RealtimeInvertedIndexReader() {
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
-  }
+  private static final int CHUNK_SHIFT = 16;
+  private static final int INITIAL_POSTING_LISTS_CAPACITY = 16;
+  private static final int INITIAL_CHUNK_CAPACITY = 4;
+
+  // Posting lists are published before the number of posting lists, so that readers never see a missing posting list
+  private volatile PostingList[] _postingLists = new PostingList[INITIAL_POSTING_LISTS_CAPACITY];
+  private volatile int _numPostingLists;
 
   /**
-   * Add the document id to the bitmap for the given dictionary id.
+   * Add the document id to the posting list for the given dictionary id. Document ids must be added in ascending
+   * order, and only one thread can add document ids.
    */
   public void add(int dictId, int docId) {
-    if (_bitmaps.size() == dictId) {
-      // Bitmap for the dictionary id does not exist, add a new bitmap into the list
-      ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
-      try {
-        _writeLock.lock();
-        _bitmaps.add(bitmap);
-      } finally {
-        _writeLock.unlock();
+    int numPostingLists = _numPostingLists;
+    if (dictId == numPostingLists) {
+      // Posting list for the dictionary id does not exist, add a new posting list
+      PostingList[] postingLists = _postingLists;
+      if (numPostingLists == postingLists.length) {
+        postingLists = Arrays.copyOf(postingLists, numPostingLists * 2);
       }
+      postingLists[numPostingLists] = new PostingList(docId);
+      _postingLists = postingLists;
+      _numPostingLists = numPostingLists + 1;
     } else {
-      // Bitmap for the dictionary id already exists, check and add document id into the bitmap
-      _bitmaps.get(dictId).checkAndAdd(docId);
+      _postingLists[dictId].add(docId);
+    }
+  }
+
+  /**
+   * Returns an iterator over the document ids for the given dictionary id without copying the posting list.
+   * <p>Document ids added after this method returns are not visible to the iterator, and document ids not yet counted
+   * in the number of documents indexed might be returned, so callers should bound the iteration with it.
+   */
+  public IntIterator getDocIdIterator(int dictId) {
+    if (dictId >= _numPostingLists) {
+      // Dictionary id added to the dictionary but not yet to the inverted index
+      return EmptyIntIterator.INSTANCE;
     }
+    return _postingLists[dictId].iterator();
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>NOTE: this method materializes the posting list into a new bitmap, use {@link #getDocIdIterator(int)} to
+   * iterate over the document ids without copying.
+   */
   @Override
   public MutableRoaringBitmap getDocIds(int dictId) {
-    ThreadSafeMutableRoaringBitmap bitmap;
-    try {
-      _readLock.lock();
-      bitmap = _bitmaps.get(dictId);
-    } finally {
-      _readLock.unlock();
-    }
-    return bitmap.getMutableRoaringBitmap();
+    MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+    IntIterator intIterator = getDocIdIterator(dictId);
+    while (intIterator.hasNext()) {
+      bitmap.add(intIterator.next());
+    }
+    return bitmap;
   }
 
   @Override
@@ -69,26 +93,158 @@ public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableR
   }
 
   /**
-   * Helper wrapper class for {@link MutableRoaringBitmap} to make it thread-safe.
+   * Append-only posting list for a dictionary id.
+   */
+  private static class PostingList {
+    // Replaced (never modified) when the writer moves to the next chunk
+    private volatile PostingListState _state;
+
+    PostingList(int firstDocId) {
+      _state = new PostingListState(new MutableRoaringBitmap[0], new Chunk(firstDocId));
+    }
+
+    void add(int docId) {
+      PostingListState state = _state;
+      Chunk currentChunk = state._currentChunk;
+      if (docId >>> CHUNK_SHIFT == currentChunk._chunkId) {
+        currentChunk.add(docId);
+      } else {
+        // Seal the current chunk and start a new one
+        MutableRoaringBitmap[] sealedChunks = Arrays.copyOf(state._sealedChunks, state._sealedChunks.length + 1);
+        sealedChunks[sealedChunks.length - 1] = currentChunk.toBitmap();
+        _state = new PostingListState(sealedChunks, new Chunk(docId));
+      }
+    }
+
+    IntIterator iterator() {
+      return new PostingListIterator(_state);
+    }
+  }
+
+  private static class PostingListState {
+    final MutableRoaringBitmap[] _sealedChunks;
+    final Chunk _currentChunk;
+
+    PostingListState(MutableRoaringBitmap[] sealedChunks, Chunk currentChunk) {
+      _sealedChunks = sealedChunks;
+      _currentChunk = currentChunk;
+    }
+  }
+
+  /**
+   * Doc ids within the same chunk, appended to an array and published through the volatile size.
    */
-  private static class ThreadSafeMutableRoaringBitmap {
-    private MutableRoaringBitmap _mutableRoaringBitmap;
+  private static class Chunk {
+    final int _chunkId;
+    // The array is replaced before the size gets published, so that readers never see a missing doc id
+    volatile int[] _docIds = new int[INITIAL_CHUNK_CAPACITY];
+    volatile int _size;
 
-    public ThreadSafeMutableRoaringBitmap(int firstDocId) {
-      _mutableRoaringBitmap = new MutableRoaringBitmap();
-      _mutableRoaringBitmap.add(firstDocId);
+    Chunk(int firstDocId) {
+      _chunkId = firstDocId >>> CHUNK_SHIFT;
+      _docIds[0] = firstDocId;
+      _size = 1;
     }
 
-    public void checkAndAdd(int docId) {
-      if (!_mutableRoaringBitmap.contains(docId)) {
-        synchronized (this) {
-          _mutableRoaringBitmap.add(docId);
+    void add(int docId) {
+      int size = _size;
+      int[] docIds = _docIds;
+      // Multi-value column might contain the same value multiple times in a document
+      if (docIds[size - 1] == docId) {
+        return;
+      }
+      if (size == docIds.length) {
+        docIds = Arrays.copyOf(docIds, size * 2);
+        docIds[size] = docId;
+        _docIds = docIds;
+      } else {
+        docIds[size] = docId;
+      }
+      _size = size + 1;
+    }
+
+    MutableRoaringBitmap toBitmap() {
+      int size = _size;
+      int[] docIds = _docIds;
+      MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+      for (int i = 0; i < size; i++) {
+        bitmap.add(docIds[i]);
+      }
+      bitmap.runOptimize();
+      return bitmap;
+    }
+  }
+
+  private static class PostingListIterator implements IntIterator {
+    private final MutableRoaringBitmap[] _sealedChunks;
+    private final int[] _currentChunkDocIds;
+    private final int _currentChunkSize;
+
+    private int _sealedChunkIndex;
+    private IntIterator _sealedChunkIterator;
+    private int _currentChunkIndex;
+
+    PostingListIterator(PostingListState state) {
+      _sealedChunks = state._sealedChunks;
+      Chunk currentChunk = state._currentChunk;
+      // Read the size before the array so that the array contains at least that many doc ids
+      _currentChunkSize = currentChunk._size;
+      _currentChunkDocIds = currentChunk._docIds;
+    }
+
+    private PostingListIterator(PostingListIterator other) {
+      _sealedChunks = other._sealedChunks;
+      _currentChunkDocIds = other._currentChunkDocIds;
+      _currentChunkSize = other._currentChunkSize;
+      _sealedChunkIndex = other._sealedChunkIndex;
+      _sealedChunkIterator = other._sealedChunkIterator != null ? other._sealedChunkIterator.clone() : null;
+      _currentChunkIndex = other._currentChunkIndex;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (_sealedChunkIterator == null || !_sealedChunkIterator.hasNext()) {
+        if (_sealedChunkIndex == _sealedChunks.length) {
+          return _currentChunkIndex < _currentChunkSize;
         }
+        _sealedChunkIterator = _sealedChunks[_sealedChunkIndex++].getIntIterator();
+      }
+      return true;
+    }
+
+    @Override
+    public int next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
       }
+      if (_sealedChunkIterator != null && _sealedChunkIterator.hasNext()) {
+        return _sealedChunkIterator.next();
+      }
+      return _currentChunkDocIds[_currentChunkIndex++];
+    }
+
+    @Override
+    public IntIterator clone() {
+      return new PostingListIterator(this);
+    }
+  }
+
+  private static class EmptyIntIterator implements IntIterator {
+    static final EmptyIntIterator INSTANCE = new EmptyIntIterator();
+
+    @Override
+    public boolean hasNext() {
+      return false;
+    }
+
+    @Override
+    public int next() {
+      throw new NoSuchElementException();
     }
 
-    public synchronized MutableRoaringBitmap getMutableRoaringBitmap() {
-      return _mutableRoaringBitmap.clone();
+    @Override
+    public IntIterator clone() {
+      return this;
     }
   }
 }
@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator;
+
+import com.linkedin.pinot.core.segment.index.data.source.ColumnDataSource;
+import javax.annotation.Nullable;
+
+
+/**
+ * Data source used to build segments, which can provide the data column-at-a-time so that the segment can be built
+ * without reading the rows.
+ * <p>No record transformation is applied to the data from a columnar data source.
+ */
+public interface ColumnarSegmentCreationDataSource extends SegmentCreationDataSource {
+
+  /**
+   * Returns the doc ids of the data source in the order to be indexed, or <code>null</code> for doc id order.
+   */
+  @Nullable
+  int[] getSortedDocIds();
+
+  /**
+   * Returns the data source for the given column.
+   */
+  ColumnDataSource getDataSource(String column);
+}
@@ -18,10 +18,12 @@ package com.linkedin.pinot.core.segment.creator;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.segment.index.data.source.ColumnDataSource;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.ConfigurationException;
 
 
@@ -49,6 +51,18 @@ public interface SegmentCreator extends Closeable {
    */
   void indexRow(GenericRow row);
 
+  /**
+   * Adds all the values of a column to the index, reading them directly from the given column data source.
+   * <p>Documents are indexed in the order of the given doc ids, or in doc id order if the doc ids are
+   * <code>null</code>. Can be used instead of {@link #indexRow(GenericRow)} when the data is already stored in a
+   * columnar format, in which case it should be called once for each column.
+   *
+   * @param columnName Name of the column to index
+   * @param sortedDocIds Doc ids of the data source in the order to be indexed
+   * @param dataSource Column data source
+   */
+  void indexColumn(String columnName, @Nullable int[] sortedDocIds, ColumnDataSource dataSource);
+
   /**
    * Sets the name of the segment.
    *
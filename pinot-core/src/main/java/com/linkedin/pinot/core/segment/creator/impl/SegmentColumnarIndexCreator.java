@@ -22,10 +22,15 @@ import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.data.FieldSpec.FieldType;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.data.StarTreeIndexSpec;
+import com.linkedin.pinot.core.common.DataSourceMetadata;
 import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.data.partition.PartitionFunction;
+import com.linkedin.pinot.core.indexsegment.IndexSegmentUtils;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.reader.DataFileReader;
+import com.linkedin.pinot.core.io.reader.SingleColumnMultiValueReader;
+import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
 import com.linkedin.pinot.core.io.util.PinotDataBitSet;
 import com.linkedin.pinot.core.segment.creator.ColumnIndexCreationInfo;
 import com.linkedin.pinot.core.segment.creator.ForwardIndexCreator;
@@ -35,6 +40,7 @@ import com.linkedin.pinot.core.segment.creator.SegmentCreator;
 import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationInfo;
 import com.linkedin.pinot.core.segment.creator.SingleValueForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.SingleValueRawIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.bloom.BloomFilterCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.MultiValueUnsortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueSortedForwardIndexCreator;
@@ -42,6 +48,8 @@ import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueUnsortedForwa
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.inv.OnHeapBitmapInvertedIndexCreator;
+import com.linkedin.pinot.core.segment.index.data.source.ColumnDataSource;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 import com.linkedin.pinot.startree.hll.HllConfig;
 import java.io.File;
 import java.io.IOException;
@@ -51,6 +59,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.lang.math.IntRange;
@@ -76,6 +85,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new HashMap<>();
   private Map<String, ForwardIndexCreator> _forwardIndexCreatorMap = new HashMap<>();
   private Map<String, InvertedIndexCreator> _invertedIndexCreatorMap = new HashMap<>();
+  private Map<String, BloomFilterCreator> _bloomFilterCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
   private File _indexDir;
@@ -109,6 +119,14 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           "Cannot create inverted index for column: %s because it is not in schema", columnName);
       invertedIndexColumns.add(columnName);
     }
+    Set<String> bloomFilterColumns = new HashSet<>();
+    for (String columnName : config.getBloomFilterCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create bloom filter for column: %s because it is not in schema", columnName);
+      Preconditions.checkState(schema.getFieldSpecFor(columnName).getDataType() != FieldSpec.DataType.BYTES,
+          "Cannot create bloom filter for BYTES column: %s", columnName);
+      bloomFilterColumns.add(columnName);
+    }
 
     // Initialize creators for dictionary, forward index and inverted index
     for (FieldSpec fieldSpec : fieldSpecs) {
@@ -183,6 +201,14 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, fieldSpec.getDataType(), totalDocs,
                 indexCreationInfo.getLengthOfLongestEntry()));
       }
+
+      // Initialize bloom filter creator
+      if (bloomFilterColumns.contains(columnName)) {
+        // Cardinality is unknown for some raw index columns
+        int cardinality = indexCreationInfo.getDistinctValueCount();
+        int expectedNumValues = cardinality > 0 ? cardinality : totalDocs;
+        _bloomFilterCreatorMap.put(columnName, new BloomFilterCreator(_indexDir, columnName, expectedNumValues));
+      }
     }
   }
 
@@ -253,28 +279,113 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       if (columnValueToIndex == null) {
         throw new RuntimeException("Null value for column:" + columnName);
       }
+      indexValue(columnName, docIdCounter, columnValueToIndex);
+    }
+    docIdCounter++;
+  }
 
-      SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
-      if (schema.getFieldSpecFor(columnName).isSingleValueField()) {
-        if (dictionaryCreator != null) {
-          int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
-          ((SingleValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docIdCounter, dictId);
-          if (_invertedIndexCreatorMap.containsKey(columnName)) {
-            _invertedIndexCreatorMap.get(columnName).add(dictId);
-          }
-        } else {
-          ((SingleValueRawIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docIdCounter,
-              columnValueToIndex);
+  private void indexValue(String columnName, int docId, Object columnValueToIndex) {
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    if (schema.getFieldSpecFor(columnName).isSingleValueField()) {
+      if (dictionaryCreator != null) {
+        int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
+        ((SingleValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docId, dictId);
+        if (_invertedIndexCreatorMap.containsKey(columnName)) {
+          _invertedIndexCreatorMap.get(columnName).add(dictId);
         }
       } else {
-        int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
-        ((MultiValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docIdCounter, dictIds);
-        if (_invertedIndexCreatorMap.containsKey(columnName)) {
-          _invertedIndexCreatorMap.get(columnName).add(dictIds, dictIds.length);
+        ((SingleValueRawIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docId, columnValueToIndex);
+      }
+    } else {
+      int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
+      ((MultiValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docId, dictIds);
+      if (_invertedIndexCreatorMap.containsKey(columnName)) {
+        _invertedIndexCreatorMap.get(columnName).add(dictIds, dictIds.length);
+      }
+    }
+
+    BloomFilterCreator bloomFilterCreator = _bloomFilterCreatorMap.get(columnName);
+    if (bloomFilterCreator != null) {
+      if (columnValueToIndex instanceof Object[]) {
+        for (Object value : (Object[]) columnValueToIndex) {
+          bloomFilterCreator.add(value);
         }
+      } else {
+        bloomFilterCreator.add(columnValueToIndex);
+      }
+    }
+  }
+
+  @Override
+  public void indexColumn(String columnName, @Nullable int[] sortedDocIds, ColumnDataSource dataSource) {
+    Preconditions.checkState(_forwardIndexCreatorMap.containsKey(columnName), "Cannot index column: %s", columnName);
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    int numDocs = dataSourceMetadata.getNumDocs();
+    Preconditions.checkState(numDocs == totalDocs, "Number of docs: %s for column: %s does not match total docs: %s",
+        numDocs, columnName, totalDocs);
+
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    Dictionary dictionary = dataSource.getDictionary();
+    if (dictionaryCreator == null || dictionary == null) {
+      // Source or destination column is not dictionary-encoded, index the values one by one
+      FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
+      DataFileReader forwardIndex = dataSource.getForwardIndex();
+      int maxNumMultiValues = dataSourceMetadata.getMaxNumMultiValues();
+      for (int i = 0; i < numDocs; i++) {
+        int docId = sortedDocIds != null ? sortedDocIds[i] : i;
+        indexValue(columnName, i,
+            IndexSegmentUtils.getValue(docId, fieldSpec, forwardIndex, dictionary, maxNumMultiValues));
+      }
+      return;
+    }
+
+    // Map the dictionary ids in the data source to the dictionary ids in the sorted dictionary, so that the forward
+    // index can be re-written without looking up the values
+    int cardinality = dictionary.length();
+    int[] dictIdMap = new int[cardinality];
+    for (int i = 0; i < cardinality; i++) {
+      dictIdMap[i] = dictionaryCreator.indexOfSV(dictionary.get(i));
+    }
+
+    InvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+    if (dataSourceMetadata.isSingleValue()) {
+      SingleColumnSingleValueReader reader = (SingleColumnSingleValueReader) dataSource.getForwardIndex();
+      SingleValueForwardIndexCreator forwardIndexCreator =
+          (SingleValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName);
+      for (int i = 0; i < numDocs; i++) {
+        int docId = sortedDocIds != null ? sortedDocIds[i] : i;
+        int dictId = dictIdMap[reader.getInt(docId)];
+        forwardIndexCreator.index(i, dictId);
+        if (invertedIndexCreator != null) {
+          invertedIndexCreator.add(dictId);
+        }
+      }
+    } else {
+      SingleColumnMultiValueReader reader = (SingleColumnMultiValueReader) dataSource.getForwardIndex();
+      MultiValueForwardIndexCreator forwardIndexCreator =
+          (MultiValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName);
+      int[] buffer = new int[dataSourceMetadata.getMaxNumMultiValues()];
+      for (int i = 0; i < numDocs; i++) {
+        int docId = sortedDocIds != null ? sortedDocIds[i] : i;
+        int numValues = reader.getIntArray(docId, buffer);
+        int[] dictIds = new int[numValues];
+        for (int j = 0; j < numValues; j++) {
+          dictIds[j] = dictIdMap[buffer[j]];
+        }
+        forwardIndexCreator.index(i, dictIds);
+        if (invertedIndexCreator != null) {
+          invertedIndexCreator.add(dictIds, numValues);
+        }
+      }
+    }
+
+    // Each distinct value only needs to be added to the bloom filter once
+    BloomFilterCreator bloomFilterCreator = _bloomFilterCreatorMap.get(columnName);
+    if (bloomFilterCreator != null) {
+      for (int i = 0; i < cardinality; i++) {
+        bloomFilterCreator.add(dictionary.get(i));
       }
     }
-    docIdCounter++;
   }
 
   @Override
@@ -287,6 +398,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (InvertedIndexCreator invertedIndexCreator : _invertedIndexCreatorMap.values()) {
       invertedIndexCreator.seal();
     }
+    for (BloomFilterCreator bloomFilterCreator : _bloomFilterCreatorMap.values()) {
+      bloomFilterCreator.seal();
+    }
     writeMetadata();
   }
 
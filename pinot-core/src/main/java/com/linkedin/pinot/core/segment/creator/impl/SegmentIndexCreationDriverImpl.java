@@ -29,6 +29,7 @@ import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
 import com.linkedin.pinot.core.segment.creator.ColumnIndexCreationInfo;
 import com.linkedin.pinot.core.segment.creator.ColumnStatistics;
+import com.linkedin.pinot.core.segment.creator.ColumnarSegmentCreationDataSource;
 import com.linkedin.pinot.core.segment.creator.ForwardIndexType;
 import com.linkedin.pinot.core.segment.creator.InvertedIndexType;
 import com.linkedin.pinot.core.segment.creator.RecordReaderSegmentCreationDataSource;
@@ -75,6 +76,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
   private SegmentGeneratorConfig config;
   private RecordReader recordReader;
+  private ColumnarSegmentCreationDataSource _columnarDataSource;
   private SegmentPreIndexStatsContainer segmentStats;
   private Map<String, ColumnIndexCreationInfo> indexCreationInfoMap;
   private SegmentCreator indexCreator;
@@ -110,6 +112,16 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     init(config, dataSource, CompoundTransformer.getDefaultTransformer(dataSource.getRecordReader().getSchema()));
   }
 
+  /**
+   * Initializes the segment creation from a columnar data source, where the segment is built column-at-a-time directly
+   * from the data source without reading the rows (unless star-tree index is enabled). No record transformation is
+   * applied to the data.
+   */
+  public void init(SegmentGeneratorConfig config, ColumnarSegmentCreationDataSource dataSource) {
+    init(config, dataSource, CompoundTransformer.getPassThroughTransformer());
+    _columnarDataSource = dataSource;
+  }
+
   public void init(SegmentGeneratorConfig config, SegmentCreationDataSource dataSource,
       RecordTransformer recordTransformer) {
     this.config = config;
@@ -199,6 +211,8 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     if (createStarTree) {
       // TODO: add on-heap star-tree builder
       buildStarTree();
+    } else if (_columnarDataSource != null) {
+      buildColumnar();
     } else {
       buildRaw();
     }
@@ -348,6 +362,33 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     handlePostCreation();
   }
 
+  private void buildColumnar() throws Exception {
+    buildIndexCreationInfo();
+    LOGGER.info("Collected stats for {} documents", totalDocs);
+
+    try {
+      // Initialize the index creation using the per-column statistics information
+      indexCreator.init(config, segmentIndexCreationInfo, indexCreationInfoMap, dataSchema, tempIndexDir);
+
+      // Build the index column-at-a-time
+      LOGGER.info("Start building IndexCreator column-at-a-time!");
+      int[] sortedDocIds = _columnarDataSource.getSortedDocIds();
+      for (String column : indexCreationInfoMap.keySet()) {
+        long start = System.currentTimeMillis();
+        indexCreator.indexColumn(column, sortedDocIds, _columnarDataSource.getDataSource(column));
+        totalIndexTime += System.currentTimeMillis() - start;
+      }
+    } catch (Exception e) {
+      indexCreator.close();
+      throw e;
+    } finally {
+      recordReader.close();
+    }
+    LOGGER.info("Finished columns indexing in IndexCreator!");
+
+    handlePostCreation();
+  }
+
   private void handlePostCreation() throws Exception {
     final String timeColumn = config.getTimeColumnName();
     segmentName = config.getSegmentNameGenerator().generateSegmentName(segmentStats.getColumnProfileFor(timeColumn));
@@ -408,7 +449,8 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     if (starTreeV2BuilderConfigs != null && !starTreeV2BuilderConfigs.isEmpty()) {
       MultipleTreesBuilder.BuildMode buildMode =
           config.isOnHeap() ? MultipleTreesBuilder.BuildMode.ON_HEAP : MultipleTreesBuilder.BuildMode.OFF_HEAP;
-      new MultipleTreesBuilder(starTreeV2BuilderConfigs, indexDir, buildMode).build();
+      new MultipleTreesBuilder(starTreeV2BuilderConfigs, indexDir, buildMode,
+          config.getStarTreeV2NumBuildThreads()).build();
     }
   }
 
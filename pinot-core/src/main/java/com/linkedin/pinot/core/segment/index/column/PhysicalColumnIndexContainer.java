@@ -27,6 +27,7 @@ import com.linkedin.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import com.linkedin.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.BytesDictionary;
 import com.linkedin.pinot.core.segment.index.readers.DoubleDictionary;
 import com.linkedin.pinot.core.segment.index.readers.FloatDictionary;
@@ -54,6 +55,7 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   private final DataFileReader _forwardIndex;
   private final InvertedIndexReader _invertedIndex;
   private final ImmutableDictionaryReader _dictionary;
+  private final BloomFilterReader _bloomFilter;
 
   public PhysicalColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
       IndexLoadingConfig indexLoadingConfig) throws IOException {
@@ -64,6 +66,11 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       loadInvertedIndex = indexLoadingConfig.getInvertedIndexColumns().contains(columnName);
       loadOnHeapDictionary = indexLoadingConfig.getOnHeapDictionaryColumns().contains(columnName);
     }
+    if (segmentReader.hasIndexFor(columnName, ColumnIndexType.BLOOM_FILTER)) {
+      _bloomFilter = new BloomFilterReader(segmentReader.getIndexFor(columnName, ColumnIndexType.BLOOM_FILTER));
+    } else {
+      _bloomFilter = null;
+    }
     PinotDataBuffer fwdIndexBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.FORWARD_INDEX);
     if (metadata.hasDictionary()) {
       // Dictionary-based index
@@ -118,7 +125,12 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     return _dictionary;
   }
 
-  private static ImmutableDictionaryReader loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
+  @Override
+  public BloomFilterReader getBloomFilter() {
+    return _bloomFilter;
+  }
+
+  public static ImmutableDictionaryReader loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
       boolean loadOnHeap) {
     FieldSpec.DataType dataType = metadata.getDataType();
     if (loadOnHeap) {
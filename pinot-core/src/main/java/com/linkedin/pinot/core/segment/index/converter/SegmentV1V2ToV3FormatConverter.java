@@ -143,6 +143,9 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
         for (String column : allColumns) {
           copyExistingInvertedIndex(v2DataReader, v3DataWriter, column);
         }
+        for (String column : allColumns) {
+          copyExistingBloomFilter(v2DataReader, v3DataWriter, column);
+        }
         copyStarTree(v2DataReader, v3DataWriter);
         v3DataWriter.saveAndClose();
       }
@@ -195,6 +198,15 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
     }
   }
 
+  private void copyExistingBloomFilter(SegmentDirectory.Reader reader,
+      SegmentDirectory.Writer writer,
+      String column)
+      throws IOException {
+    if (reader.hasIndexFor(column, ColumnIndexType.BLOOM_FILTER)) {
+      readCopyBuffers(reader, writer, column, ColumnIndexType.BLOOM_FILTER);
+    }
+  }
+
   private void readCopyBuffers(SegmentDirectory.Reader reader, SegmentDirectory.Writer writer, String column,
       ColumnIndexType indexType) throws IOException {
     PinotDataBuffer oldBuffer = reader.getIndexFor(column, indexType);
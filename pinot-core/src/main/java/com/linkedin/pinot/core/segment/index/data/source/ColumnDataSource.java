@@ -143,6 +143,14 @@ public final class ColumnDataSource extends DataSource {
     return _metadata;
   }
 
+  /**
+   * Returns the forward index of the column, which stores the dictionary ids for dictionary-encoded columns, or the
+   * raw values for columns without dictionary.
+   */
+  public DataFileReader getForwardIndex() {
+    return _forwardIndex;
+  }
+
   @Override
   public InvertedIndexReader getInvertedIndex() {
     return _invertedIndex;
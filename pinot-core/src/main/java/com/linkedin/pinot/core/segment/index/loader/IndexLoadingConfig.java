@@ -41,6 +41,7 @@ public class IndexLoadingConfig {
   private ReadMode _readMode = ReadMode.DEFAULT_MODE;
   private List<String> _sortedColumns = Collections.emptyList();
   private Set<String> _invertedIndexColumns = new HashSet<>();
+  private Set<String> _bloomFilterColumns = new HashSet<>();
   private Set<String> _noDictionaryColumns = new HashSet<>(); // TODO: replace this by _noDictionaryConfig.
   private Map<String, String> _noDictionaryConfig = new HashMap<>();
   private Set<String> _onHeapDictionaryColumns = new HashSet<>();
@@ -52,6 +53,7 @@ public class IndexLoadingConfig {
   private boolean _enableSplitCommit;
   private boolean _isRealtimeOffheapAllocation;
   private boolean _isDirectRealtimeOffheapAllocation;
+  private int _realtimeNumDecoderThreads;
 
   public IndexLoadingConfig(@Nonnull InstanceDataManagerConfig instanceDataManagerConfig,
       @Nonnull TableConfig tableConfig) {
@@ -76,6 +78,11 @@ public class IndexLoadingConfig {
       _invertedIndexColumns.addAll(invertedIndexColumns);
     }
 
+    List<String> bloomFilterColumns = indexingConfig.getBloomFilterColumns();
+    if (bloomFilterColumns != null) {
+      _bloomFilterColumns.addAll(bloomFilterColumns);
+    }
+
     List<String> noDictionaryColumns = indexingConfig.getNoDictionaryColumns();
     if (noDictionaryColumns != null) {
       _noDictionaryColumns.addAll(noDictionaryColumns);
@@ -120,6 +127,7 @@ public class IndexLoadingConfig {
 
     _isRealtimeOffheapAllocation = instanceDataManagerConfig.isRealtimeOffHeapAllocation();
     _isDirectRealtimeOffheapAllocation = instanceDataManagerConfig.isDirectRealtimeOffheapAllocation();
+    _realtimeNumDecoderThreads = instanceDataManagerConfig.getRealtimeNumDecoderThreads();
 
     String avgMultiValueCount = instanceDataManagerConfig.getAvgMultiValueCount();
     if (avgMultiValueCount != null) {
@@ -163,6 +171,19 @@ public class IndexLoadingConfig {
     _invertedIndexColumns = invertedIndexColumns;
   }
 
+  @Nonnull
+  public Set<String> getBloomFilterColumns() {
+    return _bloomFilterColumns;
+  }
+
+  /**
+   * For tests only.
+   */
+  @VisibleForTesting
+  public void setBloomFilterColumns(@Nonnull Set<String> bloomFilterColumns) {
+    _bloomFilterColumns = bloomFilterColumns;
+  }
+
   @VisibleForTesting
   public void setOnHeapDictionaryColumns(@Nonnull Set<String> onHeapDictionaryColumns) {
     _onHeapDictionaryColumns = onHeapDictionaryColumns;
@@ -211,6 +232,10 @@ public class IndexLoadingConfig {
     return _isDirectRealtimeOffheapAllocation;
   }
 
+  public int getRealtimeNumDecoderThreads() {
+    return _realtimeNumDecoderThreads;
+  }
+
   @Nonnull
   public ColumnMinMaxValueGeneratorMode getColumnMinMaxValueGeneratorMode() {
     return _columnMinMaxValueGeneratorMode;
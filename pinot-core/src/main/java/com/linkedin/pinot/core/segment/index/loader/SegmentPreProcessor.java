@@ -19,6 +19,7 @@ import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.segment.ReadMode;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.loader.bloomfilter.BloomFilterHandler;
 import com.linkedin.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGenerator;
 import com.linkedin.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGeneratorMode;
 import com.linkedin.pinot.core.segment.index.loader.defaultcolumn.DefaultColumnHandler;
@@ -36,6 +37,7 @@ import org.apache.commons.io.FileUtils;
  * <p>Pre-processing steps include:
  * <ul>
  *   <li>Use {@link InvertedIndexHandler} to create inverted indices</li>
+ *   <li>Use {@link BloomFilterHandler} to create bloom filters</li>
  *   <li>Use {@link DefaultColumnHandler} to update auto-generated default columns</li>
  *   <li>Use {@link ColumnMinMaxValueGenerator} to add min/max value to column metadata</li>
  * </ul>
@@ -91,6 +93,11 @@ public class SegmentPreProcessor implements AutoCloseable {
           new InvertedIndexHandler(_indexDir, _segmentMetadata, _indexLoadingConfig, segmentWriter);
       invertedIndexHandler.createInvertedIndices();
 
+      // Create column bloom filters according to the index config.
+      BloomFilterHandler bloomFilterHandler =
+          new BloomFilterHandler(_indexDir, _segmentMetadata, _indexLoadingConfig, segmentWriter);
+      bloomFilterHandler.createBloomFilters();
+
       // Add min/max value to column metadata according to the prune mode.
       // For star-tree index, because it can only increase the range, so min/max value can still be used in pruner.
       ColumnMinMaxValueGeneratorMode columnMinMaxValueGeneratorMode =
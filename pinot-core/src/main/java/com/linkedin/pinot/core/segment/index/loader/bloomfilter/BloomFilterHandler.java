@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.loader.bloomfilter;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.reader.impl.ChunkReaderContext;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.creator.impl.bloom.BloomFilterCreator;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.column.PhysicalColumnIndexContainer;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
+import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>BloomFilterHandler</code> class creates the bloom filters for the columns configured in the index loading
+ * config that do not have one yet (e.g. segments created before the bloom filter was configured).
+ */
+public class BloomFilterHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BloomFilterHandler.class);
+
+  private final File _indexDir;
+  private final SegmentDirectory.Writer _segmentWriter;
+  private final String _segmentName;
+  private final SegmentVersion _segmentVersion;
+  private final Set<ColumnMetadata> _bloomFilterColumns = new HashSet<>();
+
+  public BloomFilterHandler(@Nonnull File indexDir, @Nonnull SegmentMetadataImpl segmentMetadata,
+      @Nonnull IndexLoadingConfig indexLoadingConfig, @Nonnull SegmentDirectory.Writer segmentWriter) {
+    _indexDir = indexDir;
+    _segmentWriter = segmentWriter;
+    _segmentName = segmentMetadata.getName();
+    _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+
+    for (String column : indexLoadingConfig.getBloomFilterColumns()) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      if (columnMetadata != null) {
+        if (columnMetadata.getDataType() == FieldSpec.DataType.BYTES) {
+          LOGGER.warn("Skip creating bloom filter for BYTES column: {} in segment: {}", column, _segmentName);
+        } else if (!columnMetadata.hasDictionary() && !columnMetadata.isSingleValue()) {
+          LOGGER.warn("Skip creating bloom filter for multi-value raw index column: {} in segment: {}", column,
+              _segmentName);
+        } else {
+          _bloomFilterColumns.add(columnMetadata);
+        }
+      }
+    }
+  }
+
+  public void createBloomFilters() throws IOException {
+    for (ColumnMetadata columnMetadata : _bloomFilterColumns) {
+      createBloomFilterForColumn(columnMetadata);
+    }
+  }
+
+  private void createBloomFilterForColumn(ColumnMetadata columnMetadata) throws IOException {
+    String column = columnMetadata.getColumnName();
+
+    File inProgress = new File(_indexDir, column + ".bloom.inprogress");
+    File bloomFilterFile = new File(_indexDir, column + V1Constants.Indexes.BLOOM_FILTER_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+
+      if (_segmentWriter.hasIndexFor(column, ColumnIndexType.BLOOM_FILTER)) {
+        // Skip creating bloom filter if already exists.
+
+        LOGGER.info("Found bloom filter for segment: {}, column: {}", _segmentName, column);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+
+      // Remove bloom filter if exists.
+      // For v1 and v2, it's the actual bloom filter. For v3, it's the temporary bloom filter.
+      FileUtils.deleteQuietly(bloomFilterFile);
+    }
+
+    // Create new bloom filter for the column.
+    LOGGER.info("Creating new bloom filter for segment: {}, column: {}", _segmentName, column);
+    if (columnMetadata.hasDictionary()) {
+      // Put all the values in the dictionary
+      int cardinality = columnMetadata.getCardinality();
+      BloomFilterCreator creator = new BloomFilterCreator(_indexDir, column, cardinality);
+      PinotDataBuffer dictionaryBuffer = _segmentWriter.getIndexFor(column, ColumnIndexType.DICTIONARY);
+      try (ImmutableDictionaryReader dictionary = PhysicalColumnIndexContainer.loadDictionary(dictionaryBuffer,
+          columnMetadata, false)) {
+        for (int i = 0; i < cardinality; i++) {
+          creator.add(dictionary.get(i));
+        }
+      }
+      creator.seal();
+    } else {
+      // Put all the values in the raw forward index
+      int numDocs = columnMetadata.getTotalDocs();
+      BloomFilterCreator creator = new BloomFilterCreator(_indexDir, column, numDocs);
+      PinotDataBuffer forwardIndexBuffer = _segmentWriter.getIndexFor(column, ColumnIndexType.FORWARD_INDEX);
+      FieldSpec.DataType dataType = columnMetadata.getDataType();
+      if (dataType == FieldSpec.DataType.STRING) {
+        try (VarByteChunkSingleValueReader reader = new VarByteChunkSingleValueReader(forwardIndexBuffer)) {
+          ChunkReaderContext context = reader.createContext();
+          for (int i = 0; i < numDocs; i++) {
+            creator.add(reader.getString(i, context));
+          }
+        }
+      } else {
+        try (FixedByteChunkSingleValueReader reader = new FixedByteChunkSingleValueReader(forwardIndexBuffer)) {
+          ChunkReaderContext context = reader.createContext();
+          for (int i = 0; i < numDocs; i++) {
+            switch (dataType) {
+              case INT:
+                creator.add(reader.getInt(i, context));
+                break;
+              case LONG:
+                creator.add(reader.getLong(i, context));
+                break;
+              case FLOAT:
+                creator.add(reader.getFloat(i, context));
+                break;
+              case DOUBLE:
+                creator.add(reader.getDouble(i, context));
+                break;
+              default:
+                throw new IllegalStateException("Unsupported data type: " + dataType + " for column: " + column);
+            }
+          }
+        }
+      }
+      creator.seal();
+    }
+
+    // For v3, write the generated bloom filter file into the single file and remove it.
+    if (_segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(_segmentWriter, column, bloomFilterFile, ColumnIndexType.BLOOM_FILTER);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created bloom filter for segment: {}, column: {}", _segmentName, column);
+  }
+}
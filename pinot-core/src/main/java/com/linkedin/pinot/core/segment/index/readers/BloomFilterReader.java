@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.readers;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+
+/**
+ * The <code>BloomFilterReader</code> class loads the bloom filter for a column on heap.
+ * <p>The bloom filter never returns false negatives, so if it does not contain a value, the column does not contain
+ * the value.
+ */
+public class BloomFilterReader {
+  private final BloomFilter<CharSequence> _bloomFilter;
+
+  public BloomFilterReader(PinotDataBuffer dataBuffer) throws IOException {
+    byte[] bytes = new byte[(int) dataBuffer.size()];
+    dataBuffer.copyTo(0, bytes);
+    _bloomFilter = BloomFilter.readFrom(new ByteArrayInputStream(bytes), Funnels.stringFunnel(Charsets.UTF_8));
+  }
+
+  /**
+   * Returns <code>false</code> if the column definitely does not contain the value (in string format),
+   * <code>true</code> if the column might contain the value.
+   */
+  public boolean mightContain(String value) {
+    return _bloomFilter.mightContain(value);
+  }
+}
@@ -18,6 +18,7 @@ package com.linkedin.pinot.core.segment.virtualcolumn;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.column.PhysicalColumnIndexContainer;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 
@@ -51,4 +52,9 @@ public class VirtualColumnIndexContainer implements ColumnIndexContainer {
   public Dictionary getDictionary() {
     return _dictionary;
   }
+
+  @Override
+  public BloomFilterReader getBloomFilter() {
+    return null;
+  }
 }
@@ -25,8 +25,13 @@ import com.linkedin.pinot.core.startree.v2.store.StarTreeIndexMapUtils;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.io.FileUtils;
@@ -43,6 +48,11 @@ import static com.linkedin.pinot.core.startree.v2.store.StarTreeIndexMapUtils.*;
  * {@code OFF_HEAP}).
  * <p>The indexes for all star-trees will be stored in a single index file, and there will be an extra index map file to
  * mark the offset and size of each index in the index file.
+ * <p>The star-trees are built in a {@link ForkJoinPool} with the given number of threads: multiple star-trees are built
+ * in parallel, and the records are sorted in parallel within each star-tree. Each star-tree is built in its own
+ * temporary directory, and the indexes are combined in the order of the builder configs as soon as they are built, so
+ * that only the temporary files of the star-trees not combined yet are kept on disk. Each thread builds its own
+ * star-tree, so the memory needed for building grows with the number of threads.
  */
 public class MultipleTreesBuilder {
   private static final Logger LOGGER = LoggerFactory.getLogger(MultipleTreesBuilder.class);
@@ -52,6 +62,7 @@ public class MultipleTreesBuilder {
   private final File _segmentDirectory;
   private final PropertiesConfiguration _metadataProperties;
   private final BuildMode _buildMode;
+  private final int _numThreads;
 
   public enum BuildMode {
     ON_HEAP, OFF_HEAP
@@ -67,6 +78,21 @@ public class MultipleTreesBuilder {
    */
   public MultipleTreesBuilder(List<StarTreeV2BuilderConfig> builderConfigs, File indexDir, BuildMode buildMode)
       throws Exception {
+    this(builderConfigs, indexDir, buildMode, 1);
+  }
+
+  /**
+   * Constructor for the multiple star-trees builder.
+   *
+   * @param builderConfigs List of builder configs
+   * @param indexDir Index directory
+   * @param buildMode Build mode (ON_HEAP or OFF_HEAP)
+   * @param numThreads Number of threads to build the star-trees
+   * @throws Exception
+   */
+  public MultipleTreesBuilder(List<StarTreeV2BuilderConfig> builderConfigs, File indexDir, BuildMode buildMode,
+      int numThreads) throws Exception {
+    Preconditions.checkArgument(numThreads > 0, "Number of threads must be positive");
     _builderConfigs = builderConfigs;
     _segmentDirectory = SegmentDirectoryPaths.findSegmentDirectory(indexDir);
     _segment = ImmutableSegmentLoader.load(indexDir, ReadMode.mmap);
@@ -78,6 +104,7 @@ public class MultipleTreesBuilder {
     Preconditions.checkState(!_metadataProperties.containsKey(MetadataKey.STAR_TREE_COUNT),
         "Star-tree v2 already exists");
     _buildMode = buildMode;
+    _numThreads = numThreads;
   }
 
   /**
@@ -86,8 +113,8 @@ public class MultipleTreesBuilder {
   public void build() throws Exception {
     long startTime = System.currentTimeMillis();
     int numStarTrees = _builderConfigs.size();
-    LOGGER.info("Start building {} star-trees with configs: {} using {} builder", numStarTrees, _builderConfigs,
-        _buildMode);
+    LOGGER.info("Start building {} star-trees with configs: {} using {} builder with {} threads", numStarTrees,
+        _builderConfigs, _buildMode, _numThreads);
 
     try (
         StarTreeIndexCombiner indexCombiner = new StarTreeIndexCombiner(new File(_segmentDirectory, INDEX_FILE_NAME))) {
@@ -97,14 +124,47 @@ public class MultipleTreesBuilder {
       List<Map<IndexKey, IndexValue>> indexMaps = new ArrayList<>(numStarTrees);
 
       // Build all star-trees
-      for (int i = 0; i < numStarTrees; i++) {
-        StarTreeV2BuilderConfig builderConfig = _builderConfigs.get(i);
-        Configuration metadataProperties = _metadataProperties.subset(MetadataKey.getStarTreePrefix(i));
-        try (SingleTreeBuilder singleTreeBuilder = getSingleTreeBuilder(builderConfig, starTreeIndexDir, _segment,
-            metadataProperties, _buildMode)) {
-          singleTreeBuilder.build();
+      // NOTE: the metadata properties are not thread-safe, so each star-tree writes its metadata into a separate
+      // configuration, which is copied into the segment metadata after the star-tree is built
+      Configuration[] metadataProperties = new Configuration[numStarTrees];
+      List<ForkJoinTask<?>> tasks = new ArrayList<>(numStarTrees);
+      ForkJoinPool forkJoinPool = new ForkJoinPool(_numThreads);
+      try {
+        for (int i = 0; i < numStarTrees; i++) {
+          StarTreeV2BuilderConfig builderConfig = _builderConfigs.get(i);
+          File outputDir = new File(starTreeIndexDir, Integer.toString(i));
+          FileUtils.forceMkdir(outputDir);
+          metadataProperties[i] = new BaseConfiguration();
+          Configuration treeMetadataProperties = metadataProperties[i];
+          tasks.add(forkJoinPool.submit(() -> {
+            try (SingleTreeBuilder singleTreeBuilder = getSingleTreeBuilder(builderConfig, outputDir, _segment,
+                treeMetadataProperties, _buildMode)) {
+              singleTreeBuilder.build();
+            }
+            return null;
+          }));
+        }
+
+        // Combine the indexes and the metadata in the order of the builder configs, each star-tree is combined as soon
+        // as it and the star-trees before it are built, so that its temporary files can be removed right away
+        for (int i = 0; i < numStarTrees; i++) {
+          try {
+            tasks.get(i).get();
+          } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+          }
+          StarTreeV2BuilderConfig builderConfig = _builderConfigs.get(i);
+          Configuration treeMetadataProperties = _metadataProperties.subset(MetadataKey.getStarTreePrefix(i));
+          Iterator<String> keys = metadataProperties[i].getKeys();
+          while (keys.hasNext()) {
+            String key = keys.next();
+            treeMetadataProperties.addProperty(key, metadataProperties[i].getProperty(key));
+          }
+          indexMaps.add(indexCombiner.combine(builderConfig, new File(starTreeIndexDir, Integer.toString(i))));
         }
-        indexMaps.add(indexCombiner.combine(builderConfig, starTreeIndexDir));
+      } finally {
+        forkJoinPool.shutdownNow();
       }
 
       // Save the metadata and index maps to the disk
@@ -37,13 +37,19 @@ import static com.linkedin.pinot.core.startree.v2.StarTreeV2Constants.*;
 
 /**
  * The {@code OffHeapSingleTreeBuilder} class is the single star-tree builder that uses off-heap memory.
+ * <p>Records are sorted with {@link RadixSortUtils} on the dimension dictionary ids. The temporary buffers of the radix
+ * sort (8 bytes of heap per record) are reused across sorts, and when they would exceed 500M bytes, records are sorted
+ * with quick sort instead, which needs no temporary buffer.
  */
 public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
   private static final String SEGMENT_RECORD_FILE_NAME = "segment.record";
   private static final String STAR_TREE_RECORD_FILE_NAME = "star-tree.record";
   // If the temporary buffer needed is larger than 500M, use MMAP, otherwise use DIRECT
   private static final long MMAP_SIZE_THRESHOLD = 500_000_000;
+  // If the temporary buffers needed for radix sort are larger than 500M, use quick sort instead
+  private static final long RADIX_SORT_BUFFER_SIZE_THRESHOLD = 500_000_000;
 
+  private final int[] _dimensionCardinalities;
   private final File _segmentRecordFile;
   private final File _starTreeRecordFile;
   private final BufferedOutputStream _starTreeRecordOutputStream;
@@ -51,6 +57,9 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
 
   private PinotDataBuffer _starTreeRecordBuffer;
   private int _numReadableStarTreeRecords;
+  // Temporary buffers for radix sort, reused across sorts
+  private int[] _radixSortIdBuffer = new int[0];
+  private int[] _radixSortKeyBuffer = new int[0];
 
   /**
    * Constructor for the off-heap single star-tree builder.
@@ -64,6 +73,10 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
   public OffHeapSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir, ImmutableSegment segment,
       Configuration metadataProperties) throws FileNotFoundException {
     super(builderConfig, outputDir, segment, metadataProperties);
+    _dimensionCardinalities = new int[_numDimensions];
+    for (int i = 0; i < _numDimensions; i++) {
+      _dimensionCardinalities[i] = segment.getDictionary(_dimensionsSplitOrder[i]).length();
+    }
     _segmentRecordFile = new File(_outputDir, SEGMENT_RECORD_FILE_NAME);
     Preconditions.checkState(!_segmentRecordFile.exists(),
         "Segment record file: " + _segmentRecordFile + " already exists");
@@ -183,6 +196,44 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
     }
   }
 
+  /**
+   * Helper method to sort the doc ids on the keys in the order of the key index.
+   */
+  private void sortDocIds(int[] docIds, int[] cardinalities, RadixSortUtils.KeyReader keyReader) {
+    int numDocs = docIds.length;
+    if ((long) numDocs * 2 * Integer.BYTES > RADIX_SORT_BUFFER_SIZE_THRESHOLD) {
+      int numKeys = cardinalities.length;
+      it.unimi.dsi.fastutil.Arrays.quickSort(0, numDocs, new IntComparator() {
+        @Override
+        public int compare(int i1, int i2) {
+          for (int i = 0; i < numKeys; i++) {
+            int key1 = keyReader.getKey(docIds[i1], i);
+            int key2 = keyReader.getKey(docIds[i2], i);
+            if (key1 != key2) {
+              return key1 - key2;
+            }
+          }
+          return 0;
+        }
+
+        @Override
+        public int compare(Integer o1, Integer o2) {
+          throw new UnsupportedOperationException();
+        }
+      }, (i1, i2) -> {
+        int temp = docIds[i1];
+        docIds[i1] = docIds[i2];
+        docIds[i2] = temp;
+      });
+    } else {
+      if (_radixSortIdBuffer.length < numDocs) {
+        _radixSortIdBuffer = new int[numDocs];
+        _radixSortKeyBuffer = new int[numDocs];
+      }
+      RadixSortUtils.sort(docIds, numDocs, cardinalities, keyReader, _radixSortIdBuffer, _radixSortKeyBuffer);
+    }
+  }
+
   @Override
   Iterator<Record> sortAndAggregateSegmentRecords(int numDocs) throws IOException {
     // Write all dimensions for segment records into the buffer, and sort all records using an int array
@@ -208,30 +259,8 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
           offset += Integer.BYTES;
         }
       }
-      it.unimi.dsi.fastutil.Arrays.quickSort(0, numDocs, new IntComparator() {
-        @Override
-        public int compare(int i1, int i2) {
-          long offset1 = (long) sortedDocIds[i1] * _numDimensions * Integer.BYTES;
-          long offset2 = (long) sortedDocIds[i2] * _numDimensions * Integer.BYTES;
-          for (int i = 0; i < _numDimensions; i++) {
-            int dimension1 = dataBuffer.getInt(offset1 + i * Integer.BYTES);
-            int dimension2 = dataBuffer.getInt(offset2 + i * Integer.BYTES);
-            if (dimension1 != dimension2) {
-              return dimension1 - dimension2;
-            }
-          }
-          return 0;
-        }
-
-        @Override
-        public int compare(Integer o1, Integer o2) {
-          throw new UnsupportedOperationException();
-        }
-      }, (i1, i2) -> {
-        int temp = sortedDocIds[i1];
-        sortedDocIds[i1] = sortedDocIds[i2];
-        sortedDocIds[i2] = temp;
-      });
+      sortDocIds(sortedDocIds, _dimensionCardinalities,
+          (docId, dimensionId) -> dataBuffer.getInt(((long) docId * _numDimensions + dimensionId) * Integer.BYTES));
     } finally {
       dataBuffer.close();
       if (_segmentRecordFile.exists()) {
@@ -278,30 +307,11 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
     for (int i = 0; i < numDocs; i++) {
       sortedDocIds[i] = startDocId + i;
     }
-    it.unimi.dsi.fastutil.Arrays.quickSort(0, numDocs, new IntComparator() {
-      @Override
-      public int compare(int i1, int i2) {
-        long offset1 = _starTreeRecordOffsets.get(sortedDocIds[i1]);
-        long offset2 = _starTreeRecordOffsets.get(sortedDocIds[i2]);
-        for (int i = dimensionId + 1; i < _numDimensions; i++) {
-          int dimension1 = _starTreeRecordBuffer.getInt(offset1 + i * Integer.BYTES);
-          int dimension2 = _starTreeRecordBuffer.getInt(offset2 + i * Integer.BYTES);
-          if (dimension1 != dimension2) {
-            return dimension1 - dimension2;
-          }
-        }
-        return 0;
-      }
-
-      @Override
-      public int compare(Integer o1, Integer o2) {
-        throw new UnsupportedOperationException();
-      }
-    }, (i1, i2) -> {
-      int temp = sortedDocIds[i1];
-      sortedDocIds[i1] = sortedDocIds[i2];
-      sortedDocIds[i2] = temp;
-    });
+    // Only sort on the dimensions after the star-node dimension
+    int[] cardinalities = Arrays.copyOfRange(_dimensionCardinalities, dimensionId + 1, _numDimensions);
+    sortDocIds(sortedDocIds, cardinalities,
+        (docId, keyIndex) -> _starTreeRecordBuffer.getInt(
+            _starTreeRecordOffsets.get(docId) + (dimensionId + 1 + keyIndex) * Integer.BYTES));
 
     // Create an iterator for aggregated records
     return new Iterator<Record>() {
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.startree.v2.builder;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+
+/**
+ * The {@code RadixSortUtils} class provides the LSD radix sort on tuples of dictionary ids, which is used to sort the
+ * records when building the star-tree.
+ * <p>Each pass is a stable counting sort on one key, from the last key to the first key, so the cost is linear to the
+ * number of ids for each key instead of reading all the keys on each comparison. When called from a
+ * {@link ForkJoinPool} (e.g. from {@link MultipleTreesBuilder}), each pass is split into chunks that are counted and
+ * scattered in parallel; otherwise the sort runs on the calling thread.
+ * <p>The sort needs 2 temporary int arrays of the same size as the ids (8 bytes of heap per id), which can be passed in
+ * to be reused across sorts.
+ */
+public class RadixSortUtils {
+  private RadixSortUtils() {
+  }
+
+  // Do not split the ids into chunks smaller than this
+  private static final int MIN_CHUNK_SIZE = 100_000;
+  // Max number of counters for all chunks of a pass, to bound the memory for high cardinality keys
+  private static final int MAX_NUM_COUNTERS = 1 << 24;
+
+  /**
+   * Reads the key of an id.
+   */
+  public interface KeyReader {
+
+    /**
+     * Returns the key at the given index for the id, which should be in range [0, cardinality of the key).
+     */
+    int getKey(int id, int keyIndex);
+  }
+
+  /**
+   * Sorts the ids in place on the keys in the order of the key index.
+   *
+   * @param ids Ids to sort
+   * @param cardinalities Cardinality of each key
+   * @param keyReader Reader for the keys
+   */
+  public static void sort(int[] ids, int[] cardinalities, KeyReader keyReader) {
+    sort(ids, ids.length, cardinalities, keyReader, new int[ids.length], new int[ids.length]);
+  }
+
+  /**
+   * Sorts the first {@code numIds} ids in place on the keys in the order of the key index, using the given temporary
+   * buffers.
+   *
+   * @param ids Ids to sort
+   * @param numIds Number of ids to sort
+   * @param cardinalities Cardinality of each key
+   * @param keyReader Reader for the keys
+   * @param idBuffer Temporary buffer for the ids, of size at least {@code numIds}
+   * @param keyBuffer Temporary buffer for the keys, of size at least {@code numIds}
+   */
+  public static void sort(int[] ids, int numIds, int[] cardinalities, KeyReader keyReader, int[] idBuffer,
+      int[] keyBuffer) {
+    Preconditions.checkArgument(idBuffer.length >= numIds && keyBuffer.length >= numIds,
+        "Temporary buffers are smaller than the number of ids: %s", numIds);
+    if (numIds <= 1) {
+      return;
+    }
+    ForkJoinPool pool = ForkJoinTask.getPool();
+    int parallelism = pool != null ? pool.getParallelism() : 1;
+
+    int[] src = ids;
+    int[] dst = idBuffer;
+    int[] keys = keyBuffer;
+    for (int keyIndex = cardinalities.length - 1; keyIndex >= 0; keyIndex--) {
+      int cardinality = cardinalities[keyIndex];
+      if (cardinality <= 1) {
+        // All ids have the same key
+        continue;
+      }
+      int numChunks = Math.min(parallelism, numIds / MIN_CHUNK_SIZE);
+      numChunks = Math.max(Math.min(numChunks, MAX_NUM_COUNTERS / cardinality), 1);
+      if (numChunks == 1) {
+        sortOnKey(src, dst, keys, numIds, cardinality, keyReader, keyIndex);
+      } else {
+        sortOnKeyInParallel(src, dst, keys, numIds, cardinality, keyReader, keyIndex, numChunks);
+      }
+      int[] temp = src;
+      src = dst;
+      dst = temp;
+    }
+    if (src != ids) {
+      System.arraycopy(src, 0, ids, 0, numIds);
+    }
+  }
+
+  private static void sortOnKey(int[] src, int[] dst, int[] keys, int numIds, int cardinality, KeyReader keyReader,
+      int keyIndex) {
+    int[] offsets = new int[cardinality];
+    for (int i = 0; i < numIds; i++) {
+      int key = keyReader.getKey(src[i], keyIndex);
+      keys[i] = key;
+      offsets[key]++;
+    }
+    int offset = 0;
+    for (int key = 0; key < cardinality; key++) {
+      int count = offsets[key];
+      offsets[key] = offset;
+      offset += count;
+    }
+    for (int i = 0; i < numIds; i++) {
+      dst[offsets[keys[i]]++] = src[i];
+    }
+  }
+
+  private static void sortOnKeyInParallel(int[] src, int[] dst, int[] keys, int numIds, int cardinality,
+      KeyReader keyReader, int keyIndex, int numChunks) {
+    int chunkSize = (numIds + numChunks - 1) / numChunks;
+    // Offsets for chunk i are stored in [i * cardinality, (i + 1) * cardinality)
+    int[] offsets = new int[numChunks * cardinality];
+
+    // Count the keys for each chunk
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(numChunks);
+    for (int i = 0; i < numChunks; i++) {
+      int chunkId = i;
+      tasks.add(ForkJoinTask.adapt(() -> {
+        int base = chunkId * cardinality;
+        int end = Math.min((chunkId + 1) * chunkSize, numIds);
+        for (int j = chunkId * chunkSize; j < end; j++) {
+          int key = keyReader.getKey(src[j], keyIndex);
+          keys[j] = key;
+          offsets[base + key]++;
+        }
+      }));
+    }
+    ForkJoinTask.invokeAll(tasks);
+
+    // Compute the offsets so that ids with the same key keep their order across chunks
+    int offset = 0;
+    for (int key = 0; key < cardinality; key++) {
+      for (int i = 0; i < numChunks; i++) {
+        int index = i * cardinality + key;
+        int count = offsets[index];
+        offsets[index] = offset;
+        offset += count;
+      }
+    }
+
+    // Scatter the ids for each chunk
+    tasks.clear();
+    for (int i = 0; i < numChunks; i++) {
+      int chunkId = i;
+      tasks.add(ForkJoinTask.adapt(() -> {
+        int base = chunkId * cardinality;
+        int end = Math.min((chunkId + 1) * chunkSize, numIds);
+        for (int j = chunkId * chunkSize; j < end; j++) {
+          dst[offsets[base + keys[j]]++] = src[j];
+        }
+      }));
+    }
+    ForkJoinTask.invokeAll(tasks);
+  }
+}
@@ -21,12 +21,18 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 
 /**
  * The {@code AsyncQueryResponse} class represents an asynchronous query response.
  * <p>Call {@link #getResponse()} to get the query response asynchronously.
+ * <p>If a data table consumer is given, each data table is passed to it on the receiving thread before the response is
+ * marked received, so that the consumer can start processing the data table before all the servers responded.
+ * <p>The intermediate chunks of chunked responses are only passed to the consumer, the server response is completed by
+ * the last response which carries the execution statistics.
  */
 @ThreadSafe
 public class AsyncQueryResponse {
@@ -35,9 +41,10 @@ public class AsyncQueryResponse {
   private final ConcurrentHashMap<Server, ServerResponse> _responseMap;
   private final CountDownLatch _countDownLatch;
   private final long _maxEndTimeMs;
+  private final Consumer<DataTable> _dataTableConsumer;
 
   public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<Server> serversQueried, long startTimeMs,
-      long timeoutMs) {
+      long timeoutMs, @Nullable Consumer<DataTable> dataTableConsumer) {
     _queryRouter = queryRouter;
     _requestId = requestId;
     int numServersQueried = serversQueried.size();
@@ -47,6 +54,7 @@ public class AsyncQueryResponse {
     }
     _countDownLatch = new CountDownLatch(numServersQueried);
     _maxEndTimeMs = startTimeMs + timeoutMs;
+    _dataTableConsumer = dataTableConsumer;
   }
 
   /**
@@ -74,13 +82,25 @@ public class AsyncQueryResponse {
     return stringBuilder.toString();
   }
 
+  Set<Server> getServersQueried() {
+    return _responseMap.keySet();
+  }
+
   void markRequestSubmitted(Server server) {
     _responseMap.get(server).markRequestSubmitted();
   }
 
   void receiveDataTable(Server server, DataTable dataTable, long responseSize, long deserializationTimeMs) {
-    _responseMap.get(server).receiveDataTable(dataTable, responseSize, deserializationTimeMs);
-    _countDownLatch.countDown();
+    if (_dataTableConsumer != null) {
+      _dataTableConsumer.accept(dataTable);
+    }
+    ServerResponse serverResponse = _responseMap.get(server);
+    if (dataTable.getMetadata().containsKey(DataTable.RESPONSE_CHUNK_METADATA_KEY)) {
+      serverResponse.receiveDataTableChunk(responseSize, deserializationTimeMs);
+    } else {
+      serverResponse.receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+      _countDownLatch.countDown();
+    }
   }
 
   void markQueryFailed() {
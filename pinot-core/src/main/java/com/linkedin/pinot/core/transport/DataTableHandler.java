@@ -19,9 +19,13 @@ import com.linkedin.pinot.common.metrics.BrokerMeter;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.datatable.DataTableFactory;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV3;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import java.util.ArrayList;
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,11 +36,22 @@ public class DataTableHandler extends SimpleChannelInboundHandler<ByteBuf> {
   private final QueryRouter _queryRouter;
   private final Server _server;
   private final BrokerMetrics _brokerMetrics;
+  private final Set<Long> _inFlightRequestIds;
 
   public DataTableHandler(QueryRouter queryRouter, Server server, BrokerMetrics brokerMetrics) {
+    this(queryRouter, server, brokerMetrics, null);
+  }
+
+  /**
+   * Constructor for a channel shared with other channels to the same server, where only the in-flight requests on this
+   * channel are failed when the channel becomes inactive.
+   */
+  public DataTableHandler(QueryRouter queryRouter, Server server, BrokerMetrics brokerMetrics,
+      @Nullable Set<Long> inFlightRequestIds) {
     _queryRouter = queryRouter;
     _server = server;
     _brokerMetrics = brokerMetrics;
+    _inFlightRequestIds = inFlightRequestIds;
   }
 
   @Override
@@ -46,8 +61,15 @@ public class DataTableHandler extends SimpleChannelInboundHandler<ByteBuf> {
 
   @Override
   public void channelInactive(ChannelHandlerContext ctx) {
-    LOGGER.error("Channel for server: {} is now inactive, marking server down", _server);
-    _queryRouter.markServerDown(_server);
+    if (_inFlightRequestIds == null) {
+      LOGGER.error("Channel for server: {} is now inactive, marking server down", _server);
+      _queryRouter.markServerDown(_server);
+    } else {
+      LOGGER.error("Channel for server: {} is now inactive, failing the in-flight requests on the channel", _server);
+      for (long requestId : new ArrayList<>(_inFlightRequestIds)) {
+        _queryRouter.markServerDown(_server, requestId);
+      }
+    }
   }
 
   @Override
@@ -56,7 +78,16 @@ public class DataTableHandler extends SimpleChannelInboundHandler<ByteBuf> {
     _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_RECEIVED, responseSize);
     try {
       long deserializationStartTimeMs = System.currentTimeMillis();
-      DataTable dataTable = DataTableFactory.getDataTable(msg.nioBuffer());
+      DataTable dataTable;
+      if (msg.getInt(msg.readerIndex()) >= DataTableImplV3.VERSION) {
+        // Data table reads directly from the buffer, copy the bytes out because the message is released after this
+        // method returns
+        byte[] bytes = new byte[(int) responseSize];
+        msg.getBytes(msg.readerIndex(), bytes);
+        dataTable = DataTableFactory.getDataTable(bytes);
+      } else {
+        dataTable = DataTableFactory.getDataTable(msg.nioBuffer());
+      }
       _queryRouter.receiveDataTable(_server, dataTable, responseSize,
           System.currentTimeMillis() - deserializationStartTimeMs);
     } catch (Exception e) {
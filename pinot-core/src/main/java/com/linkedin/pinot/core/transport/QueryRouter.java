@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.transport;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.request.BrokerRequest;
@@ -25,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.slf4j.Logger;
@@ -34,7 +36,8 @@ import org.slf4j.LoggerFactory;
 /**
  * The {@code QueryRouter} class provides methods to route the query based on the routing table, and returns a
  * {@link AsyncQueryResponse} so that caller can handle the query response asynchronously.
- * <p>It works on {@link ServerChannels} which maintains only a single connection between the broker and each server.
+ * <p>It works on {@link ServerChannels} which maintains a small fixed number of multiplexed connections between the
+ * broker and each server.
  */
 @ThreadSafe
 public class QueryRouter {
@@ -46,15 +49,31 @@ public class QueryRouter {
   private final ConcurrentHashMap<Long, AsyncQueryResponse> _asyncQueryResponseMap = new ConcurrentHashMap<>();
 
   public QueryRouter(String brokerId, BrokerMetrics brokerMetrics) {
+    this(brokerId, brokerMetrics, 1);
+  }
+
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, int numChannelsPerServer) {
     _brokerId = brokerId;
     _brokerMetrics = brokerMetrics;
-    _serverChannels = new ServerChannels(this, brokerMetrics);
+    _serverChannels = new ServerChannels(this, brokerMetrics, numChannelsPerServer);
   }
 
   public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
       @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<String, List<String>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<String, List<String>> realtimeRoutingTable,
       long timeoutMs) {
+    return submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
+        realtimeRoutingTable, timeoutMs, null);
+  }
+
+  /**
+   * Submits the query to the servers, where each data table received is passed to the given consumer on the receiving
+   * thread (see {@link AsyncQueryResponse}).
+   */
+  public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
+      @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<String, List<String>> offlineRoutingTable,
+      @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<String, List<String>> realtimeRoutingTable,
+      long timeoutMs, @Nullable Consumer<DataTable> dataTableConsumer) {
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
 
     // Build map from server to request based on the routing table
@@ -78,7 +97,8 @@ public class QueryRouter {
 
     // Create the asynchronous query response with the request map
     AsyncQueryResponse asyncQueryResponse =
-        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs);
+        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs,
+            dataTableConsumer);
     _asyncQueryResponseMap.put(requestId, asyncQueryResponse);
     for (Map.Entry<Server, InstanceRequest> entry : requestMap.entrySet()) {
       Server server = entry.getKey();
@@ -105,6 +125,11 @@ public class QueryRouter {
     long requestId = Long.parseLong(dataTable.getMetadata().get(DataTable.REQUEST_ID_METADATA_KEY));
     AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.get(requestId);
 
+    // Intermediate chunks are sent on the same channel before the last response
+    if (!dataTable.getMetadata().containsKey(DataTable.RESPONSE_CHUNK_METADATA_KEY)) {
+      _serverChannels.markRequestDone(server, requestId);
+    }
+
     // Query future might be null if the query is already done (maybe due to failure)
     if (asyncQueryResponse != null) {
       asyncQueryResponse.receiveDataTable(server, dataTable, responseSize, deserializationTimeMs);
@@ -117,8 +142,25 @@ public class QueryRouter {
     }
   }
 
+  void markServerDown(Server server, long requestId) {
+    AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.get(requestId);
+    if (asyncQueryResponse != null) {
+      asyncQueryResponse.markServerDown(server);
+    }
+  }
+
   void markQueryDone(long requestId) {
-    _asyncQueryResponseMap.remove(requestId);
+    AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.remove(requestId);
+    if (asyncQueryResponse != null) {
+      for (Server server : asyncQueryResponse.getServersQueried()) {
+        _serverChannels.markRequestDone(server, requestId);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  int getNumInFlightRequests(Server server) {
+    return _serverChannels.getNumInFlightRequests(server);
   }
 
   private InstanceRequest getInstanceRequest(long requestId, BrokerRequest brokerRequest, List<String> segments) {
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.transport;
 
+import com.google.common.base.Preconditions;
 import com.linkedin.pinot.common.metrics.BrokerGauge;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
@@ -24,11 +25,13 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.concurrent.ThreadSafe;
@@ -38,23 +41,67 @@ import org.apache.thrift.protocol.TCompactProtocol;
 
 /**
  * The {@code ServerChannels} class manages the channels between broker to all the connected servers.
- * <p>There is only one channel between the broker and each connected server (we count OFFLINE and REALTIME as different
- * servers)
+ * <p>There is a small fixed number of channels between the broker and each connected server (we count OFFLINE and
+ * REALTIME as different servers), and each channel is shared by all the in-flight requests to the server, where the
+ * responses are matched to the requests by the request id.
+ * <p>For flow control, each request is sent to the writable channel (outbound buffer below the high water mark) with
+ * the least in-flight requests.
  */
 @ThreadSafe
 public class ServerChannels {
+  // Outbound buffer water marks for the flow control
+  private static final int WRITE_BUFFER_LOW_WATER_MARK = 1024 * 1024;
+  private static final int WRITE_BUFFER_HIGH_WATER_MARK = 4 * 1024 * 1024;
+
   private final QueryRouter _queryRouter;
   private final BrokerMetrics _brokerMetrics;
-  private final ConcurrentHashMap<Server, ServerChannel> _serverToChannelMap = new ConcurrentHashMap<>();
+  private final int _numChannelsPerServer;
+  private final ConcurrentHashMap<Server, ServerChannel[]> _serverToChannelsMap = new ConcurrentHashMap<>();
   private final EventLoopGroup _eventLoopGroup = new NioEventLoopGroup();
 
   public ServerChannels(QueryRouter queryRouter, BrokerMetrics brokerMetrics) {
+    this(queryRouter, brokerMetrics, 1);
+  }
+
+  public ServerChannels(QueryRouter queryRouter, BrokerMetrics brokerMetrics, int numChannelsPerServer) {
+    Preconditions.checkArgument(numChannelsPerServer > 0, "Number of channels per server must be positive");
     _queryRouter = queryRouter;
     _brokerMetrics = brokerMetrics;
+    _numChannelsPerServer = numChannelsPerServer;
   }
 
   public void sendRequest(Server server, InstanceRequest instanceRequest) throws Exception {
-    _serverToChannelMap.computeIfAbsent(server, ServerChannel::new).sendRequest(instanceRequest);
+    ServerChannel[] serverChannels = _serverToChannelsMap.computeIfAbsent(server, this::createServerChannels);
+    selectServerChannel(serverChannels).sendRequest(instanceRequest);
+  }
+
+  /**
+   * Marks the request done for the given server, either because the response is received or the query is done.
+   */
+  public void markRequestDone(Server server, long requestId) {
+    ServerChannel[] serverChannels = _serverToChannelsMap.get(server);
+    if (serverChannels != null) {
+      for (ServerChannel serverChannel : serverChannels) {
+        if (serverChannel._inFlightRequestIds.remove(requestId)) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the total number of in-flight requests to the given server.
+   */
+  public int getNumInFlightRequests(Server server) {
+    ServerChannel[] serverChannels = _serverToChannelsMap.get(server);
+    if (serverChannels == null) {
+      return 0;
+    }
+    int numInFlightRequests = 0;
+    for (ServerChannel serverChannel : serverChannels) {
+      numInFlightRequests += serverChannel._inFlightRequestIds.size();
+    }
+    return numInFlightRequests;
   }
 
   public void shutDown() {
@@ -62,12 +109,47 @@ public class ServerChannels {
     _eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS);
   }
 
+  private ServerChannel[] createServerChannels(Server server) {
+    ServerChannel[] serverChannels = new ServerChannel[_numChannelsPerServer];
+    for (int i = 0; i < _numChannelsPerServer; i++) {
+      ServerChannel serverChannel = new ServerChannel(server);
+      serverChannels[i] = serverChannel;
+      // Per channel in-flight requests gauge
+      _brokerMetrics.addCallbackGauge(
+          "nettyConnection.inFlightRequests." + server.getShortName() + "_" + server.getPort() + "_" + i,
+          () -> (long) serverChannel._inFlightRequestIds.size());
+    }
+    return serverChannels;
+  }
+
+  /**
+   * Selects the writable channel with the least in-flight requests, where the channels not connected yet are treated
+   * as writable. If no channel is writable, selects the channel with the least in-flight requests.
+   */
+  private static ServerChannel selectServerChannel(ServerChannel[] serverChannels) {
+    ServerChannel selectedChannel = null;
+    boolean selectedChannelWritable = false;
+    int minNumInFlightRequests = Integer.MAX_VALUE;
+    for (ServerChannel serverChannel : serverChannels) {
+      boolean writable = serverChannel.isWritable();
+      int numInFlightRequests = serverChannel._inFlightRequestIds.size();
+      if ((writable && !selectedChannelWritable) || (writable == selectedChannelWritable
+          && numInFlightRequests < minNumInFlightRequests)) {
+        selectedChannel = serverChannel;
+        selectedChannelWritable = writable;
+        minNumInFlightRequests = numInFlightRequests;
+      }
+    }
+    return selectedChannel;
+  }
+
   @ThreadSafe
   private class ServerChannel {
     final TSerializer _serializer = new TSerializer(new TCompactProtocol.Factory());
+    final Set<Long> _inFlightRequestIds = ConcurrentHashMap.newKeySet();
     final Server _server;
     final Bootstrap _bootstrap;
-    Channel _channel;
+    volatile Channel _channel;
 
     ServerChannel(Server server) {
       _server = server;
@@ -75,6 +157,8 @@ public class ServerChannels {
           .group(_eventLoopGroup)
           .channel(NioSocketChannel.class)
           .option(ChannelOption.SO_KEEPALIVE, true)
+          .option(ChannelOption.WRITE_BUFFER_WATER_MARK,
+              new WriteBufferWaterMark(WRITE_BUFFER_LOW_WATER_MARK, WRITE_BUFFER_HIGH_WATER_MARK))
           .handler(new ChannelInitializer<SocketChannel>() {
             @Override
             protected void initChannel(SocketChannel ch) {
@@ -83,11 +167,16 @@ public class ServerChannels {
                       new LengthFieldPrepender(Integer.BYTES),
                       // NOTE: data table de-serialization happens inside this handler
                       // Revisit if this becomes a bottleneck
-                      new DataTableHandler(_queryRouter, _server, _brokerMetrics));
+                      new DataTableHandler(_queryRouter, _server, _brokerMetrics, _inFlightRequestIds));
             }
           });
     }
 
+    boolean isWritable() {
+      Channel channel = _channel;
+      return channel == null || !channel.isActive() || channel.isWritable();
+    }
+
     synchronized void sendRequest(InstanceRequest instanceRequest) throws Exception {
       if (_channel == null || !_channel.isActive()) {
         long startTime = System.currentTimeMillis();
@@ -96,6 +185,7 @@ public class ServerChannels {
             System.currentTimeMillis() - startTime);
       }
       byte[] requestBytes = _serializer.serialize(instanceRequest);
+      _inFlightRequestIds.add(instanceRequest.getRequestId());
       _channel.writeAndFlush(_channel.alloc().buffer(requestBytes.length).writeBytes(requestBytes),
           _channel.voidPromise());
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_REQUESTS_SENT, 1L);
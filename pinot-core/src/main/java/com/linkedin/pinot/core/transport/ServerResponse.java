@@ -73,10 +73,21 @@ public class ServerResponse {
     _submitRequestTimeMs = System.currentTimeMillis();
   }
 
+  /**
+   * Records an intermediate chunk of a chunked response. The rows of the chunk are consumed on receipt, so only the
+   * size and the deserialization time are kept.
+   * <p>All the chunks are received on the channel thread before the last response.
+   */
+  void receiveDataTableChunk(long responseSize, long deserializationTimeMs) {
+    _responseSize += responseSize;
+    _deserializationTimeMs += deserializationTimeMs;
+  }
+
   void receiveDataTable(DataTable dataTable, long responseSize, long deserializationTimeMs) {
     _receiveDataTabTimeMs = System.currentTimeMillis();
+    _responseSize += responseSize;
+    _deserializationTimeMs += deserializationTimeMs;
+    // Set the data table after the other fields so that they are visible once the data table is set
     _dataTable = dataTable;
-    _responseSize = responseSize;
-    _deserializationTimeMs = deserializationTimeMs;
   }
 }
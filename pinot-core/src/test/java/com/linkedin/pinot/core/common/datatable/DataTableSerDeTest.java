@@ -16,11 +16,16 @@
 package com.linkedin.pinot.core.common.datatable;
 
 import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.ProcessingException;
+import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -45,7 +50,7 @@ public class DataTableSerDeTest {
         QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, exception);
     String expected = processingException.getMessage();
 
-    DataTable dataTable = new DataTableImplV2();
+    DataTableImplV2 dataTable = new DataTableImplV2();
     dataTable.addException(processingException);
     DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
     Assert.assertNull(newDataTable.getDataSchema());
@@ -63,22 +68,22 @@ public class DataTableSerDeTest {
 
     DataSchema dataSchema = new DataSchema(new String[]{"SV", "MV"},
         new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.STRING_ARRAY});
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
-    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
-      dataTableBuilder.startRow();
-      dataTableBuilder.setColumn(0, emptyString);
-      dataTableBuilder.setColumn(1, emptyStringArray);
-      dataTableBuilder.finishRow();
-    }
-
-    DataTable dataTable = dataTableBuilder.build();
-    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
-    Assert.assertEquals(newDataTable.getDataSchema(), dataSchema);
-    Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS);
+    List<DataTable> dataTables = serDe(dataSchema, dataTableBuilder -> {
+      for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, emptyString);
+        dataTableBuilder.setColumn(1, emptyStringArray);
+        dataTableBuilder.finishRow();
+      }
+    });
+    for (DataTable newDataTable : dataTables) {
+      Assert.assertEquals(newDataTable.getDataSchema(), dataSchema);
+      Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS);
 
-    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
-      Assert.assertEquals(newDataTable.getString(rowId, 0), emptyString);
-      Assert.assertEquals(newDataTable.getStringArray(rowId, 1), emptyStringArray);
+      for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+        Assert.assertEquals(newDataTable.getString(rowId, 0), emptyString);
+        Assert.assertEquals(newDataTable.getStringArray(rowId, 1), emptyStringArray);
+      }
     }
   }
 
@@ -92,8 +97,6 @@ public class DataTableSerDeTest {
     }
     DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
 
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
-
     int[] ints = new int[NUM_ROWS];
     long[] longs = new long[NUM_ROWS];
     float[] floats = new float[NUM_ROWS];
@@ -107,130 +110,231 @@ public class DataTableSerDeTest {
     String[][] stringArrays = new String[NUM_ROWS][];
 
     for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
-      dataTableBuilder.startRow();
-      for (int colId = 0; colId < numColumns; colId++) {
-        switch (columnDataTypes[colId]) {
-          case INT:
-            ints[rowId] = RANDOM.nextInt();
-            dataTableBuilder.setColumn(colId, ints[rowId]);
-            break;
-          case LONG:
-            longs[rowId] = RANDOM.nextLong();
-            dataTableBuilder.setColumn(colId, longs[rowId]);
-            break;
-          case FLOAT:
-            floats[rowId] = RANDOM.nextFloat();
-            dataTableBuilder.setColumn(colId, floats[rowId]);
-            break;
-          case DOUBLE:
-            doubles[rowId] = RANDOM.nextDouble();
-            dataTableBuilder.setColumn(colId, doubles[rowId]);
-            break;
-          case STRING:
-            strings[rowId] = RandomStringUtils.random(RANDOM.nextInt(20));
-            dataTableBuilder.setColumn(colId, strings[rowId]);
-            break;
-          // Just test Double here, all object types will be covered in ObjectCustomSerDeTest.
-          case OBJECT:
-            objects[rowId] = RANDOM.nextDouble();
-            dataTableBuilder.setColumn(colId, objects[rowId]);
-            break;
-          case INT_ARRAY:
-            int length = RANDOM.nextInt(20);
-            int[] intArray = new int[length];
-            for (int i = 0; i < length; i++) {
-              intArray[i] = RANDOM.nextInt();
-            }
-            intArrays[rowId] = intArray;
-            dataTableBuilder.setColumn(colId, intArray);
-            break;
-          case LONG_ARRAY:
-            length = RANDOM.nextInt(20);
-            long[] longArray = new long[length];
-            for (int i = 0; i < length; i++) {
-              longArray[i] = RANDOM.nextLong();
-            }
-            longArrays[rowId] = longArray;
-            dataTableBuilder.setColumn(colId, longArray);
-            break;
-          case FLOAT_ARRAY:
-            length = RANDOM.nextInt(20);
-            float[] floatArray = new float[length];
-            for (int i = 0; i < length; i++) {
-              floatArray[i] = RANDOM.nextFloat();
-            }
-            floatArrays[rowId] = floatArray;
-            dataTableBuilder.setColumn(colId, floatArray);
-            break;
-          case DOUBLE_ARRAY:
-            length = RANDOM.nextInt(20);
-            double[] doubleArray = new double[length];
-            for (int i = 0; i < length; i++) {
-              doubleArray[i] = RANDOM.nextDouble();
-            }
-            doubleArrays[rowId] = doubleArray;
-            dataTableBuilder.setColumn(colId, doubleArray);
-            break;
-          case STRING_ARRAY:
-            length = RANDOM.nextInt(20);
-            String[] stringArray = new String[length];
-            for (int i = 0; i < length; i++) {
-              stringArray[i] = RandomStringUtils.random(RANDOM.nextInt(20));
-            }
-            stringArrays[rowId] = stringArray;
-            dataTableBuilder.setColumn(colId, stringArray);
-            break;
-        }
+      ints[rowId] = RANDOM.nextInt();
+      longs[rowId] = RANDOM.nextLong();
+      floats[rowId] = RANDOM.nextFloat();
+      doubles[rowId] = RANDOM.nextDouble();
+      strings[rowId] = RandomStringUtils.random(RANDOM.nextInt(20));
+      // Just test Double here, all object types will be covered in ObjectCustomSerDeTest.
+      objects[rowId] = RANDOM.nextDouble();
+      int length = RANDOM.nextInt(20);
+      intArrays[rowId] = new int[length];
+      for (int i = 0; i < length; i++) {
+        intArrays[rowId][i] = RANDOM.nextInt();
+      }
+      length = RANDOM.nextInt(20);
+      longArrays[rowId] = new long[length];
+      for (int i = 0; i < length; i++) {
+        longArrays[rowId][i] = RANDOM.nextLong();
+      }
+      length = RANDOM.nextInt(20);
+      floatArrays[rowId] = new float[length];
+      for (int i = 0; i < length; i++) {
+        floatArrays[rowId][i] = RANDOM.nextFloat();
+      }
+      length = RANDOM.nextInt(20);
+      doubleArrays[rowId] = new double[length];
+      for (int i = 0; i < length; i++) {
+        doubleArrays[rowId][i] = RANDOM.nextDouble();
+      }
+      length = RANDOM.nextInt(20);
+      stringArrays[rowId] = new String[length];
+      for (int i = 0; i < length; i++) {
+        stringArrays[rowId][i] = RandomStringUtils.random(RANDOM.nextInt(20));
       }
-      dataTableBuilder.finishRow();
     }
 
-    DataTable dataTable = dataTableBuilder.build();
-    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
-    Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, ERROR_MESSAGE);
-    Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
+    List<DataTable> dataTables = serDe(dataSchema, dataTableBuilder -> {
+      for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+        dataTableBuilder.startRow();
+        for (int colId = 0; colId < numColumns; colId++) {
+          switch (columnDataTypes[colId]) {
+            case INT:
+              dataTableBuilder.setColumn(colId, ints[rowId]);
+              break;
+            case LONG:
+              dataTableBuilder.setColumn(colId, longs[rowId]);
+              break;
+            case FLOAT:
+              dataTableBuilder.setColumn(colId, floats[rowId]);
+              break;
+            case DOUBLE:
+              dataTableBuilder.setColumn(colId, doubles[rowId]);
+              break;
+            case STRING:
+            case BYTES:
+              dataTableBuilder.setColumn(colId, strings[rowId]);
+              break;
+            case OBJECT:
+              dataTableBuilder.setColumn(colId, objects[rowId]);
+              break;
+            case INT_ARRAY:
+              dataTableBuilder.setColumn(colId, intArrays[rowId]);
+              break;
+            case LONG_ARRAY:
+              dataTableBuilder.setColumn(colId, longArrays[rowId]);
+              break;
+            case FLOAT_ARRAY:
+              dataTableBuilder.setColumn(colId, floatArrays[rowId]);
+              break;
+            case DOUBLE_ARRAY:
+              dataTableBuilder.setColumn(colId, doubleArrays[rowId]);
+              break;
+            case STRING_ARRAY:
+              dataTableBuilder.setColumn(colId, stringArrays[rowId]);
+              break;
+          }
+        }
+        dataTableBuilder.finishRow();
+      }
+    });
+    for (DataTable newDataTable : dataTables) {
+      Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, ERROR_MESSAGE);
+      Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
 
-    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
-      for (int colId = 0; colId < numColumns; colId++) {
-        switch (columnDataTypes[colId]) {
-          case INT:
-            Assert.assertEquals(newDataTable.getInt(rowId, colId), ints[rowId], ERROR_MESSAGE);
-            break;
-          case LONG:
-            Assert.assertEquals(newDataTable.getLong(rowId, colId), longs[rowId], ERROR_MESSAGE);
-            break;
-          case FLOAT:
-            Assert.assertEquals(newDataTable.getFloat(rowId, colId), floats[rowId], ERROR_MESSAGE);
-            break;
-          case DOUBLE:
-            Assert.assertEquals(newDataTable.getDouble(rowId, colId), doubles[rowId], ERROR_MESSAGE);
-            break;
-          case STRING:
-            Assert.assertEquals(newDataTable.getString(rowId, colId), strings[rowId], ERROR_MESSAGE);
-            break;
-          case OBJECT:
-            Assert.assertEquals(newDataTable.getObject(rowId, colId), objects[rowId], ERROR_MESSAGE);
-            break;
-          case INT_ARRAY:
-            Assert.assertTrue(Arrays.equals(newDataTable.getIntArray(rowId, colId), intArrays[rowId]), ERROR_MESSAGE);
-            break;
-          case LONG_ARRAY:
-            Assert.assertTrue(Arrays.equals(newDataTable.getLongArray(rowId, colId), longArrays[rowId]), ERROR_MESSAGE);
-            break;
-          case FLOAT_ARRAY:
-            Assert.assertTrue(Arrays.equals(newDataTable.getFloatArray(rowId, colId), floatArrays[rowId]),
-                ERROR_MESSAGE);
-            break;
-          case DOUBLE_ARRAY:
-            Assert.assertTrue(Arrays.equals(newDataTable.getDoubleArray(rowId, colId), doubleArrays[rowId]),
-                ERROR_MESSAGE);
-            break;
-          case STRING_ARRAY:
-            Assert.assertTrue(Arrays.equals(newDataTable.getStringArray(rowId, colId), stringArrays[rowId]),
-                ERROR_MESSAGE);
-            break;
+      for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+        for (int colId = 0; colId < numColumns; colId++) {
+          switch (columnDataTypes[colId]) {
+            case INT:
+              Assert.assertEquals(newDataTable.getInt(rowId, colId), ints[rowId], ERROR_MESSAGE);
+              break;
+            case LONG:
+              Assert.assertEquals(newDataTable.getLong(rowId, colId), longs[rowId], ERROR_MESSAGE);
+              break;
+            case FLOAT:
+              Assert.assertEquals(newDataTable.getFloat(rowId, colId), floats[rowId], ERROR_MESSAGE);
+              break;
+            case DOUBLE:
+              Assert.assertEquals(newDataTable.getDouble(rowId, colId), doubles[rowId], ERROR_MESSAGE);
+              break;
+            case STRING:
+            case BYTES:
+              Assert.assertEquals(newDataTable.getString(rowId, colId), strings[rowId], ERROR_MESSAGE);
+              break;
+            case OBJECT:
+              Assert.assertEquals(newDataTable.getObject(rowId, colId), objects[rowId], ERROR_MESSAGE);
+              break;
+            case INT_ARRAY:
+              Assert.assertTrue(Arrays.equals(newDataTable.getIntArray(rowId, colId), intArrays[rowId]),
+                  ERROR_MESSAGE);
+              break;
+            case LONG_ARRAY:
+              Assert.assertTrue(Arrays.equals(newDataTable.getLongArray(rowId, colId), longArrays[rowId]),
+                  ERROR_MESSAGE);
+              break;
+            case FLOAT_ARRAY:
+              Assert.assertTrue(Arrays.equals(newDataTable.getFloatArray(rowId, colId), floatArrays[rowId]),
+                  ERROR_MESSAGE);
+              break;
+            case DOUBLE_ARRAY:
+              Assert.assertTrue(Arrays.equals(newDataTable.getDoubleArray(rowId, colId), doubleArrays[rowId]),
+                  ERROR_MESSAGE);
+              break;
+            case STRING_ARRAY:
+              Assert.assertTrue(Arrays.equals(newDataTable.getStringArray(rowId, colId), stringArrays[rowId]),
+                  ERROR_MESSAGE);
+              break;
+          }
         }
       }
     }
   }
+
+  @Test
+  public void testCompressedColumnBlocks() throws IOException {
+    int numRows = 10_000;
+    DataSchema dataSchema = new DataSchema(new String[]{"INT", "STRING", "DOUBLE_ARRAY"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING,
+            DataSchema.ColumnDataType.DOUBLE_ARRAY});
+    byte[] rowMajorBytes = buildCompressibleDataTable(dataSchema, numRows, DataTableImplV2.VERSION,
+        ChunkCompressorFactory.CompressionType.PASS_THROUGH).toBytes();
+    byte[] uncompressedBytes = buildCompressibleDataTable(dataSchema, numRows, DataTableImplV3.VERSION,
+        ChunkCompressorFactory.CompressionType.PASS_THROUGH).toBytes();
+    byte[] compressedBytes = buildCompressibleDataTable(dataSchema, numRows, DataTableImplV3.VERSION,
+        ChunkCompressorFactory.CompressionType.SNAPPY).toBytes();
+    Assert.assertTrue(uncompressedBytes.length < rowMajorBytes.length);
+    Assert.assertTrue(compressedBytes.length < uncompressedBytes.length);
+
+    DataTable newDataTable = DataTableFactory.getDataTable(compressedBytes);
+    Assert.assertEquals(newDataTable.getDataSchema(), dataSchema);
+    Assert.assertEquals(newDataTable.getNumberOfRows(), numRows);
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Assert.assertEquals(newDataTable.getInt(rowId, 0), rowId % 10);
+      Assert.assertEquals(newDataTable.getString(rowId, 1), "value_" + rowId % 10);
+      Assert.assertEquals(newDataTable.getDoubleArray(rowId, 2), new double[]{rowId % 10, rowId % 5});
+    }
+
+    // Re-serializing on the broker side should keep the data intact
+    newDataTable = DataTableFactory.getDataTable(newDataTable.toBytes());
+    Assert.assertEquals(newDataTable.getString(numRows - 1, 1), "value_" + (numRows - 1) % 10);
+  }
+
+  @Test
+  public void testWidenedValuesInColumnMajor() throws IOException {
+    DataSchema dataSchema = new DataSchema(new String[]{"BOOLEAN", "BYTE", "CHAR", "SHORT", "SHORT_ARRAY"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.INT,
+            DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.INT_ARRAY});
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, DataTableImplV3.VERSION,
+        ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+    dataTableBuilder.startRow();
+    dataTableBuilder.setColumn(0, true);
+    dataTableBuilder.setColumn(1, (byte) -1);
+    dataTableBuilder.setColumn(2, 'a');
+    dataTableBuilder.setColumn(3, Short.MAX_VALUE);
+    dataTableBuilder.setColumn(4, new short[]{1, Short.MIN_VALUE});
+    dataTableBuilder.finishRow();
+
+    DataTable newDataTable = DataTableFactory.getDataTable(dataTableBuilder.build().toBytes());
+    Assert.assertEquals(newDataTable.getInt(0, 0), 1);
+    Assert.assertEquals(newDataTable.getInt(0, 1), -1);
+    Assert.assertEquals(newDataTable.getInt(0, 2), 'a');
+    Assert.assertEquals(newDataTable.getInt(0, 3), Short.MAX_VALUE);
+    Assert.assertEquals(newDataTable.getIntArray(0, 4), new int[]{1, Short.MIN_VALUE});
+  }
+
+  @Test
+  public void testResponseVersion() {
+    BrokerRequest brokerRequest = new BrokerRequest();
+    Assert.assertEquals(DataTableFactory.getResponseVersion(brokerRequest, DataTableImplV3.VERSION), 2);
+    brokerRequest.putToQueryOptions(CommonConstants.Broker.Request.QueryOptionKey.DATA_TABLE_VERSION, "3");
+    Assert.assertEquals(DataTableFactory.getResponseVersion(brokerRequest, DataTableImplV3.VERSION), 3);
+    Assert.assertEquals(DataTableFactory.getResponseVersion(brokerRequest, 2), 2);
+    brokerRequest.putToQueryOptions(CommonConstants.Broker.Request.QueryOptionKey.DATA_TABLE_VERSION, "1");
+    Assert.assertEquals(DataTableFactory.getResponseVersion(brokerRequest, DataTableImplV3.VERSION), 2);
+    brokerRequest.putToQueryOptions(CommonConstants.Broker.Request.QueryOptionKey.DATA_TABLE_VERSION, "foo");
+    Assert.assertEquals(DataTableFactory.getResponseVersion(brokerRequest, DataTableImplV3.VERSION), 2);
+  }
+
+  private static DataTable buildCompressibleDataTable(DataSchema dataSchema, int numRows, int version,
+      ChunkCompressorFactory.CompressionType compressionType) throws IOException {
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, version, compressionType);
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, rowId % 10);
+      dataTableBuilder.setColumn(1, "value_" + rowId % 10);
+      dataTableBuilder.setColumn(2, new double[]{rowId % 10, rowId % 5});
+      dataTableBuilder.finishRow();
+    }
+    return dataTableBuilder.build();
+  }
+
+  /**
+   * Build the data table in all supported versions, then serialize and de-serialize them back.
+   */
+  private static List<DataTable> serDe(DataSchema dataSchema, RowWriter rowWriter) throws IOException {
+    List<DataTable> dataTables = new ArrayList<>();
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    rowWriter.write(dataTableBuilder);
+    dataTables.add(DataTableFactory.getDataTable(dataTableBuilder.build().toBytes()));
+    for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+      dataTableBuilder = new DataTableBuilder(dataSchema, DataTableImplV3.VERSION, compressionType);
+      rowWriter.write(dataTableBuilder);
+      dataTables.add(DataTableFactory.getDataTable(dataTableBuilder.build().toBytes()));
+    }
+    return dataTables;
+  }
+
+  private interface RowWriter {
+    void write(DataTableBuilder dataTableBuilder) throws IOException;
+  }
 }
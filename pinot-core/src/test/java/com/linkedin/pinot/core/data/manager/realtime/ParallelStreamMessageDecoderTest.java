@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.manager.realtime.ParallelStreamMessageDecoder.DecodedMessageBatch;
+import com.linkedin.pinot.core.realtime.stream.MessageBatch;
+import com.linkedin.pinot.core.realtime.stream.StreamConfig;
+import com.linkedin.pinot.core.realtime.stream.StreamMessageDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class ParallelStreamMessageDecoderTest {
+  private static final String METRIC_COLUMN = "m";
+  private static final String DIMENSION_COLUMN = "d";
+
+  @Test
+  public void testDecode() throws Exception {
+    Schema schema = new Schema();
+    schema.addField(new MetricFieldSpec(METRIC_COLUMN, FieldSpec.DataType.LONG));
+    schema.addField(new DimensionFieldSpec(DIMENSION_COLUMN, FieldSpec.DataType.STRING, true));
+
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      ParallelStreamMessageDecoder decoder =
+          new ParallelStreamMessageDecoder(executorService, 4, getStreamConfig(), schema);
+      for (int numMessages : new int[]{0, 1, 31, 1000, 12345}) {
+        FakeMessageBatch messageBatch = new FakeMessageBatch(numMessages);
+        DecodedMessageBatch decodedMessageBatch = decoder.decode(messageBatch);
+        for (int i = 0; i < numMessages; i++) {
+          GenericRow decodedRow = decodedMessageBatch.getDecodedRow(i);
+          if (i % 10 == 0) {
+            // Cannot be decoded
+            Assert.assertNull(decodedRow);
+            continue;
+          }
+          Assert.assertNotNull(decodedRow);
+          if (i % 7 == 0) {
+            // Cannot be transformed
+            try {
+              decodedMessageBatch.getTransformedRow(i);
+              Assert.fail();
+            } catch (Exception e) {
+              // Expected
+            }
+          } else {
+            GenericRow transformedRow = decodedMessageBatch.getTransformedRow(i);
+            Assert.assertNotNull(transformedRow);
+            Assert.assertEquals(transformedRow.getValue(METRIC_COLUMN), (long) i);
+            Assert.assertEquals(transformedRow.getValue(DIMENSION_COLUMN), "d" + i);
+          }
+        }
+        decodedMessageBatch.cancel();
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    Schema schema = new Schema();
+    schema.addField(new MetricFieldSpec(METRIC_COLUMN, FieldSpec.DataType.LONG));
+    schema.addField(new DimensionFieldSpec(DIMENSION_COLUMN, FieldSpec.DataType.STRING, true));
+
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      ParallelStreamMessageDecoder decoder =
+          new ParallelStreamMessageDecoder(executorService, 2, getStreamConfig(), schema);
+      // Cancel the first batch after reading only one message, the following batch should not be affected
+      DecodedMessageBatch cancelledMessageBatch = decoder.decode(new FakeMessageBatch(100000));
+      Assert.assertNotNull(cancelledMessageBatch.getDecodedRow(1));
+      Assert.assertEquals(cancelledMessageBatch.getTransformedRow(1).getValue(METRIC_COLUMN), 1L);
+      cancelledMessageBatch.cancel();
+
+      DecodedMessageBatch decodedMessageBatch = decoder.decode(new FakeMessageBatch(1000));
+      Assert.assertNotNull(decodedMessageBatch.getDecodedRow(999));
+      Assert.assertEquals(decodedMessageBatch.getTransformedRow(999).getValue(METRIC_COLUMN), 999L);
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  public void testSharedExecutor() throws Exception {
+    Schema schema = new Schema();
+    schema.addField(new MetricFieldSpec(METRIC_COLUMN, FieldSpec.DataType.LONG));
+    schema.addField(new DimensionFieldSpec(DIMENSION_COLUMN, FieldSpec.DataType.STRING, true));
+
+    // Decoders of multiple consuming segments share the same thread pool
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      ParallelStreamMessageDecoder decoder1 =
+          new ParallelStreamMessageDecoder(executorService, 2, getStreamConfig(), schema);
+      ParallelStreamMessageDecoder decoder2 =
+          new ParallelStreamMessageDecoder(executorService, 2, getStreamConfig(), schema);
+      DecodedMessageBatch decodedMessageBatch1 = decoder1.decode(new FakeMessageBatch(10000));
+      DecodedMessageBatch decodedMessageBatch2 = decoder2.decode(new FakeMessageBatch(10000));
+      for (int i = 1; i < 10000; i += 10) {
+        Assert.assertEquals(decodedMessageBatch2.getDecodedRow(i).getValue(DIMENSION_COLUMN), "d" + i);
+        Assert.assertEquals(decodedMessageBatch1.getDecodedRow(i).getValue(DIMENSION_COLUMN), "d" + i);
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  private static StreamConfig getStreamConfig() {
+    Map<String, String> streamConfigMap = new HashMap<>();
+    streamConfigMap.put("streamType", "kafka");
+    streamConfigMap.put("stream.kafka.topic.name", "testTopic");
+    streamConfigMap.put("stream.kafka.consumer.type", "simple");
+    streamConfigMap.put("stream.kafka.decoder.class.name", FakeStreamMessageDecoder.class.getName());
+    return new StreamConfig(streamConfigMap);
+  }
+
+  /**
+   * Message batch with messages "0", "1", "2", ...
+   */
+  private static class FakeMessageBatch implements MessageBatch<byte[]> {
+    private final byte[][] _messages;
+
+    FakeMessageBatch(int numMessages) {
+      _messages = new byte[numMessages][];
+      for (int i = 0; i < numMessages; i++) {
+        _messages[i] = Integer.toString(i).getBytes(StandardCharsets.UTF_8);
+      }
+    }
+
+    @Override
+    public int getMessageCount() {
+      return _messages.length;
+    }
+
+    @Override
+    public byte[] getMessageAtIndex(int index) {
+      return _messages[index];
+    }
+
+    @Override
+    public int getMessageOffsetAtIndex(int index) {
+      return 0;
+    }
+
+    @Override
+    public int getMessageLengthAtIndex(int index) {
+      return _messages[index].length;
+    }
+
+    @Override
+    public long getNextStreamMessageOffsetAtIndex(int index) {
+      return index + 1;
+    }
+  }
+
+  /**
+   * Returns <code>null</code> for every 10th message, and a row that cannot be transformed for every 7th message.
+   */
+  public static class FakeStreamMessageDecoder implements StreamMessageDecoder<byte[]> {
+
+    @Override
+    public void init(Map<String, String> props, Schema indexingSchema, String topicName) throws Exception {
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, GenericRow destination) {
+      return decode(payload, 0, payload.length, destination);
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
+      String value = new String(payload, offset, length, StandardCharsets.UTF_8);
+      int i = Integer.parseInt(value);
+      if (i % 10 == 0) {
+        return null;
+      }
+      destination.putField(METRIC_COLUMN, i % 7 == 0 ? "invalid" : value);
+      destination.putField(DIMENSION_COLUMN, "d" + i);
+      return destination;
+    }
+  }
+}
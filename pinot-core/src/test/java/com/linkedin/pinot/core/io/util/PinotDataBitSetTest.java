@@ -92,6 +92,58 @@ public class PinotDataBitSetTest {
     }
   }
 
+  @Test
+  public void testBatchReadAllNumBitsPerValue() throws IOException {
+    int numValues = 1000;
+    int[] values = new int[numValues];
+    int[] indices = new int[numValues];
+    int[] buffer = new int[numValues];
+    for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      for (int numBitsPerValue = 1; numBitsPerValue <= Integer.SIZE; numBitsPerValue++) {
+        int dataBufferSize = (int) (((long) numValues * numBitsPerValue + Byte.SIZE - 1) / Byte.SIZE);
+        try (PinotDataBitSet dataBitSet = getEmptyBitSet(dataBufferSize, byteOrder)) {
+          for (int i = 0; i < numValues; i++) {
+            int value = RANDOM.nextInt() >>> (Integer.SIZE - numBitsPerValue);
+            values[i] = value;
+            dataBitSet.writeInt(i, numBitsPerValue, value);
+          }
+
+          // Test single value read, including the values at the end of the buffer
+          for (int i = 0; i < numValues; i++) {
+            assertEquals(dataBitSet.readInt(i, numBitsPerValue), values[i]);
+          }
+
+          // Test batch read on contiguous ranges, including the ranges reaching the end of the buffer
+          for (int i = 0; i < NUM_ITERATIONS; i++) {
+            int startIndex = RANDOM.nextInt(numValues);
+            int numValuesToRead = RANDOM.nextInt(numValues - startIndex) + 1;
+            int bufferStartIndex = RANDOM.nextInt(numValues - numValuesToRead + 1);
+            dataBitSet.readInt(startIndex, numBitsPerValue, numValuesToRead, buffer, bufferStartIndex);
+            for (int j = 0; j < numValuesToRead; j++) {
+              assertEquals(buffer[bufferStartIndex + j], values[startIndex + j]);
+            }
+          }
+
+          // Test batch read on sorted indices
+          for (int i = 0; i < NUM_ITERATIONS; i++) {
+            int numIndices = 0;
+            for (int j = 0; j < numValues; j++) {
+              if (RANDOM.nextInt(10) == 0) {
+                indices[numIndices++] = j;
+              }
+            }
+            int indicesStartIndex = numIndices > 0 ? RANDOM.nextInt(numIndices) : 0;
+            int numValuesToRead = numIndices - indicesStartIndex;
+            dataBitSet.readInt(indices, indicesStartIndex, numBitsPerValue, numValuesToRead, buffer, 0);
+            for (int j = 0; j < numValuesToRead; j++) {
+              assertEquals(buffer[j], values[indices[indicesStartIndex + j]]);
+            }
+          }
+        }
+      }
+    }
+  }
+
   @Test
   public void testSetUnsetBit() throws IOException {
     int dataBufferSize = RANDOM.nextInt(100) + 1;
@@ -147,7 +199,11 @@ public class PinotDataBitSetTest {
   }
 
   private PinotDataBitSet getEmptyBitSet(int size) {
-    PinotDataBuffer pinotDataBuffer = PinotDataBuffer.allocateDirect(size, ByteOrder.BIG_ENDIAN, null);
+    return getEmptyBitSet(size, ByteOrder.BIG_ENDIAN);
+  }
+
+  private PinotDataBitSet getEmptyBitSet(int size, ByteOrder byteOrder) {
+    PinotDataBuffer pinotDataBuffer = PinotDataBuffer.allocateDirect(size, byteOrder, null);
     for (int i = 0; i < size; i++) {
       pinotDataBuffer.readFrom(0, new byte[size]);
     }
@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class CombineOperatorTest {
+  private static final int NUM_OPERATORS = 50;
+
+  private final ExecutorService _executorService = Executors.newFixedThreadPool(10);
+
+  @Test
+  public void testSkewedOperators() {
+    BrokerRequest brokerRequest = new Pql2Compiler().compileToBrokerRequest("SELECT COUNT(*) FROM testTable");
+    runAndVerify(brokerRequest, 4);
+
+    // Query option should override the configured max threads per query
+    brokerRequest.putToQueryOptions(QueryOptionKey.MAX_THREADS_PER_QUERY, "1");
+    runAndVerify(brokerRequest, 4);
+  }
+
+  @Test
+  public void testGetMaxThreadsPerQuery() {
+    BrokerRequest brokerRequest = new Pql2Compiler().compileToBrokerRequest("SELECT COUNT(*) FROM testTable");
+    Assert.assertEquals(CombineOperator.getMaxThreadsPerQuery(brokerRequest, 4), 4);
+
+    // Query option can lower the configured value
+    brokerRequest.putToQueryOptions(QueryOptionKey.MAX_THREADS_PER_QUERY, "2");
+    Assert.assertEquals(CombineOperator.getMaxThreadsPerQuery(brokerRequest, 4), 2);
+
+    // Query option cannot exceed the configured value
+    brokerRequest.putToQueryOptions(QueryOptionKey.MAX_THREADS_PER_QUERY, "100");
+    Assert.assertEquals(CombineOperator.getMaxThreadsPerQuery(brokerRequest, 4), 4);
+
+    // Invalid query option
+    brokerRequest.putToQueryOptions(QueryOptionKey.MAX_THREADS_PER_QUERY, "invalid");
+    Assert.assertEquals(CombineOperator.getMaxThreadsPerQuery(brokerRequest, 4), 4);
+  }
+
+  @Test
+  public void testGetNumThreads() {
+    Assert.assertEquals(CombineOperator.getNumThreads(1, 10), 1);
+    Assert.assertEquals(CombineOperator.getNumThreads(1000, 1), 1);
+    Assert.assertTrue(CombineOperator.getNumThreads(1000, 4) <= 4);
+    Assert.assertTrue(CombineOperator.getNumThreads(3, 10) <= 3);
+  }
+
+  @Test
+  public void testStreamingSelectionOnly() {
+    BrokerRequest brokerRequest = new Pql2Compiler().compileToBrokerRequest("SELECT d FROM testTable LIMIT 95");
+    List<Operator> operators = getSelectionOperators(10);
+
+    // Each operator returns 10 rows, only 95 rows should be sent in chunks of at most 4 rows
+    List<DataTable> dataTableChunks = Collections.synchronizedList(new ArrayList<DataTable>());
+    IntermediateResultsBlock resultsBlock =
+        new StreamingSelectionOnlyCombineOperator(operators, brokerRequest, _executorService, 10_000L, 4,
+            (dataTableChunk, timeoutMs) -> dataTableChunks.add(dataTableChunk), 4, DataTableImplV2.VERSION,
+            ChunkCompressorFactory.CompressionType.PASS_THROUGH).nextBlock();
+    Assert.assertNull(resultsBlock.getProcessingExceptions());
+    Assert.assertNotNull(resultsBlock.getSelectionDataSchema());
+    Assert.assertTrue(resultsBlock.getSelectionResult().isEmpty());
+    int numRowsSent = 0;
+    for (DataTable dataTableChunk : dataTableChunks) {
+      Assert.assertTrue(dataTableChunk.getNumberOfRows() <= 4);
+      numRowsSent += dataTableChunk.getNumberOfRows();
+    }
+    Assert.assertEquals(numRowsSent, 95);
+
+    // Chunks not accepted by the transport in time should fail the query
+    resultsBlock = new StreamingSelectionOnlyCombineOperator(getSelectionOperators(10), brokerRequest,
+        _executorService, 10_000L, 4, (dataTableChunk, timeoutMs) -> false, 4, DataTableImplV2.VERSION,
+        ChunkCompressorFactory.CompressionType.PASS_THROUGH).nextBlock();
+    Assert.assertNotNull(resultsBlock.getProcessingExceptions());
+    Assert.assertFalse(resultsBlock.getProcessingExceptions().isEmpty());
+  }
+
+  @Test
+  public void testGetResponseChunkSize() {
+    BrokerRequest brokerRequest = new Pql2Compiler().compileToBrokerRequest("SELECT d FROM testTable LIMIT 95");
+    Assert.assertEquals(StreamingSelectionOnlyCombineOperator.getResponseChunkSize(brokerRequest), 0);
+    brokerRequest.putToQueryOptions(QueryOptionKey.RESPONSE_CHUNK_SIZE, "1000");
+    Assert.assertEquals(StreamingSelectionOnlyCombineOperator.getResponseChunkSize(brokerRequest), 1000);
+    brokerRequest.putToQueryOptions(QueryOptionKey.RESPONSE_CHUNK_SIZE, "invalid");
+    Assert.assertEquals(StreamingSelectionOnlyCombineOperator.getResponseChunkSize(brokerRequest), 0);
+  }
+
+  private static List<Operator> getSelectionOperators(int numRowsPerOperator) {
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT});
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      operators.add(new BaseOperator<IntermediateResultsBlock>() {
+        @Override
+        protected IntermediateResultsBlock getNextBlock() {
+          List<Serializable[]> rows = new ArrayList<>(numRowsPerOperator);
+          for (int j = 0; j < numRowsPerOperator; j++) {
+            rows.add(new Serializable[]{j});
+          }
+          return new IntermediateResultsBlock(dataSchema, rows);
+        }
+
+        @Override
+        public String getOperatorName() {
+          return "TestOperator";
+        }
+
+        @Override
+        public ExecutionStatistics getExecutionStatistics() {
+          return new ExecutionStatistics(numRowsPerOperator, 0L, 0L, numRowsPerOperator);
+        }
+      });
+    }
+    return operators;
+  }
+
+  private void runAndVerify(BrokerRequest brokerRequest, int maxThreadsPerQuery) {
+    AggregationFunctionContext[] aggregationFunctionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(brokerRequest.getAggregationsInfo(), null);
+    Set<Integer> processedOperators = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      final int operatorId = i;
+      // The first operator is much slower than the others
+      final long sleepTimeMs = i == 0 ? 200L : 1L;
+      operators.add(new BaseOperator<IntermediateResultsBlock>() {
+        @Override
+        protected IntermediateResultsBlock getNextBlock() {
+          try {
+            Thread.sleep(sleepTimeMs);
+          } catch (InterruptedException e) {
+            // Ignored.
+          }
+          Assert.assertTrue(processedOperators.add(operatorId));
+          List<Object> aggregationResult = new ArrayList<>(Collections.<Object>singletonList(1L));
+          return new IntermediateResultsBlock(aggregationFunctionContexts, aggregationResult);
+        }
+
+        @Override
+        public String getOperatorName() {
+          return "TestOperator";
+        }
+
+        @Override
+        public ExecutionStatistics getExecutionStatistics() {
+          return new ExecutionStatistics(1L, 0L, 0L, 1L);
+        }
+      });
+    }
+
+    IntermediateResultsBlock resultsBlock =
+        new CombineOperator(operators, _executorService, 10_000L, brokerRequest, maxThreadsPerQuery).nextBlock();
+    Assert.assertNull(resultsBlock.getProcessingExceptions());
+    Assert.assertEquals(processedOperators.size(), NUM_OPERATORS);
+    Assert.assertEquals(resultsBlock.getAggregationResult().get(0), (long) NUM_OPERATORS);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.reduce;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.response.broker.GroupByResult;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class BrokerReduceServiceTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final int NUM_SERVERS = 4;
+  private static final int NUM_GROUPS = 3000;
+  private static final int NUM_ROWS_PER_SERVER = 3000;
+
+  private final BrokerReduceService _serialReduceService = new BrokerReduceService();
+  private final BrokerReduceService _parallelReduceService = new BrokerReduceService(4);
+
+  @AfterClass
+  public void tearDown() {
+    _parallelReduceService.shutDown();
+  }
+
+  @Test
+  public void testGroupBy()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT SUM(m) FROM testTable GROUP BY d TOP 100");
+    DataSchema dataSchema = new DataSchema(new String[]{"d", "sum_m"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.DOUBLE});
+    DataTable[] dataTables = new DataTable[NUM_SERVERS];
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      for (int j = 0; j < NUM_GROUPS; j++) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, "key" + j);
+        dataTableBuilder.setColumn(1, (double) j);
+        dataTableBuilder.finishRow();
+      }
+      dataTables[i] = dataTableBuilder.build();
+    }
+
+    BrokerResponseNative serialResponse =
+        _serialReduceService.reduceOnDataTable(brokerRequest, getDataTableMap(dataTables), null);
+    BrokerResponseNative parallelResponse =
+        _parallelReduceService.reduceOnDataTable(brokerRequest, getDataTableMap(dataTables), null);
+    List<GroupByResult> serialGroupByResults = serialResponse.getAggregationResults().get(0).getGroupByResult();
+    List<GroupByResult> parallelGroupByResults = parallelResponse.getAggregationResults().get(0).getGroupByResult();
+    Assert.assertEquals(serialGroupByResults.size(), 100);
+    Assert.assertEquals(parallelGroupByResults.size(), 100);
+    for (int i = 0; i < 100; i++) {
+      int expectedGroup = NUM_GROUPS - 1 - i;
+      GroupByResult serialGroupByResult = serialGroupByResults.get(i);
+      GroupByResult parallelGroupByResult = parallelGroupByResults.get(i);
+      Assert.assertEquals(serialGroupByResult.getGroup().get(0), "key" + expectedGroup);
+      Assert.assertEquals(parallelGroupByResult.getGroup(), serialGroupByResult.getGroup());
+      Assert.assertEquals(parallelGroupByResult.getValue(), serialGroupByResult.getValue());
+    }
+  }
+
+  @Test
+  public void testGroupByMergedOnReceipt()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT SUM(m) FROM testTable GROUP BY d TOP 10");
+    Assert.assertNull(_serialReduceService.getGroupByDataTableMerger(brokerRequest));
+    GroupByDataTableMerger groupByDataTableMerger = _parallelReduceService.getGroupByDataTableMerger(brokerRequest);
+    Assert.assertNotNull(groupByDataTableMerger);
+
+    // Each server has the same 10 groups
+    DataSchema dataSchema = new DataSchema(new String[]{"d", "sum_m"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.DOUBLE});
+    DataTable[] dataTables = new DataTable[NUM_SERVERS];
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      for (int j = 0; j < 10; j++) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, "key" + j);
+        dataTableBuilder.setColumn(1, (double) j);
+        dataTableBuilder.finishRow();
+      }
+      dataTables[i] = dataTableBuilder.build();
+    }
+    // Only pass some of the data tables to the merger, the others should be merged by the reduce
+    for (int i = 0; i < NUM_SERVERS / 2; i++) {
+      groupByDataTableMerger.accept(dataTables[i]);
+    }
+
+    BrokerResponseNative response =
+        _parallelReduceService.reduceOnDataTable(brokerRequest, getDataTableMap(dataTables), groupByDataTableMerger,
+            null);
+    List<GroupByResult> groupByResults = response.getAggregationResults().get(0).getGroupByResult();
+    Assert.assertEquals(groupByResults.size(), 10);
+    for (int i = 0; i < 10; i++) {
+      int expectedGroup = 9 - i;
+      GroupByResult groupByResult = groupByResults.get(i);
+      Assert.assertEquals(groupByResult.getGroup().get(0), "key" + expectedGroup);
+      Assert.assertEquals(Double.parseDouble((String) groupByResult.getValue()), (double) expectedGroup * NUM_SERVERS);
+    }
+  }
+
+  @Test
+  public void testSelectionOrderBy()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT d FROM testTable ORDER BY d LIMIT 10");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT});
+    DataTable[] dataTables = new DataTable[NUM_SERVERS];
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      // Values in descending order, where each server has distinct values
+      for (int j = NUM_ROWS_PER_SERVER - 1; j >= 0; j--) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, j * NUM_SERVERS + i);
+        dataTableBuilder.finishRow();
+      }
+      dataTables[i] = dataTableBuilder.build();
+    }
+
+    BrokerResponseNative serialResponse =
+        _serialReduceService.reduceOnDataTable(brokerRequest, getDataTableMap(dataTables), null);
+    BrokerResponseNative parallelResponse =
+        _parallelReduceService.reduceOnDataTable(brokerRequest, getDataTableMap(dataTables), null);
+    List<Serializable[]> serialRows = serialResponse.getSelectionResults().getRows();
+    List<Serializable[]> parallelRows = parallelResponse.getSelectionResults().getRows();
+    Assert.assertEquals(serialRows.size(), 10);
+    Assert.assertEquals(parallelRows.size(), 10);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(serialRows.get(i)[0], Integer.toString(i));
+      Assert.assertEquals(parallelRows.get(i)[0], serialRows.get(i)[0]);
+    }
+  }
+
+  @Test
+  public void testSelectionOnlyChunksCollectedOnReceipt()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT d FROM testTable LIMIT 10");
+    SelectionDataTableCollector selectionDataTableCollector =
+        _serialReduceService.getSelectionDataTableCollector(brokerRequest);
+    Assert.assertNotNull(selectionDataTableCollector);
+    Assert.assertNull(_serialReduceService.getSelectionDataTableCollector(
+        COMPILER.compileToBrokerRequest("SELECT d FROM testTable ORDER BY d LIMIT 10")));
+
+    // Each server sends 2 chunks of 4 rows, then a last response without rows
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT});
+    DataTable[] dataTables = new DataTable[NUM_SERVERS];
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      for (int j = 0; j < 2; j++) {
+        DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+        for (int k = 0; k < 4; k++) {
+          dataTableBuilder.startRow();
+          dataTableBuilder.setColumn(0, k);
+          dataTableBuilder.finishRow();
+        }
+        DataTable dataTableChunk = dataTableBuilder.build();
+        dataTableChunk.getMetadata().put(DataTable.RESPONSE_CHUNK_METADATA_KEY, Integer.toString(j));
+        selectionDataTableCollector.accept(dataTableChunk);
+      }
+      dataTables[i] = new DataTableBuilder(dataSchema).build();
+      dataTables[i].getMetadata().put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, "8");
+      // The last responses are not collected
+      selectionDataTableCollector.accept(dataTables[i]);
+    }
+    Assert.assertEquals(selectionDataTableCollector.getRows().size(), 10);
+
+    BrokerResponseNative response =
+        _serialReduceService.reduceOnDataTable(brokerRequest, getDataTableMap(dataTables), null,
+            selectionDataTableCollector, null);
+    Assert.assertEquals(response.getSelectionResults().getRows().size(), 10);
+    Assert.assertEquals(response.getNumDocsScanned(), 8 * NUM_SERVERS);
+    Assert.assertTrue(response.getProcessingExceptions().isEmpty());
+  }
+
+  private static Map<ServerInstance, DataTable> getDataTableMap(DataTable[] dataTables) {
+    Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < dataTables.length; i++) {
+      dataTableMap.put(new ServerInstance("localhost", 1234 + i), dataTables[i]);
+    }
+    return dataTableMap;
+  }
+}
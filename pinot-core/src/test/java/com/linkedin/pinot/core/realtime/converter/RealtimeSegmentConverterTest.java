@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.converter;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.data.TimeFieldSpec;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import com.linkedin.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import com.linkedin.pinot.core.indexsegment.mutable.MutableSegmentImplTestUtils;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for {@link RealtimeSegmentConverter}, where the immutable segment is built column-at-a-time from the
+ * dictionaries and forward indexes of the mutable segment.
+ */
+public class RealtimeSegmentConverterTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "RealtimeSegmentConverterTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 1000;
+
+  private static final String SORTED_COLUMN = "sortedColumn";
+  private static final String INVERTED_INDEX_COLUMN = "invertedIndexColumn";
+  private static final String MULTI_VALUE_COLUMN = "multiValueColumn";
+  private static final String RAW_METRIC_COLUMN = "rawMetricColumn";
+  private static final String TIME_COLUMN = "daysSinceEpoch";
+  private static final List<String> INVERTED_INDEX_COLUMNS = Arrays.asList(INVERTED_INDEX_COLUMN, MULTI_VALUE_COLUMN);
+  private static final List<String> NO_DICTIONARY_COLUMNS = Collections.singletonList(RAW_METRIC_COLUMN);
+
+  private MutableSegmentImpl _mutableSegment;
+  private ImmutableSegment _immutableSegment;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(SORTED_COLUMN, FieldSpec.DataType.STRING, true));
+    schema.addField(new DimensionFieldSpec(INVERTED_INDEX_COLUMN, FieldSpec.DataType.LONG, true));
+    schema.addField(new DimensionFieldSpec(MULTI_VALUE_COLUMN, FieldSpec.DataType.INT, false));
+    schema.addField(new MetricFieldSpec(RAW_METRIC_COLUMN, FieldSpec.DataType.DOUBLE));
+    schema.addField(new TimeFieldSpec(TIME_COLUMN, FieldSpec.DataType.INT, TimeUnit.DAYS));
+
+    // Sorted column requires inverted index in the mutable segment
+    Set<String> invertedIndexColumns = new HashSet<>(INVERTED_INDEX_COLUMNS);
+    invertedIndexColumns.add(SORTED_COLUMN);
+    _mutableSegment =
+        MutableSegmentImplTestUtils.createMutableSegmentImpl(schema, new HashSet<>(NO_DICTIONARY_COLUMNS),
+            invertedIndexColumns, false);
+    Random random = new Random();
+    for (int i = 0; i < NUM_ROWS; i++) {
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(SORTED_COLUMN, "value" + random.nextInt(100));
+      valueMap.put(INVERTED_INDEX_COLUMN, (long) random.nextInt(50));
+      int numValues = 1 + random.nextInt(3);
+      Object[] multiValues = new Object[numValues];
+      for (int j = 0; j < numValues; j++) {
+        multiValues[j] = random.nextInt(20);
+      }
+      valueMap.put(MULTI_VALUE_COLUMN, multiValues);
+      valueMap.put(RAW_METRIC_COLUMN, random.nextDouble());
+      valueMap.put(TIME_COLUMN, 17000 + random.nextInt(10));
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(valueMap);
+      _mutableSegment.index(genericRow);
+    }
+
+    File outputDir = new File(TEMP_DIR, "output");
+    RealtimeSegmentConverter converter =
+        new RealtimeSegmentConverter(_mutableSegment, outputDir.getPath(), schema, TABLE_NAME, TIME_COLUMN,
+            SEGMENT_NAME, SORTED_COLUMN, INVERTED_INDEX_COLUMNS, NO_DICTIONARY_COLUMNS, null);
+    converter.build(null, new ServerMetrics(new MetricsRegistry()));
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setInvertedIndexColumns(new HashSet<>(INVERTED_INDEX_COLUMNS));
+    _immutableSegment = ImmutableSegmentLoader.load(new File(outputDir, SEGMENT_NAME), indexLoadingConfig);
+  }
+
+  @Test
+  public void testRecords() {
+    Assert.assertEquals(_immutableSegment.getSegmentMetadata().getTotalDocs(), NUM_ROWS);
+    int[] sortedDocIds = _mutableSegment.getSortedDocIdIterationOrderWithSortedColumn(SORTED_COLUMN);
+    GenericRow expected = new GenericRow();
+    GenericRow actual = new GenericRow();
+    for (int i = 0; i < NUM_ROWS; i++) {
+      _mutableSegment.getRecord(sortedDocIds[i], expected);
+      _immutableSegment.getRecord(i, actual);
+      for (String column : expected.getFieldNames()) {
+        Object expectedValue = expected.getValue(column);
+        Object actualValue = actual.getValue(column);
+        if (expectedValue instanceof Object[]) {
+          Assert.assertTrue(Arrays.equals((Object[]) actualValue, (Object[]) expectedValue), column);
+        } else {
+          Assert.assertEquals(actualValue, expectedValue, column);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testIndexes() {
+    Assert.assertTrue(_immutableSegment.getDataSource(SORTED_COLUMN).getDataSourceMetadata().isSorted());
+    for (String column : INVERTED_INDEX_COLUMNS) {
+      DataSource dataSource = _immutableSegment.getDataSource(column);
+      Assert.assertNotNull(dataSource.getInvertedIndex(), column);
+      Assert.assertNotNull(dataSource.getDictionary(), column);
+    }
+    Assert.assertNull(_immutableSegment.getDataSource(RAW_METRIC_COLUMN).getDictionary());
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _immutableSegment.destroy();
+    _mutableSegment.destroy();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
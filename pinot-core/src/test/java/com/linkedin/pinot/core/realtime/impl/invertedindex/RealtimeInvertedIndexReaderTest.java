@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.invertedindex;
+
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.operator.docidsets.AndBlockDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.BitmapDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.FilterBlockDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.OrBlockDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.RealtimeInvertedIndexDocIdSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class RealtimeInvertedIndexReaderTest {
+  private static final int CARDINALITY = 7;
+  // Spans multiple chunks of 2^16 doc ids
+  private static final int NUM_DOCS = 300_000;
+
+  @Test
+  public void testAddAndRead() {
+    RealtimeInvertedIndexReader invertedIndex = new RealtimeInvertedIndexReader();
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      invertedIndex.add(docId % CARDINALITY, docId);
+      // Duplicate value within the same document (multi-value column)
+      invertedIndex.add(docId % CARDINALITY, docId);
+    }
+
+    for (int dictId = 0; dictId < CARDINALITY; dictId++) {
+      IntIterator intIterator = invertedIndex.getDocIdIterator(dictId);
+      MutableRoaringBitmap bitmap = invertedIndex.getDocIds(dictId);
+      Assert.assertEquals(bitmap.getCardinality(), (NUM_DOCS - dictId + CARDINALITY - 1) / CARDINALITY);
+      for (int expectedDocId = dictId; expectedDocId < NUM_DOCS; expectedDocId += CARDINALITY) {
+        Assert.assertTrue(intIterator.hasNext());
+        Assert.assertEquals(intIterator.next(), expectedDocId);
+        Assert.assertTrue(bitmap.contains(expectedDocId));
+      }
+      Assert.assertFalse(intIterator.hasNext());
+    }
+
+    // Dictionary id not yet added into the inverted index
+    Assert.assertFalse(invertedIndex.getDocIdIterator(CARDINALITY).hasNext());
+    Assert.assertTrue(invertedIndex.getDocIds(CARDINALITY).isEmpty());
+  }
+
+  @Test
+  public void testDocIdSet() {
+    RealtimeInvertedIndexReader invertedIndex = new RealtimeInvertedIndexReader();
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      invertedIndex.add(docId % CARDINALITY, docId);
+    }
+    int startDocId = 1000;
+    int endDocId = 200_000;
+
+    // Single dictionary id
+    List<Integer> docIds = getDocIds(new RealtimeInvertedIndexDocIdSet(invertedIndex, new int[]{2}, startDocId, endDocId,
+        false));
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int docId = startDocId; docId <= endDocId; docId++) {
+      if (docId % CARDINALITY == 2) {
+        expectedDocIds.add(docId);
+      }
+    }
+    Assert.assertEquals(docIds, expectedDocIds);
+
+    // Multiple dictionary ids
+    docIds = getDocIds(new RealtimeInvertedIndexDocIdSet(invertedIndex, new int[]{1, 3}, startDocId, endDocId, false));
+    expectedDocIds.clear();
+    for (int docId = startDocId; docId <= endDocId; docId++) {
+      if (docId % CARDINALITY == 1 || docId % CARDINALITY == 3) {
+        expectedDocIds.add(docId);
+      }
+    }
+    Assert.assertEquals(docIds, expectedDocIds);
+
+    // Exclusive
+    docIds = getDocIds(new RealtimeInvertedIndexDocIdSet(invertedIndex, new int[]{1, 3}, startDocId, endDocId, true));
+    expectedDocIds.clear();
+    for (int docId = startDocId; docId <= endDocId; docId++) {
+      if (docId % CARDINALITY != 1 && docId % CARDINALITY != 3) {
+        expectedDocIds.add(docId);
+      }
+    }
+    Assert.assertEquals(docIds, expectedDocIds);
+  }
+
+  @Test
+  public void testAndOrDocIdSet() {
+    RealtimeInvertedIndexReader invertedIndex = new RealtimeInvertedIndexReader();
+    MutableRoaringBitmap evenDocIds = new MutableRoaringBitmap();
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      invertedIndex.add(docId % CARDINALITY, docId);
+      if (docId % 2 == 0) {
+        evenDocIds.add(docId);
+      }
+    }
+    int startDocId = 1000;
+    int endDocId = 200_000;
+
+    // Intersect with bitmap
+    List<FilterBlockDocIdSet> docIdSets = Arrays.asList(
+        new RealtimeInvertedIndexDocIdSet(invertedIndex, new int[]{1, 3}, startDocId, endDocId, false),
+        new BitmapDocIdSet(new ImmutableRoaringBitmap[]{evenDocIds}, startDocId, endDocId, false));
+    List<Integer> docIds = getDocIds(new AndBlockDocIdSet(docIdSets));
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int docId = startDocId; docId <= endDocId; docId++) {
+      if ((docId % CARDINALITY == 1 || docId % CARDINALITY == 3) && docId % 2 == 0) {
+        expectedDocIds.add(docId);
+      }
+    }
+    Assert.assertEquals(docIds, expectedDocIds);
+
+    // Union with bitmap
+    docIds = getDocIds(new OrBlockDocIdSet(docIdSets));
+    expectedDocIds.clear();
+    for (int docId = startDocId; docId <= endDocId; docId++) {
+      if (docId % CARDINALITY == 1 || docId % CARDINALITY == 3 || docId % 2 == 0) {
+        expectedDocIds.add(docId);
+      }
+    }
+    Assert.assertEquals(docIds, expectedDocIds);
+
+    // Union of exclusive predicates
+    docIdSets = Arrays.asList(
+        new RealtimeInvertedIndexDocIdSet(invertedIndex, new int[]{0, 1, 2}, startDocId, endDocId, true),
+        new RealtimeInvertedIndexDocIdSet(invertedIndex, new int[]{2, 3, 4}, startDocId, endDocId, true));
+    docIds = getDocIds(new OrBlockDocIdSet(docIdSets));
+    expectedDocIds.clear();
+    for (int docId = startDocId; docId <= endDocId; docId++) {
+      if (docId % CARDINALITY != 2) {
+        expectedDocIds.add(docId);
+      }
+    }
+    Assert.assertEquals(docIds, expectedDocIds);
+  }
+
+  @Test
+  public void testConcurrentAddAndRead() throws Exception {
+    RealtimeInvertedIndexReader invertedIndex = new RealtimeInvertedIndexReader();
+    invertedIndex.add(0, 0);
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread writer = new Thread(() -> {
+      for (int docId = 1; docId < NUM_DOCS; docId++) {
+        invertedIndex.add(docId % CARDINALITY, docId);
+      }
+    });
+    Thread reader = new Thread(() -> {
+      try {
+        while (writer.isAlive()) {
+          // Each snapshot must be a gap-free prefix of the posting list
+          IntIterator intIterator = invertedIndex.getDocIdIterator(0);
+          int expectedDocId = 0;
+          while (intIterator.hasNext()) {
+            Assert.assertEquals(intIterator.next(), expectedDocId);
+            expectedDocId += CARDINALITY;
+          }
+        }
+      } catch (Throwable t) {
+        error.set(t);
+      }
+    });
+    writer.start();
+    reader.start();
+    writer.join();
+    reader.join();
+    Assert.assertNull(error.get());
+  }
+
+  private static List<Integer> getDocIds(FilterBlockDocIdSet docIdSet) {
+    List<Integer> docIds = new ArrayList<>();
+    BlockDocIdIterator iterator = docIdSet.iterator();
+    int docId;
+    while ((docId = iterator.next()) != Constants.EOF) {
+      docIds.add(docId);
+    }
+    return docIds;
+  }
+}
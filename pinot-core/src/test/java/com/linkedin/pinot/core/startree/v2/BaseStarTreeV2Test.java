@@ -136,9 +136,11 @@ abstract class BaseStarTreeV2Test<R, A> {
             .build();
     File indexDir = new File(TEMP_DIR, SEGMENT_NAME);
 
-    // Randomly build star-tree using on-heap or off-heap mode
+    // Randomly build star-tree using on-heap or off-heap mode, with 1 to 4 threads
     BuildMode buildMode = RANDOM.nextBoolean() ? BuildMode.ON_HEAP : BuildMode.OFF_HEAP;
-    new MultipleTreesBuilder(Collections.singletonList(starTreeV2BuilderConfig), indexDir, buildMode).build();
+    int numThreads = RANDOM.nextInt(4) + 1;
+    new MultipleTreesBuilder(Collections.singletonList(starTreeV2BuilderConfig), indexDir, buildMode,
+        numThreads).build();
 
     _indexSegment = ImmutableSegmentLoader.load(indexDir, ReadMode.mmap);
     _starTreeV2 = _indexSegment.getStarTrees().get(0);
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.startree.v2.builder;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class RadixSortUtilsTest {
+  private static final Random RANDOM = new Random();
+  private static final int[] CARDINALITIES = new int[]{5, 1, 1000, 100_000};
+
+  @Test
+  public void testSort() {
+    int numIds = 10_000;
+    int[][] keys = getRandomKeys(numIds);
+    int[] ids = getIds(numIds);
+    RadixSortUtils.sort(ids, CARDINALITIES, (id, keyIndex) -> keys[id][keyIndex]);
+    Assert.assertEquals(ids, getExpectedIds(keys));
+  }
+
+  @Test
+  public void testSortWithReusedBuffers() {
+    int maxNumIds = 10_000;
+    int[] idBuffer = new int[maxNumIds];
+    int[] keyBuffer = new int[maxNumIds];
+    for (int numIds : new int[]{maxNumIds, maxNumIds / 2, 1}) {
+      int[][] keys = getRandomKeys(numIds);
+      int[] ids = getIds(numIds);
+      RadixSortUtils.sort(ids, numIds, CARDINALITIES, (id, keyIndex) -> keys[id][keyIndex], idBuffer, keyBuffer);
+      Assert.assertEquals(ids, getExpectedIds(keys));
+    }
+  }
+
+  @Test
+  public void testSortInParallel()
+      throws Exception {
+    int numIds = 1_000_000;
+    int[][] keys = getRandomKeys(numIds);
+    int[] ids = getIds(numIds);
+    ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+    try {
+      forkJoinPool.submit(() -> RadixSortUtils.sort(ids, CARDINALITIES, (id, keyIndex) -> keys[id][keyIndex])).get();
+    } finally {
+      forkJoinPool.shutdown();
+    }
+    Assert.assertEquals(ids, getExpectedIds(keys));
+  }
+
+  private static int[][] getRandomKeys(int numIds) {
+    int numKeys = CARDINALITIES.length;
+    int[][] keys = new int[numIds][numKeys];
+    for (int i = 0; i < numIds; i++) {
+      for (int j = 0; j < numKeys; j++) {
+        keys[i][j] = RANDOM.nextInt(CARDINALITIES[j]);
+      }
+    }
+    return keys;
+  }
+
+  private static int[] getIds(int numIds) {
+    int[] ids = new int[numIds];
+    for (int i = 0; i < numIds; i++) {
+      ids[i] = i;
+    }
+    return ids;
+  }
+
+  /**
+   * Sorts the ids with a stable comparison sort, so that ids with the same keys keep their original order.
+   */
+  private static int[] getExpectedIds(int[][] keys) {
+    Integer[] ids = new Integer[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      ids[i] = i;
+    }
+    Arrays.sort(ids, (Comparator<Integer>) (id1, id2) -> {
+      for (int i = 0; i < CARDINALITIES.length; i++) {
+        int result = Integer.compare(keys[id1][i], keys[id2][i]);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    });
+    int[] expectedIds = new int[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      expectedIds[i] = ids[i];
+    }
+    return expectedIds;
+  }
+}
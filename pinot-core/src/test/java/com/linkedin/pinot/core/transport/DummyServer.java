@@ -33,15 +33,16 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * The {@code DummyServer} class is a Netty server that always responds with the given bytes and the given delay.
+ * <p>Multiple responses can be given to mimic a chunked response, they are sent in order for each request.
  */
 public class DummyServer implements Runnable {
   private final int _port;
   private final long _responseDelayMs;
-  private final byte[] _responseBytes;
+  private final byte[][] _responseBytes;
 
   private volatile Channel _channel;
 
-  public DummyServer(int port, long responseDelayMs, byte[] responseBytes) {
+  public DummyServer(int port, long responseDelayMs, byte[]... responseBytes) {
     _port = port;
     _responseDelayMs = responseDelayMs;
     _responseBytes = responseBytes;
@@ -66,8 +67,10 @@ public class DummyServer implements Runnable {
                         @Override
                         protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
                           Thread.sleep(_responseDelayMs);
-                          ctx.writeAndFlush(ctx.alloc().buffer(_responseBytes.length).writeBytes(_responseBytes),
-                              ctx.voidPromise());
+                          for (byte[] responseBytes : _responseBytes) {
+                            ctx.writeAndFlush(ctx.alloc().buffer(responseBytes.length).writeBytes(responseBytes),
+                                ctx.voidPromise());
+                          }
                         }
                       });
             }
@@ -20,6 +20,7 @@ import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.utils.CommonConstants.Helix.TableType;
 import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -101,6 +102,85 @@ public class QueryRouterTest {
     thread.join();
   }
 
+  @Test
+  public void testMultipleChannels() throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start the server
+    DummyServer dummyServer = new DummyServer(TEST_PORT, 100L, responseBytes);
+    Thread thread = new Thread(dummyServer);
+    thread.start();
+    while (!dummyServer.isReady()) {
+      Thread.sleep(100L);
+    }
+
+    QueryRouter queryRouter = new QueryRouter("testBroker", Mockito.mock(BrokerMetrics.class), 2);
+    try {
+      for (int i = 0; i < 3; i++) {
+        AsyncQueryResponse asyncQueryResponse =
+            queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L);
+        Assert.assertEquals(queryRouter.getNumInFlightRequests(OFFLINE_SERVER), 1);
+        Map<Server, ServerResponse> response = asyncQueryResponse.getResponse();
+        Assert.assertEquals(response.size(), 1);
+        Assert.assertNotNull(response.get(OFFLINE_SERVER).getDataTable());
+        Assert.assertEquals(queryRouter.getNumInFlightRequests(OFFLINE_SERVER), 0);
+      }
+
+      // Timed out requests should not be counted as in-flight after the query is done
+      AsyncQueryResponse asyncQueryResponse =
+          queryRouter.submitQuery(requestId + 1, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 500L);
+      Assert.assertNull(asyncQueryResponse.getResponse().get(OFFLINE_SERVER).getDataTable());
+      Assert.assertEquals(queryRouter.getNumInFlightRequests(OFFLINE_SERVER), 0);
+    } finally {
+      queryRouter.shutDown();
+    }
+
+    // Shut down the server
+    dummyServer.shutDown();
+    thread.join();
+  }
+
+  @Test
+  public void testChunkedResponse() throws Exception {
+    long requestId = 123;
+    DataTable dataTableChunk = new DataTableImplV2();
+    dataTableChunk.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    dataTableChunk.getMetadata().put(DataTable.RESPONSE_CHUNK_METADATA_KEY, "0");
+    byte[] chunkBytes = dataTableChunk.toBytes();
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start the server
+    DummyServer dummyServer = new DummyServer(TEST_PORT, 0L, chunkBytes, chunkBytes, responseBytes);
+    Thread thread = new Thread(dummyServer);
+    thread.start();
+    while (!dummyServer.isReady()) {
+      Thread.sleep(100L);
+    }
+
+    // The chunks are passed to the consumer, and the last response completes the server response
+    List<DataTable> dataTablesConsumed = Collections.synchronizedList(new ArrayList<>());
+    AsyncQueryResponse asyncQueryResponse =
+        _queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L,
+            dataTablesConsumed::add);
+    Map<Server, ServerResponse> response = asyncQueryResponse.getResponse();
+    Assert.assertEquals(response.size(), 1);
+    ServerResponse serverResponse = response.get(OFFLINE_SERVER);
+    Assert.assertNotNull(serverResponse.getDataTable());
+    Assert.assertFalse(
+        serverResponse.getDataTable().getMetadata().containsKey(DataTable.RESPONSE_CHUNK_METADATA_KEY));
+    Assert.assertEquals(serverResponse.getResponseSize(), 2 * chunkBytes.length + responseBytes.length);
+    Assert.assertEquals(dataTablesConsumed.size(), 3);
+
+    // Shut down the server
+    dummyServer.shutDown();
+    thread.join();
+  }
+
   @Test
   public void testInvalidResponse() throws Exception {
     long requestId = 123;
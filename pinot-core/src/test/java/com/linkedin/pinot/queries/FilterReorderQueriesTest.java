@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.manager.SegmentDataManager;
+import com.linkedin.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.data.readers.RecordReader;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.operator.query.AggregationOperator;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for the cost based ordering of the child filters of AND/OR filters, where the scan based filters only scan the
+ * documents not yet filtered out (AND) or not yet matched (OR) by the previous filters.
+ */
+public class FilterReorderQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "FilterReorderQueriesTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+
+  private static final int NUM_ROWS = 10000;
+  // Column with inverted index, 100 values
+  private static final String INVERTED_COLUMN = "invertedColumn";
+  // Columns without inverted index, 2 values and 50 values
+  private static final String LOW_CARDINALITY_COLUMN = "lowCardinalityColumn";
+  private static final String HIGH_CARDINALITY_COLUMN = "highCardinalityColumn";
+
+  private final int[] _invertedValues = new int[NUM_ROWS];
+  private final int[] _lowCardinalityValues = new int[NUM_ROWS];
+  private final int[] _highCardinalityValues = new int[NUM_ROWS];
+  private ImmutableSegment _indexSegment;
+  private List<SegmentDataManager> _segmentDataManagers;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<SegmentDataManager> getSegmentDataManagers() {
+    return _segmentDataManagers;
+  }
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Random random = new Random();
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      // Make sure all the values exist in the segment
+      _invertedValues[i] = i < 100 ? i : random.nextInt(100);
+      _lowCardinalityValues[i] = i < 2 ? i : random.nextInt(2);
+      _highCardinalityValues[i] = i < 50 ? 49 - i : random.nextInt(50);
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(INVERTED_COLUMN, _invertedValues[i]);
+      valueMap.put(LOW_CARDINALITY_COLUMN, _lowCardinalityValues[i]);
+      valueMap.put(HIGH_CARDINALITY_COLUMN, _highCardinalityValues[i]);
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(valueMap);
+      rows.add(genericRow);
+    }
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INVERTED_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(LOW_CARDINALITY_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(HIGH_CARDINALITY_COLUMN, FieldSpec.DataType.INT, true));
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setTableName(TABLE_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+    config.setInvertedIndexCreationColumns(Collections.singletonList(INVERTED_COLUMN));
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows, schema)) {
+      driver.init(config, recordReader);
+      driver.build();
+    }
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setInvertedIndexColumns(Collections.singleton(INVERTED_COLUMN));
+    _indexSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), indexLoadingConfig);
+    _segmentDataManagers = Collections.singletonList(new ImmutableSegmentDataManager(_indexSegment));
+  }
+
+  @Test
+  public void testAnd() {
+    // Inverted index first, then the more selective scan, then the less selective scan
+    String query = "SELECT COUNT(*) FROM testTable WHERE lowCardinalityColumn = 0 AND highCardinalityColumn = 1 AND "
+        + "invertedColumn = 5";
+    int numInvertedMatches = count(i -> _invertedValues[i] == 5);
+    int numInvertedAndHighMatches = count(i -> _invertedValues[i] == 5 && _highCardinalityValues[i] == 1);
+    int numMatches =
+        count(i -> _invertedValues[i] == 5 && _highCardinalityValues[i] == 1 && _lowCardinalityValues[i] == 0);
+    ExecutionStatistics executionStatistics =
+        testQuery(query, numMatches, numInvertedMatches + numInvertedAndHighMatches);
+    Map<String, Long> filterStatistics = executionStatistics.getFilterStatistics();
+    Assert.assertEquals(filterStatistics.size(), 3);
+    Assert.assertEquals(filterStatistics.get("BitmapBasedFilterOperator(ColumnDataSource [invertedColumn] EQ)"),
+        Long.valueOf(0L));
+    Assert.assertEquals(filterStatistics.get("ScanBasedFilterOperator(ColumnDataSource [highCardinalityColumn] EQ)"),
+        Long.valueOf(numInvertedMatches));
+    Assert.assertEquals(filterStatistics.get("ScanBasedFilterOperator(ColumnDataSource [lowCardinalityColumn] EQ)"),
+        Long.valueOf(numInvertedAndHighMatches));
+
+    // Without inverted index, the more selective scan should drive the iteration
+    query = "SELECT COUNT(*) FROM testTable WHERE lowCardinalityColumn = 1 AND highCardinalityColumn IN (3, 4)";
+    numMatches = count(i -> _lowCardinalityValues[i] == 1 && (_highCardinalityValues[i] == 3
+        || _highCardinalityValues[i] == 4));
+    executionStatistics = testQuery(query, numMatches, -1);
+    // Scanning the less selective column first requires scanning about NUM_ROWS / 2 more entries
+    Assert.assertTrue(executionStatistics.getNumEntriesScannedInFilter() < NUM_ROWS + NUM_ROWS / 4);
+
+    // No document matches the inverted index, so nothing should be scanned
+    query = "SELECT COUNT(*) FROM testTable WHERE lowCardinalityColumn = 0 AND invertedColumn = 5 AND "
+        + "invertedColumn = 6";
+    testQuery(query, 0, 0);
+  }
+
+  @Test
+  public void testOr() {
+    // Scan only the documents not matching the inverted index
+    String query = "SELECT COUNT(*) FROM testTable WHERE highCardinalityColumn = 1 OR invertedColumn IN (5, 6)";
+    int numInvertedMatches = count(i -> _invertedValues[i] == 5 || _invertedValues[i] == 6);
+    int numMatches = count(i -> _highCardinalityValues[i] == 1 || _invertedValues[i] == 5 || _invertedValues[i] == 6);
+    testQuery(query, numMatches, NUM_ROWS - numInvertedMatches);
+
+    // Scan the less selective column first, then only the documents not matching any previous filter
+    query = "SELECT COUNT(*) FROM testTable WHERE highCardinalityColumn = 1 OR invertedColumn = 5 OR "
+        + "lowCardinalityColumn = 0";
+    numInvertedMatches = count(i -> _invertedValues[i] == 5);
+    int numInvertedOrLowMatches = count(i -> _invertedValues[i] == 5 || _lowCardinalityValues[i] == 0);
+    numMatches =
+        count(i -> _highCardinalityValues[i] == 1 || _invertedValues[i] == 5 || _lowCardinalityValues[i] == 0);
+    testQuery(query, numMatches, (NUM_ROWS - numInvertedMatches) + (NUM_ROWS - numInvertedOrLowMatches));
+
+    // Nested AND inside OR
+    query = "SELECT COUNT(*) FROM testTable WHERE (invertedColumn = 5 AND lowCardinalityColumn = 1) OR "
+        + "highCardinalityColumn = 2";
+    numMatches = count(
+        i -> (_invertedValues[i] == 5 && _lowCardinalityValues[i] == 1) || _highCardinalityValues[i] == 2);
+    testQuery(query, numMatches, -1);
+  }
+
+  /**
+   * Runs the query on the segment, checks the number of matching documents and the number of entries scanned in
+   * filter (if non-negative), and returns the execution statistics.
+   */
+  private ExecutionStatistics testQuery(String query, int expectedNumMatches, long expectedNumEntriesScannedInFilter) {
+    AggregationOperator aggregationOperator = getOperatorForQuery(query);
+    IntermediateResultsBlock resultsBlock = aggregationOperator.nextBlock();
+    Assert.assertEquals(((Number) resultsBlock.getAggregationResult().get(0)).intValue(), expectedNumMatches, query);
+    ExecutionStatistics executionStatistics = aggregationOperator.getExecutionStatistics();
+    Assert.assertEquals(executionStatistics.getNumDocsScanned(), expectedNumMatches, query);
+    if (expectedNumEntriesScannedInFilter >= 0) {
+      Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), expectedNumEntriesScannedInFilter, query);
+    }
+    // The entries scanned by the leaf filters should add up to the total
+    long numEntriesScannedInFilter = 0L;
+    for (long numEntriesScanned : executionStatistics.getFilterStatistics().values()) {
+      numEntriesScannedInFilter += numEntriesScanned;
+    }
+    Assert.assertEquals(numEntriesScannedInFilter, executionStatistics.getNumEntriesScannedInFilter(), query);
+    return executionStatistics;
+  }
+
+  private int count(IntPredicate predicate) {
+    int count = 0;
+    for (int i = 0; i < NUM_ROWS; i++) {
+      if (predicate.test(i)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
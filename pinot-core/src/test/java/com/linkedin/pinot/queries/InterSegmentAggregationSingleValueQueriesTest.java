@@ -34,7 +34,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"120000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 0L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 0L, 120000L,
         new String[]{"24516"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -42,7 +42,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"64420"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 24516L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 24516L, 120000L,
         new String[]{"17080"});
   }
 
@@ -57,7 +57,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146952047.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2146952047.00000", "999813884.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -65,7 +65,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146952047.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2146952047.00000", "999813884.00000"});
   }
 
@@ -80,7 +80,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"240528.00000", "17891.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"101116473.00000", "20396372.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -88,7 +88,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"240528.00000", "17891.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"101116473.00000", "20396372.00000"});
   }
 
@@ -101,7 +101,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"129268741751388.00000", "129156636756600.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"27503790384288.00000", "12429178874916.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -109,7 +109,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"69526727335224.00000", "69225631719808.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"19058003631876.00000", "8606725456500.00000"});
   }
 
@@ -122,7 +122,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1077239514.59490", "1076305306.30500"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1121871038.68037", "506982332.96280"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -130,7 +130,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2142595699.00000", "2141451242.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -145,7 +145,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146711519.00000", "2147401664.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2045835574.00000", "979417512.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -153,7 +153,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146711519.00000", "2146612605.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2044094181.00000", "979417512.00000"});
   }
 
@@ -166,7 +166,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"6582", "21910"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1872", "4556"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -174,7 +174,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"3495", "11961"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"1272", "3289"});
   }
 
@@ -187,7 +187,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"5977", "23825"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1886", "4492"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -195,7 +195,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"3592", "11889"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"1324", "3197"});
   }
 
@@ -208,7 +208,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1107310944.00000", "1080136306.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1139674505.00000", "505053732.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -216,7 +216,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2141451242.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -229,7 +229,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1943040511.00000", "1936611145.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1936730975.00000", "899534534.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -237,7 +237,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2147278341.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -250,7 +250,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2071559385.00000", "2042409652.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2096857943.00000", "947763150.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -258,7 +258,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -271,7 +271,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2139354437.00000", "2125299552.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2146232405.00000", "990669195.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -279,7 +279,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2146232405.00000", "999309554.00000"});
   }
 
@@ -292,7 +292,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1107310944", "1082130431"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1139674505", "509607935"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -300,7 +300,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2141451242"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699", "999309554"});
   }
 
@@ -313,7 +313,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1946157055", "1946157055"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1939865599", "902299647"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -321,7 +321,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2147278341"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699", "999309554"});
   }
 
@@ -334,7 +334,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2080374783", "2051014655"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2109734911", "950009855"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -342,7 +342,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2147419555"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699", "999309554"});
   }
 
@@ -355,7 +355,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2143289343", "2143289343"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2146232405", "991952895"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -363,7 +363,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2147419555"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2146232405", "999309554"});
   }
 
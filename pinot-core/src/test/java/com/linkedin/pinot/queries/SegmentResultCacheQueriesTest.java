@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.data.TimeFieldSpec;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.manager.SegmentDataManager;
+import com.linkedin.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.data.readers.RecordReader;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import com.linkedin.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for the per-segment result cache.
+ */
+public class SegmentResultCacheQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SegmentResultCacheQueriesTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+
+  private static final int NUM_ROWS = 1000;
+  private static final String TIME_COLUMN = "daysSinceEpoch";
+  private static final String METRIC_COLUMN = "metricColumn";
+  private static final String GROUP_BY_COLUMN = "groupByColumn";
+  private static final int MIN_DAY = 17000;
+  private static final int NUM_DAYS = 10;
+  private static final String[] GROUPS = new String[]{"G1", "G2", "G3"};
+  private static final String AGGREGATIONS =
+      "COUNT(*), SUM(metricColumn), AVG(metricColumn), MINMAXRANGE(metricColumn), DISTINCTCOUNT(metricColumn), "
+          + "DISTINCTCOUNTHLL(metricColumn), PERCENTILE90(metricColumn)";
+  private static final String[] QUERIES = new String[]{
+      "SELECT " + AGGREGATIONS + " FROM testTable",
+      "SELECT " + AGGREGATIONS + " FROM testTable WHERE groupByColumn = 'G1'",
+      "SELECT " + AGGREGATIONS + " FROM testTable WHERE daysSinceEpoch > 17005",
+      "SELECT " + AGGREGATIONS + " FROM testTable GROUP BY groupByColumn",
+      "SELECT " + AGGREGATIONS + " FROM testTable WHERE daysSinceEpoch >= 16990 GROUP BY groupByColumn"
+  };
+
+  private ImmutableSegment _indexSegment;
+  private List<SegmentDataManager> _segmentDataManagers;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<SegmentDataManager> getSegmentDataManagers() {
+    return _segmentDataManagers;
+  }
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Random random = new Random();
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(TIME_COLUMN, MIN_DAY + i % NUM_DAYS);
+      valueMap.put(METRIC_COLUMN, random.nextInt(100));
+      valueMap.put(GROUP_BY_COLUMN, GROUPS[random.nextInt(GROUPS.length)]);
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(valueMap);
+      rows.add(genericRow);
+    }
+
+    Schema schema = new Schema();
+    schema.addField(new TimeFieldSpec(TIME_COLUMN, FieldSpec.DataType.INT, TimeUnit.DAYS));
+    schema.addField(new MetricFieldSpec(METRIC_COLUMN, FieldSpec.DataType.INT));
+    schema.addField(new DimensionFieldSpec(GROUP_BY_COLUMN, FieldSpec.DataType.STRING, true));
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setTableName(TABLE_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows, schema)) {
+      driver.init(config, recordReader);
+      driver.build();
+    }
+
+    _indexSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.mmap);
+    _segmentDataManagers =
+        Arrays.asList(new ImmutableSegmentDataManager(_indexSegment), new ImmutableSegmentDataManager(_indexSegment));
+  }
+
+  @Test
+  public void testCachedResults() throws Exception {
+    SegmentResultCache segmentResultCache = new SegmentResultCache(10_000_000L);
+    InstancePlanMakerImplV2 cachedPlanMaker = new InstancePlanMakerImplV2(segmentResultCache);
+    InstancePlanMakerImplV2 planMaker = new InstancePlanMakerImplV2();
+    for (String query : QUERIES) {
+      BrokerResponseNative expected = getBrokerResponseForQuery(query, planMaker);
+      // First run computes and caches the segment results, following runs are served from the cache
+      for (int i = 0; i < 3; i++) {
+        BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query, cachedPlanMaker);
+        Assert.assertEquals(brokerResponse.toJson().get("aggregationResults").toString(),
+            expected.toJson().get("aggregationResults").toString(), query);
+        // No document is scanned when served from the cache
+        Assert.assertEquals(brokerResponse.getNumDocsScanned(), i == 0 ? expected.getNumDocsScanned() : 0L, query);
+        Assert.assertEquals(brokerResponse.getTotalDocs(), expected.getTotalDocs(), query);
+        Assert.assertNotNull(segmentResultCache.get(getKey(query), _indexSegment), query);
+      }
+    }
+  }
+
+  @Test
+  public void testKey() {
+    // Time range covering the whole segment should be removed from the key
+    String key = getKey("SELECT COUNT(*) FROM testTable WHERE groupByColumn = 'G1'");
+    Assert.assertEquals(getKey("SELECT COUNT(*) FROM testTable WHERE groupByColumn = 'G1' AND daysSinceEpoch >= 16000"),
+        key);
+    Assert.assertEquals(getKey(
+        "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch BETWEEN 17000 AND 17009 AND groupByColumn = 'G1'"), key);
+    Assert.assertEquals(getKey("SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch > 16999 AND groupByColumn = 'G1'"),
+        key);
+    Assert.assertFalse(
+        key.equals(getKey("SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch > 17000 AND groupByColumn = 'G1'")));
+    Assert.assertFalse(
+        key.equals(getKey("SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch < 17009 AND groupByColumn = 'G1'")));
+    Assert.assertEquals(getKey("SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch < 20000"),
+        getKey("SELECT COUNT(*) FROM testTable"));
+
+    // Order of the predicates should not matter
+    Assert.assertEquals(getKey("SELECT COUNT(*) FROM testTable WHERE groupByColumn = 'G1' AND metricColumn > 5"),
+        getKey("SELECT COUNT(*) FROM testTable WHERE metricColumn > 5 AND groupByColumn = 'G1'"));
+
+    // Different aggregations or group-by
+    String countKey = getKey("SELECT COUNT(*) FROM testTable");
+    Assert.assertFalse(countKey.equals(getKey("SELECT SUM(metricColumn) FROM testTable")));
+    Assert.assertFalse(countKey.equals(getKey("SELECT COUNT(*) FROM testTable GROUP BY groupByColumn")));
+
+    // Selection queries are not cacheable
+    Assert.assertNull(getKey("SELECT * FROM testTable"));
+    Assert.assertNull(getKey("SELECT COUNT(*) FROM testTable OPTION(skipResultCache=true)"));
+  }
+
+  @Test
+  public void testReload() throws Exception {
+    SegmentResultCache segmentResultCache = new SegmentResultCache(10_000_000L);
+    String query = QUERIES[0];
+    getBrokerResponseForQuery(query, new InstancePlanMakerImplV2(segmentResultCache));
+    Assert.assertNotNull(segmentResultCache.get(getKey(query), _indexSegment));
+
+    // Cached result should not be served for the reloaded segment
+    ImmutableSegment reloadedSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.mmap);
+    try {
+      Assert.assertNull(segmentResultCache.get(getKey(query), reloadedSegment));
+    } finally {
+      reloadedSegment.destroy();
+    }
+  }
+
+  private String getKey(String query) {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(query);
+    return SegmentResultCache.getKey(_indexSegment, brokerRequest, RequestUtils.generateFilterQueryTree(brokerRequest));
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
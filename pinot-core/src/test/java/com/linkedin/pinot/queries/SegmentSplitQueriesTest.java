@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.response.broker.AggregationResult;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.response.broker.GroupByResult;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.manager.SegmentDataManager;
+import com.linkedin.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.data.readers.RecordReader;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import com.linkedin.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for splitting large segments into doc id ranges, where the results of the doc id ranges should be the same as
+ * the results of the whole segments.
+ */
+public class SegmentSplitQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SegmentSplitQueriesTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+
+  private static final int NUM_ROWS = 10000;
+  private static final String SORTED_COLUMN = "sortedColumn";
+  private static final String INVERTED_COLUMN = "invertedColumn";
+  private static final String RAW_COLUMN = "rawColumn";
+  private static final String METRIC_COLUMN = "metricColumn";
+  // Query option overrides the configured max threads per query, and split each segment into 7 doc id ranges
+  private static final String QUERY_OPTION = " OPTION(maxThreadsPerQuery=14)";
+  private static final String[] QUERIES = new String[]{
+      "SELECT COUNT(*), SUM(metricColumn), MIN(metricColumn) FROM testTable",
+      "SELECT COUNT(*), SUM(metricColumn) FROM testTable WHERE sortedColumn BETWEEN 10 AND 55",
+      "SELECT COUNT(*), SUM(metricColumn) FROM testTable WHERE sortedColumn IN (3, 30, 97)",
+      "SELECT COUNT(*), SUM(metricColumn) FROM testTable WHERE sortedColumn NOT IN (3, 30, 97)",
+      "SELECT COUNT(*), SUM(metricColumn) FROM testTable WHERE invertedColumn IN (1, 2, 3) AND rawColumn < 20",
+      "SELECT COUNT(*), SUM(metricColumn) FROM testTable WHERE invertedColumn = 5 AND sortedColumn IN (20, 80)",
+      "SELECT COUNT(*), SUM(metricColumn) FROM testTable WHERE invertedColumn = 5 OR rawColumn = 7",
+      "SELECT COUNT(*), SUM(metricColumn) FROM testTable WHERE invertedColumn NOT IN (1, 2) AND sortedColumn <> 50",
+      "SELECT COUNT(*), MAX(metricColumn) FROM testTable WHERE rawColumn > 10 AND rawColumn < 40",
+      "SELECT COUNT(*), SUM(metricColumn) FROM testTable GROUP BY rawColumn TOP 100",
+      "SELECT COUNT(*), DISTINCTCOUNT(metricColumn) FROM testTable WHERE invertedColumn < 50 GROUP BY sortedColumn "
+          + "TOP 100",
+      "SELECT COUNT(*), SUM(metricColumn) FROM testTable WHERE invertedColumn IN (7, 8) OR sortedColumn = 60 "
+          + "GROUP BY invertedColumn, rawColumn TOP 1000"
+  };
+
+  private ImmutableSegment _indexSegment;
+  private List<SegmentDataManager> _segmentDataManagers;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<SegmentDataManager> getSegmentDataManagers() {
+    return _segmentDataManagers;
+  }
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Random random = new Random();
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(SORTED_COLUMN, i / 100);
+      valueMap.put(INVERTED_COLUMN, random.nextInt(100));
+      valueMap.put(RAW_COLUMN, random.nextInt(50));
+      valueMap.put(METRIC_COLUMN, random.nextInt(1000));
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(valueMap);
+      rows.add(genericRow);
+    }
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(SORTED_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(INVERTED_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(RAW_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new MetricFieldSpec(METRIC_COLUMN, FieldSpec.DataType.INT));
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setTableName(TABLE_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+    config.setInvertedIndexCreationColumns(Collections.singletonList(INVERTED_COLUMN));
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows, schema)) {
+      driver.init(config, recordReader);
+      driver.build();
+    }
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setInvertedIndexColumns(Collections.singleton(INVERTED_COLUMN));
+    _indexSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), indexLoadingConfig);
+    _segmentDataManagers =
+        Arrays.asList(new ImmutableSegmentDataManager(_indexSegment), new ImmutableSegmentDataManager(_indexSegment));
+  }
+
+  @Test
+  public void testSplitSegments() throws Exception {
+    PropertiesConfiguration properties = new PropertiesConfiguration();
+    properties.setProperty(InstancePlanMakerImplV2.MAX_THREADS_PER_QUERY_KEY, 1);
+    properties.setProperty(InstancePlanMakerImplV2.MIN_NUM_DOCS_PER_SEGMENT_SPLIT_KEY, 1000);
+    InstancePlanMakerImplV2 splitPlanMaker = new InstancePlanMakerImplV2(new QueryExecutorConfig(properties));
+    InstancePlanMakerImplV2 planMaker = new InstancePlanMakerImplV2();
+    for (String query : QUERIES) {
+      BrokerResponseNative expected = getBrokerResponseForQuery(query, planMaker);
+      BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query + QUERY_OPTION, splitPlanMaker);
+      assertAggregationResults(brokerResponse, expected, query);
+      Assert.assertEquals(brokerResponse.getNumDocsScanned(), expected.getNumDocsScanned(), query);
+      Assert.assertEquals(brokerResponse.getNumEntriesScannedPostFilter(), expected.getNumEntriesScannedPostFilter(),
+          query);
+      Assert.assertEquals(brokerResponse.getTotalDocs(), expected.getTotalDocs(), query);
+    }
+  }
+
+  @Test
+  public void testSplitSegmentsWithResultCache() throws Exception {
+    PropertiesConfiguration properties = new PropertiesConfiguration();
+    properties.setProperty(InstancePlanMakerImplV2.MAX_THREADS_PER_QUERY_KEY, 1);
+    properties.setProperty(InstancePlanMakerImplV2.MIN_NUM_DOCS_PER_SEGMENT_SPLIT_KEY, 1000);
+    properties.setProperty(InstancePlanMakerImplV2.SEGMENT_RESULT_CACHE_SIZE_BYTES_KEY, 10_000_000L);
+    InstancePlanMakerImplV2 splitPlanMaker = new InstancePlanMakerImplV2(new QueryExecutorConfig(properties));
+    InstancePlanMakerImplV2 planMaker = new InstancePlanMakerImplV2();
+    for (String query : QUERIES) {
+      BrokerResponseNative expected = getBrokerResponseForQuery(query, planMaker);
+      // First run splits the segments and caches the result of each doc id range, following runs are served from the
+      // cache
+      for (int i = 0; i < 3; i++) {
+        BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query + QUERY_OPTION, splitPlanMaker);
+        assertAggregationResults(brokerResponse, expected, query);
+        if (i == 0) {
+          Assert.assertEquals(brokerResponse.getNumDocsScanned(), expected.getNumDocsScanned(), query);
+          Assert.assertEquals(brokerResponse.getNumEntriesScannedPostFilter(),
+              expected.getNumEntriesScannedPostFilter(), query);
+        } else {
+          Assert.assertEquals(brokerResponse.getNumDocsScanned(), 0L, query);
+          Assert.assertEquals(brokerResponse.getNumEntriesScannedPostFilter(), 0L, query);
+        }
+        Assert.assertEquals(brokerResponse.getTotalDocs(), expected.getTotalDocs(), query);
+      }
+    }
+  }
+
+  private static void assertAggregationResults(BrokerResponseNative brokerResponse, BrokerResponseNative expected,
+      String query) {
+    List<AggregationResult> aggregationResults = brokerResponse.getAggregationResults();
+    List<AggregationResult> expectedAggregationResults = expected.getAggregationResults();
+    int numAggregationResults = expectedAggregationResults.size();
+    Assert.assertEquals(aggregationResults.size(), numAggregationResults, query);
+    for (int i = 0; i < numAggregationResults; i++) {
+      AggregationResult aggregationResult = aggregationResults.get(i);
+      AggregationResult expectedAggregationResult = expectedAggregationResults.get(i);
+      Assert.assertEquals(aggregationResult.getValue(), expectedAggregationResult.getValue(), query);
+      if (expectedAggregationResult.getGroupByResult() != null) {
+        // Order of the groups with the same value is not deterministic
+        Assert.assertEquals(getGroupValueMap(aggregationResult), getGroupValueMap(expectedAggregationResult), query);
+      }
+    }
+  }
+
+  private static Map<List<String>, Serializable> getGroupValueMap(AggregationResult aggregationResult) {
+    Map<List<String>, Serializable> groupValueMap = new HashMap<>();
+    for (GroupByResult groupByResult : aggregationResult.getGroupByResult()) {
+      groupValueMap.put(groupByResult.getGroup(), groupByResult.getValue());
+    }
+    return groupValueMap;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -87,26 +87,28 @@ public class AggregationGroupByTrimmingServiceTest {
       }
       intermediateResultsMap.put(_groups.get(i), new Object[]{(double) i, set});
     }
-    List<Map<String, Object>> trimmedIntermediateResultMaps =
-        _trimmingService.trimIntermediateResultsMap(intermediateResultsMap);
-    Map<String, Object> trimmedSumResultMap = trimmedIntermediateResultMaps.get(0);
-    Map<String, Object> trimmedDistinctCountResultMap = trimmedIntermediateResultMaps.get(1);
-    int trimSize = trimmedSumResultMap.size();
-    Assert.assertEquals(trimmedDistinctCountResultMap.size(), trimSize, ERROR_MESSAGE);
+    Map<String, Object[]> trimmedIntermediateResultsMap =
+        _trimmingService.trimIntermediateResults(intermediateResultsMap);
+    int trimSize = trimmedIntermediateResultsMap.size();
+    Assert.assertTrue(trimSize < NUM_GROUPS, ERROR_MESSAGE);
     for (int i = NUM_GROUPS - trimSize; i < NUM_GROUPS; i++) {
-      String group = _groups.get(i);
-      Assert.assertEquals(((Double) trimmedSumResultMap.get(group)).intValue(), i, ERROR_MESSAGE);
-      Assert.assertEquals(((IntOpenHashSet) trimmedDistinctCountResultMap.get(group)).size(),
+      Object[] trimmedIntermediateResults = trimmedIntermediateResultsMap.get(_groups.get(i));
+      Assert.assertNotNull(trimmedIntermediateResults, ERROR_MESSAGE);
+      Assert.assertEquals(((Double) trimmedIntermediateResults[0]).intValue(), i, ERROR_MESSAGE);
+      Assert.assertEquals(((IntOpenHashSet) trimmedIntermediateResults[1]).size(),
           i / (NUM_GROUPS / MAX_SIZE_OF_SET) + 1, ERROR_MESSAGE);
     }
 
     // Test Broker side trimming
+    Map<String, Comparable> finalSumResultMap = new HashMap<>(trimSize);
     Map<String, Comparable> finalDistinctCountResultMap = new HashMap<>(trimSize);
-    for (Map.Entry<String, Object> entry : trimmedDistinctCountResultMap.entrySet()) {
-      finalDistinctCountResultMap.put(entry.getKey(), ((IntOpenHashSet) entry.getValue()).size());
+    for (Map.Entry<String, Object[]> entry : trimmedIntermediateResultsMap.entrySet()) {
+      Object[] trimmedIntermediateResults = entry.getValue();
+      finalSumResultMap.put(entry.getKey(), (Double) trimmedIntermediateResults[0]);
+      finalDistinctCountResultMap.put(entry.getKey(), ((IntOpenHashSet) trimmedIntermediateResults[1]).size());
     }
     List[] groupByResultLists =
-        _trimmingService.trimFinalResults(new Map[]{trimmedSumResultMap, finalDistinctCountResultMap});
+        _trimmingService.trimFinalResults(new Map[]{finalSumResultMap, finalDistinctCountResultMap});
     List<GroupByResult> sumGroupByResultList = groupByResultLists[0];
     List<GroupByResult> distinctCountGroupByResultList = groupByResultLists[1];
     for (int i = 0; i < GROUP_BY_TOP_N; i++) {
@@ -154,7 +154,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_transformBlock, SV_GROUP_KEY_BUFFER);
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), UNIQUE_ROWS, _errorMessage);
     compareSingleValueBuffer();
-    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), 2);
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator, 2);
   }
 
   @Test
@@ -175,7 +175,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_transformBlock, SV_GROUP_KEY_BUFFER);
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 2, _errorMessage);
     compareSingleValueBuffer();
-    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), 2);
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator, 2);
   }
 
   @Test
@@ -196,7 +196,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_transformBlock, SV_GROUP_KEY_BUFFER);
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 2, _errorMessage);
     compareSingleValueBuffer();
-    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), 2);
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator, 2);
   }
 
   @Test
@@ -217,7 +217,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_transformBlock, SV_GROUP_KEY_BUFFER);
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 2, _errorMessage);
     compareSingleValueBuffer();
-    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), 2);
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator, 2);
   }
 
   /**
@@ -252,7 +252,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     int numUniqueKeys = MV_GROUP_KEY_BUFFER[0].length + MV_GROUP_KEY_BUFFER[1].length;
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), groupKeyUpperBound, _errorMessage);
     compareMultiValueBuffer();
-    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), numUniqueKeys);
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator, numUniqueKeys);
   }
 
   @Test
@@ -274,7 +274,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     int numUniqueKeys = MV_GROUP_KEY_BUFFER[0].length + MV_GROUP_KEY_BUFFER[1].length;
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), numUniqueKeys, _errorMessage);
     compareMultiValueBuffer();
-    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), numUniqueKeys);
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator, numUniqueKeys);
   }
 
   @Test
@@ -296,7 +296,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     int numUniqueKeys = MV_GROUP_KEY_BUFFER[0].length + MV_GROUP_KEY_BUFFER[1].length;
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), numUniqueKeys, _errorMessage);
     compareMultiValueBuffer();
-    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), numUniqueKeys);
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator, numUniqueKeys);
   }
 
   @Test
@@ -318,7 +318,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     int numUniqueKeys = MV_GROUP_KEY_BUFFER[0].length + MV_GROUP_KEY_BUFFER[1].length;
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), numUniqueKeys, _errorMessage);
     compareMultiValueBuffer();
-    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), numUniqueKeys);
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator, numUniqueKeys);
   }
 
   @Test
@@ -352,7 +352,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
       assertEquals(MV_GROUP_KEY_BUFFER[i], MV_GROUP_KEY_BUFFER[0], _errorMessage);
       assertEquals(MV_GROUP_KEY_BUFFER[i + 1], MV_GROUP_KEY_BUFFER[1], _errorMessage);
     }
-    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), numGroupsLimit);
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator, numGroupsLimit);
   }
 
   private static TransformExpressionTree[] getExpressions(String[] columns) {
@@ -384,21 +384,32 @@ public class DictionaryBasedGroupKeyGeneratorTest {
    * @param groupKeyIterator group key iterator.
    * @param numUniqueKeys number of unique keys.
    */
-  private void testGetUniqueGroupKeys(Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator, int numUniqueKeys) {
+  private void testGetUniqueGroupKeys(GroupKeyGenerator groupKeyGenerator, int numUniqueKeys) {
     int count = 0;
-    Set<Integer> idSet = new HashSet<>();
+    Map<Integer, String> idToGroupKeyMap = new HashMap<>();
     Set<String> groupKeySet = new HashSet<>();
 
+    Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = groupKeyGenerator.getUniqueGroupKeys();
     while (groupKeyIterator.hasNext()) {
       count++;
       GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-      idSet.add(groupKey._groupId);
+      idToGroupKeyMap.put(groupKey._groupId, groupKey._stringKey);
       groupKeySet.add(groupKey._stringKey);
     }
 
     assertEquals(count, numUniqueKeys, _errorMessage);
-    assertEquals(idSet.size(), numUniqueKeys, _errorMessage);
+    assertEquals(idToGroupKeyMap.size(), numUniqueKeys, _errorMessage);
     assertEquals(groupKeySet.size(), numUniqueKeys, _errorMessage);
+
+    // Typed group keys should have the same string representation as the string group keys
+    Set<Object> typedGroupKeySet = new HashSet<>();
+    Iterator<GroupKeyGenerator.GroupKey> typedGroupKeyIterator = groupKeyGenerator.getUniqueTypedGroupKeys();
+    while (typedGroupKeyIterator.hasNext()) {
+      GroupKeyGenerator.GroupKey groupKey = typedGroupKeyIterator.next();
+      assertEquals(groupKey._typedKey.toString(), idToGroupKeyMap.get(groupKey._groupId), _errorMessage);
+      typedGroupKeySet.add(groupKey._typedKey);
+    }
+    assertEquals(typedGroupKeySet.size(), numUniqueKeys, _errorMessage);
   }
 
   @AfterClass
@@ -0,0 +1,200 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.aggregation.groupby;
+
+import com.linkedin.pinot.core.operator.blocks.TransformBlock;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory;
+import com.linkedin.pinot.core.query.aggregation.function.customobject.AvgPair;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
+import com.linkedin.pinot.core.query.aggregation.groupby.CompositeGroupKey;
+import com.linkedin.pinot.core.query.aggregation.groupby.DoubleGroupByResultHolder;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupByCombineTable;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Test for {@link GroupByCombineTable}.
+ */
+public class GroupByCombineTableTest {
+  private static final String[] FUNCTION_NAMES = {"count", "sum", "min", "max", "avg"};
+  private static final AggregationFunction[] AGGREGATION_FUNCTIONS = new AggregationFunction[FUNCTION_NAMES.length];
+
+  static {
+    for (int i = 0; i < FUNCTION_NAMES.length; i++) {
+      AGGREGATION_FUNCTIONS[i] = AggregationFunctionFactory.getAggregationFunction(FUNCTION_NAMES[i]);
+    }
+  }
+  private static final int NUM_GROUPS = 100;
+
+  @Test
+  public void testMerge() {
+    GroupByCombineTable table1 = new GroupByCombineTable(AGGREGATION_FUNCTIONS, Integer.MAX_VALUE);
+    GroupByCombineTable table2 = new GroupByCombineTable(AGGREGATION_FUNCTIONS, Integer.MAX_VALUE);
+
+    // Each table gets 2 segments, each segment has the same groups with different group ids
+    for (int i = 0; i < 2; i++) {
+      table1.merge(getSegmentResult(i));
+      table2.merge(getSegmentResult(i + 2));
+    }
+    table1.merge(table2);
+    Assert.assertEquals(table1.getNumGroups(), NUM_GROUPS);
+    Assert.assertFalse(table1.isNumGroupsLimitReached());
+
+    Map<String, Object[]> resultsMap = table1.toResultsMap();
+    Assert.assertEquals(resultsMap.size(), NUM_GROUPS);
+    for (int i = 0; i < NUM_GROUPS; i++) {
+      String groupKey = i + AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER + "s" + i;
+      Object[] results = resultsMap.get(groupKey);
+      Assert.assertNotNull(results, groupKey);
+      // Segment j has value (i + j) for group i
+      Assert.assertEquals(results[0], 4L);
+      Assert.assertEquals(results[1], (double) (4 * i + 6));
+      Assert.assertEquals(results[2], (double) i);
+      Assert.assertEquals(results[3], (double) (i + 3));
+      AvgPair avgPair = (AvgPair) results[4];
+      Assert.assertEquals(avgPair.getSum(), (double) (4 * i + 6));
+      Assert.assertEquals(avgPair.getCount(), 4L);
+    }
+  }
+
+  @Test
+  public void testNumGroupsLimit() {
+    int numGroupsLimit = NUM_GROUPS / 2;
+    GroupByCombineTable table = new GroupByCombineTable(AGGREGATION_FUNCTIONS, numGroupsLimit);
+    table.merge(getSegmentResult(0));
+    table.merge(getSegmentResult(1));
+    Assert.assertEquals(table.getNumGroups(), numGroupsLimit);
+    Assert.assertTrue(table.isNumGroupsLimitReached());
+    Map<String, Object[]> resultsMap = table.toResultsMap();
+    Assert.assertEquals(resultsMap.size(), numGroupsLimit);
+    for (Object[] results : resultsMap.values()) {
+      Assert.assertEquals(results[0], 2L);
+    }
+  }
+
+  @Test
+  public void testTypedKeysWithDifferentTypes() {
+    // Same group values read as INT from one segment and as LONG from the other should only be counted once towards
+    // the number of groups limit
+    GroupByCombineTable table = new GroupByCombineTable(AGGREGATION_FUNCTIONS, NUM_GROUPS);
+    table.merge(getSegmentResult(0, false));
+    table.merge(getSegmentResult(1, true));
+    Assert.assertEquals(table.getNumGroups(), NUM_GROUPS);
+
+    Map<String, Object[]> resultsMap = table.toResultsMap();
+    Assert.assertEquals(resultsMap.size(), NUM_GROUPS);
+    for (int i = 0; i < NUM_GROUPS; i++) {
+      Object[] results = resultsMap.get(i + AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER + "s" + i);
+      Assert.assertEquals(results[0], 2L);
+      Assert.assertEquals(results[1], (double) (2 * i + 1));
+      Assert.assertEquals(results[2], (double) i);
+      Assert.assertEquals(results[3], (double) (i + 1));
+      AvgPair avgPair = (AvgPair) results[4];
+      Assert.assertEquals(avgPair.getSum(), (double) (2 * i + 1));
+      Assert.assertEquals(avgPair.getCount(), 2L);
+    }
+  }
+
+  private static AggregationGroupByResult getSegmentResult(int segmentId) {
+    return getSegmentResult(segmentId, false);
+  }
+
+  /**
+   * Returns the result for a segment with value {@code i + segmentId} for group {@code i}, where group ids are assigned
+   * in reverse order.
+   */
+  private static AggregationGroupByResult getSegmentResult(int segmentId, boolean useLongKeys) {
+    GroupByResultHolder[] resultHolders = new GroupByResultHolder[AGGREGATION_FUNCTIONS.length];
+    for (int i = 0; i < 4; i++) {
+      resultHolders[i] = new DoubleGroupByResultHolder(NUM_GROUPS, NUM_GROUPS, 0.0);
+    }
+    resultHolders[4] = new ObjectGroupByResultHolder(NUM_GROUPS, NUM_GROUPS);
+    for (int i = 0; i < NUM_GROUPS; i++) {
+      int groupId = NUM_GROUPS - 1 - i;
+      double value = i + segmentId;
+      resultHolders[0].setValueForKey(groupId, 1.0);
+      resultHolders[1].setValueForKey(groupId, value);
+      resultHolders[2].setValueForKey(groupId, value);
+      resultHolders[3].setValueForKey(groupId, value);
+      resultHolders[4].setValueForKey(groupId, new AvgPair(value, 1L));
+    }
+    return new AggregationGroupByResult(new TestGroupKeyGenerator(useLongKeys), AGGREGATION_FUNCTIONS, resultHolders);
+  }
+
+  private static class TestGroupKeyGenerator implements GroupKeyGenerator {
+    private final boolean _useLongKeys;
+
+    TestGroupKeyGenerator(boolean useLongKeys) {
+      _useLongKeys = useLongKeys;
+    }
+
+    @Override
+    public int getGlobalGroupKeyUpperBound() {
+      return NUM_GROUPS;
+    }
+
+    @Override
+    public void generateKeysForBlock(@Nonnull TransformBlock transformBlock, @Nonnull int[] groupKeys) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void generateKeysForBlock(@Nonnull TransformBlock transformBlock, @Nonnull int[][] groupKeys) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getCurrentGroupKeyUpperBound() {
+      return NUM_GROUPS;
+    }
+
+    @Override
+    public Iterator<GroupKey> getUniqueGroupKeys() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<GroupKey> getUniqueTypedGroupKeys() {
+      return new Iterator<GroupKey>() {
+        private int _index = 0;
+        private final GroupKey _groupKey = new GroupKey();
+
+        @Override
+        public boolean hasNext() {
+          return _index < NUM_GROUPS;
+        }
+
+        @Override
+        public GroupKey next() {
+          _groupKey._groupId = NUM_GROUPS - 1 - _index;
+          Object firstKey = _useLongKeys ? (Object) (long) _index : (Object) _index;
+          _groupKey._typedKey = new CompositeGroupKey(new Object[]{firstKey, "s" + _index});
+          _index++;
+          return _groupKey;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.aggregation.groupby;
+
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.query.aggregation.groupby.OffHeapGroupByResultArena;
+import com.linkedin.pinot.core.query.aggregation.groupby.OffHeapGroupByResultHolder;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Test for OffHeapGroupByResultHolder class.
+ */
+public class OffHeapGroupByResultHolderTest {
+  private static final long RANDOM_SEED = System.nanoTime();
+  private static final int INITIAL_CAPACITY = 100;
+  private static final int MAX_CAPACITY = 10000;
+  private static final double DEFAULT_DOUBLE_VALUE = -1;
+  private static final int DOUBLE_FIELD = 0;
+  private static final int LONG_FIELD = 1;
+
+  @Test
+  public void testSetValueAndEnsureCapacity() {
+    Random random = new Random(RANDOM_SEED);
+    double[] expectedDoubles = new double[MAX_CAPACITY];
+    long[] expectedLongs = new long[MAX_CAPACITY];
+    for (int i = 0; i < MAX_CAPACITY; i++) {
+      expectedDoubles[i] = random.nextDouble();
+      expectedLongs[i] = random.nextLong();
+    }
+
+    OffHeapGroupByResultArena arena = new OffHeapGroupByResultArena(Long.MAX_VALUE);
+    OffHeapGroupByResultHolder resultHolder =
+        new OffHeapGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, arena, DEFAULT_DOUBLE_VALUE, 0.0);
+    for (int i = 0; i < INITIAL_CAPACITY; i++) {
+      resultHolder.setDoubleValue(i, DOUBLE_FIELD, expectedDoubles[i]);
+      resultHolder.setLongValue(i, LONG_FIELD, expectedLongs[i]);
+    }
+
+    // Invalid group key should be ignored
+    resultHolder.setDoubleValue(GroupKeyGenerator.INVALID_ID, DOUBLE_FIELD, 1.0);
+    Assert.assertEquals(resultHolder.getDoubleValue(GroupKeyGenerator.INVALID_ID, DOUBLE_FIELD), DEFAULT_DOUBLE_VALUE);
+    Assert.assertEquals(resultHolder.getLongValue(GroupKeyGenerator.INVALID_ID, LONG_FIELD), 0L);
+
+    // Existing values should be kept and new values should be default after expanding
+    resultHolder.ensureCapacity(MAX_CAPACITY);
+    for (int i = INITIAL_CAPACITY; i < MAX_CAPACITY; i++) {
+      Assert.assertEquals(resultHolder.getDoubleValue(i, DOUBLE_FIELD), DEFAULT_DOUBLE_VALUE,
+          "Random seed: " + RANDOM_SEED);
+      Assert.assertEquals(resultHolder.getLongValue(i, LONG_FIELD), 0L, "Random seed: " + RANDOM_SEED);
+      resultHolder.setDoubleValue(i, DOUBLE_FIELD, expectedDoubles[i]);
+      resultHolder.setLongValue(i, LONG_FIELD, expectedLongs[i]);
+    }
+    for (int i = 0; i < MAX_CAPACITY; i++) {
+      Assert.assertEquals(resultHolder.getDoubleValue(i, DOUBLE_FIELD), expectedDoubles[i],
+          "Random seed: " + RANDOM_SEED);
+      Assert.assertEquals(resultHolder.getDoubleResult(i), expectedDoubles[i], "Random seed: " + RANDOM_SEED);
+      Assert.assertEquals(resultHolder.getLongValue(i, LONG_FIELD), expectedLongs[i], "Random seed: " + RANDOM_SEED);
+    }
+
+    // The buffer released when expanding should be cached in the arena
+    Assert.assertTrue(arena.getCachedBytes() > 0);
+    resultHolder.close();
+  }
+
+  @Test
+  public void testArenaReuse() {
+    OffHeapGroupByResultArena arena = new OffHeapGroupByResultArena(Long.MAX_VALUE);
+    OffHeapGroupByResultHolder resultHolder =
+        new OffHeapGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, arena, DEFAULT_DOUBLE_VALUE);
+    for (int i = 0; i < INITIAL_CAPACITY; i++) {
+      resultHolder.setValueForKey(i, i);
+    }
+    Assert.assertEquals(arena.getCachedBytes(), 0L);
+    resultHolder.close();
+    long cachedBytes = arena.getCachedBytes();
+    Assert.assertTrue(cachedBytes > 0);
+
+    // Reused buffer should be reset to the default value
+    resultHolder = new OffHeapGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, arena, DEFAULT_DOUBLE_VALUE);
+    Assert.assertEquals(arena.getCachedBytes(), 0L);
+    for (int i = 0; i < INITIAL_CAPACITY; i++) {
+      Assert.assertEquals(resultHolder.getDoubleResult(i), DEFAULT_DOUBLE_VALUE);
+    }
+    resultHolder.close();
+    Assert.assertEquals(arena.getCachedBytes(), cachedBytes);
+
+    // Buffer should be closed instead of cached when the arena is full
+    OffHeapGroupByResultArena fullArena = new OffHeapGroupByResultArena(0L);
+    resultHolder = new OffHeapGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, fullArena, DEFAULT_DOUBLE_VALUE);
+    resultHolder.close();
+    Assert.assertEquals(fullArena.getCachedBytes(), 0L);
+  }
+}
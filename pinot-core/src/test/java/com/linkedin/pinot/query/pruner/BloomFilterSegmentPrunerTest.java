@@ -0,0 +1,229 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.pruner;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.request.InstanceRequest;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.data.readers.RecordReader;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import com.linkedin.pinot.core.query.pruner.ColumnValueSegmentPruner;
+import com.linkedin.pinot.core.query.request.ServerQueryRequest;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for pruning segments with the bloom filters in {@link ColumnValueSegmentPruner}.
+ */
+public class BloomFilterSegmentPrunerTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BloomFilterSegmentPrunerTest");
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final ServerMetrics SERVER_METRICS = new ServerMetrics(new MetricsRegistry());
+  private static final Random RANDOM = new Random();
+
+  private static final int NUM_ROWS = 1000;
+  private static final int NUM_ABSENT_VALUES = 1000;
+  private static final String MEMBER_ID_COLUMN = "memberId";
+  private static final String SESSION_ID_COLUMN = "sessionId";
+  private static final long MAX_MEMBER_ID = 1_000_000L;
+  private static final int MAX_SESSION_ID = 100_000;
+
+  private final Set<Long> _memberIds = new HashSet<>();
+  private final Set<String> _sessionIds = new HashSet<>();
+  private final List<ImmutableSegment> _segments = new ArrayList<>();
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      long memberId = (long) (RANDOM.nextDouble() * MAX_MEMBER_ID);
+      String sessionId = Integer.toString(RANDOM.nextInt(MAX_SESSION_ID));
+      _memberIds.add(memberId);
+      _sessionIds.add(sessionId);
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(MEMBER_ID_COLUMN, memberId);
+      valueMap.put(SESSION_ID_COLUMN, sessionId);
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(valueMap);
+      rows.add(genericRow);
+    }
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(MEMBER_ID_COLUMN, FieldSpec.DataType.LONG, true));
+    schema.addField(new DimensionFieldSpec(SESSION_ID_COLUMN, FieldSpec.DataType.STRING, true));
+    List<String> bloomFilterColumns = Arrays.asList(MEMBER_ID_COLUMN, SESSION_ID_COLUMN);
+
+    // Bloom filters created with the segment, and loaded as v3 segment
+    SegmentGeneratorConfig config = getSegmentGeneratorConfig(schema, "segmentWithBloomFilter");
+    config.setBloomFilterCreationColumns(bloomFilterColumns);
+    buildSegment(config, rows, schema);
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setSegmentVersion(SegmentVersion.v3);
+    _segments.add(ImmutableSegmentLoader.load(new File(INDEX_DIR, "segmentWithBloomFilter"), indexLoadingConfig));
+
+    // Bloom filters created when loading the segment
+    config = getSegmentGeneratorConfig(schema, "segmentWithoutBloomFilter");
+    buildSegment(config, rows, schema);
+    indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setBloomFilterColumns(new HashSet<>(bloomFilterColumns));
+    _segments.add(ImmutableSegmentLoader.load(new File(INDEX_DIR, "segmentWithoutBloomFilter"), indexLoadingConfig));
+  }
+
+  private SegmentGeneratorConfig getSegmentGeneratorConfig(Schema schema, String segmentName) {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setTableName("testTable");
+    config.setSegmentName(segmentName);
+    // Test bloom filter on raw index column
+    config.setRawIndexCreationColumns(Collections.singletonList(SESSION_ID_COLUMN));
+    return config;
+  }
+
+  private void buildSegment(SegmentGeneratorConfig config, List<GenericRow> rows, Schema schema) throws Exception {
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows, schema)) {
+      driver.init(config, recordReader);
+      driver.build();
+    }
+  }
+
+  @Test
+  public void testBloomFilterLoaded() {
+    for (ImmutableSegment segment : _segments) {
+      Assert.assertNotNull(segment.getBloomFilter(MEMBER_ID_COLUMN));
+      Assert.assertNotNull(segment.getBloomFilter(SESSION_ID_COLUMN));
+    }
+  }
+
+  @Test
+  public void testPresentValues() {
+    for (ImmutableSegment segment : _segments) {
+      for (long memberId : _memberIds) {
+        Assert.assertFalse(runPruner(segment, "SELECT COUNT(*) FROM testTable WHERE memberId = " + memberId));
+      }
+      for (String sessionId : _sessionIds) {
+        Assert.assertFalse(runPruner(segment, "SELECT COUNT(*) FROM testTable WHERE sessionId = '" + sessionId + "'"));
+      }
+    }
+  }
+
+  @Test
+  public void testAbsentValues() {
+    for (ImmutableSegment segment : _segments) {
+      // Most of the absent values (inside the min/max range) should be pruned, false positive probability is 5%
+      int numMemberIdsPruned = 0;
+      int numSessionIdsPruned = 0;
+      for (int i = 0; i < NUM_ABSENT_VALUES; i++) {
+        long memberId = getAbsentMemberId();
+        if (runPruner(segment, "SELECT COUNT(*) FROM testTable WHERE memberId = " + memberId)) {
+          numMemberIdsPruned++;
+        }
+        String sessionId = getAbsentSessionId();
+        if (runPruner(segment, "SELECT COUNT(*) FROM testTable WHERE sessionId = '" + sessionId + "'")) {
+          numSessionIdsPruned++;
+        }
+      }
+      Assert.assertTrue(numMemberIdsPruned > NUM_ABSENT_VALUES * 0.8, Integer.toString(numMemberIdsPruned));
+      Assert.assertTrue(numSessionIdsPruned > NUM_ABSENT_VALUES * 0.8, Integer.toString(numSessionIdsPruned));
+    }
+  }
+
+  @Test
+  public void testInAndOr() {
+    long presentMemberId = _memberIds.iterator().next();
+    for (ImmutableSegment segment : _segments) {
+      // Find absent values that are pruned (not false positive)
+      List<Long> prunedMemberIds = new ArrayList<>();
+      while (prunedMemberIds.size() < 2) {
+        long memberId = getAbsentMemberId();
+        if (runPruner(segment, "SELECT COUNT(*) FROM testTable WHERE memberId = " + memberId)) {
+          prunedMemberIds.add(memberId);
+        }
+      }
+      long absentMemberId1 = prunedMemberIds.get(0);
+      long absentMemberId2 = prunedMemberIds.get(1);
+
+      Assert.assertTrue(runPruner(segment,
+          "SELECT COUNT(*) FROM testTable WHERE memberId IN (" + absentMemberId1 + ", " + absentMemberId2 + ")"));
+      Assert.assertFalse(runPruner(segment,
+          "SELECT COUNT(*) FROM testTable WHERE memberId IN (" + absentMemberId1 + ", " + presentMemberId + ")"));
+      Assert.assertTrue(runPruner(segment,
+          "SELECT COUNT(*) FROM testTable WHERE memberId = " + absentMemberId1 + " OR memberId = " + absentMemberId2));
+      Assert.assertFalse(runPruner(segment,
+          "SELECT COUNT(*) FROM testTable WHERE memberId = " + absentMemberId1 + " OR memberId = " + presentMemberId));
+      Assert.assertTrue(runPruner(segment,
+          "SELECT COUNT(*) FROM testTable WHERE memberId = " + absentMemberId1 + " AND memberId = " + presentMemberId));
+    }
+  }
+
+  private long getAbsentMemberId() {
+    while (true) {
+      long memberId = (long) (RANDOM.nextDouble() * MAX_MEMBER_ID);
+      if (!_memberIds.contains(memberId)) {
+        return memberId;
+      }
+    }
+  }
+
+  private String getAbsentSessionId() {
+    while (true) {
+      String sessionId = Integer.toString(RANDOM.nextInt(MAX_SESSION_ID));
+      if (!_sessionIds.contains(sessionId)) {
+        return sessionId;
+      }
+    }
+  }
+
+  private boolean runPruner(ImmutableSegment segment, String query) {
+    InstanceRequest instanceRequest = new InstanceRequest(0L, COMPILER.compileToBrokerRequest(query));
+    ServerQueryRequest queryRequest = new ServerQueryRequest(instanceRequest, SERVER_METRICS, System.currentTimeMillis());
+    return new ColumnValueSegmentPruner().prune(segment, queryRequest);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    for (ImmutableSegment segment : _segments) {
+      segment.destroy();
+    }
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.selection;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.request.SelectionSort;
+import com.linkedin.pinot.core.common.Block;
+import com.linkedin.pinot.core.common.BlockMetadata;
+import com.linkedin.pinot.core.common.BlockSingleValIterator;
+import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.query.selection.SelectionTopKCollector;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.*;
+
+
+public class SelectionTopKCollectorTest {
+  private static final int[] INT_VALUES = new int[]{5, 3, 8, 4, 9, 1, 7, 0, 2, 6};
+  private static final String[] STRING_VALUES = new String[]{"c", "d", "a", "b", "e"};
+
+  @Test
+  public void testAscending() {
+    SelectionTopKCollector collector =
+        new SelectionTopKCollector(getSortSequence(true), new Block[]{getIntBlock(INT_VALUES)}, 3, false);
+    addAll(collector, INT_VALUES.length);
+    // Values: 0 (doc 7), 1 (doc 5), 2 (doc 8)
+    Assert.assertEquals(collector.getDocIds(), new int[]{5, 7, 8});
+    Assert.assertEquals(collector.getKthValue(), 2L);
+  }
+
+  @Test
+  public void testDescending() {
+    SelectionTopKCollector collector =
+        new SelectionTopKCollector(getSortSequence(false), new Block[]{getIntBlock(INT_VALUES)}, 3, false);
+    addAll(collector, INT_VALUES.length);
+    // Values: 9 (doc 4), 8 (doc 2), 7 (doc 6)
+    Assert.assertEquals(collector.getDocIds(), new int[]{2, 4, 6});
+    Assert.assertEquals(collector.getKthValue(), 7L);
+  }
+
+  @Test
+  public void testSecondarySortColumn() {
+    // Docs 0, 2, 3 have the same value 2 on the first sort column
+    int[] intValues = new int[]{2, 1, 2, 2, 0};
+    Block[] blocks = new Block[]{getIntBlock(intValues), getStringDictionaryBlock(STRING_VALUES)};
+    SelectionTopKCollector collector = new SelectionTopKCollector(getSortSequence(true, true), blocks, 3, false);
+    addAll(collector, intValues.length);
+    // Values: (0, "e") (doc 4), (1, "d") (doc 1), (2, "a") (doc 2)
+    Assert.assertEquals(collector.getDocIds(), new int[]{1, 2, 4});
+    Assert.assertEquals(collector.getKthValue(), 2L);
+
+    blocks = new Block[]{getIntBlock(intValues), getStringDictionaryBlock(STRING_VALUES)};
+    collector = new SelectionTopKCollector(getSortSequence(true, false), blocks, 3, false);
+    addAll(collector, intValues.length);
+    // Values: (0, "e") (doc 4), (1, "d") (doc 1), (2, "c") (doc 0)
+    Assert.assertEquals(collector.getDocIds(), new int[]{0, 1, 4});
+  }
+
+  @Test
+  public void testSortedDictionary() {
+    SelectionTopKCollector collector = new SelectionTopKCollector(getSortSequence(false),
+        new Block[]{getStringDictionaryBlock(STRING_VALUES)}, 2, false);
+    addAll(collector, STRING_VALUES.length);
+    // Values: "e" (doc 4), "d" (doc 1)
+    Assert.assertEquals(collector.getDocIds(), new int[]{1, 4});
+    Assert.assertEquals(collector.getKthValue(), "d");
+  }
+
+  @Test
+  public void testEarlyTermination() {
+    int[] sortedValues = new int[]{1, 2, 2, 3, 4, 5};
+    SelectionTopKCollector collector =
+        new SelectionTopKCollector(getSortSequence(true), new Block[]{getIntBlock(sortedValues)}, 2, true);
+    int numDocsAdded = addAll(collector, sortedValues.length);
+    // Doc 2 has the same value as the K-th document, doc 3 is worse
+    Assert.assertEquals(numDocsAdded, 4);
+    Assert.assertEquals(collector.getDocIds(), new int[]{0, 1});
+
+    // Cannot terminate early for descending order
+    collector = new SelectionTopKCollector(getSortSequence(false), new Block[]{getIntBlock(sortedValues)}, 2, true);
+    Assert.assertEquals(addAll(collector, sortedValues.length), sortedValues.length);
+    Assert.assertEquals(collector.getDocIds(), new int[]{4, 5});
+  }
+
+  @Test
+  public void testNonComparableSortColumn() {
+    Block bytesBlock = mock(Block.class);
+    BlockMetadata blockMetadata = mock(BlockMetadata.class);
+    when(blockMetadata.isSingleValue()).thenReturn(true);
+    when(blockMetadata.getDataType()).thenReturn(FieldSpec.DataType.BYTES);
+    when(bytesBlock.getMetadata()).thenReturn(blockMetadata);
+
+    // Any K documents can be returned
+    SelectionTopKCollector collector =
+        new SelectionTopKCollector(getSortSequence(true), new Block[]{bytesBlock}, 3, false);
+    Assert.assertEquals(addAll(collector, 10), 4);
+    Assert.assertEquals(collector.getDocIds(), new int[]{0, 1, 2});
+    Assert.assertNull(collector.getKthValue());
+  }
+
+  @Test
+  public void testLessThanKDocuments() {
+    SelectionTopKCollector collector =
+        new SelectionTopKCollector(getSortSequence(true), new Block[]{getIntBlock(INT_VALUES)}, 20, false);
+    addAll(collector, INT_VALUES.length);
+    Assert.assertEquals(collector.getDocIds().length, INT_VALUES.length);
+    Assert.assertNull(collector.getKthValue());
+  }
+
+  /**
+   * Adds the documents until the collector is done, and returns the number of documents added.
+   */
+  private static int addAll(SelectionTopKCollector collector, int numDocs) {
+    int numDocsAdded = 0;
+    for (int docId = 0; docId < numDocs && !collector.isDone(); docId++) {
+      collector.add(docId);
+      numDocsAdded++;
+    }
+    return numDocsAdded;
+  }
+
+  private static List<SelectionSort> getSortSequence(boolean... isAscs) {
+    List<SelectionSort> sortSequence = new ArrayList<>(isAscs.length);
+    for (int i = 0; i < isAscs.length; i++) {
+      SelectionSort selectionSort = new SelectionSort();
+      selectionSort.setColumn("column" + i);
+      selectionSort.setIsAsc(isAscs[i]);
+      sortSequence.add(selectionSort);
+    }
+    return sortSequence;
+  }
+
+  /**
+   * Returns a block for a raw INT column.
+   */
+  private static Block getIntBlock(int[] values) {
+    return getBlock(FieldSpec.DataType.INT, null, values);
+  }
+
+  /**
+   * Returns a block for a STRING column with sorted dictionary.
+   */
+  private static Block getStringDictionaryBlock(String[] values) {
+    String[] sortedValues = Arrays.stream(values).distinct().sorted().toArray(String[]::new);
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(true);
+    when(dictionary.length()).thenReturn(sortedValues.length);
+    for (int i = 0; i < sortedValues.length; i++) {
+      when(dictionary.get(i)).thenReturn(sortedValues[i]);
+    }
+    int[] dictIds = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      dictIds[i] = Arrays.binarySearch(sortedValues, values[i]);
+    }
+    return getBlock(FieldSpec.DataType.STRING, dictionary, dictIds);
+  }
+
+  private static Block getBlock(FieldSpec.DataType dataType, Dictionary dictionary, int[] values) {
+    BlockMetadata blockMetadata = mock(BlockMetadata.class);
+    when(blockMetadata.isSingleValue()).thenReturn(true);
+    when(blockMetadata.getDataType()).thenReturn(dataType);
+    when(blockMetadata.hasDictionary()).thenReturn(dictionary != null);
+    when(blockMetadata.getDictionary()).thenReturn(dictionary);
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.iterator()).thenReturn(new IntIterator(values));
+    Block block = mock(Block.class);
+    when(block.getMetadata()).thenReturn(blockMetadata);
+    when(block.getBlockValueSet()).thenReturn(blockValSet);
+    return block;
+  }
+
+  /**
+   * Iterator over INT values or dictionary ids, where the document id is the index of the value.
+   */
+  private static class IntIterator extends BlockSingleValIterator {
+    private final int[] _values;
+    private int _docId;
+
+    IntIterator(int[] values) {
+      _values = values;
+    }
+
+    @Override
+    public int nextIntVal() {
+      return _values[_docId++];
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _docId < _values.length;
+    }
+
+    @Override
+    public void skipTo(int docId) {
+      _docId = docId;
+    }
+
+    @Override
+    public void reset() {
+      _docId = 0;
+    }
+  }
+}
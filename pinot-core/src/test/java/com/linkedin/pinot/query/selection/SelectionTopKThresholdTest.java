@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.selection;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.request.SelectionSort;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.common.DataSourceMetadata;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.query.selection.SelectionTopKThreshold;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.*;
+
+
+public class SelectionTopKThresholdTest {
+  private static final String COLUMN = "column";
+
+  private static IndexSegment getIndexSegment(int minValue, int maxValue) {
+    return getIndexSegment(FieldSpec.DataType.INT, minValue, maxValue);
+  }
+
+  private static IndexSegment getIndexSegment(FieldSpec.DataType dataType, Object minValue, Object maxValue) {
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(true);
+    when(dataSourceMetadata.getDataType()).thenReturn(dataType);
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(true);
+    when(dictionary.length()).thenReturn(2);
+    when(dictionary.get(0)).thenReturn(minValue);
+    when(dictionary.get(1)).thenReturn(maxValue);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    when(dataSource.getDictionary()).thenReturn(dictionary);
+    IndexSegment indexSegment = mock(IndexSegment.class);
+    when(indexSegment.getDataSource(COLUMN)).thenReturn(dataSource);
+    return indexSegment;
+  }
+
+  private static SelectionTopKThreshold getThreshold(boolean isAsc) {
+    SelectionSort selectionSort = new SelectionSort();
+    selectionSort.setColumn(COLUMN);
+    selectionSort.setIsAsc(isAsc);
+    return new SelectionTopKThreshold(selectionSort);
+  }
+
+  @Test
+  public void testAscending() {
+    SelectionTopKThreshold threshold = getThreshold(true);
+    IndexSegment segment1 = getIndexSegment(10, 20);
+    IndexSegment segment2 = getIndexSegment(0, 5);
+    IndexSegment segment3 = getIndexSegment(30, 40);
+
+    // Segments with smaller min value first
+    List<IndexSegment> indexSegments = new ArrayList<>(Arrays.asList(segment1, segment2, segment3));
+    threshold.sortSegments(indexSegments);
+    Assert.assertEquals(indexSegments, Arrays.asList(segment2, segment1, segment3));
+
+    // No threshold yet
+    Assert.assertFalse(threshold.canSkipSegment(segment3));
+
+    threshold.update(25);
+    Assert.assertFalse(threshold.canSkipSegment(segment1));
+    Assert.assertTrue(threshold.canSkipSegment(segment3));
+
+    // Threshold only gets better
+    threshold.update(35L);
+    Assert.assertTrue(threshold.canSkipSegment(segment3));
+    threshold.update(10.0);
+    Assert.assertFalse(threshold.canSkipSegment(segment1));
+    Assert.assertTrue(threshold.canSkipSegment(getIndexSegment(11, 12)));
+  }
+
+  @Test
+  public void testDescending() {
+    SelectionTopKThreshold threshold = getThreshold(false);
+    IndexSegment segment1 = getIndexSegment(10, 20);
+    IndexSegment segment2 = getIndexSegment(0, 5);
+    IndexSegment segment3 = getIndexSegment(30, 40);
+
+    // Segments with larger max value first
+    List<IndexSegment> indexSegments = new ArrayList<>(Arrays.asList(segment1, segment2, segment3));
+    threshold.sortSegments(indexSegments);
+    Assert.assertEquals(indexSegments, Arrays.asList(segment3, segment1, segment2));
+
+    threshold.update(15);
+    Assert.assertFalse(threshold.canSkipSegment(segment1));
+    Assert.assertTrue(threshold.canSkipSegment(segment2));
+
+    // Segments without dictionary are never skipped
+    IndexSegment rawSegment = mock(IndexSegment.class);
+    Assert.assertFalse(threshold.canSkipSegment(rawSegment));
+  }
+
+  @Test
+  public void testNonComparableValues() {
+    SelectionTopKThreshold threshold = getThreshold(true);
+    IndexSegment bytesSegment = getIndexSegment(FieldSpec.DataType.BYTES, new byte[]{0}, new byte[]{1});
+    IndexSegment nonComparableSegment = getIndexSegment(FieldSpec.DataType.STRING, new Object(), new Object());
+    IndexSegment segment = getIndexSegment(10, 20);
+
+    // Segments without best value are put in the front
+    List<IndexSegment> indexSegments = new ArrayList<>(Arrays.asList(segment, bytesSegment, nonComparableSegment));
+    threshold.sortSegments(indexSegments);
+    Assert.assertEquals(indexSegments, Arrays.asList(bytesSegment, nonComparableSegment, segment));
+
+    // Segments without best value are never skipped
+    threshold.update(5);
+    Assert.assertTrue(threshold.canSkipSegment(segment));
+    Assert.assertFalse(threshold.canSkipSegment(bytesSegment));
+    Assert.assertFalse(threshold.canSkipSegment(nonComparableSegment));
+  }
+}
@@ -220,6 +220,7 @@ public abstract class ClusterTest extends ControllerTest {
     for (HelixServerStarter helixServerStarter : _serverStarters) {
       helixServerStarter.stop();
     }
+    _serverStarters.clear();
     FileUtils.deleteQuietly(new File(Server.DEFAULT_INSTANCE_BASE_DIR));
   }
 
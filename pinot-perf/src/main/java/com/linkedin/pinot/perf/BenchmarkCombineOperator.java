@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.CombineOperator;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for {@link CombineOperator} over segments with skewed processing cost.
+ * <p>Every {@code NUM_THREADS}-th segment is {@code SKEW_FACTOR} times more expensive than the others, which is the
+ * worst case for static round-robin grouping (all expensive segments end up in the same group). Run with
+ * {@link Mode#SampleTime} to get the latency percentiles.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkCombineOperator {
+  private static final int NUM_SEGMENTS = 200;
+  private static final int NUM_THREADS = 8;
+  private static final int SKEW_FACTOR = 20;
+  private static final long BASE_SEGMENT_COST = 20_000L;
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable";
+
+  @Param({"uniform", "skewed"})
+  private String _segmentCostDistribution;
+
+  private ExecutorService _executorService;
+  private BrokerRequest _brokerRequest;
+  private AggregationFunctionContext[] _aggregationFunctionContexts;
+  private long[] _segmentCosts;
+
+  @Setup
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_THREADS + 1);
+    _brokerRequest = new Pql2Compiler().compileToBrokerRequest(QUERY);
+    _aggregationFunctionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(_brokerRequest.getAggregationsInfo(), null);
+    _segmentCosts = new long[NUM_SEGMENTS];
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      if (_segmentCostDistribution.equals("skewed") && i % NUM_THREADS == 0) {
+        _segmentCosts[i] = BASE_SEGMENT_COST * SKEW_FACTOR;
+      } else {
+        _segmentCosts[i] = BASE_SEGMENT_COST;
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public IntermediateResultsBlock combine() {
+    List<Operator> operators = new ArrayList<>(NUM_SEGMENTS);
+    for (long segmentCost : _segmentCosts) {
+      operators.add(new SyntheticSegmentOperator(segmentCost));
+    }
+    return new CombineOperator(operators, _executorService, 60_000L, _brokerRequest, NUM_THREADS).nextBlock();
+  }
+
+  /**
+   * Segment level aggregation operator which burns CPU proportional to the given cost.
+   */
+  private class SyntheticSegmentOperator extends BaseOperator<IntermediateResultsBlock> {
+    private final long _cost;
+
+    SyntheticSegmentOperator(long cost) {
+      _cost = cost;
+    }
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      long count = 0;
+      for (long i = 0; i < _cost; i++) {
+        count += (i * 31) & 1;
+      }
+      return new IntermediateResultsBlock(_aggregationFunctionContexts,
+          new ArrayList<Object>(Collections.singletonList(count)));
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "SyntheticSegmentOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(_cost, 0, 0, _cost);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options opt = new OptionsBuilder().include(BenchmarkCombineOperator.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5))
+        .warmupIterations(2)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(3)
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
+import com.linkedin.pinot.core.io.util.FixedBitIntReaderWriter;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for decoding bit-packed dictionary ids from a {@link FixedBitSingleValueReader} for each number of bits
+ * per value, on contiguous doc id ranges (as in the scan-based filters) and on sorted doc id arrays (as in the
+ * projection after filtering).
+ */
+@State(Scope.Benchmark)
+public class BenchmarkFixedBitReader {
+  private static final int NUM_ROWS = 1_000_000;
+  // Same as the max number of documents per block
+  private static final int BLOCK_SIZE = 10_000;
+
+  @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16", "17", "18", "19",
+      "20", "21", "22", "23", "24", "25", "26", "27", "28", "29", "30", "31", "32"})
+  private int _numBitsPerValue;
+
+  private FixedBitSingleValueReader _reader;
+  private int[] _rangeDocIds;
+  private int[] _sortedDocIds;
+  private int[] _values;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    int dataBufferSize = (int) (((long) NUM_ROWS * _numBitsPerValue + Byte.SIZE - 1) / Byte.SIZE);
+    PinotDataBuffer dataBuffer = PinotDataBuffer.allocateDirect(dataBufferSize, ByteOrder.BIG_ENDIAN, null);
+    Random random = new Random();
+    // The data buffer is shared with the reader, and closed when the reader is closed
+    FixedBitIntReaderWriter writer = new FixedBitIntReaderWriter(dataBuffer, NUM_ROWS, _numBitsPerValue);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      writer.writeInt(i, random.nextInt() >>> (Integer.SIZE - _numBitsPerValue));
+    }
+    _reader = new FixedBitSingleValueReader(dataBuffer, NUM_ROWS, _numBitsPerValue);
+
+    _rangeDocIds = new int[BLOCK_SIZE];
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      _rangeDocIds[i] = i;
+    }
+    // Roughly every 3rd document matches
+    _sortedDocIds = new int[BLOCK_SIZE];
+    int docId = 0;
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      docId += random.nextInt(5) + 1;
+      _sortedDocIds[i] = docId;
+    }
+    _values = new int[BLOCK_SIZE];
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    _reader.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int readRange() {
+    int sum = 0;
+    for (int startDocId = 0; startDocId < NUM_ROWS; startDocId += BLOCK_SIZE) {
+      for (int i = 0; i < BLOCK_SIZE; i++) {
+        _rangeDocIds[i] = startDocId + i;
+      }
+      _reader.readValues(_rangeDocIds, 0, BLOCK_SIZE, _values, 0);
+      sum += _values[BLOCK_SIZE - 1];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int readSortedDocIds() {
+    _reader.readValues(_sortedDocIds, 0, BLOCK_SIZE, _values, 0);
+    return _values[BLOCK_SIZE - 1];
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int readSortedDocIdsOneByOne() {
+    int sum = 0;
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      sum += _reader.getInt(_sortedDocIds[i]);
+    }
+    return sum;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options opt = new OptionsBuilder().include(BenchmarkFixedBitReader.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(2))
+        .warmupIterations(2)
+        .measurementTime(TimeValue.seconds(5))
+        .measurementIterations(3)
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
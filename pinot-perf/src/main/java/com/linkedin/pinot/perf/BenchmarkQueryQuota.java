@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.linkedin.pinot.broker.queryquota.HitCounter;
+import com.linkedin.pinot.broker.queryquota.SlidingWindowRateLimiter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the contention of the query quota check on one hot table, comparing the previous Guava rate limiter
+ * with hit counter against the sliding window rate limiter.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkQueryQuota {
+  // Rate high enough to never throttle, so that the benchmark measures the cost of the quota check
+  private static final double RATE = 1_000_000_000.0;
+
+  private final RateLimiter _guavaRateLimiter = RateLimiter.create(RATE);
+  private final HitCounter _hitCounter = new HitCounter(1);
+  private final SlidingWindowRateLimiter _slidingWindowRateLimiter = new SlidingWindowRateLimiter(RATE, 1.0);
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(1)
+  public boolean guavaRateLimiter1Thread() {
+    return acquireGuava();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(64)
+  public boolean guavaRateLimiter64Threads() {
+    return acquireGuava();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(1)
+  public boolean slidingWindowRateLimiter1Thread() {
+    return acquireSlidingWindow();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(64)
+  public boolean slidingWindowRateLimiter64Threads() {
+    return acquireSlidingWindow();
+  }
+
+  private boolean acquireGuava() {
+    _hitCounter.hit();
+    return _hitCounter.getHitCount() > 0 && _guavaRateLimiter.tryAcquire();
+  }
+
+  private boolean acquireSlidingWindow() {
+    boolean acquired = _slidingWindowRateLimiter.tryAcquire();
+    return _slidingWindowRateLimiter.getHitRate() > 0 && acquired;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options opt = new OptionsBuilder().include(BenchmarkQueryQuota.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5))
+        .warmupIterations(2)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(3)
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
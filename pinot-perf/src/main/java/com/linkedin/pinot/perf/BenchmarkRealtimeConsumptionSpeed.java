@@ -24,24 +24,24 @@ import com.linkedin.pinot.util.TestUtils;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import kafka.server.KafkaServerStartable;
+import org.apache.commons.configuration.Configuration;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 
 /**
  * Benchmark that writes a configurable amount of rows in Kafka and checks how much time it takes to consume all of
- * them.
+ * them, with serial message decoding and with parallel message decoding (pipelined consumption).
  */
 public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegrationTest {
   private static final int ROW_COUNT = 100_000;
-  private static final int ROW_COUNT_FOR_SEGMENT_FLUSH = 10_000;
   private static final long TIMEOUT_MILLIS = 20 * 60 * 1000L; // Twenty minutes
+  private static final String NUM_DECODER_THREADS_KEY = "pinot.server.instance.realtime.num.decoder.threads";
+  private static final int NUM_DECODER_THREADS = Runtime.getRuntime().availableProcessors();
   private final File _tmpDir = new File("/tmp/" + getHelixClusterName());
   private static final int SEGMENT_COUNT = 1;
-  private static final Random RANDOM = new Random(123456L);
 
   public static void main(String[] args) {
     try {
@@ -52,6 +52,12 @@ public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegratio
     System.exit(0);
   }
 
+  @Override
+  protected boolean useLlc() {
+    // Parallel message decoding is only supported by the low-level consumers
+    return true;
+  }
+
   private void runBenchmark() throws Exception {
     // Start ZK and Kafka
     startZk();
@@ -76,29 +82,34 @@ public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegratio
     // Start the Pinot cluster
     startController();
     startBroker();
-    startServer();
 
-    // Create realtime table
-    setUpTable(avroFiles.get(0));
+    // Write ROW_COUNT rows into Kafka up front, so that both runs consume the same backlog
+    ClusterIntegrationTestUtils.pushRandomAvroIntoKafka(avroFiles.get(0), KafkaStarterUtils.DEFAULT_KAFKA_BROKER,
+        getKafkaTopic(), ROW_COUNT, getMaxNumKafkaMessagesPerBatch(), getKafkaMessageHeader(), getPartitionColumn());
+
+    long serialTimeMillis = measureConsumptionTime(avroFiles.get(0), 0);
+    long pipelinedTimeMillis = measureConsumptionTime(avroFiles.get(0), NUM_DECODER_THREADS);
+
+    System.out.println("Consumed " + ROW_COUNT + " rows in " + serialTimeMillis / 1000.0 + " seconds with serial "
+        + "decoding, and " + pipelinedTimeMillis / 1000.0 + " seconds with " + NUM_DECODER_THREADS
+        + " decoder threads (speedup: " + (double) serialTimeMillis / pipelinedTimeMillis + ")");
+  }
+
+  /**
+   * Starts a server with the given number of decoder threads, creates the realtime table and returns the time it takes
+   * for select count(*) to match with ROW_COUNT.
+   */
+  private long measureConsumptionTime(File avroFile, int numDecoderThreads) throws Exception {
+    Configuration serverConfiguration = getDefaultServerConfiguration();
+    serverConfiguration.setProperty(NUM_DECODER_THREADS_KEY, numDecoderThreads);
+    startServer(serverConfiguration);
 
     // Wait a couple of seconds for all Helix state transitions to happen
     Uninterruptibles.sleepUninterruptibly(5, TimeUnit.SECONDS);
 
-    // Generate ROW_COUNT rows and write them into Kafka
-    new Thread() {
-      @Override
-      public void run() {
-        try {
-          ClusterIntegrationTestUtils.pushRandomAvroIntoKafka(avroFiles.get(0), KafkaStarterUtils.DEFAULT_KAFKA_BROKER,
-              getKafkaTopic(), ROW_COUNT, getMaxNumKafkaMessagesPerBatch(), getKafkaMessageHeader(), getPartitionColumn());
-        } catch (Exception e) {
-          // Ignored
-        }
-      }
-    }.start();
-
-    // Count how many seconds it takes for select count(*) to match with ROW_COUNT
+    // Create realtime table
     long startTime = System.currentTimeMillis();
+    setUpTable(avroFile);
 
     int pinotRecordCount = -1;
     long timeAfterTimeout = System.currentTimeMillis() + TIMEOUT_MILLIS;
@@ -124,7 +135,11 @@ public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegratio
     } while (ROW_COUNT != pinotRecordCount);
 
     long endTime = System.currentTimeMillis();
+    System.out.println("Consumed " + ROW_COUNT + " rows in " + (endTime - startTime) / 1000.0 + " seconds with "
+        + numDecoderThreads + " decoder threads");
 
-    System.out.println("Consumed " + ROW_COUNT + " rows in " + (endTime - startTime) / 1000.0 + " seconds");
+    dropRealtimeTable(getTableName());
+    stopServer();
+    return endTime - startTime;
   }
 }
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import com.linkedin.pinot.core.io.writer.impl.DirectMemoryManager;
+import com.linkedin.pinot.core.plan.FilterPlanNode;
+import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentConfig;
+import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for filtering on an inverted index column of a {@link MutableSegmentImpl} while another thread keeps
+ * ingesting into the segment.
+ * <p>The column has a low cardinality, so each value matches millions of documents, which is the worst case for
+ * copying posting lists per query. Run with the GC profiler ({@code -prof gc}) to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkRealtimeInvertedIndex {
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String COLUMN_NAME = "column";
+  private static final int CARDINALITY = 10;
+  private static final int CAPACITY = 20_000_000;
+  private static final int NUM_PRELOADED_DOCS = 5_000_000;
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable WHERE column = 3";
+
+  private final File _statsHistoryFile =
+      new File(FileUtils.getTempDirectory(), BenchmarkRealtimeInvertedIndex.class.getSimpleName());
+
+  private MutableSegmentImpl _mutableSegment;
+  private BrokerRequest _brokerRequest;
+  private Thread _ingestionThread;
+  private volatile boolean _stopIngestion;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(_statsHistoryFile);
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension(COLUMN_NAME, FieldSpec.DataType.INT)
+        .build();
+    RealtimeSegmentConfig realtimeSegmentConfig = new RealtimeSegmentConfig.Builder().setSegmentName(SEGMENT_NAME)
+        .setStreamName("testStream")
+        .setSchema(schema)
+        .setCapacity(CAPACITY)
+        .setAvgNumMultiValues(1)
+        .setNoDictionaryColumns(Collections.emptySet())
+        .setInvertedIndexColumns(Collections.singleton(COLUMN_NAME))
+        .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
+        .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME))
+        .setStatsHistory(RealtimeSegmentStatsHistory.deserialzeFrom(_statsHistoryFile))
+        .setAggregateMetrics(false)
+        .build();
+    _mutableSegment = new MutableSegmentImpl(realtimeSegmentConfig);
+    _brokerRequest = new Pql2Compiler().compileToBrokerRequest(QUERY);
+
+    GenericRow row = new GenericRow();
+    for (int i = 0; i < NUM_PRELOADED_DOCS; i++) {
+      row.putField(COLUMN_NAME, i % CARDINALITY);
+      _mutableSegment.index(row);
+    }
+
+    _ingestionThread = new Thread(() -> {
+      GenericRow ingestionRow = new GenericRow();
+      int i = NUM_PRELOADED_DOCS;
+      while (!_stopIngestion) {
+        ingestionRow.putField(COLUMN_NAME, i++ % CARDINALITY);
+        if (!_mutableSegment.index(ingestionRow)) {
+          break;
+        }
+      }
+    });
+    _ingestionThread.start();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    _stopIngestion = true;
+    _ingestionThread.join();
+    _mutableSegment.destroy();
+    FileUtils.deleteQuietly(_statsHistoryFile);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int filter() {
+    BlockDocIdIterator iterator =
+        new FilterPlanNode(_mutableSegment, _brokerRequest).run().nextBlock().getBlockDocIdSet().iterator();
+    int numMatchedDocs = 0;
+    while (iterator.next() != Constants.EOF) {
+      numMatchedDocs++;
+    }
+    return numMatchedDocs;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options opt = new OptionsBuilder().include(BenchmarkRealtimeInvertedIndex.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5))
+        .warmupIterations(2)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(3)
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
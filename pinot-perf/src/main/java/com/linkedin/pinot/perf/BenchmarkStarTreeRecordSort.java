@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.startree.v2.builder.RadixSortUtils;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for sorting the segment records when building the star-tree, where the dimension dictionary ids are stored
+ * in an off-heap buffer, comparing the comparison sort with the radix sort on 1 thread and multiple threads.
+ * <p>Sorting 100M records needs about 1.2G off-heap memory and 1.2G heap memory.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkStarTreeRecordSort {
+  private static final int[] CARDINALITIES = new int[]{100, 1_000, 10_000};
+  private static final int NUM_DIMENSIONS = CARDINALITIES.length;
+  private static final int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+
+  @Param({"10000000", "100000000"})
+  private int _numDocs;
+
+  private PinotDataBuffer _dataBuffer;
+  private ForkJoinPool _forkJoinPool;
+
+  @Setup
+  public void setUp() {
+    _dataBuffer = PinotDataBuffer.allocateDirect((long) _numDocs * NUM_DIMENSIONS * Integer.BYTES,
+        PinotDataBuffer.NATIVE_ORDER, "BenchmarkStarTreeRecordSort");
+    Random random = new Random();
+    long offset = 0;
+    for (int i = 0; i < _numDocs; i++) {
+      for (int j = 0; j < NUM_DIMENSIONS; j++) {
+        _dataBuffer.putInt(offset, random.nextInt(CARDINALITIES[j]));
+        offset += Integer.BYTES;
+      }
+    }
+    _forkJoinPool = new ForkJoinPool(NUM_THREADS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    _forkJoinPool.shutdown();
+    _dataBuffer.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int quickSort() {
+    int[] sortedDocIds = getDocIds();
+    it.unimi.dsi.fastutil.Arrays.quickSort(0, _numDocs, new IntComparator() {
+      @Override
+      public int compare(int i1, int i2) {
+        long offset1 = (long) sortedDocIds[i1] * NUM_DIMENSIONS * Integer.BYTES;
+        long offset2 = (long) sortedDocIds[i2] * NUM_DIMENSIONS * Integer.BYTES;
+        for (int i = 0; i < NUM_DIMENSIONS; i++) {
+          int dimension1 = _dataBuffer.getInt(offset1 + i * Integer.BYTES);
+          int dimension2 = _dataBuffer.getInt(offset2 + i * Integer.BYTES);
+          if (dimension1 != dimension2) {
+            return dimension1 - dimension2;
+          }
+        }
+        return 0;
+      }
+
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        throw new UnsupportedOperationException();
+      }
+    }, (i1, i2) -> {
+      int temp = sortedDocIds[i1];
+      sortedDocIds[i1] = sortedDocIds[i2];
+      sortedDocIds[i2] = temp;
+    });
+    return sortedDocIds[0];
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int radixSort() {
+    int[] sortedDocIds = getDocIds();
+    radixSort(sortedDocIds);
+    return sortedDocIds[0];
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int parallelRadixSort() throws Exception {
+    int[] sortedDocIds = getDocIds();
+    _forkJoinPool.submit(() -> radixSort(sortedDocIds)).get();
+    return sortedDocIds[0];
+  }
+
+  private int[] getDocIds() {
+    int[] docIds = new int[_numDocs];
+    for (int i = 0; i < _numDocs; i++) {
+      docIds[i] = i;
+    }
+    return docIds;
+  }
+
+  private void radixSort(int[] sortedDocIds) {
+    RadixSortUtils.sort(sortedDocIds, CARDINALITIES,
+        (docId, dimensionId) -> _dataBuffer.getInt(((long) docId * NUM_DIMENSIONS + dimensionId) * Integer.BYTES));
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options opt = new OptionsBuilder().include(BenchmarkStarTreeRecordSort.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10))
+        .warmupIterations(1)
+        .measurementTime(TimeValue.seconds(30))
+        .measurementIterations(3)
+        .forks(1)
+        .jvmArgs("-Xmx4G", "-XX:MaxDirectMemorySize=4G")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
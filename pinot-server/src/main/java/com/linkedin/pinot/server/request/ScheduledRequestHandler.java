@@ -22,13 +22,18 @@ import com.linkedin.pinot.common.metrics.ServerMeter;
 import com.linkedin.pinot.common.metrics.ServerMetrics;
 import com.linkedin.pinot.common.metrics.ServerQueryPhase;
 import com.linkedin.pinot.common.request.InstanceRequest;
+import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.query.request.ServerQueryRequest;
 import com.linkedin.pinot.core.query.scheduler.QueryScheduler;
 import com.linkedin.pinot.serde.SerDe;
 import com.linkedin.pinot.transport.netty.NettyServer;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.thrift.protocol.TCompactProtocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -71,6 +76,22 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
         .startNewPhaseTimer(ServerQueryPhase.REQUEST_DESERIALIZATION, queryArrivalTimeMs)
         .stopAndRecord();
 
+    // Intermediate chunks of chunked responses are written by the query threads. Wait for the write while the channel
+    // is not writable, so that a slow broker does not make the server buffer the whole response.
+    String requestId = Long.toString(instanceRequest.getRequestId());
+    AtomicInteger chunkId = new AtomicInteger();
+    queryRequest.setResponseChunkSender((dataTableChunk, timeoutMs) -> {
+      Map<String, String> metadata = dataTableChunk.getMetadata();
+      metadata.put(DataTable.REQUEST_ID_METADATA_KEY, requestId);
+      metadata.put(DataTable.RESPONSE_CHUNK_METADATA_KEY, Integer.toString(chunkId.getAndIncrement()));
+      ChannelFuture channelFuture =
+          channelHandlerContext.writeAndFlush(Unpooled.wrappedBuffer(dataTableChunk.toBytes()));
+      if (channelHandlerContext.channel().isWritable()) {
+        return true;
+      }
+      return channelFuture.awaitUninterruptibly(timeoutMs) && channelFuture.isSuccess();
+    });
+
     LOGGER.debug("Processing requestId:{},request={}", instanceRequest.getRequestId(), instanceRequest);
     return queryScheduler.submit(queryRequest);
   }
@@ -23,6 +23,7 @@ import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
 import com.linkedin.pinot.common.metrics.ServerMetrics;
 import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.common.utils.NamedThreadFactory;
 import com.linkedin.pinot.core.data.manager.InstanceDataManager;
 import com.linkedin.pinot.core.data.manager.SegmentDataManager;
 import com.linkedin.pinot.core.data.manager.TableDataManager;
@@ -38,6 +39,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -66,6 +69,8 @@ public class HelixInstanceDataManager implements InstanceDataManager {
   private String _instanceId;
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private ServerMetrics _serverMetrics;
+  // Null if the parallel segment download is not configured
+  private ExecutorService _segmentDownloadExecutor;
 
   @Override
   public synchronized void init(@Nonnull Configuration config, @Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore,
@@ -90,6 +95,13 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     // Initialize the table data manager provider
     TableDataManagerProvider.init(_instanceDataManagerConfig);
 
+    int maxParallelSegmentDownloads = _instanceDataManagerConfig.getMaxParallelSegmentDownloads();
+    if (maxParallelSegmentDownloads > 0) {
+      LOGGER.info("Downloading and loading segments with {} threads", maxParallelSegmentDownloads);
+      _segmentDownloadExecutor = Executors.newFixedThreadPool(maxParallelSegmentDownloads,
+          new NamedThreadFactory("SegmentDownloadExecutorService"));
+    }
+
     LOGGER.info("Initialized Helix instance data manager");
   }
 
@@ -100,6 +112,10 @@ public class HelixInstanceDataManager implements InstanceDataManager {
 
   @Override
   public synchronized void shutDown() {
+    if (_segmentDownloadExecutor != null) {
+      _segmentDownloadExecutor.shutdownNow();
+    }
+    TableDataManagerProvider.shutDown();
     LOGGER.info("Helix instance data manager shut down");
   }
 
@@ -274,6 +290,12 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     return _instanceDataManagerConfig.getMaxParallelRefreshThreads();
   }
 
+  @Nullable
+  @Override
+  public ExecutorService getSegmentDownloadExecutor() {
+    return _segmentDownloadExecutor;
+  }
+
   @Nullable
   @Override
   public SegmentMetadata getSegmentMetadata(@Nonnull String tableNameWithType, @Nonnull String segmentName) {
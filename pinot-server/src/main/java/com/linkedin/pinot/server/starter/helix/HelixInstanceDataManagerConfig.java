@@ -73,6 +73,12 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   // The metric ServerGauge.REALTIME_OFFHEAP_MEMORY_USED should indicate how much memory is needed.
   private static final String DIRECT_REALTIME_OFFHEAP_ALLOCATION = "realtime.alloc.offheap.direct";
 
+  // Number of threads used to decode the stream messages, shared by all the low-level consuming segments of the server.
+  // When set to a positive value, messages are decoded in parallel and the next message batch is prefetched while the
+  // current one is being indexed. A value of <= 0 indicates that messages are decoded and indexed serially on the
+  // consumer thread.
+  private static final String REALTIME_NUM_DECODER_THREADS = "realtime.num.decoder.threads";
+
   // Number of simultaneous segments that can be refreshed on one server.
   // Segment refresh works by loading the old as well as new versions of segments in memory, assigning
   // new incoming queries to use the new version. The old version is dropped when all the queries that
@@ -87,6 +93,13 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   //
   private static final String MAX_PARALLEL_REFRESH_THREADS = "max.parallel.refresh.threads";
 
+  // Number of threads shared by all OFFLINE tables to download and load segments on state transitions.
+  // When a server restarts or a rebalance happens, thousands of segments may need to be downloaded and loaded, and
+  // a bounded shared thread pool keeps the disk, network and memory usage under control while still processing
+  // multiple segments in parallel.
+  // A value of <= 0 indicates that the Helix default per-resource thread pool is used.
+  private static final String MAX_PARALLEL_SEGMENT_DOWNLOADS = "max.parallel.segment.downloads";
+
   private final static String[] REQUIRED_KEYS = { INSTANCE_ID, INSTANCE_DATA_DIR, READ_MODE };
   private Configuration _instanceDataManagerConfiguration = null;
 
@@ -169,6 +182,11 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getBoolean(DIRECT_REALTIME_OFFHEAP_ALLOCATION, false);
   }
 
+  @Override
+  public int getRealtimeNumDecoderThreads() {
+    return _instanceDataManagerConfiguration.getInt(REALTIME_NUM_DECODER_THREADS, 0);
+  }
+
   @Override
   public String getAvgMultiValueCount() {
     return _instanceDataManagerConfiguration.getString(AVERAGE_MV_COUNT, null);
@@ -178,6 +196,10 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_REFRESH_THREADS, 1);
   }
 
+  public int getMaxParallelSegmentDownloads() {
+    return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_SEGMENT_DOWNLOADS, 0);
+  }
+
   public int getMaxParallelSegmentBuilds() {
     return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_SEGMENT_BUILDS, 0);
   }
@@ -20,7 +20,11 @@ import com.linkedin.pinot.common.Utils;
 import com.linkedin.pinot.common.config.TableNameBuilder;
 import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
 import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.metrics.ServerTimer;
 import com.linkedin.pinot.common.segment.SegmentMetadata;
+import com.linkedin.pinot.common.segment.fetcher.SegmentFetcher;
 import com.linkedin.pinot.common.segment.fetcher.SegmentFetcherFactory;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
@@ -32,6 +36,7 @@ import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
 import com.linkedin.pinot.core.segment.index.loader.V3RemoveIndexException;
 import com.linkedin.pinot.filesystem.PinotFSFactory;
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -51,12 +56,14 @@ public class SegmentFetcherAndLoader {
 
   private final InstanceDataManager _instanceDataManager;
   private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
+  private final ServerMetrics _serverMetrics;
   private final Configuration _crypterConfig;
 
   public SegmentFetcherAndLoader(@Nonnull Configuration config, @Nonnull InstanceDataManager instanceDataManager,
-      @Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore) throws Exception {
+      @Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore, @Nonnull ServerMetrics serverMetrics) throws Exception {
     _instanceDataManager = instanceDataManager;
     _propertyStore = propertyStore;
+    _serverMetrics = serverMetrics;
 
     Configuration pinotFSConfig = config.subset(CommonConstants.Server.PREFIX_OF_CONFIG_OF_PINOT_FS_FACTORY);
     Configuration segmentFetcherFactoryConfig =
@@ -151,7 +158,10 @@ public class SegmentFetcherAndLoader {
         // Retry will be done here.
         String localSegmentDir = downloadSegmentToLocal(uri, crypter, tableNameWithType, segmentName);
         SegmentMetadata segmentMetadata = new SegmentMetadataImpl(new File(localSegmentDir));
+        long loadStartTime = System.currentTimeMillis();
         _instanceDataManager.addOfflineSegment(tableNameWithType, segmentName, new File(localSegmentDir));
+        _serverMetrics.addTimedTableValue(tableNameWithType, ServerTimer.SEGMENT_LOAD_TIME_MS,
+            System.currentTimeMillis() - loadStartTime, TimeUnit.MILLISECONDS);
         LOGGER.info("Downloaded segment {} of table {} crc {} from controller", segmentName, tableNameWithType,
             segmentMetadata.getCrc());
       } else {
@@ -190,25 +200,38 @@ public class SegmentFetcherAndLoader {
     File tempDir = new File(new File(_instanceDataManager.getSegmentFileDirectory(), tableName),
         "tmp_" + segmentName + "_" + System.nanoTime());
     FileUtils.forceMkdir(tempDir);
-    File tempDownloadFile = new File(tempDir, segmentName + ENCODED_SUFFIX);
-    File tempTarFile = new File(tempDir, segmentName + TAR_GZ_SUFFIX);
     File tempSegmentDir = new File(tempDir, segmentName);
     try {
-      SegmentFetcherFactory.getInstance().getSegmentFetcherBasedOnURI(uri).fetchSegmentToLocal(uri, tempDownloadFile);
+      long downloadStartTime = System.currentTimeMillis();
+      SegmentFetcher segmentFetcher = SegmentFetcherFactory.getInstance().getSegmentFetcherBasedOnURI(uri);
+      long downloadedSizeInBytes;
       if (crypter != null) {
+        // Encrypted segment has to be fully downloaded and decrypted before untarring
+        File tempDownloadFile = new File(tempDir, segmentName + ENCODED_SUFFIX);
+        File tempTarFile = new File(tempDir, segmentName + TAR_GZ_SUFFIX);
+        segmentFetcher.fetchSegmentToLocal(uri, tempDownloadFile);
+        downloadedSizeInBytes = tempDownloadFile.length();
         // TODO: We should not need to initialize crypter each time, instead Factory should have an initialized version ready.
         crypter.init(_crypterConfig);
         crypter.decrypt(tempDownloadFile, tempTarFile);
-      } else {
-        tempTarFile = tempDownloadFile;
-      }
 
-      LOGGER.info("Downloaded tarred segment: {} for table: {} from: {} to: {}, file length: {}", segmentName,
-          tableName, uri, tempTarFile, tempTarFile.length());
+        LOGGER.info("Downloaded tarred segment: {} for table: {} from: {} to: {}, file length: {}", segmentName,
+            tableName, uri, tempTarFile, tempTarFile.length());
 
-      // If an exception is thrown when untarring, it means the tar file is broken OR not found after the retry.
-      // Thus, there's no need to retry again.
-      TarGzCompressionUtils.unTar(tempTarFile, tempSegmentDir);
+        // The download is already retried, if an exception is thrown when untarring, it means the tar file is broken
+        // (same as a corrupt tar file being detected while streaming below). Thus, there's no need to retry again.
+        TarGzCompressionUtils.unTar(tempTarFile, tempSegmentDir);
+      } else {
+        // Untar the segment while fetching it if the fetcher supports streaming, the fetch is retried on transient
+        // errors but not on corrupt tar files
+        downloadedSizeInBytes = segmentFetcher.fetchAndUntarSegmentToLocal(uri, tempSegmentDir);
+      }
+      long downloadTimeMs = System.currentTimeMillis() - downloadStartTime;
+      _serverMetrics.addTimedTableValue(tableName, ServerTimer.SEGMENT_DOWNLOAD_TIME_MS, downloadTimeMs,
+          TimeUnit.MILLISECONDS);
+      _serverMetrics.addMeteredTableValue(tableName, ServerMeter.SEGMENT_DOWNLOADED_BYTES, downloadedSizeInBytes);
+      LOGGER.info("Downloaded and untarred segment: {} for table: {} from: {}, downloaded size: {} bytes, took {}ms",
+          segmentName, tableName, uri, downloadedSizeInBytes, downloadTimeMs);
 
       File[] files = tempSegmentDir.listFiles();
       Preconditions.checkState(files != null && files.length == 1);
@@ -222,6 +245,9 @@ public class SegmentFetcherAndLoader {
       FileUtils.moveDirectory(tempIndexDir, indexDir);
       LOGGER.info("Successfully downloaded segment: {} for table: {} to: {}", segmentName, tableName, indexDir);
       return indexDir.getAbsolutePath();
+    } catch (Exception e) {
+      _serverMetrics.addMeteredTableValue(tableName, ServerMeter.SEGMENT_DOWNLOAD_FAILURES, 1L);
+      throw e;
     } finally {
       FileUtils.deleteQuietly(tempDir);
     }
@@ -28,6 +28,7 @@ import com.linkedin.pinot.core.data.manager.SegmentDataManager;
 import com.linkedin.pinot.core.data.manager.TableDataManager;
 import com.linkedin.pinot.core.data.manager.realtime.LLRealtimeSegmentDataManager;
 import java.io.File;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.Lock;
 import org.apache.commons.io.FileUtils;
 import org.apache.helix.NotificationContext;
@@ -71,6 +72,19 @@ public class SegmentOnlineOfflineStateModelFactory extends StateModelFactory<Sta
     return new SegmentOnlineOfflineStateModel();
   }
 
+  /**
+   * Processes the state transitions of all OFFLINE tables with the shared segment download executor (if configured) so
+   * that the number of segments downloaded and loaded in parallel is bounded across tables. REALTIME tables keep using
+   * the Helix default thread pool so that their transitions are not blocked behind OFFLINE segment downloads.
+   */
+  @Override
+  public ExecutorService getExecutorService(String resourceName) {
+    if (TableNameBuilder.OFFLINE.tableHasTypeSuffix(resourceName)) {
+      return _instanceDataManager.getSegmentDownloadExecutor();
+    }
+    return null;
+  }
+
   // Helix seems to need StateModelInfo annotation for 'initialState'. It does not use the 'states' field.
   // The transitions in the helix messages indicate the from/to states, and helix uses the
   // Transition annotations (but only if StateModelInfo is defined).
@@ -16,6 +16,7 @@
 package com.linkedin.pinot.transport.conf;
 
 import com.linkedin.pinot.transport.config.ConnectionPoolConfig;
+import com.linkedin.pinot.transport.config.HedgingConfig;
 import com.linkedin.pinot.transport.config.RoutingTableConfig;
 import org.apache.commons.configuration.Configuration;
 
@@ -31,6 +32,7 @@ public class TransportClientConf {
   public static final String CFG_BASED_ROUTING = "routing";
   public static final String HELIX_CONFIG = "helix";
   public static final String CONNECTION_POOL_CONFIG = "connPool";
+  public static final String HEDGING_CONFIG = "hedging";
 
   // TODO: Revisit defaults
   private static final String DEFAULT_ROUTING_MODE = "CONFIG";
@@ -38,11 +40,13 @@ public class TransportClientConf {
   private RoutingMode _routingMode;
   private RoutingTableConfig _cfgBasedRouting;
   private ConnectionPoolConfig _connPool;
+  private HedgingConfig _hedging;
 
   public TransportClientConf() {
     _routingMode = RoutingMode.valueOf(DEFAULT_ROUTING_MODE);
     _cfgBasedRouting = new RoutingTableConfig();
     _connPool = new ConnectionPoolConfig();
+    _hedging = new HedgingConfig();
   }
 
   public void init(Configuration cfg) {
@@ -57,6 +61,11 @@ public class TransportClientConf {
     if (connPoolCfg != null) {
       _connPool.init(connPoolCfg);
     }
+
+    Configuration hedgingCfg = cfg.subset(HEDGING_CONFIG);
+    if (hedgingCfg != null) {
+      _hedging.init(hedgingCfg);
+    }
   }
 
   public RoutingMode getRoutingMode() {
@@ -70,4 +79,8 @@ public class TransportClientConf {
   public ConnectionPoolConfig getConnPool() {
     return _connPool;
   }
+
+  public HedgingConfig getHedging() {
+    return _hedging;
+  }
 }
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.config;
+
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Config for hedged requests: when a server has not responded after the configured percentile of its recent latency,
+ * the same request is sent to another server hosting the same segments, and the first response is taken.
+ */
+public class HedgingConfig {
+  private static final Logger LOGGER = LoggerFactory.getLogger(HedgingConfig.class);
+
+  // Whether to send hedged requests
+  public static final String ENABLED_KEY = "enabled";
+
+  // Percentile of the recent latency of the server after which the hedged request is sent
+  public static final String LATENCY_PERCENTILE_KEY = "latencyPercentile";
+
+  // Minimum delay (ms) before sending the hedged request
+  public static final String MIN_DELAY_MS_KEY = "minDelayMs";
+
+  // Max number of hedged requests as a percentage of the requests sent
+  public static final String BUDGET_PERCENT_KEY = "budgetPercent";
+
+  private static final boolean DEFAULT_ENABLED = false;
+  private static final double DEFAULT_LATENCY_PERCENTILE = 95;
+  private static final long DEFAULT_MIN_DELAY_MS = 10L;
+  private static final double DEFAULT_BUDGET_PERCENT = 5;
+
+  private boolean _enabled = DEFAULT_ENABLED;
+  private double _latencyPercentile = DEFAULT_LATENCY_PERCENTILE;
+  private long _minDelayMs = DEFAULT_MIN_DELAY_MS;
+  private double _budgetPercent = DEFAULT_BUDGET_PERCENT;
+
+  public void init(Configuration cfg) {
+    _enabled = cfg.getBoolean(ENABLED_KEY, DEFAULT_ENABLED);
+    _latencyPercentile = cfg.getDouble(LATENCY_PERCENTILE_KEY, DEFAULT_LATENCY_PERCENTILE);
+    _minDelayMs = cfg.getLong(MIN_DELAY_MS_KEY, DEFAULT_MIN_DELAY_MS);
+    _budgetPercent = cfg.getDouble(BUDGET_PERCENT_KEY, DEFAULT_BUDGET_PERCENT);
+
+    if (_latencyPercentile <= 0 || _latencyPercentile > 100) {
+      LOGGER.warn("Invalid value for " + LATENCY_PERCENTILE_KEY + "({}). Resetting to default.", _latencyPercentile);
+      _latencyPercentile = DEFAULT_LATENCY_PERCENTILE;
+    }
+    if (_minDelayMs < 0) {
+      LOGGER.warn("Invalid value for " + MIN_DELAY_MS_KEY + "({}). Resetting to default.", _minDelayMs);
+      _minDelayMs = DEFAULT_MIN_DELAY_MS;
+    }
+    if (_budgetPercent < 0 || _budgetPercent > 100) {
+      LOGGER.warn("Invalid value for " + BUDGET_PERCENT_KEY + "({}). Resetting to default.", _budgetPercent);
+      _budgetPercent = DEFAULT_BUDGET_PERCENT;
+    }
+
+    LOGGER.info(toString());
+  }
+
+  public String toString() {
+    return "enabled = " + _enabled + ", latencyPercentile = " + _latencyPercentile + ", minDelayMs = " + _minDelayMs
+        + ", budgetPercent = " + _budgetPercent;
+  }
+
+  public boolean isEnabled() {
+    return _enabled;
+  }
+
+  public double getLatencyPercentile() {
+    return _latencyPercentile;
+  }
+
+  public long getMinDelayMs() {
+    return _minDelayMs;
+  }
+
+  public double getBudgetPercent() {
+    return _budgetPercent;
+  }
+}
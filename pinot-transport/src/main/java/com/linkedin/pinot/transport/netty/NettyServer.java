@@ -73,6 +73,9 @@ public abstract class NettyServer implements Runnable {
      * will be terminated.
      *
      *
+     * The handler might write intermediate response chunks into the channel before the returned future is done, the
+     * serialized response is always written after them.
+     *
      * @param channelHandlerContext
      * @param request Serialized request
      * @return Serialized response
@@ -296,7 +299,9 @@ public abstract class NettyServer implements Runnable {
           LOGGER.error("Request processing returned unhandled exception, error: ", t);
           sendResponse(new byte[0]);
         }
-      });
+        // Send the response from the channel event loop, so that it is queued after the response chunks written by the
+        // request handler even if the future is already done
+      }, ctx.executor());
 
     }
 
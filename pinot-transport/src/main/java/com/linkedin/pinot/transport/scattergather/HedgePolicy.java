@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.config.HedgingConfig;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>HedgePolicy</code> class decides when to send a hedged request for a server, based on a window of its
+ * recent response latencies, and caps the hedged requests with a budget.
+ * <p>The budget is a token bucket where each request sent adds <code>budgetPercent</code> tokens and each hedged
+ * request takes 100 tokens (all scaled by 100 to support fractional percentages), so that the hedged requests are
+ * bounded by <code>budgetPercent</code>% of the requests.
+ */
+@ThreadSafe
+public class HedgePolicy {
+  // Number of recent latencies tracked for each server
+  private static final int LATENCY_WINDOW_SIZE = 100;
+  // Minimum number of latencies tracked before hedging the requests to a server
+  private static final int MIN_NUM_LATENCIES = 20;
+  private static final long TOKENS_PER_HEDGED_REQUEST = 100 * 100;
+  // Max number of hedged requests that can be sent in a burst
+  private static final long MAX_BURST_HEDGED_REQUESTS = 10;
+
+  private final double _latencyPercentile;
+  private final long _minDelayMs;
+  private final long _tokensPerRequest;
+  private final ConcurrentHashMap<ServerInstance, LatencyWindow> _latencyWindowMap = new ConcurrentHashMap<>();
+  private final AtomicLong _budgetTokens = new AtomicLong();
+
+  public HedgePolicy(HedgingConfig hedgingConfig) {
+    _latencyPercentile = hedgingConfig.getLatencyPercentile();
+    _minDelayMs = hedgingConfig.getMinDelayMs();
+    _tokensPerRequest = Math.round(hedgingConfig.getBudgetPercent() * 100);
+  }
+
+  /**
+   * Records the latency of a successful response from the given server.
+   */
+  public void recordLatency(ServerInstance server, long latencyMs) {
+    _latencyWindowMap.computeIfAbsent(server, k -> new LatencyWindow()).add(latencyMs);
+  }
+
+  /**
+   * Returns the delay after which the request to the given server should be hedged, or -1 if there are not enough
+   * latencies tracked for the server.
+   */
+  public long getHedgeDelayMs(ServerInstance server) {
+    LatencyWindow latencyWindow = _latencyWindowMap.get(server);
+    if (latencyWindow == null) {
+      return -1L;
+    }
+    long percentileLatencyMs = latencyWindow.getPercentile(_latencyPercentile);
+    if (percentileLatencyMs < 0) {
+      return -1L;
+    }
+    return Math.max(percentileLatencyMs, _minDelayMs);
+  }
+
+  /**
+   * Adds budget for a request sent.
+   */
+  public void recordRequest() {
+    long maxTokens = MAX_BURST_HEDGED_REQUESTS * TOKENS_PER_HEDGED_REQUEST;
+    long tokens;
+    do {
+      tokens = _budgetTokens.get();
+      if (tokens >= maxTokens) {
+        return;
+      }
+    } while (!_budgetTokens.compareAndSet(tokens, Math.min(tokens + _tokensPerRequest, maxTokens)));
+  }
+
+  /**
+   * Takes budget for a hedged request, returns <code>false</code> if the budget is exhausted.
+   */
+  public boolean tryAcquireHedge() {
+    long tokens;
+    do {
+      tokens = _budgetTokens.get();
+      if (tokens < TOKENS_PER_HEDGED_REQUEST) {
+        return false;
+      }
+    } while (!_budgetTokens.compareAndSet(tokens, tokens - TOKENS_PER_HEDGED_REQUEST));
+    return true;
+  }
+
+  /**
+   * Ring buffer of the recent latencies.
+   */
+  private static class LatencyWindow {
+    private final long[] _latencies = new long[LATENCY_WINDOW_SIZE];
+    private int _numLatencies;
+    private int _nextIndex;
+
+    synchronized void add(long latencyMs) {
+      _latencies[_nextIndex] = latencyMs;
+      _nextIndex = (_nextIndex + 1) % LATENCY_WINDOW_SIZE;
+      if (_numLatencies < LATENCY_WINDOW_SIZE) {
+        _numLatencies++;
+      }
+    }
+
+    long getPercentile(double percentile) {
+      long[] latencies;
+      synchronized (this) {
+        if (_numLatencies < MIN_NUM_LATENCIES) {
+          return -1L;
+        }
+        latencies = Arrays.copyOf(_latencies, _numLatencies);
+      }
+      Arrays.sort(latencies);
+      int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+      return latencies[Math.max(Math.min(index, latencies.length - 1), 0)];
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import com.linkedin.pinot.common.metrics.BrokerMeter;
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.common.AsyncResponseFuture;
+import com.linkedin.pinot.transport.common.ServerResponseFuture;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Response future for a request that might be hedged: completes with the first successful response from either the
+ * original request or the hedged request, and cancels the other one.
+ * <p>The response is keyed by the original server so that it does not collide with the responses from the server of
+ * the hedged request, which might also be queried for other segments.
+ * <p>Cancelling the loser only discards its response, the connection is returned to the pool when the response
+ * arrives.
+ * <p>When the hedged request wins, the time the original request has been pending is recorded into the
+ * {@link HedgePolicy} as a lower bound of its latency, so that slow servers keep being hedged.
+ */
+class HedgedResponseFuture extends AsyncResponseFuture<byte[]> {
+  private final ServerResponseFuture<byte[]> _originalFuture;
+  private final Executor _executor;
+  private final HedgePolicy _hedgePolicy;
+  private final BrokerMetrics _brokerMetrics;
+  private final BrokerRequest _brokerRequest;
+
+  // Number of underlying futures not finished yet, the future fails when all underlying futures fail
+  private final AtomicInteger _numPendingFutures = new AtomicInteger(1);
+  private volatile ServerResponseFuture<byte[]> _hedgedFuture;
+
+  HedgedResponseFuture(ServerResponseFuture<byte[]> originalFuture, Executor executor, HedgePolicy hedgePolicy,
+      BrokerMetrics brokerMetrics, BrokerRequest brokerRequest) {
+    super(originalFuture.getServerInstance(), "Hedged response future for " + originalFuture.getName());
+    _originalFuture = originalFuture;
+    _executor = executor;
+    _hedgePolicy = hedgePolicy;
+    _brokerMetrics = brokerMetrics;
+    _brokerRequest = brokerRequest;
+    setCancellable(() -> {
+      cancelUnderlyingFuture(_originalFuture);
+      cancelUnderlyingFuture(_hedgedFuture);
+      return true;
+    });
+    // NOTE: the listeners are run through the executor to avoid holding the locks of both underlying futures
+    _originalFuture.addListener(() -> onUnderlyingFutureDone(_originalFuture, false), _executor);
+  }
+
+  /**
+   * Marks the hedged request about to be sent, returns <code>false</code> if the future is already done.
+   */
+  boolean startHedging() {
+    if (isDone()) {
+      return false;
+    }
+    _numPendingFutures.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Sets the future for the hedged request, which must be called after {@link #startHedging()} returns
+   * <code>true</code>.
+   */
+  void setHedgedFuture(ServerResponseFuture<byte[]> hedgedFuture) {
+    _hedgedFuture = hedgedFuture;
+    hedgedFuture.addListener(() -> onUnderlyingFutureDone(hedgedFuture, true), _executor);
+    if (isDone()) {
+      cancelUnderlyingFuture(hedgedFuture);
+    }
+  }
+
+  private void onUnderlyingFutureDone(ServerResponseFuture<byte[]> future, boolean isHedged) {
+    if (!future.isCancelled()) {
+      byte[] response = null;
+      try {
+        response = future.getOne();
+      } catch (Exception e) {
+        // Handled as error below
+      }
+      if (response != null) {
+        if (!isDone()) {
+          if (isHedged) {
+            _brokerMetrics.addMeteredQueryValue(_brokerRequest, BrokerMeter.HEDGED_REQUEST_WINS, 1);
+          }
+          onSuccess(response);
+        }
+        if (isHedged) {
+          // The cancelled original request would have taken at least as long as it has been pending
+          if (cancelUnderlyingFuture(_originalFuture)) {
+            _hedgePolicy.recordLatency(_originalFuture.getServerInstance(), _originalFuture.getDurationMillis());
+          }
+        } else {
+          cancelUnderlyingFuture(_hedgedFuture);
+        }
+        return;
+      }
+    }
+    if (_numPendingFutures.decrementAndGet() == 0) {
+      Map<ServerInstance, Throwable> errorMap = future.getError();
+      Throwable error = (errorMap != null && !errorMap.isEmpty()) ? errorMap.values().iterator().next()
+          : new RuntimeException("No response from server: " + future.getServerInstance());
+      onError(error);
+    }
+  }
+
+  /**
+   * Cancels the underlying future if it is not done yet, returns <code>true</code> if it is cancelled by this call.
+   */
+  private static boolean cancelUnderlyingFuture(ServerResponseFuture<byte[]> future) {
+    return future != null && !future.isDone() && future.cancel(true);
+  }
+}
@@ -32,8 +32,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -53,11 +55,35 @@ public class ScatterGatherImpl implements ScatterGather {
 
   private final KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> _connPool;
   private final ExecutorService _executorService;
+  private final HedgePolicy _hedgePolicy;
+  private final ScheduledExecutorService _hedgeScheduler;
+  private final Random _random = new Random();
 
   public ScatterGatherImpl(@Nonnull KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
       @Nonnull ExecutorService executorService) {
+    this(connPool, executorService, null, null);
+  }
+
+  /**
+   * Constructor with hedged requests enabled when both the hedge policy and the scheduler are provided.
+   *
+   * @param connPool connection pool.
+   * @param executorService executor service to check-out connections and send requests.
+   * @param hedgePolicy policy to decide when to send hedged requests.
+   * @param hedgeScheduler scheduler to trigger hedged requests.
+   */
+  public ScatterGatherImpl(@Nonnull KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
+      @Nonnull ExecutorService executorService, @Nullable HedgePolicy hedgePolicy,
+      @Nullable ScheduledExecutorService hedgeScheduler) {
     _connPool = connPool;
     _executorService = executorService;
+    if (hedgePolicy != null && hedgeScheduler != null) {
+      _hedgePolicy = hedgePolicy;
+      _hedgeScheduler = hedgeScheduler;
+    } else {
+      _hedgePolicy = null;
+      _hedgeScheduler = null;
+    }
   }
 
   @Nonnull
@@ -97,6 +123,7 @@ public class ScatterGatherImpl implements ScatterGather {
 
     // async checkout of connections and then dispatch of request
     List<SingleRequestHandler> handlers = new ArrayList<>(routingTable.size());
+    List<String> instanceNames = new ArrayList<>(routingTable.size());
 
     for (Entry<String, List<String>> entry : routingTable.entrySet()) {
       ServerInstance serverInstance = ServerInstance.forInstanceName(entry.getKey());
@@ -115,6 +142,7 @@ public class ScatterGatherImpl implements ScatterGather {
       // Submit to thread-pool for checking-out and sending request
       _executorService.submit(handler);
       handlers.add(handler);
+      instanceNames.add(entry.getKey());
     }
 
     // Create the composite future for returning
@@ -127,8 +155,15 @@ public class ScatterGatherImpl implements ScatterGather {
 
     if (sentSuccessfully) {
       List<ServerResponseFuture<byte[]>> responseFutures = new ArrayList<>();
-      for (SingleRequestHandler h : handlers) {
-        responseFutures.add(h.getResponseFuture());
+      int numHandlers = handlers.size();
+      for (int i = 0; i < numHandlers; i++) {
+        SingleRequestHandler h = handlers.get(i);
+        if (_hedgePolicy != null) {
+          responseFutures.add(
+              getHedgedResponseFuture(scatterGatherRequestContext, instanceNames.get(i), h, brokerMetrics));
+        } else {
+          responseFutures.add(h.getResponseFuture());
+        }
         String shortServerName = h.getServer().getShortHostName();
         if (isOfflineTable != null) {
           if (isOfflineTable) {
@@ -160,6 +195,69 @@ public class ScatterGatherImpl implements ScatterGather {
     return response;
   }
 
+  /**
+   * Helper method to track the latency of the request sent by the given handler, and schedule a hedged request to
+   * another server hosting the same segments if the server does not respond within the hedge delay.
+   *
+   * @param scatterGatherRequestContext Scatter-Gather Request context.
+   * @param instanceName instance name of the server in the routing table.
+   * @param handler handler that sent the request.
+   * @param brokerMetrics broker metrics to track execution statistics.
+   * @return the response future for the request.
+   */
+  private ServerResponseFuture<byte[]> getHedgedResponseFuture(ScatterGatherRequestContext scatterGatherRequestContext,
+      String instanceName, SingleRequestHandler handler, BrokerMetrics brokerMetrics) {
+    ServerInstance server = handler.getServer();
+    ResponseFuture responseFuture = handler.getResponseFuture();
+    _hedgePolicy.recordRequest();
+    responseFuture.addListener(() -> {
+      if (!responseFuture.isCancelled() && responseFuture.getError() == null) {
+        _hedgePolicy.recordLatency(server, responseFuture.getDurationMillis());
+      }
+    }, null);
+
+    long hedgeDelayMs = _hedgePolicy.getHedgeDelayMs(server);
+    if (hedgeDelayMs < 0 || hedgeDelayMs >= scatterGatherRequestContext.getRemainingTimeMs()
+        || responseFuture.isDone()) {
+      return responseFuture;
+    }
+
+    ScatterGatherRequest request = scatterGatherRequestContext._request;
+    BrokerRequest brokerRequest = request.getBrokerRequest();
+    HedgedResponseFuture hedgedResponseFuture =
+        new HedgedResponseFuture(responseFuture, _executorService, _hedgePolicy, brokerMetrics, brokerRequest);
+    _hedgeScheduler.schedule(() -> {
+      if (hedgedResponseFuture.isDone()) {
+        return;
+      }
+      List<String> segments = handler.getSegments();
+      List<String> hedgeServers = request.getHedgeServers(instanceName, segments);
+      if (hedgeServers.isEmpty()) {
+        return;
+      }
+      if (!_hedgePolicy.tryAcquireHedge()) {
+        brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.HEDGED_REQUESTS_OVER_BUDGET, 1);
+        return;
+      }
+      if (!hedgedResponseFuture.startHedging()) {
+        return;
+      }
+      ServerInstance hedgeServer =
+          ServerInstance.forInstanceName(hedgeServers.get(_random.nextInt(hedgeServers.size())));
+      LOGGER.debug("Sending hedged request {} to server {} for server {}", request.getRequestId(), hedgeServer,
+          server);
+      brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.HEDGED_REQUESTS, 1);
+      SingleRequestHandler hedgeHandler =
+          new SingleRequestHandler(_connPool, hedgeServer, request, segments,
+              scatterGatherRequestContext.getRemainingTimeMs(), new CountDownLatch(1), brokerMetrics);
+      _executorService.submit(() -> {
+        hedgeHandler.run();
+        hedgedResponseFuture.setHedgedFuture(hedgeHandler.getResponseFuture());
+      });
+    }, hedgeDelayMs, TimeUnit.MILLISECONDS);
+    return hedgedResponseFuture;
+  }
+
   private static class ScatterGatherRequestContext {
     private final ScatterGatherRequest _request;
     private final long _startTimeMs;
@@ -372,6 +470,10 @@ public class ScatterGatherImpl implements ScatterGather {
       return _server;
     }
 
+    public List<String> getSegments() {
+      return _segments;
+    }
+
     public ResponseFuture getResponseFuture() {
       return _responseFuture;
     }
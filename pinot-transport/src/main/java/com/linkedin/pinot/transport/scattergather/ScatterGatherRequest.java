@@ -16,6 +16,7 @@
 package com.linkedin.pinot.transport.scattergather;
 
 import com.linkedin.pinot.common.request.BrokerRequest;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -59,4 +60,16 @@ public interface ScatterGatherRequest {
    * @return the BrokerRequest object used for this scatterGather
    */
   BrokerRequest getBrokerRequest();
+
+  /**
+   * Get the servers other than the given server that host all the given segments, which can be used to send the
+   * hedged request when the given server is slow to respond.
+   *
+   * @param server Server in the routing table
+   * @param segments List of segments routed to the server
+   * @return List of servers to send the hedged request
+   */
+  default List<String> getHedgeServers(String server, List<String> segments) {
+    return Collections.emptyList();
+  }
 }
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2014-2018 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.config.HedgingConfig;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class HedgePolicyTest {
+
+  private static HedgePolicy getHedgePolicy(double latencyPercentile, long minDelayMs, double budgetPercent) {
+    BaseConfiguration config = new BaseConfiguration();
+    config.addProperty(HedgingConfig.ENABLED_KEY, true);
+    config.addProperty(HedgingConfig.LATENCY_PERCENTILE_KEY, latencyPercentile);
+    config.addProperty(HedgingConfig.MIN_DELAY_MS_KEY, minDelayMs);
+    config.addProperty(HedgingConfig.BUDGET_PERCENT_KEY, budgetPercent);
+    HedgingConfig hedgingConfig = new HedgingConfig();
+    hedgingConfig.init(config);
+    return new HedgePolicy(hedgingConfig);
+  }
+
+  @Test
+  public void testHedgeDelay() {
+    HedgePolicy hedgePolicy = getHedgePolicy(90, 5, 10);
+    ServerInstance server = new ServerInstance("localhost", 8000);
+
+    // Not enough latencies tracked
+    Assert.assertEquals(hedgePolicy.getHedgeDelayMs(server), -1L);
+    for (int i = 1; i <= 10; i++) {
+      hedgePolicy.recordLatency(server, i);
+    }
+    Assert.assertEquals(hedgePolicy.getHedgeDelayMs(server), -1L);
+
+    // Latencies 1 to 100
+    for (int i = 11; i <= 100; i++) {
+      hedgePolicy.recordLatency(server, i);
+    }
+    Assert.assertEquals(hedgePolicy.getHedgeDelayMs(server), 90L);
+
+    // Old latencies should be dropped from the window, latencies 1 to 100 replaced with 1
+    for (int i = 0; i < 100; i++) {
+      hedgePolicy.recordLatency(server, 1);
+    }
+    // Min delay
+    Assert.assertEquals(hedgePolicy.getHedgeDelayMs(server), 5L);
+  }
+
+  @Test
+  public void testBudget() {
+    HedgePolicy hedgePolicy = getHedgePolicy(95, 10, 10);
+
+    // No budget before any request
+    Assert.assertFalse(hedgePolicy.tryAcquireHedge());
+
+    // 10% budget: 1 hedged request per 10 requests
+    for (int i = 0; i < 10; i++) {
+      hedgePolicy.recordRequest();
+    }
+    Assert.assertTrue(hedgePolicy.tryAcquireHedge());
+    Assert.assertFalse(hedgePolicy.tryAcquireHedge());
+
+    // Budget is capped for bursts
+    for (int i = 0; i < 10000; i++) {
+      hedgePolicy.recordRequest();
+    }
+    int numHedgedRequests = 0;
+    while (hedgePolicy.tryAcquireHedge()) {
+      numHedgedRequests++;
+    }
+    Assert.assertEquals(numHedgedRequests, 10);
+  }
+}